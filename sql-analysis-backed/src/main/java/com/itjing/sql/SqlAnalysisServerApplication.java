@@ -3,7 +3,9 @@ package com.itjing.sql;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+@EnableScheduling
 @SpringBootApplication(exclude = DataSourceAutoConfiguration.class)
 public class SqlAnalysisServerApplication {
 
@@ -0,0 +1,476 @@
+package com.itjing.sql.advisor;
+
+import cn.hutool.core.util.StrUtil;
+import com.itjing.sql.catalog.ColumnMeta;
+import com.itjing.sql.catalog.TableMeta;
+import com.itjing.sql.catalog.TableName;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.Parenthesis;
+import net.sf.jsqlparser.expression.StringValue;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.expression.operators.relational.Between;
+import net.sf.jsqlparser.expression.operators.relational.ComparisonOperator;
+import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
+import net.sf.jsqlparser.expression.operators.relational.ExistsExpression;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThan;
+import net.sf.jsqlparser.expression.operators.relational.GreaterThanEquals;
+import net.sf.jsqlparser.expression.operators.relational.InExpression;
+import net.sf.jsqlparser.expression.operators.relational.IsNullExpression;
+import net.sf.jsqlparser.expression.operators.relational.LikeExpression;
+import net.sf.jsqlparser.expression.operators.relational.MinorThan;
+import net.sf.jsqlparser.expression.operators.relational.MinorThanEquals;
+import net.sf.jsqlparser.schema.Column;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.delete.Delete;
+import net.sf.jsqlparser.statement.select.FromItem;
+import net.sf.jsqlparser.statement.select.GroupByElement;
+import net.sf.jsqlparser.statement.select.Join;
+import net.sf.jsqlparser.statement.select.OrderByElement;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.select.SelectBody;
+import net.sf.jsqlparser.statement.select.SetOperationList;
+import net.sf.jsqlparser.statement.select.SubJoin;
+import net.sf.jsqlparser.statement.select.SubSelect;
+import net.sf.jsqlparser.statement.select.WithItem;
+import net.sf.jsqlparser.statement.update.Update;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 收集 SQL 中每个表用到的列
+ * <p>
+ * 只收集能走索引的写法：AND 连接的 =、IN、IS NULL 记为等值列，两个表的列相等、IN 子查询记为关联列，<、>、BETWEEN、
+ * LIKE 'abc%' 记为范围列；OR 分支、NOT 条件、被函数包裹的列不收集。ORDER BY、GROUP BY 只有全部是同一个表的列时才收集。
+ * 子查询、派生表、UNION 的每个查询块单独收集，相关子查询中引用外层的列当作常量；没有表前缀的列按表结构确定所属的表，
+ * 无法确定时忽略。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+final class ColumnUsageCollector {
+
+	private final String defaultSchema;
+
+	private final Map<String, TableMeta> tables;
+
+	private final List<TableUsage> usages = new ArrayList<>();
+
+	private final Set<String> withNames = new HashSet<>();
+
+	/**
+	 * @param defaultSchema 默认库，可以为 null
+	 * @param tables 表结构，键为 {@link TableName#getKey()}
+	 */
+	ColumnUsageCollector(String defaultSchema, Map<String, TableMeta> tables) {
+		this.defaultSchema = defaultSchema;
+		this.tables = tables;
+	}
+
+	/**
+	 * 收集 SELECT、UPDATE、DELETE，其他语句返回空列表
+	 * @param statement 语句
+	 * @return {@link List }<{@link TableUsage }>
+	 */
+	List<TableUsage> collect(Statement statement) {
+		if (statement instanceof Select select) {
+			withItems(select.getWithItemsList());
+			select(null, select.getSelectBody());
+		}
+		else if (statement instanceof Update update) {
+			withItems(update.getWithItemsList());
+			Scope scope = new Scope(null);
+			fromItem(scope, update.getTable());
+			joins(scope, update.getStartJoins());
+			fromItem(scope, update.getFromItem());
+			joins(scope, update.getJoins());
+			joinConditions(scope, update.getStartJoins());
+			joinConditions(scope, update.getJoins());
+			conditions(scope, update.getWhere());
+			orderBy(scope, update.getOrderByElements());
+		}
+		else if (statement instanceof Delete delete) {
+			withItems(delete.getWithItemsList());
+			Scope scope = new Scope(null);
+			fromItem(scope, delete.getTable());
+			if (delete.getUsingList() != null) {
+				delete.getUsingList().forEach(table -> fromItem(scope, table));
+			}
+			joins(scope, delete.getJoins());
+			joinConditions(scope, delete.getJoins());
+			conditions(scope, delete.getWhere());
+			orderBy(scope, delete.getOrderByElements());
+		}
+		return usages;
+	}
+
+	private void withItems(List<WithItem> withItems) {
+		if (withItems == null) {
+			return;
+		}
+		for (WithItem withItem : withItems) {
+			withNames.add(unquote(withItem.getName()).toLowerCase(Locale.ROOT));
+			if (withItem.getSubSelect() != null) {
+				select(null, withItem.getSubSelect().getSelectBody());
+			}
+		}
+	}
+
+	private void select(Scope parent, SelectBody body) {
+		if (body instanceof PlainSelect plainSelect) {
+			plainSelect(parent, plainSelect);
+		}
+		else if (body instanceof SetOperationList setOperationList) {
+			setOperationList.getSelects().forEach(select -> select(parent, select));
+		}
+		else if (body instanceof WithItem withItem && withItem.getSubSelect() != null) {
+			select(parent, withItem.getSubSelect().getSelectBody());
+		}
+	}
+
+	private void plainSelect(Scope parent, PlainSelect select) {
+		Scope scope = new Scope(parent);
+		fromItem(scope, select.getFromItem());
+		joins(scope, select.getJoins());
+		joinConditions(scope, select.getJoins());
+		conditions(scope, select.getWhere());
+		orderBy(scope, select.getOrderByElements());
+		GroupByElement groupBy = select.getGroupBy();
+		if (groupBy != null) {
+			List<Expression> expressions = groupBy.getGroupByExpressionList().getExpressions();
+			TableUsage usage = sameTable(scope, expressions);
+			if (usage != null) {
+				usage.setGroupColumns(columnNames(scope, expressions));
+			}
+		}
+	}
+
+	private void joins(Scope scope, List<Join> joins) {
+		if (joins != null) {
+			joins.forEach(join -> fromItem(scope, join.getRightItem()));
+		}
+	}
+
+	/**
+	 * 所有表加入作用域后再处理 ON、USING，ON 中可以引用后面的表
+	 */
+	private void joinConditions(Scope scope, List<Join> joins) {
+		if (joins == null) {
+			return;
+		}
+		for (Join join : joins) {
+			for (Expression on : join.getOnExpressions()) {
+				conditions(scope, on);
+			}
+			if (join.getUsingColumns() == null) {
+				continue;
+			}
+			// USING 的列两边的表都有
+			for (Column column : join.getUsingColumns()) {
+				for (TableUsage usage : scope.usages) {
+					String name = columnName(usage, column.getColumnName());
+					if (name != null) {
+						usage.getJoinColumns().add(name);
+					}
+				}
+			}
+		}
+	}
+
+	private void fromItem(Scope scope, FromItem item) {
+		if (item instanceof Table table) {
+			String name = unquote(table.getName());
+			String alias = table.getAlias() == null ? null : unquote(table.getAlias().getName());
+			if (table.getSchemaName() == null && withNames.contains(name.toLowerCase(Locale.ROOT))) {
+				// 公用表表达式，和派生表一样不建议索引
+				scope.derived(alias == null ? name : alias);
+				return;
+			}
+			String qualified = table.getSchemaName() == null ? name : unquote(table.getSchemaName()) + '.' + name;
+			TableName tableName = TableName.parse(qualified, defaultSchema);
+			TableMeta meta = tableName == null ? null : tables.get(tableName.getKey());
+			TableUsage usage = new TableUsage(name, alias, meta != null && meta.exists() ? meta : null);
+			scope.add(usage);
+			usages.add(usage);
+		}
+		else if (item instanceof SubSelect subSelect) {
+			// 派生表不能引用同级的表，外层查询块作为父作用域
+			select(scope.parent, subSelect.getSelectBody());
+			if (subSelect.getAlias() != null) {
+				scope.derived(unquote(subSelect.getAlias().getName()));
+			}
+		}
+		else if (item instanceof SubJoin subJoin) {
+			fromItem(scope, subJoin.getLeft());
+			joins(scope, subJoin.getJoinList());
+			joinConditions(scope, subJoin.getJoinList());
+		}
+	}
+
+	private void conditions(Scope scope, Expression expression) {
+		if (expression instanceof AndExpression and) {
+			conditions(scope, and.getLeftExpression());
+			conditions(scope, and.getRightExpression());
+		}
+		else if (expression instanceof Parenthesis parenthesis) {
+			conditions(scope, parenthesis.getExpression());
+		}
+		else if (expression instanceof EqualsTo equalsTo) {
+			subquery(scope, equalsTo.getLeftExpression());
+			subquery(scope, equalsTo.getRightExpression());
+			equality(scope, equalsTo.getLeftExpression(), equalsTo.getRightExpression());
+		}
+		else if (expression instanceof GreaterThan || expression instanceof GreaterThanEquals
+				|| expression instanceof MinorThan || expression instanceof MinorThanEquals) {
+			ComparisonOperator comparison = (ComparisonOperator) expression;
+			subquery(scope, comparison.getLeftExpression());
+			subquery(scope, comparison.getRightExpression());
+			range(scope, comparison.getLeftExpression(), comparison.getRightExpression());
+			range(scope, comparison.getRightExpression(), comparison.getLeftExpression());
+		}
+		else if (expression instanceof InExpression in) {
+			subquery(scope, in.getRightExpression());
+			boolean semiJoin = in.getRightItemsList() instanceof SubSelect
+					|| in.getRightExpression() instanceof SubSelect;
+			if (in.getRightItemsList() instanceof SubSelect subSelect) {
+				subquery(scope, subSelect);
+			}
+			if (!in.isNot()) {
+				// IN 子查询按半连接执行，和关联列一样
+				addColumn(scope, in.getLeftExpression(),
+						semiJoin ? TableUsage::getJoinColumns : TableUsage::getEqualityColumns);
+			}
+		}
+		else if (expression instanceof Between between) {
+			if (!between.isNot() && isValue(scope, between.getBetweenExpressionStart())
+					&& isValue(scope, between.getBetweenExpressionEnd())) {
+				addColumn(scope, between.getLeftExpression(), TableUsage::getRangeColumns);
+			}
+		}
+		else if (expression instanceof LikeExpression like) {
+			if (!like.isNot() && like.getRightExpression() instanceof StringValue pattern
+					&& !pattern.getValue().isEmpty() && pattern.getValue().charAt(0) != '%'
+					&& pattern.getValue().charAt(0) != '_') {
+				addColumn(scope, like.getLeftExpression(), TableUsage::getRangeColumns);
+			}
+		}
+		else if (expression instanceof IsNullExpression isNull) {
+			if (!isNull.isNot()) {
+				addColumn(scope, isNull.getLeftExpression(), TableUsage::getEqualityColumns);
+			}
+		}
+		else if (expression instanceof ExistsExpression exists) {
+			subquery(scope, exists.getRightExpression());
+		}
+	}
+
+	private void subquery(Scope scope, Expression expression) {
+		if (expression instanceof SubSelect subSelect) {
+			select(scope, subSelect.getSelectBody());
+		}
+	}
+
+	/**
+	 * 列 = 常量 记为等值列；两个表的列相等时两边都记为关联列，执行计划决定哪一边是被驱动表
+	 */
+	private void equality(Scope scope, Expression left, Expression right) {
+		ColumnRef leftRef = resolve(scope, left);
+		ColumnRef rightRef = resolve(scope, right);
+		if (leftRef != null && rightRef != null) {
+			if (leftRef.usage() != rightRef.usage()) {
+				leftRef.usage().getJoinColumns().add(leftRef.column());
+				rightRef.usage().getJoinColumns().add(rightRef.column());
+			}
+		}
+		else if (leftRef != null && isValue(scope, right)) {
+			leftRef.usage().getEqualityColumns().add(leftRef.column());
+		}
+		else if (rightRef != null && isValue(scope, left)) {
+			rightRef.usage().getEqualityColumns().add(rightRef.column());
+		}
+	}
+
+	private void range(Scope scope, Expression column, Expression value) {
+		ColumnRef ref = resolve(scope, column);
+		if (ref != null && isValue(scope, value)) {
+			ref.usage().getRangeColumns().add(ref.column());
+		}
+	}
+
+	private void addColumn(Scope scope, Expression expression, Function<TableUsage, Set<String>> columns) {
+		ColumnRef ref = resolve(scope, expression);
+		if (ref != null) {
+			columns.apply(ref.usage()).add(ref.column());
+		}
+	}
+
+	private void orderBy(Scope scope, List<OrderByElement> elements) {
+		if (elements == null || elements.isEmpty()) {
+			return;
+		}
+		boolean asc = elements.get(0).isAsc();
+		List<Expression> expressions = new ArrayList<>(elements.size());
+		for (OrderByElement element : elements) {
+			if (element.isAsc() != asc) {
+				// 升降序混合时只有倒序索引能避免排序，不做建议
+				return;
+			}
+			expressions.add(element.getExpression());
+		}
+		TableUsage usage = sameTable(scope, expressions);
+		if (usage != null) {
+			usage.setOrderColumns(columnNames(scope, expressions));
+		}
+	}
+
+	/**
+	 * 表达式全部是同一个表的列时返回该表
+	 */
+	private TableUsage sameTable(Scope scope, List<Expression> expressions) {
+		TableUsage usage = null;
+		for (Expression expression : expressions) {
+			ColumnRef ref = resolve(scope, expression);
+			if (ref == null || (usage != null && usage != ref.usage())) {
+				return null;
+			}
+			usage = ref.usage();
+		}
+		return usage;
+	}
+
+	private List<String> columnNames(Scope scope, List<Expression> expressions) {
+		List<String> names = new ArrayList<>(expressions.size());
+		for (Expression expression : expressions) {
+			String column = resolve(scope, expression).column();
+			if (!names.contains(column)) {
+				names.add(column);
+			}
+		}
+		return Collections.unmodifiableList(names);
+	}
+
+	/**
+	 * 常量：不是列的表达式，或者外层查询块的列
+	 */
+	private boolean isValue(Scope scope, Expression expression) {
+		if (expression instanceof Column column) {
+			return scope.parent != null && resolve(scope, column) == null && resolveOuter(scope.parent, column);
+		}
+		return expression != null;
+	}
+
+	/**
+	 * 确定列所属的当前查询块中的表，属于外层、派生表或无法确定时返回 null
+	 */
+	private ColumnRef resolve(Scope scope, Expression expression) {
+		if (!(expression instanceof Column column)) {
+			return null;
+		}
+		Table table = column.getTable();
+		if (table != null && table.getName() != null) {
+			String qualifier = unquote(table.getName()).toLowerCase(Locale.ROOT);
+			TableUsage usage = scope.byName.get(qualifier);
+			if (usage == null) {
+				return null;
+			}
+			String name = columnName(usage, column.getColumnName());
+			return name == null ? null : new ColumnRef(usage, name);
+		}
+		ColumnRef found = null;
+		for (TableUsage usage : scope.usages) {
+			if (usage.getMeta() == null) {
+				// 有表结构未知的表，无法确定列属于哪个表
+				return null;
+			}
+			String name = columnName(usage, column.getColumnName());
+			if (name != null) {
+				if (found != null) {
+					return null;
+				}
+				found = new ColumnRef(usage, name);
+			}
+		}
+		return scope.derived ? null : found;
+	}
+
+	/**
+	 * 列是否属于外层查询块
+	 */
+	private boolean resolveOuter(Scope scope, Column column) {
+		for (Scope current = scope; current != null; current = current.parent) {
+			Table table = column.getTable();
+			if (table != null && table.getName() != null) {
+				if (current.byName.containsKey(unquote(table.getName()).toLowerCase(Locale.ROOT))) {
+					return true;
+				}
+			}
+			else if (current.usages.stream().anyMatch(usage -> columnName(usage, column.getColumnName()) != null)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 表结构中的列名，列不存在或表结构未知时返回 null
+	 */
+	private static String columnName(TableUsage usage, String column) {
+		if (usage == null || usage.getMeta() == null) {
+			return null;
+		}
+		ColumnMeta meta = usage.getMeta().getColumn(unquote(column));
+		return meta == null ? null : meta.getName();
+	}
+
+	private static String unquote(String name) {
+		return StrUtil.removeAll(name, '`', '"');
+	}
+
+	/**
+	 * 列和所属的表
+	 */
+	private record ColumnRef(TableUsage usage, String column) {
+	}
+
+	/**
+	 * 查询块的作用域：别名、表名到表的映射，派生表映射为 null
+	 */
+	private static class Scope {
+
+		private final Scope parent;
+
+		private final Map<String, TableUsage> byName = new HashMap<>();
+
+		private final List<TableUsage> usages = new ArrayList<>();
+
+		/**
+		 * 是否有派生表，此时没有表前缀的列可能属于派生表
+		 */
+		private boolean derived;
+
+		Scope(Scope parent) {
+			this.parent = parent;
+		}
+
+		void add(TableUsage usage) {
+			byName.put(usage.getReferenceName().toLowerCase(Locale.ROOT), usage);
+			usages.add(usage);
+		}
+
+		void derived(String name) {
+			byName.put(name.toLowerCase(Locale.ROOT), null);
+			derived = true;
+		}
+
+	}
+
+}
@@ -0,0 +1,494 @@
+package com.itjing.sql.advisor;
+
+import cn.hutool.core.util.NumberUtil;
+import cn.hutool.core.util.StrUtil;
+import com.itjing.sql.catalog.ColumnMeta;
+import com.itjing.sql.catalog.IndexMeta;
+import com.itjing.sql.catalog.TableMeta;
+import com.jd.sql.analysis.analysis.SqlAnalysisResult;
+import net.sf.jsqlparser.statement.Statement;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 索引建议
+ * <p>
+ * 结合 SQL 的条件、执行计划和表结构目录中的索引统计，为扫描行数多且没有用好索引的表生成组合索引：
+ * <ul>
+ * <li>只考虑执行计划中预估扫描行数不少于 min-rows，且全表扫描、全索引扫描、没有使用索引或需要文件排序、临时表的表</li>
+ * <li>候选索引以等值列（选择性高的在前，被驱动表包括关联列）开头，依次接排序列、第一个范围列或分组列，
+ * 已有索引的最左前缀覆盖的候选、等值列已经命中唯一索引的表不再建议</li>
+ * <li>预估行数 = 表行数 × 选择性，等值列的选择性取已有索引前缀基数的倒数，没有统计时按
+ * {@value #DEFAULT_EQUALITY_SELECTIVITY} 估算，范围列按 {@value #DEFAULT_RANGE_SELECTIVITY} 估算</li>
+ * <li>按减少的扫描行数从多到少排序，能避免文件排序、临时表的候选在行数相同时优先</li>
+ * <li>JSON、空间类型的列不建议，TEXT、BLOB 列使用 {@value #PREFIX_LENGTH} 个字符的前缀索引，前缀索引不能避免排序</li>
+ * </ul>
+ * 只根据统计信息估算，不在目标库上建索引验证。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public final class IndexAdvisor {
+
+	/**
+	 * 没有统计信息时等值列的选择性
+	 */
+	static final double DEFAULT_EQUALITY_SELECTIVITY = 0.1D;
+
+	/**
+	 * 范围列的选择性
+	 */
+	static final double DEFAULT_RANGE_SELECTIVITY = 0.3D;
+
+	/**
+	 * TEXT、BLOB 列的索引前缀长度，utf8mb4 下不超过 767 字节
+	 */
+	static final int PREFIX_LENGTH = 191;
+
+	/**
+	 * MySQL 标识符的最大长度
+	 */
+	private static final int MAX_IDENTIFIER_LENGTH = 64;
+
+	/**
+	 * 建索引时必须指定前缀长度的类型
+	 */
+	private static final Set<String> PREFIX_TYPES = Set.of("tinytext", "text", "mediumtext", "longtext", "tinyblob",
+			"blob", "mediumblob", "longblob");
+
+	/**
+	 * 不能建普通索引的类型：JSON 需要函数索引，空间类型需要空间索引
+	 */
+	private static final Set<String> UNINDEXABLE_TYPES = Set.of("json", "geometry", "point", "linestring",
+			"polygon", "multipoint", "multilinestring", "multipolygon", "geometrycollection", "geomcollection");
+
+	/**
+	 * 减少的扫描行数多的在前，相同时能避免排序的在前，再相同时列少的在前
+	 */
+	private static final Comparator<Candidate> RANKING = Comparator
+		.comparingLong((Candidate candidate) -> candidate.currentRows() - candidate.estimatedRows())
+		.reversed()
+		.thenComparing(Candidate::sortAvoided, Comparator.reverseOrder())
+		.thenComparingInt(candidate -> candidate.columns().size());
+
+	private final long minRows;
+
+	private final int maxColumns;
+
+	private final int maxRecommendations;
+
+	/**
+	 * @param minRows 建议索引的最少预估扫描行数
+	 * @param maxColumns 建议索引最多的列数
+	 * @param maxRecommendations 每条 SQL 最多的建议数
+	 */
+	public IndexAdvisor(long minRows, int maxColumns, int maxRecommendations) {
+		this.minRows = minRows;
+		this.maxColumns = maxColumns;
+		this.maxRecommendations = maxRecommendations;
+	}
+
+	/**
+	 * 执行计划中是否有需要建议索引的表，没有时不必解析 SQL 和加载表结构
+	 * @param plan 执行计划
+	 * @return boolean
+	 */
+	public boolean needsAdvice(List<SqlAnalysisResult> plan) {
+		for (SqlAnalysisResult row : plan) {
+			if (needsIndex(row, true, true)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 生成索引建议
+	 * @param statement 解析后的 SQL
+	 * @param defaultSchema 默认库，可以为 null
+	 * @param plan 执行计划
+	 * @param tables 表结构，键为 {@link com.itjing.sql.catalog.TableName#getKey()}
+	 * @return {@link List }<{@link IndexRecommendation }> 按减少的扫描行数从多到少排列
+	 */
+	public List<IndexRecommendation> advise(Statement statement, String defaultSchema, List<SqlAnalysisResult> plan,
+			Map<String, TableMeta> tables) {
+		Map<String, Candidate> candidates = new LinkedHashMap<>();
+		for (TableUsage usage : new ColumnUsageCollector(defaultSchema, tables).collect(statement)) {
+			if (usage.getMeta() == null || usage.isEmpty()) {
+				continue;
+			}
+			int index = planRow(usage, plan);
+			if (index < 0) {
+				continue;
+			}
+			for (Candidate candidate : candidates(usage, plan.get(index), isDriving(plan, index))) {
+				candidates.merge(candidate.key(), candidate, (a, b) -> RANKING.compare(a, b) <= 0 ? a : b);
+			}
+		}
+		return candidates.values()
+			.stream()
+			.sorted(RANKING)
+			.limit(maxRecommendations)
+			.map(Candidate::toRecommendation)
+			.toList();
+	}
+
+	/**
+	 * 执行计划中和表对应的行，同名的行取预估扫描行数最多的一行
+	 * @return int 下标，不需要建议索引时返回 -1
+	 */
+	private int planRow(TableUsage usage, List<SqlAnalysisResult> plan) {
+		int found = -1;
+		for (int i = 0; i < plan.size(); i++) {
+			SqlAnalysisResult row = plan.get(i);
+			if (usage.getReferenceName().equalsIgnoreCase(row.getTable())
+					&& needsIndex(row, !usage.getOrderColumns().isEmpty(), !usage.getGroupColumns().isEmpty())
+					&& (found < 0 || rows(row) > rows(plan.get(found)))) {
+				found = i;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * 是否驱动表：同一查询块（id 相同）的第一行，驱动表的关联列上建索引没有用
+	 */
+	private static boolean isDriving(List<SqlAnalysisResult> plan, int index) {
+		Long id = plan.get(index).getId();
+		for (int i = 0; i < index; i++) {
+			if (Objects.equals(id, plan.get(i).getId())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean needsIndex(SqlAnalysisResult row, boolean ordered, boolean grouped) {
+		if (rows(row) < minRows) {
+			return false;
+		}
+		String type = StrUtil.nullToEmpty(row.getType()).toUpperCase(Locale.ROOT);
+		String extra = StrUtil.nullToEmpty(row.getExtra());
+		return "ALL".equals(type) || "INDEX".equals(type) || StrUtil.isEmpty(row.getKey())
+				|| (ordered && extra.contains("filesort")) || (grouped && extra.contains("temporary"));
+	}
+
+	private List<Candidate> candidates(TableUsage usage, SqlAnalysisResult row, boolean driving) {
+		TableMeta meta = usage.getMeta();
+		Set<String> equalitySet = new LinkedHashSet<>(usage.getEqualityColumns());
+		if (!driving) {
+			equalitySet.addAll(usage.getJoinColumns());
+		}
+		if (uniqueLookup(meta, equalitySet)) {
+			return List.of();
+		}
+		Set<String> indexed = new LinkedHashSet<>(equalitySet);
+		indexed.removeIf(column -> !indexable(meta, column));
+		List<String> equality = bySelectivity(meta, indexed);
+		List<String> range = bySelectivity(meta, usage.getRangeColumns());
+		range.removeAll(equalitySet);
+		range.removeIf(column -> !indexable(meta, column));
+		List<String> order = new ArrayList<>(usage.getOrderColumns());
+		order.removeAll(equalitySet);
+		boolean orderSortable = truncateUnsortable(meta, order);
+		List<String> group = new ArrayList<>(usage.getGroupColumns());
+		group.removeAll(equalitySet);
+		boolean groupSortable = truncateUnsortable(meta, group);
+
+		String extra = StrUtil.nullToEmpty(row.getExtra());
+		List<Candidate> result = new ArrayList<>(4);
+		if (!usage.getOrderColumns().isEmpty()) {
+			addCandidate(result, usage, row, equality, order,
+					orderSortable && extra.contains("filesort") ? "文件排序" : null);
+		}
+		if (!range.isEmpty()) {
+			addCandidate(result, usage, row, equality, List.of(range.get(0)), null);
+		}
+		if (!usage.getGroupColumns().isEmpty()) {
+			addCandidate(result, usage, row, equality, group,
+					groupSortable && extra.contains("temporary") ? "临时表" : null);
+		}
+		if (!equality.isEmpty()) {
+			addCandidate(result, usage, row, equality, List.of(), null);
+		}
+		return result;
+	}
+
+	/**
+	 * @param equality 等值列
+	 * @param suffix 接在等值列后面的排序、范围或分组列，第一列有范围条件时按范围扫描估算
+	 * @param avoided 索引完整时可以避免的操作（文件排序、临时表），没有时为 null
+	 */
+	private void addCandidate(List<Candidate> result, TableUsage usage, SqlAnalysisResult row, List<String> equality,
+			List<String> suffix, String avoided) {
+		List<String> columns = new ArrayList<>(equality);
+		for (String column : suffix) {
+			if (!columns.contains(column)) {
+				columns.add(column);
+			}
+		}
+		int equalityCount = Math.min(equality.size(), maxColumns);
+		// 超过列数时排序、分组列不完整，不再能避免排序
+		boolean sortAvoided = avoided != null && columns.size() <= maxColumns;
+		if (columns.size() > maxColumns) {
+			columns = new ArrayList<>(columns.subList(0, maxColumns));
+		}
+		TableMeta meta = usage.getMeta();
+		if (columns.isEmpty() || covered(meta, columns, equalityCount)) {
+			return;
+		}
+		String rangeColumn = columns.size() > equalityCount
+				&& usage.getRangeColumns().contains(columns.get(equalityCount)) ? columns.get(equalityCount) : null;
+		long currentRows = rows(row);
+		long baseRows = meta.getTableRows() == null || meta.getTableRows() <= 0 ? currentRows : meta.getTableRows();
+		double selectivity = selectivity(meta, columns.subList(0, equalityCount));
+		if (equalityCount > 0 && covered(meta, columns.subList(0, equalityCount), equalityCount)) {
+			// 等值列已有索引，扫描行数以当前执行计划为准
+			baseRows = currentRows;
+			selectivity = 1D;
+		}
+		if (rangeColumn != null) {
+			selectivity *= DEFAULT_RANGE_SELECTIVITY;
+		}
+		long estimatedRows = Math.max(1L, Math.round(baseRows * selectivity));
+		if (estimatedRows >= currentRows && !sortAvoided) {
+			return;
+		}
+		estimatedRows = Math.min(estimatedRows, currentRows);
+		result.add(new Candidate(meta, columns, currentRows, estimatedRows, sortAvoided,
+				reason(usage, row, columns, rangeColumn, sortAvoided ? avoided : null)));
+	}
+
+	/**
+	 * 排序、分组列遇到不能按索引顺序读取的列（不能建索引或只能建前缀索引）时截断
+	 * @return boolean 是否没有截断
+	 */
+	private static boolean truncateUnsortable(TableMeta meta, List<String> columns) {
+		for (int i = 0; i < columns.size(); i++) {
+			if (!indexable(meta, columns.get(i)) || prefixed(meta, columns.get(i))) {
+				columns.subList(i, columns.size()).clear();
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * 列能否建普通索引，表结构中没有的列按能建索引处理
+	 */
+	private static boolean indexable(TableMeta meta, String column) {
+		return !UNINDEXABLE_TYPES.contains(dataType(meta, column));
+	}
+
+	/**
+	 * 列建索引时是否必须指定前缀长度
+	 */
+	private static boolean prefixed(TableMeta meta, String column) {
+		return PREFIX_TYPES.contains(dataType(meta, column));
+	}
+
+	private static String dataType(TableMeta meta, String column) {
+		ColumnMeta columnMeta = meta.getColumn(column);
+		return columnMeta == null ? "" : StrUtil.nullToEmpty(columnMeta.getDataType()).toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * 等值列包含某个唯一索引的全部列，每次最多访问一行
+	 */
+	private static boolean uniqueLookup(TableMeta meta, Set<String> equality) {
+		Set<String> columns = lowerCase(new ArrayList<>(equality));
+		for (IndexMeta index : meta.getIndexes()) {
+			if (index.isUnique() && columns.containsAll(lowerCase(index.getColumns()))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 已有索引的前缀能覆盖候选索引：等值列部分顺序无关，其余列顺序一致
+	 */
+	private static boolean covered(TableMeta meta, List<String> columns, int equalityCount) {
+		for (IndexMeta index : meta.getIndexes()) {
+			List<String> indexColumns = index.getColumns();
+			if (indexColumns.size() < columns.size()) {
+				continue;
+			}
+			if (!lowerCase(indexColumns.subList(0, equalityCount))
+				.equals(lowerCase(columns.subList(0, equalityCount)))) {
+				continue;
+			}
+			boolean same = true;
+			for (int i = equalityCount; i < columns.size() && same; i++) {
+				same = columns.get(i).equalsIgnoreCase(indexColumns.get(i));
+			}
+			if (same) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 等值列的选择性：优先使用已有索引中覆盖前几个等值列的前缀基数，其余列按单列基数相乘
+	 */
+	private static double selectivity(TableMeta meta, List<String> equality) {
+		double selectivity = 1D;
+		int covered = 0;
+		for (IndexMeta index : meta.getIndexes()) {
+			int limit = Math.min(index.getColumns().size(), equality.size());
+			for (int k = limit; k > Math.max(covered, 1); k--) {
+				Long cardinality = index.getCardinalities().get(k - 1);
+				if (cardinality != null && cardinality > 0
+						&& lowerCase(index.getColumns().subList(0, k)).equals(lowerCase(equality.subList(0, k)))) {
+					covered = k;
+					selectivity = 1D / cardinality;
+					break;
+				}
+			}
+		}
+		for (int i = covered; i < equality.size(); i++) {
+			selectivity *= selectivity(meta, equality.get(i));
+		}
+		return selectivity;
+	}
+
+	/**
+	 * 列的不同值个数：取以该列开头的索引的第一列基数
+	 */
+	private static Long distinctValues(TableMeta meta, String column) {
+		Long result = null;
+		for (IndexMeta index : meta.getIndexes()) {
+			if (index.getColumns().isEmpty() || !column.equalsIgnoreCase(index.getColumns().get(0))) {
+				continue;
+			}
+			Long cardinality = index.isUnique() && index.getColumns().size() == 1 && meta.getTableRows() != null
+					? Long.valueOf(Math.max(meta.getTableRows(), 1L)) : index.getCardinalities().get(0);
+			if (cardinality != null && cardinality > 0 && (result == null || cardinality > result)) {
+				result = cardinality;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * 按单列选择性从高到低排列，选择性相同时保持 SQL 中的顺序
+	 */
+	private static List<String> bySelectivity(TableMeta meta, Set<String> columns) {
+		List<String> result = new ArrayList<>(columns);
+		result.sort(Comparator.comparingDouble(column -> selectivity(meta, column)));
+		return result;
+	}
+
+	private static double selectivity(TableMeta meta, String column) {
+		Long distinct = distinctValues(meta, column);
+		return distinct == null ? DEFAULT_EQUALITY_SELECTIVITY : 1D / distinct;
+	}
+
+	private static String reason(TableUsage usage, SqlAnalysisResult row, List<String> columns, String rangeColumn,
+			String avoided) {
+		StringBuilder reason = new StringBuilder();
+		reason.append(usage.getReferenceName())
+			.append(" 当前访问类型 ")
+			.append(StrUtil.blankToDefault(row.getType(), "-"))
+			.append("，使用索引 ")
+			.append(StrUtil.blankToDefault(row.getKey(), "无"))
+			.append("，预估扫描 ")
+			.append(rows(row))
+			.append(" 行");
+		appendColumns(reason, "等值条件", columns, usage.getEqualityColumns());
+		appendColumns(reason, "关联条件", columns, usage.getJoinColumns());
+		if (rangeColumn != null) {
+			reason.append("；范围条件 ").append(rangeColumn);
+		}
+		appendColumns(reason, "排序", columns, new HashSet<>(usage.getOrderColumns()));
+		appendColumns(reason, "分组", columns, new HashSet<>(usage.getGroupColumns()));
+		if (avoided != null) {
+			reason.append("；可以避免").append(avoided);
+		}
+		return reason.toString();
+	}
+
+	private static void appendColumns(StringBuilder reason, String label, List<String> columns, Set<String> used) {
+		List<String> matched = columns.stream().filter(used::contains).toList();
+		if (!matched.isEmpty()) {
+			reason.append('；').append(label).append(' ').append(String.join("、", matched));
+		}
+	}
+
+	private static long rows(SqlAnalysisResult row) {
+		String rows = row.getRows();
+		return NumberUtil.isLong(rows) ? Long.parseLong(rows) : 0L;
+	}
+
+	private static Set<String> lowerCase(List<String> columns) {
+		Set<String> result = new HashSet<>(columns.size() * 2);
+		for (String column : columns) {
+			result.add(column == null ? null : column.toLowerCase(Locale.ROOT));
+		}
+		return result;
+	}
+
+	/**
+	 * 候选索引
+	 */
+	private record Candidate(TableMeta meta, List<String> columns, long currentRows, long estimatedRows,
+			boolean sortAvoided, String reason) {
+
+		String key() {
+			return (meta.getSchema() + '.' + meta.getName() + '(' + String.join(",", columns) + ')')
+				.toLowerCase(Locale.ROOT);
+		}
+
+		IndexRecommendation toRecommendation() {
+			double reduction = currentRows == 0 ? 0D : 1D - (double) estimatedRows / currentRows;
+			return new IndexRecommendation(meta.getSchema() + '.' + meta.getName(), columns, ddl(), currentRows,
+					estimatedRows, NumberUtil.round(reduction, 4).doubleValue(), reason);
+		}
+
+		private String ddl() {
+			StringBuilder ddl = new StringBuilder("CREATE INDEX ");
+			ddl.append(quote(indexName())).append(" ON ").append(quote(meta.getSchema())).append('.')
+				.append(quote(meta.getName())).append(" (");
+			for (int i = 0; i < columns.size(); i++) {
+				ddl.append(i == 0 ? "" : ", ").append(quote(columns.get(i)));
+				if (prefixed(meta, columns.get(i))) {
+					ddl.append('(').append(PREFIX_LENGTH).append(')');
+				}
+			}
+			return ddl.append(')').toString();
+		}
+
+		/**
+		 * idx_列名_列名，和已有索引重名时加序号，长度不超过 64
+		 */
+		private String indexName() {
+			// 留出序号的长度
+			String base = StrUtil.sub("idx_" + String.join("_", columns).toLowerCase(Locale.ROOT), 0,
+					MAX_IDENTIFIER_LENGTH - 3)
+				.replaceAll("_+$", "");
+			Set<String> existing = new HashSet<>();
+			meta.getIndexes().forEach(index -> existing.add(index.getName().toLowerCase(Locale.ROOT)));
+			String name = base;
+			for (int i = 2; existing.contains(name); i++) {
+				name = base + '_' + i;
+			}
+			return name;
+		}
+
+		private static String quote(String identifier) {
+			return '`' + identifier.replace("`", "``") + '`';
+		}
+
+	}
+
+}
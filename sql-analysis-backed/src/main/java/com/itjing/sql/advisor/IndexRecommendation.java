@@ -0,0 +1,59 @@
+package com.itjing.sql.advisor;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.List;
+
+/**
+ * 索引建议
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class IndexRecommendation {
+
+	/**
+	 * 表名：库名.表名
+	 */
+	private String table;
+
+	/**
+	 * 索引列，按索引顺序
+	 */
+	private List<String> columns;
+
+	/**
+	 * 建索引语句
+	 */
+	private String ddl;
+
+	/**
+	 * 当前执行计划的预估扫描行数
+	 */
+	private Long currentRows;
+
+	/**
+	 * 使用建议索引后的预估扫描行数
+	 */
+	private Long estimatedRows;
+
+	/**
+	 * 扫描行数减少的比例（0~1）
+	 */
+	private Double reduction;
+
+	/**
+	 * 建议原因
+	 */
+	private String reason;
+
+}
@@ -0,0 +1,108 @@
+package com.itjing.sql.advisor;
+
+import com.itjing.sql.catalog.TableMeta;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 表在 SQL 中的一次出现及其用到的列，同一张表出现多次（自关联、子查询）时各自收集
+ * <p>
+ * 列名使用表结构中的写法。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+final class TableUsage {
+
+	private final String name;
+
+	private final String alias;
+
+	private final TableMeta meta;
+
+	private final Set<String> equalityColumns = new LinkedHashSet<>();
+
+	private final Set<String> joinColumns = new LinkedHashSet<>();
+
+	private final Set<String> rangeColumns = new LinkedHashSet<>();
+
+	private List<String> orderColumns = Collections.emptyList();
+
+	private List<String> groupColumns = Collections.emptyList();
+
+	/**
+	 * @param name 表名
+	 * @param alias 别名，可以为 null
+	 * @param meta 表结构，未加载或表不存在时为 null
+	 */
+	TableUsage(String name, String alias, TableMeta meta) {
+		this.name = name;
+		this.alias = alias;
+		this.meta = meta;
+	}
+
+	/**
+	 * 执行计划 table 列显示的名字：有别名时为别名
+	 * @return {@link String }
+	 */
+	String getReferenceName() {
+		return alias == null ? name : alias;
+	}
+
+	TableMeta getMeta() {
+		return meta;
+	}
+
+	/**
+	 * 和常量比较的等值列：=、IN、IS NULL
+	 * @return {@link Set }<{@link String }>
+	 */
+	Set<String> getEqualityColumns() {
+		return equalityColumns;
+	}
+
+	/**
+	 * 和其他表的列相等的关联列
+	 * @return {@link Set }<{@link String }>
+	 */
+	Set<String> getJoinColumns() {
+		return joinColumns;
+	}
+
+	/**
+	 * 范围列：<、>、BETWEEN、LIKE 'abc%'
+	 * @return {@link Set }<{@link String }>
+	 */
+	Set<String> getRangeColumns() {
+		return rangeColumns;
+	}
+
+	List<String> getOrderColumns() {
+		return orderColumns;
+	}
+
+	void setOrderColumns(List<String> orderColumns) {
+		this.orderColumns = orderColumns;
+	}
+
+	List<String> getGroupColumns() {
+		return groupColumns;
+	}
+
+	void setGroupColumns(List<String> groupColumns) {
+		this.groupColumns = groupColumns;
+	}
+
+	/**
+	 * 没有任何可以走索引的列
+	 * @return boolean
+	 */
+	boolean isEmpty() {
+		return equalityColumns.isEmpty() && joinColumns.isEmpty() && rangeColumns.isEmpty() && orderColumns.isEmpty()
+				&& groupColumns.isEmpty();
+	}
+
+}
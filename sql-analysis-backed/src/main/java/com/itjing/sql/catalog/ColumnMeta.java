@@ -0,0 +1,69 @@
+package com.itjing.sql.catalog;
+
+/**
+ * 列信息（information_schema.COLUMNS）
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public final class ColumnMeta {
+
+	private final String name;
+
+	private final int ordinalPosition;
+
+	private final String dataType;
+
+	private final String columnType;
+
+	private final boolean nullable;
+
+	private final String columnKey;
+
+	public ColumnMeta(String name, int ordinalPosition, String dataType, String columnType, boolean nullable,
+			String columnKey) {
+		this.name = name;
+		this.ordinalPosition = ordinalPosition;
+		this.dataType = dataType;
+		this.columnType = columnType;
+		this.nullable = nullable;
+		this.columnKey = columnKey;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getOrdinalPosition() {
+		return ordinalPosition;
+	}
+
+	/**
+	 * 数据类型，例如 varchar
+	 * @return {@link String }
+	 */
+	public String getDataType() {
+		return dataType;
+	}
+
+	/**
+	 * 完整的列类型，例如 varchar(64)
+	 * @return {@link String }
+	 */
+	public String getColumnType() {
+		return columnType;
+	}
+
+	public boolean isNullable() {
+		return nullable;
+	}
+
+	/**
+	 * 列所在索引的类型：PRI、UNI、MUL，不在索引第一列时为空
+	 * @return {@link String }
+	 */
+	public String getColumnKey() {
+		return columnKey;
+	}
+
+}
@@ -0,0 +1,76 @@
+package com.itjing.sql.catalog;
+
+import java.util.List;
+
+/**
+ * 索引信息（information_schema.STATISTICS），列按 SEQ_IN_INDEX 排列
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public final class IndexMeta {
+
+	public static final String PRIMARY = "PRIMARY";
+
+	private final String name;
+
+	private final boolean unique;
+
+	private final String indexType;
+
+	private final List<String> columns;
+
+	private final List<Long> cardinalities;
+
+	/**
+	 * @param name 索引名
+	 * @param unique 是否唯一索引
+	 * @param indexType 索引类型，例如 BTREE
+	 * @param columns 索引列，函数索引的列名为 null
+	 * @param cardinalities 每个前缀的基数，未统计时为 null
+	 */
+	public IndexMeta(String name, boolean unique, String indexType, List<String> columns, List<Long> cardinalities) {
+		this.name = name;
+		this.unique = unique;
+		this.indexType = indexType;
+		this.columns = columns;
+		this.cardinalities = cardinalities;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public boolean isPrimary() {
+		return PRIMARY.equals(name);
+	}
+
+	public boolean isUnique() {
+		return unique;
+	}
+
+	public String getIndexType() {
+		return indexType;
+	}
+
+	public List<String> getColumns() {
+		return columns;
+	}
+
+	/**
+	 * 每个前缀的基数：第 i 个值是前 i + 1 列组合的不同值个数估计
+	 * @return {@link List }<{@link Long }>
+	 */
+	public List<Long> getCardinalities() {
+		return cardinalities;
+	}
+
+	/**
+	 * 整个索引的基数，未统计时为 null
+	 * @return {@link Long }
+	 */
+	public Long getCardinality() {
+		return cardinalities.isEmpty() ? null : cardinalities.get(cardinalities.size() - 1);
+	}
+
+}
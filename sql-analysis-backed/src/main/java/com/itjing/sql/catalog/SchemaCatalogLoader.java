@@ -0,0 +1,256 @@
+package com.itjing.sql.catalog;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 从 information_schema 加载表结构和索引统计
+ * <p>
+ * 一批表只查询一次 TABLES、COLUMNS、STATISTICS，条件按库名分组：
+ * {@code (TABLE_SCHEMA = ? AND TABLE_NAME IN (?, ?)) OR ...}，每次最多 {@value #MAX_TABLES_PER_QUERY} 张表。
+ * 校验版本号时只查询 TABLES 的 CREATE_TIME、UPDATE_TIME。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public final class SchemaCatalogLoader {
+
+	/**
+	 * 单条查询最多包含的表
+	 */
+	public static final int MAX_TABLES_PER_QUERY = 200;
+
+	private static final String VERSION_SQL = "SELECT TABLE_SCHEMA, TABLE_NAME, CREATE_TIME, UPDATE_TIME "
+			+ "FROM information_schema.TABLES WHERE ";
+
+	private static final String TABLES_SQL = "SELECT TABLE_SCHEMA, TABLE_NAME, CREATE_TIME, UPDATE_TIME, "
+			+ "ENGINE, TABLE_ROWS FROM information_schema.TABLES WHERE ";
+
+	private static final String COLUMNS_SQL = "SELECT TABLE_SCHEMA, TABLE_NAME, COLUMN_NAME, ORDINAL_POSITION, "
+			+ "DATA_TYPE, COLUMN_TYPE, IS_NULLABLE, COLUMN_KEY FROM information_schema.COLUMNS WHERE {} "
+			+ "ORDER BY TABLE_SCHEMA, TABLE_NAME, ORDINAL_POSITION";
+
+	private static final String STATISTICS_SQL = "SELECT TABLE_SCHEMA, TABLE_NAME, INDEX_NAME, NON_UNIQUE, "
+			+ "COLUMN_NAME, CARDINALITY, INDEX_TYPE FROM information_schema.STATISTICS WHERE {} "
+			+ "ORDER BY TABLE_SCHEMA, TABLE_NAME, INDEX_NAME = 'PRIMARY' DESC, INDEX_NAME, SEQ_IN_INDEX";
+
+	private SchemaCatalogLoader() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	/**
+	 * 查询表的结构版本号
+	 * @param conn 连接
+	 * @param tables 表
+	 * @param queryTimeout 查询超时时间（秒）
+	 * @return {@link Map }<{@link String }, {@link String }> 键为 {@link TableName#getKey()}，不存在的表没有对应的键
+	 * @throws SQLException sql异常
+	 */
+	public static Map<String, String> queryVersions(Connection conn, Collection<TableName> tables, int queryTimeout)
+			throws SQLException {
+		Map<String, String> versions = new HashMap<>(tables.size() * 2);
+		for (List<TableName> chunk : chunk(tables)) {
+			try (PreparedStatement stmt = prepare(conn, VERSION_SQL + condition(chunk), chunk, queryTimeout);
+					ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					versions.put(new TableName(rs.getString(1), rs.getString(2)).getKey(),
+							version(rs.getString(3), rs.getString(4)));
+				}
+			}
+		}
+		return versions;
+	}
+
+	/**
+	 * 加载表结构：表、列、索引各查询一次，所有表都不存在时只查询一次
+	 * @param conn 连接
+	 * @param tables 表
+	 * @param queryTimeout 查询超时时间（秒）
+	 * @param now 加载时间
+	 * @return {@link Map }<{@link String }, {@link TableMeta }> 键为 {@link TableName#getKey()}，包含不存在的表
+	 * @throws SQLException sql异常
+	 */
+	public static Map<String, TableMeta> load(Connection conn, Collection<TableName> tables, int queryTimeout,
+			long now) throws SQLException {
+		Map<String, TableMeta> result = new LinkedHashMap<>(tables.size() * 2);
+		for (List<TableName> chunk : chunk(tables)) {
+			loadChunk(conn, chunk, queryTimeout, now, result);
+		}
+		return result;
+	}
+
+	private static void loadChunk(Connection conn, List<TableName> tables, int queryTimeout, long now,
+			Map<String, TableMeta> result) throws SQLException {
+		String condition = condition(tables);
+		Map<String, TableRow> rows = new HashMap<>(tables.size() * 2);
+		try (PreparedStatement stmt = prepare(conn, TABLES_SQL + condition, tables, queryTimeout);
+				ResultSet rs = stmt.executeQuery()) {
+			while (rs.next()) {
+				long estimatedRows = rs.getLong(6);
+				Long tableRowCount = rs.wasNull() ? null : estimatedRows;
+				TableRow row = new TableRow(rs.getString(1), rs.getString(2), version(rs.getString(3), rs.getString(4)),
+						rs.getString(5), tableRowCount);
+				rows.put(new TableName(row.schema(), row.name()).getKey(), row);
+			}
+		}
+		Map<String, List<ColumnMeta>> columns = new HashMap<>(rows.size() * 2);
+		Map<String, Map<String, IndexBuilder>> indexes = new HashMap<>(rows.size() * 2);
+		if (!rows.isEmpty()) {
+			loadColumns(conn, condition, tables, queryTimeout, columns);
+			loadIndexes(conn, condition, tables, queryTimeout, indexes);
+		}
+		for (TableName table : tables) {
+			TableRow row = rows.get(table.getKey());
+			if (row == null) {
+				result.put(table.getKey(), TableMeta.missing(table.getSchema(), table.getName(), now));
+				continue;
+			}
+			List<IndexMeta> tableIndexes = new ArrayList<>();
+			indexes.getOrDefault(table.getKey(), Collections.emptyMap())
+				.values()
+				.forEach(builder -> tableIndexes.add(builder.build()));
+			List<ColumnMeta> tableColumns = columns.getOrDefault(table.getKey(), Collections.emptyList());
+			result.put(table.getKey(),
+					new TableMeta(row.schema(), row.name(), row.engine(), row.tableRows(), row.version(),
+							Collections.unmodifiableList(tableColumns), Collections.unmodifiableList(tableIndexes),
+							now));
+		}
+	}
+
+	private static void loadColumns(Connection conn, String condition, List<TableName> tables, int queryTimeout,
+			Map<String, List<ColumnMeta>> columns) throws SQLException {
+		try (PreparedStatement stmt = prepare(conn, COLUMNS_SQL.replace("{}", condition), tables, queryTimeout);
+				ResultSet rs = stmt.executeQuery()) {
+			while (rs.next()) {
+				String key = new TableName(rs.getString(1), rs.getString(2)).getKey();
+				columns.computeIfAbsent(key, k -> new ArrayList<>())
+					.add(new ColumnMeta(rs.getString(3), rs.getInt(4), rs.getString(5), rs.getString(6),
+							"YES".equalsIgnoreCase(rs.getString(7)), rs.getString(8)));
+			}
+		}
+	}
+
+	private static void loadIndexes(Connection conn, String condition, List<TableName> tables, int queryTimeout,
+			Map<String, Map<String, IndexBuilder>> indexes) throws SQLException {
+		try (PreparedStatement stmt = prepare(conn, STATISTICS_SQL.replace("{}", condition), tables, queryTimeout);
+				ResultSet rs = stmt.executeQuery()) {
+			while (rs.next()) {
+				String key = new TableName(rs.getString(1), rs.getString(2)).getKey();
+				String indexName = rs.getString(3);
+				IndexBuilder builder = indexes.computeIfAbsent(key, k -> new LinkedHashMap<>())
+					.computeIfAbsent(indexName, k -> new IndexBuilder(indexName));
+				builder.unique = builder.columns.isEmpty() ? rs.getInt(4) == 0 : builder.unique;
+				builder.columns.add(rs.getString(5));
+				long cardinality = rs.getLong(6);
+				builder.cardinalities.add(rs.wasNull() ? null : cardinality);
+				builder.indexType = rs.getString(7);
+			}
+		}
+	}
+
+	/**
+	 * 按库名分组的查询条件
+	 */
+	private static String condition(List<TableName> tables) {
+		Map<String, Integer> schemas = new LinkedHashMap<>();
+		tables.forEach(table -> schemas.merge(table.getSchema(), 1, Integer::sum));
+		StringBuilder sql = new StringBuilder();
+		for (Map.Entry<String, Integer> entry : schemas.entrySet()) {
+			if (!sql.isEmpty()) {
+				sql.append(" OR ");
+			}
+			sql.append("(TABLE_SCHEMA = ? AND TABLE_NAME IN (?");
+			sql.append(", ?".repeat(entry.getValue() - 1));
+			sql.append("))");
+		}
+		return sql.toString();
+	}
+
+	/**
+	 * 按 {@link #condition} 的顺序绑定参数
+	 */
+	private static PreparedStatement prepare(Connection conn, String sql, List<TableName> tables, int queryTimeout)
+			throws SQLException {
+		Map<String, List<String>> schemas = new LinkedHashMap<>();
+		tables.forEach(
+				table -> schemas.computeIfAbsent(table.getSchema(), k -> new ArrayList<>()).add(table.getName()));
+		PreparedStatement stmt = conn.prepareStatement(sql);
+		try {
+			stmt.setQueryTimeout(queryTimeout);
+			int index = 1;
+			for (Map.Entry<String, List<String>> entry : schemas.entrySet()) {
+				stmt.setString(index++, entry.getKey());
+				for (String name : entry.getValue()) {
+					stmt.setString(index++, name);
+				}
+			}
+			return stmt;
+		}
+		catch (SQLException e) {
+			stmt.close();
+			throw e;
+		}
+	}
+
+	private static List<List<TableName>> chunk(Collection<TableName> tables) {
+		List<List<TableName>> chunks = new ArrayList<>();
+		List<TableName> current = new ArrayList<>(Math.min(tables.size(), MAX_TABLES_PER_QUERY));
+		for (TableName table : tables) {
+			if (current.size() == MAX_TABLES_PER_QUERY) {
+				chunks.add(current);
+				current = new ArrayList<>(MAX_TABLES_PER_QUERY);
+			}
+			current.add(table);
+		}
+		if (!current.isEmpty()) {
+			chunks.add(current);
+		}
+		return chunks;
+	}
+
+	private static String version(String createTime, String updateTime) {
+		return createTime + "|" + updateTime;
+	}
+
+	/**
+	 * 一行 information_schema.TABLES
+	 */
+	private record TableRow(String schema, String name, String version, String engine, Long tableRows) {
+	}
+
+	/**
+	 * 按 SEQ_IN_INDEX 依次加入索引列
+	 */
+	private static class IndexBuilder {
+
+		private final String name;
+
+		private final List<String> columns = new ArrayList<>();
+
+		private final List<Long> cardinalities = new ArrayList<>();
+
+		private boolean unique;
+
+		private String indexType;
+
+		IndexBuilder(String name) {
+			this.name = name;
+		}
+
+		IndexMeta build() {
+			return new IndexMeta(name, unique, indexType, Collections.unmodifiableList(columns),
+					Collections.unmodifiableList(cardinalities));
+		}
+
+	}
+
+}
@@ -0,0 +1,151 @@
+package com.itjing.sql.catalog;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 表的结构和统计信息
+ * <p>
+ * 加载后不再修改，结构版本号（CREATE_TIME、UPDATE_TIME）变化时整体替换；只有最后一次校验版本号的时间会更新。
+ * 表不存在时也缓存一个 {@link #exists()} 为 false 的对象，避免每次分析都查询。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public final class TableMeta {
+
+	/**
+	 * 表不存在时的版本号
+	 */
+	public static final String MISSING_VERSION = "-";
+
+	private final String schema;
+
+	private final String name;
+
+	private final boolean exists;
+
+	private final String engine;
+
+	private final Long tableRows;
+
+	private final String version;
+
+	private final List<ColumnMeta> columns;
+
+	private final List<IndexMeta> indexes;
+
+	private final Map<String, ColumnMeta> columnsByName;
+
+	private final long loadedAt;
+
+	private volatile long checkedAt;
+
+	public TableMeta(String schema, String name, String engine, Long tableRows, String version,
+			List<ColumnMeta> columns, List<IndexMeta> indexes, long loadedAt) {
+		this(schema, name, true, engine, tableRows, version, columns, indexes, loadedAt);
+	}
+
+	private TableMeta(String schema, String name, boolean exists, String engine, Long tableRows, String version,
+			List<ColumnMeta> columns, List<IndexMeta> indexes, long loadedAt) {
+		this.schema = schema;
+		this.name = name;
+		this.exists = exists;
+		this.engine = engine;
+		this.tableRows = tableRows;
+		this.version = version;
+		this.columns = columns;
+		this.indexes = indexes;
+		this.columnsByName = new HashMap<>(columns.size() * 2);
+		for (ColumnMeta column : columns) {
+			columnsByName.put(column.getName().toLowerCase(Locale.ROOT), column);
+		}
+		this.loadedAt = loadedAt;
+		this.checkedAt = loadedAt;
+	}
+
+	/**
+	 * 不存在的表
+	 * @param schema 库名
+	 * @param name 表名
+	 * @param loadedAt 查询时间
+	 * @return {@link TableMeta }
+	 */
+	public static TableMeta missing(String schema, String name, long loadedAt) {
+		return new TableMeta(schema, name, false, null, null, MISSING_VERSION, Collections.emptyList(),
+				Collections.emptyList(), loadedAt);
+	}
+
+	public String getSchema() {
+		return schema;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public boolean exists() {
+		return exists;
+	}
+
+	public String getEngine() {
+		return engine;
+	}
+
+	/**
+	 * 估计的行数（information_schema.TABLES.TABLE_ROWS）
+	 * @return {@link Long }
+	 */
+	public Long getTableRows() {
+		return tableRows;
+	}
+
+	/**
+	 * 结构版本号：CREATE_TIME|UPDATE_TIME，表不存在时为 {@link #MISSING_VERSION}
+	 * @return {@link String }
+	 */
+	public String getVersion() {
+		return version;
+	}
+
+	public List<ColumnMeta> getColumns() {
+		return columns;
+	}
+
+	/**
+	 * 按列名查找（不区分大小写）
+	 * @param column 列名
+	 * @return {@link ColumnMeta } 不存在返回 null
+	 */
+	public ColumnMeta getColumn(String column) {
+		return column == null ? null : columnsByName.get(column.toLowerCase(Locale.ROOT));
+	}
+
+	public List<IndexMeta> getIndexes() {
+		return indexes;
+	}
+
+	public long getLoadedAt() {
+		return loadedAt;
+	}
+
+	/**
+	 * 最后一次确认版本号未变化的时间
+	 * @return long
+	 */
+	public long getCheckedAt() {
+		return checkedAt;
+	}
+
+	/**
+	 * 记录版本号校验时间
+	 * @param now 校验时间
+	 */
+	public void markChecked(long now) {
+		checkedAt = now;
+	}
+
+}
@@ -0,0 +1,66 @@
+package com.itjing.sql.catalog;
+
+import cn.hutool.core.util.StrUtil;
+
+import java.util.Locale;
+
+/**
+ * 带库名的表名，库名和表名都不含引号
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public final class TableName {
+
+	private final String schema;
+
+	private final String name;
+
+	private final String key;
+
+	public TableName(String schema, String name) {
+		this.schema = schema;
+		this.name = name;
+		this.key = (schema + '.' + name).toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * 解析 库名.表名 或 表名，去掉引号，没有库名时使用默认库
+	 * @param table 表名
+	 * @param defaultSchema 默认库，可以为 null
+	 * @return {@link TableName } 没有库名且没有默认库时返回 null
+	 */
+	public static TableName parse(String table, String defaultSchema) {
+		String unquoted = StrUtil.removeAll(StrUtil.trim(table), '`', '"');
+		if (StrUtil.isEmpty(unquoted)) {
+			return null;
+		}
+		int dot = unquoted.lastIndexOf('.');
+		if (dot > 0) {
+			return new TableName(unquoted.substring(0, dot), unquoted.substring(dot + 1));
+		}
+		return StrUtil.isEmpty(defaultSchema) ? null : new TableName(defaultSchema, unquoted);
+	}
+
+	public String getSchema() {
+		return schema;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * 缓存键：小写的 库名.表名
+	 * @return {@link String }
+	 */
+	public String getKey() {
+		return key;
+	}
+
+	@Override
+	public String toString() {
+		return schema + '.' + name;
+	}
+
+}
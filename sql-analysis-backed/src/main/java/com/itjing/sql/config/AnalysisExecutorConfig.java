@@ -0,0 +1,98 @@
+package com.itjing.sql.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * SQL 分析线程池配置
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Configuration
+public class AnalysisExecutorConfig {
+
+	/**
+	 * 批量分析线程池，EXPLAIN 主要在等待数据库返回，线程数可以大于 CPU 核数
+	 * @param coreSize 核心线程数
+	 * @param maxSize 最大线程数
+	 * @param queueCapacity 队列长度
+	 * @return {@link ThreadPoolTaskExecutor }
+	 */
+	@Bean("sqlAnalysisExecutor")
+	public ThreadPoolTaskExecutor sqlAnalysisExecutor(
+			@Value("${sql.analysis.batch.executor.core-size:"
+					+ "#{T(java.lang.Runtime).getRuntime().availableProcessors() * 2}}") int coreSize,
+			@Value("${sql.analysis.batch.executor.max-size:"
+					+ "#{T(java.lang.Runtime).getRuntime().availableProcessors() * 4}}") int maxSize,
+			@Value("${sql.analysis.batch.executor.queue-capacity:1000}") int queueCapacity) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setThreadNamePrefix("sql-analysis-");
+		executor.setCorePoolSize(coreSize);
+		executor.setMaxPoolSize(Math.max(coreSize, maxSize));
+		executor.setQueueCapacity(queueCapacity);
+		executor.setAllowCoreThreadTimeOut(true);
+		// 队列满时由提交线程执行，对调用方形成背压
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+		executor.setWaitForTasksToCompleteOnShutdown(false);
+		executor.initialize();
+		return executor;
+	}
+
+	/**
+	 * 异步分析任务线程池，和 Web 容器的线程池分开，提交任务后请求线程立即返回
+	 * <p>
+	 * 每个任务只占用一个线程等待批量分析结束，具体的 EXPLAIN 仍在批量分析线程池中执行；队列满时拒绝提交。
+	 * @param coreSize 核心线程数
+	 * @param maxSize 最大线程数
+	 * @param queueCapacity 队列长度
+	 * @return {@link ThreadPoolTaskExecutor }
+	 */
+	@Bean("sqlAnalysisJobExecutor")
+	public ThreadPoolTaskExecutor sqlAnalysisJobExecutor(
+			@Value("${sql.analysis.job.executor.core-size:4}") int coreSize,
+			@Value("${sql.analysis.job.executor.max-size:8}") int maxSize,
+			@Value("${sql.analysis.job.executor.queue-capacity:200}") int queueCapacity) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setThreadNamePrefix("sql-analysis-job-");
+		executor.setCorePoolSize(coreSize);
+		executor.setMaxPoolSize(Math.max(coreSize, maxSize));
+		executor.setQueueCapacity(queueCapacity);
+		executor.setAllowCoreThreadTimeOut(true);
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+		executor.setWaitForTasksToCompleteOnShutdown(false);
+		executor.initialize();
+		return executor;
+	}
+
+	/**
+	 * 后台采集线程池，执行语句摘要采集和表结构目录校验的 JDBC 查询
+	 * <p>
+	 * 定时任务线程只负责提交，慢目标（获取连接和查询超时）不会让超时检查等其它定时任务排队；队列满时拒绝提交，本轮跳过。
+	 * @param coreSize 核心线程数
+	 * @param maxSize 最大线程数
+	 * @param queueCapacity 队列长度
+	 * @return {@link ThreadPoolTaskExecutor }
+	 */
+	@Bean("sqlAnalysisBackgroundExecutor")
+	public ThreadPoolTaskExecutor sqlAnalysisBackgroundExecutor(
+			@Value("${sql.analysis.background.executor.core-size:2}") int coreSize,
+			@Value("${sql.analysis.background.executor.max-size:4}") int maxSize,
+			@Value("${sql.analysis.background.executor.queue-capacity:100}") int queueCapacity) {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setThreadNamePrefix("sql-analysis-background-");
+		executor.setCorePoolSize(coreSize);
+		executor.setMaxPoolSize(Math.max(coreSize, maxSize));
+		executor.setQueueCapacity(queueCapacity);
+		executor.setAllowCoreThreadTimeOut(true);
+		executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+		executor.setWaitForTasksToCompleteOnShutdown(false);
+		executor.initialize();
+		return executor;
+	}
+
+}
@@ -0,0 +1,80 @@
+package com.itjing.sql.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.itjing.sql.constant.AnalysisPhase;
+import com.itjing.sql.service.SqlAnalysisMetrics;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * 耗时指标配置
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Configuration
+public class MetricsConfig implements WebMvcConfigurer {
+
+	@Resource
+	private SqlAnalysisMetrics sqlAnalysisMetrics;
+
+	/**
+	 * 限制 target 标签的取值个数，目标数据源连接池被淘汰后重新创建不会让指标无限增长
+	 * @param maxTargets 最多记录的目标数据源个数
+	 * @return {@link MeterFilter }
+	 */
+	@Bean
+	public MeterFilter analysisTargetTagFilter(@Value("${sql.analysis.metrics.max-targets:64}") int maxTargets) {
+		return MeterFilter.maximumAllowableTags(SqlAnalysisMetrics.PHASE_TIMER, "target", maxTargets,
+				MeterFilter.deny());
+	}
+
+	/**
+	 * 替换默认的 Jackson 转换器，记录绑定了目标数据源的请求的响应序列化耗时
+	 */
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		converters.replaceAll(converter -> converter instanceof MappingJackson2HttpMessageConverter jackson
+				? new TimedJackson2HttpMessageConverter(jackson.getObjectMapper(), sqlAnalysisMetrics) : converter);
+	}
+
+	/**
+	 * 记录序列化耗时的 Jackson 转换器，耗时包括写入响应缓冲区
+	 */
+	static class TimedJackson2HttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+		private final SqlAnalysisMetrics metrics;
+
+		TimedJackson2HttpMessageConverter(ObjectMapper objectMapper, SqlAnalysisMetrics metrics) {
+			super(objectMapper);
+			this.metrics = metrics;
+		}
+
+		@Override
+		protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage)
+				throws IOException, HttpMessageNotWritableException {
+			String target = metrics.boundTarget();
+			if (target == null) {
+				super.writeInternal(object, type, outputMessage);
+				return;
+			}
+			long start = System.nanoTime();
+			super.writeInternal(object, type, outputMessage);
+			metrics.record(AnalysisPhase.SERIALIZE, target, start);
+		}
+
+	}
+
+}
@@ -1,8 +1,11 @@
 package com.itjing.sql.config;
 
+import com.itjing.sql.interceptor.AsyncSqlAnalysisInterceptor;
+import com.itjing.sql.service.AsyncSqlAnalysisWorker;
 import com.itjing.sql.util.ConfigUtils;
 import com.jd.sql.analysis.core.SqlAnalysisAspect;
 import org.mybatis.spring.annotation.MapperScan;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -19,10 +22,11 @@ import java.util.Properties;
 public class MyBatisPlusConfig {
 
 	/**
-	 * SQL分析方面
+	 * SQL分析方面，在业务线程中同步执行 EXPLAIN 和评分（sql.analysis.interceptor.mode=SYNC，默认）
 	 * @return {@link SqlAnalysisAspect}
 	 */
 	@Bean
+	@ConditionalOnProperty(name = "sql.analysis.interceptor.mode", havingValue = "SYNC", matchIfMissing = true)
 	public SqlAnalysisAspect sqlAnalysisAspect() {
 
 		// 加载配置文件，此处加载的是名为"sql.slow"的配置
@@ -38,4 +42,15 @@ public class MyBatisPlusConfig {
 		return sqlAnalysisAspect;
 	}
 
+	/**
+	 * 异步SQL分析拦截器，业务线程只采样和采集，EXPLAIN 和评分在后台线程执行（sql.analysis.interceptor.mode=ASYNC）
+	 * @param asyncSqlAnalysisWorker 后台线程
+	 * @return {@link AsyncSqlAnalysisInterceptor}
+	 */
+	@Bean
+	@ConditionalOnProperty(name = "sql.analysis.interceptor.mode", havingValue = "ASYNC")
+	public AsyncSqlAnalysisInterceptor asyncSqlAnalysisInterceptor(AsyncSqlAnalysisWorker asyncSqlAnalysisWorker) {
+		return asyncSqlAnalysisWorker.createInterceptor();
+	}
+
 }
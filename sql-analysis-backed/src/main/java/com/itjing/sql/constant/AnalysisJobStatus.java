@@ -0,0 +1,49 @@
+package com.itjing.sql.constant;
+
+/**
+ * 异步分析任务状态
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public enum AnalysisJobStatus {
+
+	/**
+	 * 排队中
+	 */
+	QUEUED,
+
+	/**
+	 * 执行中
+	 */
+	RUNNING,
+
+	/**
+	 * 已完成（单条 SQL 分析失败不影响任务状态）
+	 */
+	COMPLETED,
+
+	/**
+	 * 已取消
+	 */
+	CANCELLED,
+
+	/**
+	 * 已超时
+	 */
+	TIMEOUT,
+
+	/**
+	 * 执行失败
+	 */
+	FAILED;
+
+	/**
+	 * 是否已结束
+	 * @return boolean
+	 */
+	public boolean isFinished() {
+		return this != QUEUED && this != RUNNING;
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.itjing.sql.constant;
+
+import java.util.Locale;
+
+/**
+ * 分析流程的阶段，作为耗时指标 sql.analysis.phase 的 phase 标签
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public enum AnalysisPhase {
+
+	/**
+	 * 等待目标数据源的并发许可
+	 */
+	PERMIT,
+
+	/**
+	 * 从目标数据源连接池获取连接
+	 */
+	POOL_ACQUIRE,
+
+	/**
+	 * 执行 EXPLAIN 到返回结果集（一次往返）
+	 */
+	EXPLAIN,
+
+	/**
+	 * 解析 EXPLAIN 结果
+	 */
+	PARSE,
+
+	/**
+	 * 规则评分
+	 */
+	SCORE,
+
+	/**
+	 * 评分结果格式化（JdMySqlScoreResultOutService.outResult）
+	 */
+	FORMAT,
+
+	/**
+	 * 响应 JSON 序列化
+	 */
+	SERIALIZE,
+
+	/**
+	 * 测试连接执行 SELECT 1
+	 */
+	TEST_QUERY,
+
+	/**
+	 * 读取数据库元信息：测试连接、加载表结构目录
+	 */
+	METADATA,
+
+	/**
+	 * 生成索引建议：解析 SQL、估算候选索引，表结构不在目录中时包含加载时间（同时记为 METADATA）
+	 */
+	ADVISE;
+
+	private final String tag = name().toLowerCase(Locale.ROOT);
+
+	/**
+	 * 标签值（小写）
+	 * @return {@link String }
+	 */
+	public String getTag() {
+		return tag;
+	}
+
+}
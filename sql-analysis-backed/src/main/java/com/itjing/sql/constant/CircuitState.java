@@ -0,0 +1,26 @@
+package com.itjing.sql.constant;
+
+/**
+ * 熔断器状态
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public enum CircuitState {
+
+	/**
+	 * 关闭：请求正常通过
+	 */
+	CLOSED,
+
+	/**
+	 * 打开：连续失败达到阈值，请求直接失败
+	 */
+	OPEN,
+
+	/**
+	 * 半开：打开时间结束后放行一个试探请求，成功则关闭，失败则重新打开
+	 */
+	HALF_OPEN
+
+}
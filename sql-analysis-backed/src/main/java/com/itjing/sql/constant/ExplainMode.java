@@ -0,0 +1,26 @@
+package com.itjing.sql.constant;
+
+/**
+ * 执行计划模式
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public enum ExplainMode {
+
+	/**
+	 * 传统表格格式：EXPLAIN
+	 */
+	TRADITIONAL,
+
+	/**
+	 * JSON 格式：EXPLAIN FORMAT=JSON，包含代价信息
+	 */
+	JSON,
+
+	/**
+	 * 实际执行：EXPLAIN ANALYZE，只支持 MySQL 8.0.18 及以上的 SELECT 语句，在只读事务中执行并回滚
+	 */
+	ANALYZE
+
+}
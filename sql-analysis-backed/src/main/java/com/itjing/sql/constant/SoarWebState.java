@@ -0,0 +1,36 @@
+package com.itjing.sql.constant;
+
+/**
+ * soar-web 运行状态
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public enum SoarWebState {
+
+	/**
+	 * 未启动（延迟启动时第一次调用前）或已停止
+	 */
+	STOPPED,
+
+	/**
+	 * 启动中：构建（未命中缓存时）、启动进程、等待 HTTP 就绪
+	 */
+	STARTING,
+
+	/**
+	 * 已就绪
+	 */
+	READY,
+
+	/**
+	 * 进程意外退出，正在重启
+	 */
+	RESTARTING,
+
+	/**
+	 * 启动失败或连续重启失败，需要手动重启
+	 */
+	FAILED
+
+}
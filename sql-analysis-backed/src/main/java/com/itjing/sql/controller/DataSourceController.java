@@ -0,0 +1,89 @@
+package com.itjing.sql.controller;
+
+import com.itjing.sql.domain.jd.dto.DataSourceDTO;
+import com.itjing.sql.domain.jd.dto.DataSourceProfileDTO;
+import com.itjing.sql.response.AjaxResult;
+import com.itjing.sql.service.DataSourceRegistryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.*;
+
+import javax.annotation.Resource;
+import javax.validation.Valid;
+
+/**
+ * 目标数据源管理控制器
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@RestController
+@Slf4j
+@RequestMapping("/jd/datasource")
+public class DataSourceController {
+
+	@Resource
+	private DataSourceRegistryService dataSourceRegistryService;
+
+	/**
+	 * 注册数据源配置
+	 * @param profile 数据源配置
+	 * @return {@link AjaxResult }
+	 */
+	@PostMapping("/profile/register")
+	public AjaxResult<?> registerProfile(@Valid @RequestBody DataSourceProfileDTO profile) {
+		dataSourceRegistryService.registerProfile(profile);
+		return AjaxResult.success();
+	}
+
+	/**
+	 * 数据源配置列表
+	 * @return {@link AjaxResult }
+	 */
+	@GetMapping("/profile/list")
+	public AjaxResult<?> listProfiles() {
+		return AjaxResult.success(dataSourceRegistryService.listProfiles());
+	}
+
+	/**
+	 * 删除数据源配置
+	 * @param id 数据源配置ID
+	 * @return {@link AjaxResult }
+	 */
+	@DeleteMapping("/profile/{id}")
+	public AjaxResult<?> removeProfile(@PathVariable String id) {
+		if (!dataSourceRegistryService.removeProfile(id)) {
+			return AjaxResult.error("数据源配置不存在");
+		}
+		return AjaxResult.success();
+	}
+
+	/**
+	 * 目标数据源连接池状态
+	 * @return {@link AjaxResult }
+	 */
+	@GetMapping("/pool/list")
+	public AjaxResult<?> listPools() {
+		return AjaxResult.success(dataSourceRegistryService.listPools());
+	}
+
+	/**
+	 * 关闭目标数据源连接池
+	 * @param config 配置
+	 * @return {@link AjaxResult }
+	 */
+	@PostMapping("/pool/close")
+	public AjaxResult<?> closePool(@Valid @RequestBody DataSourceDTO config) {
+		return AjaxResult.success(dataSourceRegistryService.close(config));
+	}
+
+	/**
+	 * 关闭全部目标数据源连接池
+	 * @return {@link AjaxResult }
+	 */
+	@PostMapping("/pool/closeAll")
+	public AjaxResult<?> closeAllPools() {
+		dataSourceRegistryService.closeAll();
+		return AjaxResult.success();
+	}
+
+}
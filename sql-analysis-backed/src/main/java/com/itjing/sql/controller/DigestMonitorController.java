@@ -0,0 +1,102 @@
+package com.itjing.sql.controller;
+
+import com.itjing.sql.response.AjaxResult;
+import com.itjing.sql.service.DigestMonitorService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.annotation.Resource;
+import java.sql.SQLException;
+
+/**
+ * 京东sql-analysis performance_schema 语句摘要采集控制器
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@RestController
+@Slf4j
+@RequestMapping("/jd/sql-analysis/digest")
+public class DigestMonitorController {
+
+	/**
+	 * 排名最多返回的条数
+	 */
+	private static final int MAX_LIMIT = 500;
+
+	@Resource
+	private DigestMonitorService digestMonitorService;
+
+	/**
+	 * 开启数据源配置的语句摘要采集
+	 * @param profileId 数据源配置ID
+	 * @return {@link AjaxResult }
+	 */
+	@PostMapping("/start/{profileId}")
+	public AjaxResult<?> start(@PathVariable String profileId) {
+		try {
+			return AjaxResult.success(digestMonitorService.start(profileId));
+		}
+		catch (SQLException e) {
+			log.error("开启语句摘要采集失败，{}", e.getMessage());
+			return AjaxResult.error(e.getMessage());
+		}
+	}
+
+	/**
+	 * 停止数据源配置的语句摘要采集
+	 * @param profileId 数据源配置ID
+	 * @return {@link AjaxResult }
+	 */
+	@PostMapping("/stop/{profileId}")
+	public AjaxResult<?> stop(@PathVariable String profileId) {
+		if (!digestMonitorService.stop(profileId)) {
+			return AjaxResult.error("数据源配置未开启语句摘要采集");
+		}
+		return AjaxResult.success();
+	}
+
+	/**
+	 * 立即采集一次
+	 * @param profileId 数据源配置ID
+	 * @return {@link AjaxResult }
+	 */
+	@PostMapping("/poll/{profileId}")
+	public AjaxResult<?> poll(@PathVariable String profileId) {
+		try {
+			return AjaxResult.success(digestMonitorService.pollNow(profileId));
+		}
+		catch (SQLException e) {
+			log.error("采集语句摘要失败，{}", e.getMessage());
+			return AjaxResult.error(e.getMessage());
+		}
+	}
+
+	/**
+	 * 采集状态列表
+	 * @return {@link AjaxResult }
+	 */
+	@GetMapping("/list")
+	public AjaxResult<?> list() {
+		return AjaxResult.success(digestMonitorService.list());
+	}
+
+	/**
+	 * 最差的语句排名
+	 * @param profileId 数据源配置ID
+	 * @param sort 排序：total 总执行时间，avg 平均执行时间，recent 最近一个采集间隔的执行时间，rows 扫描行数
+	 * @param limit 条数
+	 * @return {@link AjaxResult }
+	 */
+	@GetMapping("/top/{profileId}")
+	public AjaxResult<?> top(@PathVariable String profileId, @RequestParam(defaultValue = "total") String sort,
+			@RequestParam(defaultValue = "20") int limit) {
+		return AjaxResult.success(digestMonitorService.top(profileId, sort, Math.max(1, Math.min(limit, MAX_LIMIT))));
+	}
+
+}
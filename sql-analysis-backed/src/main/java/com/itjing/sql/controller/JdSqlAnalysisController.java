@@ -1,28 +1,37 @@
 package com.itjing.sql.controller;
 
+import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
 import com.alibaba.fastjson2.JSONObject;
+import com.itjing.sql.constant.AnalysisPhase;
+import com.itjing.sql.constant.ExplainMode;
 import com.itjing.sql.domain.jd.dto.DataSourceDTO;
+import com.itjing.sql.domain.jd.dto.SqlBatchAnalysisDTO;
+import com.itjing.sql.domain.jd.dto.SqlFingerprintDTO;
 import com.itjing.sql.domain.jd.vo.DatabaseMetaVO;
-import com.itjing.sql.service.JdMySqlScoreResultOutService;
+import com.itjing.sql.domain.jd.vo.SqlAnalysisResultVO;
+import com.itjing.sql.service.AnalysisTaskRegistry;
+import com.itjing.sql.service.AnalysisTaskRegistry.AnalysisTask;
+import com.itjing.sql.service.AsyncSqlAnalysisWorker;
+import com.itjing.sql.service.DataSourceRegistryService;
+import com.itjing.sql.service.DataSourceRegistryService.TargetDataSource;
+import com.itjing.sql.service.JdSqlAnalysisService;
+import com.itjing.sql.service.SqlAnalysisCacheService;
+import com.itjing.sql.service.SqlAnalysisMetrics;
+import com.itjing.sql.service.SqlScoreRuleService;
 import com.itjing.sql.response.AjaxResult;
-import com.jd.sql.analysis.analysis.SqlAnalysisResult;
 import com.jd.sql.analysis.analysis.SqlAnalysisResultList;
-import com.jd.sql.analysis.score.SqlScoreResult;
-import com.jd.sql.analysis.score.SqlScoreService;
-import com.jd.sql.analysis.score.SqlScoreServiceRulesEngine;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.annotation.Resource;
-import javax.sql.DataSource;
 import javax.validation.Valid;
 import java.sql.*;
-import java.util.*;
 
 /**
  * 京东sql-analysis Sql分析控制器
@@ -36,7 +45,25 @@ import java.util.*;
 public class JdSqlAnalysisController {
 
 	@Resource
-	private JdMySqlScoreResultOutService jdMySqlScoreResultOutService;
+	private JdSqlAnalysisService jdSqlAnalysisService;
+
+	@Resource
+	private DataSourceRegistryService dataSourceRegistryService;
+
+	@Resource
+	private SqlAnalysisCacheService sqlAnalysisCacheService;
+
+	@Resource
+	private SqlScoreRuleService sqlScoreRuleService;
+
+	@Resource
+	private AnalysisTaskRegistry analysisTaskRegistry;
+
+	@Resource
+	private AsyncSqlAnalysisWorker asyncSqlAnalysisWorker;
+
+	@Resource
+	private SqlAnalysisMetrics sqlAnalysisMetrics;
 
 	/**
 	 * 测试连接
@@ -47,11 +74,19 @@ public class JdSqlAnalysisController {
 	public AjaxResult<?> testConnection(@Valid @RequestBody DataSourceDTO config) {
 		log.info("测试连接，数据源信息：{}", config);
 		try {
-			DataSource dataSource = buildDataSource(config);
-			try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
+			TargetDataSource target = dataSourceRegistryService.getTarget(config);
+			String targetName = target.getName();
+			sqlAnalysisMetrics.bindTarget(targetName);
+			long start = System.nanoTime();
+			try (Connection conn = target.getDataSource().getConnection(); Statement stmt = conn.createStatement()) {
+				sqlAnalysisMetrics.record(AnalysisPhase.POOL_ACQUIRE, targetName, start);
+				start = System.nanoTime();
 				stmt.execute("SELECT 1");
+				sqlAnalysisMetrics.record(AnalysisPhase.TEST_QUERY, targetName, start);
+				start = System.nanoTime();
 				DatabaseMetaData metaData = conn.getMetaData();
 				DatabaseMetaVO metaInfo = extractMetadata(metaData);
+				sqlAnalysisMetrics.record(AnalysisPhase.METADATA, targetName, start);
 				log.info("测试连接成功，数据库元信息：{}", metaInfo);
 				return AjaxResult.success(metaInfo);
 			}
@@ -102,22 +137,17 @@ public class JdSqlAnalysisController {
 			if (StrUtil.isBlank(config.getSql())) {
 				return AjaxResult.error("sql不能为空");
 			}
-			Map<String, Object> result = new HashMap<>();
-			DataSource dataSource = buildDataSource(config);
-			try (Connection conn = dataSource.getConnection(); Statement stmt = conn.createStatement()) {
-				// 执行 EXPLAIN 获取执行计划
-				ResultSet explainResult = stmt.executeQuery("EXPLAIN " + config.getSql());
-				// 解析为结构化数据
-				SqlAnalysisResultList resultList = parseExplainResult(explainResult);
-				log.info(JSONObject.toJSONString(resultList.getResultList()));
-				// 调用规则引擎评分（需初始化规则引擎）
-				SqlScoreService scoreService = new SqlScoreServiceRulesEngine();
-				SqlScoreResult score = scoreService.score(resultList);
-				String scoreResult = jdMySqlScoreResultOutService.outResult(score);
-				result.put("explainResultList", resultList.getResultList());
-				result.put("scoreResult", scoreResult);
-				return AjaxResult.success(result);
+			TargetDataSource target = dataSourceRegistryService.getTarget(config);
+			sqlAnalysisMetrics.bindTarget(target.getName());
+			AnalysisTask task = analysisTaskRegistry.start(config.getAnalysisId(), target.getName(),
+					config.getTimeoutMillis());
+			SqlAnalysisResultVO result = jdSqlAnalysisService.analyze(target, config.getSql(),
+					ObjectUtil.defaultIfNull(config.getExplainMode(), ExplainMode.TRADITIONAL),
+					Boolean.TRUE.equals(config.getTextReport()), task);
+			if (log.isDebugEnabled()) {
+				log.debug(JSONObject.toJSONString(result.getExplainResultList()));
 			}
+			return AjaxResult.success(result);
 		}
 		catch (SQLException e) {
 			log.error("分析sql失败，{}", e.getMessage());
@@ -126,45 +156,129 @@ public class JdSqlAnalysisController {
 	}
 
 	/**
-	 * 解析 explain 结果
-	 * @param rs explain 结果
-	 * @return {@link Map }<{@link String }, {@link Object }>
+	 * 批量分析SQL
+	 * @param config 配置
+	 * @return {@link AjaxResult }
 	 */
-	public SqlAnalysisResultList parseExplainResult(ResultSet rs) throws SQLException {
-		SqlAnalysisResultList resultList = new SqlAnalysisResultList();
-		List<SqlAnalysisResult> analysisResults = new ArrayList<>();
-
-		// 遍历 EXPLAIN 结果集的每一行
-		while (rs.next()) {
-			SqlAnalysisResult result = new SqlAnalysisResult();
-			// 映射字段（需适配不同数据库方言）
-			result.setId(rs.getLong("id"));
-			result.setSelectType(rs.getString("select_type"));
-			result.setTable(rs.getString("table"));
-			result.setType(rs.getString("type"));
-			result.setPossibleKeys(rs.getString("possible_keys"));
-			result.setKey(rs.getString("key"));
-			result.setRows(rs.getString("rows"));
-			result.setFiltered(rs.getDouble("filtered"));
-			result.setExtra(rs.getString("Extra"));
-			analysisResults.add(result);
+	@PostMapping("/analyzeBatch")
+	public AjaxResult<?> analyzeBatch(@Valid @RequestBody SqlBatchAnalysisDTO config) {
+		try {
+			TargetDataSource target = dataSourceRegistryService.getTarget(config);
+			sqlAnalysisMetrics.bindTarget(target.getName());
+			AnalysisTask task = analysisTaskRegistry.start(config.getAnalysisId(), target.getName(),
+					config.getTimeoutMillis());
+			return AjaxResult.success(jdSqlAnalysisService.analyzeBatch(target, config.getSqlList(),
+					ObjectUtil.defaultIfNull(config.getExplainMode(), ExplainMode.TRADITIONAL),
+					Boolean.TRUE.equals(config.getTextReport()), task));
+		}
+		catch (SQLException e) {
+			log.error("批量分析sql失败，{}", e.getMessage());
+			return AjaxResult.error(e.getMessage());
 		}
+	}
 
-		resultList.setResultList(analysisResults);
-		return resultList;
+	/**
+	 * 取消正在执行的分析
+	 * @param analysisId 分析ID
+	 * @return {@link AjaxResult }
+	 */
+	@PostMapping("/task/cancel/{analysisId}")
+	public AjaxResult<?> cancelTask(@PathVariable String analysisId) {
+		analysisTaskRegistry.cancel(analysisId);
+		return AjaxResult.success();
 	}
 
 	/**
-	 * 构建数据源
+	 * 正在执行的分析
+	 * @return {@link AjaxResult }
+	 */
+	@GetMapping("/task/list")
+	public AjaxResult<?> listTasks() {
+		return AjaxResult.success(analysisTaskRegistry.list());
+	}
+
+	/**
+	 * 分析任务统计（完成、超时、取消、失败次数）
+	 * @return {@link AjaxResult }
+	 */
+	@GetMapping("/task/stats")
+	public AjaxResult<?> taskStats() {
+		return AjaxResult.success(analysisTaskRegistry.stats());
+	}
+
+	/**
+	 * 计算SQL指纹
 	 * @param config 配置
-	 * @return {@link DataSource }
-	 */
-	private DataSource buildDataSource(DataSourceDTO config) {
-		return DataSourceBuilder.create()
-			.url(config.getUrl())
-			.username(config.getUsername())
-			.password(config.getPassword())
-			.build();
+	 * @return {@link AjaxResult }
+	 */
+	@PostMapping("/fingerprint")
+	public AjaxResult<?> fingerprint(@Valid @RequestBody SqlFingerprintDTO config) {
+		return AjaxResult.success(jdSqlAnalysisService.fingerprint(config.getSqlList()));
+	}
+
+	/**
+	 * 分析结果缓存统计
+	 * @return {@link AjaxResult }
+	 */
+	@GetMapping("/cache/stats")
+	public AjaxResult<?> cacheStats() {
+		return AjaxResult.success(sqlAnalysisCacheService.stats());
+	}
+
+	/**
+	 * 清空分析结果缓存
+	 * @return {@link AjaxResult }
+	 */
+	@PostMapping("/cache/clear")
+	public AjaxResult<?> clearCache() {
+		sqlAnalysisCacheService.clear();
+		return AjaxResult.success();
+	}
+
+	/**
+	 * 当前评分规则
+	 * @return {@link AjaxResult }
+	 */
+	@GetMapping("/rule/info")
+	public AjaxResult<?> ruleInfo() {
+		return AjaxResult.success(sqlScoreRuleService.info());
+	}
+
+	/**
+	 * 重新加载评分规则
+	 * @return {@link AjaxResult }
+	 */
+	@PostMapping("/rule/reload")
+	public AjaxResult<?> reloadRule() {
+		return AjaxResult.success(sqlScoreRuleService.reload());
+	}
+
+	/**
+	 * 异步SQL分析拦截器统计（采样、丢弃、分析次数）
+	 * @return {@link AjaxResult }
+	 */
+	@GetMapping("/interceptor/stats")
+	public AjaxResult<?> interceptorStats() {
+		return AjaxResult.success(asyncSqlAnalysisWorker.stats());
+	}
+
+	/**
+	 * 异步SQL分析中最近评分低于预期的 SQL
+	 * @return {@link AjaxResult }
+	 */
+	@GetMapping("/interceptor/warnings")
+	public AjaxResult<?> interceptorWarnings() {
+		return AjaxResult.success(asyncSqlAnalysisWorker.recentWarnings());
+	}
+
+	/**
+	 * 解析 explain 结果
+	 * @param rs explain 结果
+	 * @return {@link SqlAnalysisResultList }
+	 * @throws SQLException sql异常
+	 */
+	public SqlAnalysisResultList parseExplainResult(ResultSet rs) throws SQLException {
+		return jdSqlAnalysisService.parseExplainResult(rs);
 	}
 
 	/**
@@ -0,0 +1,90 @@
+package com.itjing.sql.controller;
+
+import cn.hutool.core.util.ObjectUtil;
+import com.itjing.sql.constant.ExplainMode;
+import com.itjing.sql.domain.jd.dto.SqlBatchAnalysisDTO;
+import com.itjing.sql.response.AjaxResult;
+import com.itjing.sql.service.AnalysisJobService;
+import com.itjing.sql.service.DataSourceRegistryService;
+import com.itjing.sql.service.DataSourceRegistryService.TargetDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.Resource;
+import javax.validation.Valid;
+import java.sql.SQLException;
+
+/**
+ * 京东sql-analysis 异步分析任务控制器
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@RestController
+@Slf4j
+@RequestMapping("/jd/sql-analysis/job")
+public class JdSqlAnalysisJobController {
+
+	@Resource
+	private AnalysisJobService analysisJobService;
+
+	@Resource
+	private DataSourceRegistryService dataSourceRegistryService;
+
+	/**
+	 * 提交异步分析任务
+	 * @param config 配置
+	 * @return {@link AjaxResult }
+	 */
+	@PostMapping("/submit")
+	public AjaxResult<?> submit(@Valid @RequestBody SqlBatchAnalysisDTO config) {
+		try {
+			TargetDataSource target = dataSourceRegistryService.getTarget(config);
+			return AjaxResult.success(analysisJobService.submit(target, config.getSqlList(),
+					ObjectUtil.defaultIfNull(config.getExplainMode(), ExplainMode.TRADITIONAL),
+					Boolean.TRUE.equals(config.getTextReport()), config.getAnalysisId(), config.getTimeoutMillis()));
+		}
+		catch (SQLException e) {
+			log.error("提交异步分析任务失败，{}", e.getMessage());
+			return AjaxResult.error(e.getMessage());
+		}
+	}
+
+	/**
+	 * 查询任务状态和已完成的结果
+	 * @param jobId 任务ID
+	 * @return {@link AjaxResult }
+	 */
+	@GetMapping("/{jobId}")
+	public AjaxResult<?> status(@PathVariable String jobId) {
+		return AjaxResult.success(analysisJobService.status(jobId));
+	}
+
+	/**
+	 * 订阅任务进度（SSE），事件 result 为单条 SQL 的分析结果，事件 done 为任务结束
+	 * @param jobId 任务ID
+	 * @return {@link SseEmitter }
+	 */
+	@GetMapping(value = "/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter events(@PathVariable String jobId) {
+		return analysisJobService.subscribe(jobId);
+	}
+
+	/**
+	 * 取消任务
+	 * @param jobId 任务ID
+	 * @return {@link AjaxResult }
+	 */
+	@PostMapping("/{jobId}/cancel")
+	public AjaxResult<?> cancel(@PathVariable String jobId) {
+		return AjaxResult.success(analysisJobService.cancel(jobId));
+	}
+
+}
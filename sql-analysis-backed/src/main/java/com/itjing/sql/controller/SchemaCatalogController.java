@@ -0,0 +1,110 @@
+package com.itjing.sql.controller;
+
+import com.itjing.sql.domain.jd.dto.DataSourceDTO;
+import com.itjing.sql.domain.jd.dto.SchemaCatalogDTO;
+import com.itjing.sql.domain.jd.vo.TableMetaVO;
+import com.itjing.sql.response.AjaxResult;
+import com.itjing.sql.service.DataSourceRegistryService;
+import com.itjing.sql.service.DataSourceRegistryService.TargetDataSource;
+import com.itjing.sql.service.SchemaCatalogService;
+import com.itjing.sql.service.SqlAnalysisMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.annotation.Resource;
+import javax.validation.Valid;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * 京东sql-analysis 表结构目录控制器
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@RestController
+@Slf4j
+@RequestMapping("/jd/sql-analysis/catalog")
+public class SchemaCatalogController {
+
+	@Resource
+	private SchemaCatalogService schemaCatalogService;
+
+	@Resource
+	private DataSourceRegistryService dataSourceRegistryService;
+
+	@Resource
+	private SqlAnalysisMetrics sqlAnalysisMetrics;
+
+	/**
+	 * 查询表结构和索引统计，没有缓存的表从目标库加载
+	 * @param config 配置
+	 * @return {@link AjaxResult }
+	 */
+	@PostMapping("/tables")
+	public AjaxResult<?> tables(@Valid @RequestBody SchemaCatalogDTO config) {
+		try {
+			TargetDataSource target = dataSourceRegistryService.getTarget(config);
+			sqlAnalysisMetrics.bindTarget(target.getName());
+			List<TableMetaVO> tables = schemaCatalogService
+				.getTables(target, config.getTables(), Boolean.TRUE.equals(config.getRefresh()))
+				.stream()
+				.map(TableMetaVO::of)
+				.toList();
+			return AjaxResult.success(tables);
+		}
+		catch (SQLException e) {
+			log.error("查询表结构失败，{}", e.getMessage());
+			return AjaxResult.error(e.getMessage());
+		}
+	}
+
+	/**
+	 * 立即重新加载目标数据源已缓存的全部表
+	 * @param config 配置
+	 * @return {@link AjaxResult }
+	 */
+	@PostMapping("/refresh")
+	public AjaxResult<?> refresh(@Valid @RequestBody DataSourceDTO config) {
+		try {
+			return AjaxResult.success(schemaCatalogService.refresh(dataSourceRegistryService.getTarget(config)));
+		}
+		catch (SQLException e) {
+			log.error("重新加载表结构失败，{}", e.getMessage());
+			return AjaxResult.error(e.getMessage());
+		}
+	}
+
+	/**
+	 * 删除目标数据源的表结构目录
+	 * @param config 配置
+	 * @return {@link AjaxResult }
+	 */
+	@PostMapping("/clear")
+	public AjaxResult<?> clear(@Valid @RequestBody DataSourceDTO config) {
+		try {
+			if (!schemaCatalogService.clear(dataSourceRegistryService.getTarget(config))) {
+				return AjaxResult.error("目标数据源没有缓存的表结构");
+			}
+			return AjaxResult.success();
+		}
+		catch (SQLException e) {
+			log.error("删除表结构目录失败，{}", e.getMessage());
+			return AjaxResult.error(e.getMessage());
+		}
+	}
+
+	/**
+	 * 各目标数据源的表结构目录统计
+	 * @return {@link AjaxResult }
+	 */
+	@GetMapping("/stats")
+	public AjaxResult<?> stats() {
+		return AjaxResult.success(schemaCatalogService.stats());
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.itjing.sql.controller;
+
+import com.itjing.sql.domain.jd.dto.SlowLogAnalysisDTO;
+import com.itjing.sql.response.AjaxResult;
+import com.itjing.sql.service.DataSourceRegistryService;
+import com.itjing.sql.service.DataSourceRegistryService.TargetDataSource;
+import com.itjing.sql.service.SlowLogAnalysisService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.annotation.Resource;
+import javax.validation.Valid;
+import java.sql.SQLException;
+
+/**
+ * 京东sql-analysis 慢查询日志分析控制器
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@RestController
+@Slf4j
+@RequestMapping("/jd/sql-analysis/slow-log")
+public class SlowLogController {
+
+	@Resource
+	private SlowLogAnalysisService slowLogAnalysisService;
+
+	@Resource
+	private DataSourceRegistryService dataSourceRegistryService;
+
+	/**
+	 * 分析慢查询日志：按指纹汇总，对总执行时间最长的前 top 类 SQL 执行 EXPLAIN 并评分
+	 * @param config 配置
+	 * @return {@link AjaxResult }
+	 */
+	@PostMapping("/analyze")
+	public AjaxResult<?> analyze(@Valid @RequestBody SlowLogAnalysisDTO config) {
+		log.info("分析慢查询日志：{}", config);
+		try {
+			TargetDataSource target = dataSourceRegistryService.getTarget(config);
+			return AjaxResult.success(slowLogAnalysisService.analyze(target, config));
+		}
+		catch (SQLException e) {
+			log.error("分析慢查询日志失败，{}", e.getMessage());
+			return AjaxResult.error(e.getMessage());
+		}
+	}
+
+}
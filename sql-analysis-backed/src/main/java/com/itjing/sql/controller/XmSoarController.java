@@ -1,19 +1,32 @@
 package com.itjing.sql.controller;
 
 import cn.hutool.core.util.StrUtil;
+import com.itjing.sql.domain.xm.dto.SoarBatchDTO;
+import com.itjing.sql.domain.xm.dto.SoarRequestDTO;
+import com.itjing.sql.domain.xm.vo.SoarApiResultVO;
 import com.itjing.sql.response.AjaxResult;
+import com.itjing.sql.service.SoarCliRunner;
+import com.itjing.sql.service.SoarResultCacheService;
+import com.itjing.sql.service.SoarWebClient;
+import com.itjing.sql.service.SoarWebProxyService;
 import com.itjing.sql.service.XmSoarWebService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.annotation.Resource;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -30,23 +43,168 @@ public class XmSoarController {
     @Resource
     private XmSoarWebService xmSoarWebService;
 
-    @Value("${soar.web.port:3000}")
-    private int soarWebPort;
+    @Resource
+    private SoarWebProxyService soarWebProxyService;
 
-    private final String SOAR_BASE_URL = "http://localhost:";
+    @Resource
+    private SoarWebClient soarWebClient;
 
+    @Resource
+    private SoarCliRunner soarCliRunner;
+
+    @Resource
+    private SoarResultCacheService soarResultCacheService;
+
+    /**
+     * soar-web 启动中时请求默认的等待时间（毫秒）
+     */
+    @Value("${soar.web.request-wait:10000}")
+    private long requestWait;
+
+    /**
+     * 健康检查的请求超时时间（毫秒）
+     */
+    private static final long HEALTH_TIMEOUT = 3000L;
+
+    /**
+     * 检查 soar-web 是否可用，启动中时最多等待 wait 毫秒，启动失败时立即返回失败
+     * @param wait 等待时间（毫秒），不指定时使用默认值
+     * @return {@link AjaxResult }
+     */
     @GetMapping("/health")
-    public AjaxResult<?> checkHealth() {
-        try {
-            URL url = new URL(SOAR_BASE_URL + soarWebPort + "/webui");
-            HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-            conn.setRequestMethod("GET");
-            int responseCode = conn.getResponseCode();
-            return AjaxResult.success(responseCode);
-        } catch (Exception e) {
-            log.error("检查服务健康状态失败 {}", e.getMessage());
-            throw new RuntimeException(StrUtil.format("检查服务健康状态失败 {}", e.getMessage()));
+    public AjaxResult<?> checkHealth(@RequestParam(required = false) Long wait) {
+        xmSoarWebService.awaitReady(wait == null ? requestWait : Math.max(0L, wait));
+        return AjaxResult.success(soarWebClient.send("GET", "/webui", null, null, HEALTH_TIMEOUT).statusCode());
+    }
+
+    /**
+     * soar-web 运行状态，不等待
+     * @return {@link AjaxResult }
+     */
+    @GetMapping("/status")
+    public AjaxResult<?> status() {
+        return AjaxResult.success(xmSoarWebService.status());
+    }
+
+    /**
+     * 重启 soar-web（启动失败后手动恢复）
+     * @return {@link AjaxResult }
+     */
+    @PostMapping("/restart")
+    public AjaxResult<?> restart() {
+        xmSoarWebService.restart();
+        return AjaxResult.success(xmSoarWebService.status());
+    }
+
+    /**
+     * soar-web 启动信息：是否命中构建缓存、各阶段耗时
+     * @return {@link AjaxResult }
+     */
+    @GetMapping("/startup")
+    public AjaxResult<?> startupInfo() {
+        return AjaxResult.success(xmSoarWebService.getStartupInfo());
+    }
+
+    /**
+     * soar-web 各实例状态、重启次数和请求耗时
+     * @return {@link AjaxResult }
+     */
+    @GetMapping("/instances")
+    public AjaxResult<?> instances() {
+        return AjaxResult.success(xmSoarWebService.status().getInstances());
+    }
+
+    /**
+     * 转发请求到 soar-web，/xm/soar/proxy 之后的路径原样转发，在就绪实例间负载均衡
+     * @param request 请求
+     * @param headers 请求头
+     * @param body 请求体
+     * @return {@link ResponseEntity }<{@link byte[] }>
+     */
+    @RequestMapping("/proxy/**")
+    public ResponseEntity<byte[]> proxy(HttpServletRequest request, @RequestHeader HttpHeaders headers,
+                                        @RequestBody(required = false) byte[] body) {
+        String path = request.getRequestURI().substring((request.getContextPath() + "/xm/soar/proxy").length());
+        return soarWebProxyService.forward(request.getMethod(), path.isEmpty() ? "/" : path,
+                request.getQueryString(), headers, body);
+    }
+
+    /**
+     * soar 优化建议
+     * @param request 请求
+     * @return {@link AjaxResult }
+     */
+    @PostMapping("/advise")
+    public AjaxResult<?> advise(@Valid @RequestBody SoarRequestDTO request) {
+        Map<String, String> params = toParams(request);
+        params.put("report-type", StrUtil.blankToDefault(request.getReportType(), "markdown"));
+        return toResult(soarWebClient.soar(params));
+    }
+
+    /**
+     * soar 改写
+     * @param request 请求
+     * @return {@link AjaxResult }
+     */
+    @PostMapping("/rewrite")
+    public AjaxResult<?> rewrite(@Valid @RequestBody SoarRequestDTO request) {
+        Map<String, String> params = toParams(request);
+        params.put("report-type", "rewrite");
+        if (StrUtil.isNotBlank(request.getRewriteRules())) {
+            params.put("rewrite-rules", request.getRewriteRules());
         }
+        return toResult(soarWebClient.soar(params));
+    }
+
+    /**
+     * soar 批量启发式分析：直接调用 soar 命令行，每批 SQL 只启动一次 soar 进程
+     * @param request 请求
+     * @return {@link AjaxResult }
+     */
+    @PostMapping("/batch")
+    public AjaxResult<?> batch(@Valid @RequestBody SoarBatchDTO request) {
+        return AjaxResult.success(soarCliRunner.analyze(request.getSqlList()));
+    }
+
+    /**
+     * soar-web 客户端统计：熔断器状态、并发、合并的调用数
+     * @return {@link AjaxResult }
+     */
+    @GetMapping("/client")
+    public AjaxResult<?> clientStats() {
+        return AjaxResult.success(soarWebClient.stats());
+    }
+
+    /**
+     * soar 结果缓存统计
+     * @return {@link AjaxResult }
+     */
+    @GetMapping("/cache/stats")
+    public AjaxResult<?> cacheStats() {
+        return AjaxResult.success(soarResultCacheService.stats());
+    }
+
+    /**
+     * 清空 soar 结果缓存
+     * @return {@link AjaxResult }
+     */
+    @PostMapping("/cache/clear")
+    public AjaxResult<?> clearCache() {
+        soarResultCacheService.clear();
+        return AjaxResult.success();
+    }
+
+    private static Map<String, String> toParams(SoarRequestDTO request) {
+        Map<String, String> params = new HashMap<>();
+        if (request.getOptions() != null) {
+            request.getOptions().forEach((key, value) -> params.put(key, StrUtil.nullToEmpty(value)));
+        }
+        params.put("query", request.getSql());
+        return params;
+    }
+
+    private static AjaxResult<?> toResult(SoarApiResultVO result) {
+        return result.isStatus() ? AjaxResult.success(result) : AjaxResult.error(result.getResult(), result);
     }
 
 }
@@ -1,9 +1,13 @@
 package com.itjing.sql.domain.jd.dto;
 
+import cn.hutool.core.util.StrUtil;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.itjing.sql.constant.ExplainMode;
 import lombok.*;
 
-import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.AssertTrue;
 import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Positive;
 import java.io.Serial;
 import java.io.Serializable;
 
@@ -24,23 +28,29 @@ public class DataSourceDTO implements Serializable {
 	private static final long serialVersionUID = 1L;
 
 	/**
-	 * 数据库连接
+	 * 已注册的数据源配置ID，指定后忽略 url、用户名、密码
 	 */
-	@NotBlank(message = "URL不能为空")
-	@Pattern(regexp = "^jdbc:mysql://([\\w.-]+)(:\\d+)?/[\\w-]+(\\?.*)?$",
-			message = "URL格式应为jdbc:mysql://host:port/dbname")
+	@Pattern(regexp = "^[\\w-]{1,64}$", message = "数据源配置ID只能包含字母、数字、下划线、中划线")
+	private String profileId;
+
+	/**
+	 * 数据库连接：MySQL、MariaDB、PostgreSQL（不允许连接参数，驱动会按参数加载类）或 H2 内存库（不允许 INIT 等参数）
+	 */
+	@Pattern(regexp = "^jdbc:(mysql|mariadb)://([\\w.-]+)(:\\d+)?/[\\w-]+(\\?.*)?$"
+			+ "|^jdbc:postgresql://([\\w.-]+)(:\\d+)?/[\\w-]+$|^jdbc:h2:mem:[\\w-]+$",
+			message = "URL格式应为jdbc:mysql://host:port/dbname、jdbc:mariadb://host:port/dbname、"
+					+ "jdbc:postgresql://host:port/dbname 或 jdbc:h2:mem:dbname")
 	private String url;
 
 	/**
 	 * 用户名
 	 */
-	@NotBlank(message = "用户名不能为空")
 	private String username;
 
 	/**
 	 * 密码
 	 */
-	@NotBlank(message = "密码不能为空")
+	@ToString.Exclude
 	private String password;
 
 	/**
@@ -48,4 +58,46 @@ public class DataSourceDTO implements Serializable {
 	 */
 	private String sql;
 
+	/**
+	 * 执行计划模式，默认 TRADITIONAL
+	 */
+	private ExplainMode explainMode;
+
+	/**
+	 * 是否同时返回评分结果的文本报告，默认只返回结构化的评分结果
+	 */
+	private Boolean textReport;
+
+	/**
+	 * 分析ID，用于取消正在执行的分析，不指定时自动生成
+	 */
+	@Pattern(regexp = "^[\\w-]{1,64}$", message = "分析ID只能包含字母、数字、下划线、中划线")
+	private String analysisId;
+
+	/**
+	 * 超时时间（毫秒），不指定时使用默认值，不超过配置的最大值
+	 */
+	@Positive(message = "超时时间必须大于0")
+	private Long timeoutMillis;
+
+	public DataSourceDTO(String url, String username, String password, String sql) {
+		this.url = url;
+		this.username = username;
+		this.password = password;
+		this.sql = sql;
+	}
+
+	/**
+	 * 校验数据源：要么指定数据源配置ID，要么完整指定 url、用户名、密码
+	 * @return boolean
+	 */
+	@JsonIgnore
+	@AssertTrue(message = "请指定数据源配置ID，或者完整填写URL、用户名、密码")
+	public boolean isTargetSpecified() {
+		if (StrUtil.isNotBlank(profileId)) {
+			return true;
+		}
+		return StrUtil.isNotBlank(url) && StrUtil.isNotBlank(username) && StrUtil.isNotBlank(password);
+	}
+
 }
@@ -0,0 +1,61 @@
+package com.itjing.sql.domain.jd.dto;
+
+import lombok.*;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 数据源配置（注册后可通过ID引用，复用连接池）
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class DataSourceProfileDTO implements Serializable {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * 数据源配置ID
+	 */
+	@NotBlank(message = "数据源配置ID不能为空")
+	@Pattern(regexp = "^[\\w-]{1,64}$", message = "数据源配置ID只能包含字母、数字、下划线、中划线")
+	private String id;
+
+	/**
+	 * 数据库连接：MySQL、MariaDB、PostgreSQL（不允许连接参数，驱动会按参数加载类）或 H2 内存库（不允许 INIT 等参数）
+	 */
+	@NotBlank(message = "URL不能为空")
+	@Pattern(regexp = "^jdbc:(mysql|mariadb)://([\\w.-]+)(:\\d+)?/[\\w-]+(\\?.*)?$"
+			+ "|^jdbc:postgresql://([\\w.-]+)(:\\d+)?/[\\w-]+$|^jdbc:h2:mem:[\\w-]+$",
+			message = "URL格式应为jdbc:mysql://host:port/dbname、jdbc:mariadb://host:port/dbname、"
+					+ "jdbc:postgresql://host:port/dbname 或 jdbc:h2:mem:dbname")
+	private String url;
+
+	/**
+	 * 用户名
+	 */
+	@NotBlank(message = "用户名不能为空")
+	private String username;
+
+	/**
+	 * 密码
+	 */
+	@NotBlank(message = "密码不能为空")
+	@ToString.Exclude
+	private String password;
+
+	/**
+	 * 描述
+	 */
+	private String description;
+
+}
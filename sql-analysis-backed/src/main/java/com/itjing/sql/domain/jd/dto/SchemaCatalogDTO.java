@@ -0,0 +1,37 @@
+package com.itjing.sql.domain.jd.dto;
+
+import lombok.*;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.io.Serial;
+import java.util.List;
+
+/**
+ * 表结构查询请求
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString(callSuper = true)
+public class SchemaCatalogDTO extends DataSourceDTO {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * 表（库名.表名 或 表名，表名使用连接URL中的库）
+	 */
+	@NotEmpty(message = "表不能为空")
+	@Size(max = 200, message = "单次最多查询200张表")
+	private List<String> tables;
+
+	/**
+	 * 是否先校验版本号，默认使用目录中的缓存
+	 */
+	private Boolean refresh;
+
+}
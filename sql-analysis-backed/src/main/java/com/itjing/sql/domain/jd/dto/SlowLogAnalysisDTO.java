@@ -0,0 +1,41 @@
+package com.itjing.sql.domain.jd.dto;
+
+import lombok.*;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Positive;
+import java.io.Serial;
+
+/**
+ * 慢查询日志分析请求
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString(callSuper = true)
+public class SlowLogAnalysisDTO extends DataSourceDTO {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * 慢查询日志文件，相对路径按配置的慢日志目录解析，只能读取该目录下的文件
+	 */
+	@NotBlank(message = "慢查询日志文件不能为空")
+	private String path;
+
+	/**
+	 * 按总执行时间排序取前多少类 SQL 执行 EXPLAIN 并评分，默认 20，不超过配置的上限
+	 */
+	@Positive(message = "top必须大于0")
+	private Integer top;
+
+	/**
+	 * 只统计在该库下执行的语句，为空时不过滤
+	 */
+	private String schema;
+
+}
@@ -0,0 +1,30 @@
+package com.itjing.sql.domain.jd.dto;
+
+import lombok.*;
+
+import javax.validation.constraints.NotEmpty;
+import java.io.Serial;
+import java.util.List;
+
+/**
+ * 批量 SQL 分析请求
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString(callSuper = true)
+public class SqlBatchAnalysisDTO extends DataSourceDTO {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * 需要分析的 sql 列表
+	 */
+	@NotEmpty(message = "sql列表不能为空")
+	private List<String> sqlList;
+
+}
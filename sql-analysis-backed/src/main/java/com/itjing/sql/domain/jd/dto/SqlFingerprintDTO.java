@@ -0,0 +1,32 @@
+package com.itjing.sql.domain.jd.dto;
+
+import lombok.*;
+
+import javax.validation.constraints.NotEmpty;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * SQL 指纹计算请求
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SqlFingerprintDTO implements Serializable {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * 需要计算指纹的 sql 列表
+	 */
+	@NotEmpty(message = "sql列表不能为空")
+	private List<String> sqlList;
+
+}
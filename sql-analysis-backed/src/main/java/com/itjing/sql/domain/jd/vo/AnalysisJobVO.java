@@ -0,0 +1,89 @@
+package com.itjing.sql.domain.jd.vo;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.itjing.sql.constant.AnalysisJobStatus;
+import com.itjing.sql.constant.ExplainMode;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * 异步分析任务
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AnalysisJobVO {
+
+	/**
+	 * 任务ID，同时也是分析ID，可以用来取消
+	 */
+	private String jobId;
+
+	/**
+	 * 目标数据源
+	 */
+	private String target;
+
+	/**
+	 * 执行计划模式
+	 */
+	private ExplainMode explainMode;
+
+	/**
+	 * 任务状态
+	 */
+	private AnalysisJobStatus status;
+
+	/**
+	 * SQL 总数
+	 */
+	private int total;
+
+	/**
+	 * 已完成数
+	 */
+	private int completedCount;
+
+	/**
+	 * 成功数
+	 */
+	private int successCount;
+
+	/**
+	 * 失败数
+	 */
+	private int failureCount;
+
+	/**
+	 * 提交时间
+	 */
+	private long submitTime;
+
+	/**
+	 * 开始执行时间
+	 */
+	private Long startTime;
+
+	/**
+	 * 结束时间
+	 */
+	private Long finishTime;
+
+	/**
+	 * 任务失败原因
+	 */
+	private String errorMsg;
+
+	/**
+	 * 已完成的 SQL 分析结果，按下标排列，只在查询任务详情时返回
+	 */
+	private List<SqlStatementAnalysisVO> results;
+
+}
@@ -0,0 +1,43 @@
+package com.itjing.sql.domain.jd.vo;
+
+import lombok.*;
+
+/**
+ * 分析任务统计
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class AnalysisTaskStatsVO {
+
+	/**
+	 * 执行中的任务数
+	 */
+	private int running;
+
+	/**
+	 * 正常结束的任务数
+	 */
+	private long completedCount;
+
+	/**
+	 * 超时的任务数
+	 */
+	private long timedOutCount;
+
+	/**
+	 * 被取消的任务数
+	 */
+	private long cancelledCount;
+
+	/**
+	 * 执行失败的任务数
+	 */
+	private long failedCount;
+
+}
@@ -0,0 +1,53 @@
+package com.itjing.sql.domain.jd.vo;
+
+import lombok.*;
+
+/**
+ * 执行中的分析任务
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class AnalysisTaskVO {
+
+	/**
+	 * 分析ID
+	 */
+	private String analysisId;
+
+	/**
+	 * 目标数据源
+	 */
+	private String target;
+
+	/**
+	 * 开始时间
+	 */
+	private long startTime;
+
+	/**
+	 * 已执行时间（毫秒）
+	 */
+	private long elapsedMillis;
+
+	/**
+	 * 剩余时间（毫秒）
+	 */
+	private long remainingMillis;
+
+	/**
+	 * 正在执行的语句数
+	 */
+	private int runningStatements;
+
+	/**
+	 * 是否已取消
+	 */
+	private boolean cancelled;
+
+}
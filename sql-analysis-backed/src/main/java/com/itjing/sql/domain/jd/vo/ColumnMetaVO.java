@@ -0,0 +1,49 @@
+package com.itjing.sql.domain.jd.vo;
+
+import com.itjing.sql.catalog.ColumnMeta;
+import lombok.*;
+
+/**
+ * 列信息
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class ColumnMetaVO {
+
+	/**
+	 * 列名
+	 */
+	private String columnName;
+
+	/**
+	 * 列的位置（从1开始）
+	 */
+	private int ordinalPosition;
+
+	/**
+	 * 列类型（如varchar(64)）
+	 */
+	private String columnType;
+
+	/**
+	 * 是否允许为空
+	 */
+	private boolean nullable;
+
+	/**
+	 * 列所在索引的类型（PRI、UNI、MUL）
+	 */
+	private String columnKey;
+
+	public static ColumnMetaVO of(ColumnMeta column) {
+		return new ColumnMetaVO(column.getName(), column.getOrdinalPosition(), column.getColumnType(),
+				column.isNullable(), column.getColumnKey());
+	}
+
+}
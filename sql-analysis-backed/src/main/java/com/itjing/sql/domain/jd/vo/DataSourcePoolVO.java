@@ -0,0 +1,53 @@
+package com.itjing.sql.domain.jd.vo;
+
+import lombok.*;
+
+/**
+ * 目标数据源连接池状态
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class DataSourcePoolVO {
+
+	/**
+	 * 目标名称（用户名@连接URL，不含密码）
+	 */
+	private String target;
+
+	/**
+	 * 连接池名称
+	 */
+	private String poolName;
+
+	/**
+	 * 活跃连接数
+	 */
+	private int activeConnections;
+
+	/**
+	 * 空闲连接数
+	 */
+	private int idleConnections;
+
+	/**
+	 * 总连接数
+	 */
+	private int totalConnections;
+
+	/**
+	 * 等待获取连接的线程数
+	 */
+	private int threadsAwaitingConnection;
+
+	/**
+	 * 最近一次使用时间（毫秒时间戳）
+	 */
+	private long lastAccessTime;
+
+}
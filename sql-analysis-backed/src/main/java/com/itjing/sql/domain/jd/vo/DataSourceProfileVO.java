@@ -0,0 +1,38 @@
+package com.itjing.sql.domain.jd.vo;
+
+import lombok.*;
+
+/**
+ * 数据源配置（不含密码）
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class DataSourceProfileVO {
+
+	/**
+	 * 数据源配置ID
+	 */
+	private String id;
+
+	/**
+	 * 数据库连接URL
+	 */
+	private String url;
+
+	/**
+	 * 用户名
+	 */
+	private String username;
+
+	/**
+	 * 描述
+	 */
+	private String description;
+
+}
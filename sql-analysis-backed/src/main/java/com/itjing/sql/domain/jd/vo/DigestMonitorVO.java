@@ -0,0 +1,73 @@
+package com.itjing.sql.domain.jd.vo;
+
+import lombok.*;
+
+/**
+ * 目标数据源的语句摘要采集状态
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class DigestMonitorVO {
+
+	/**
+	 * 数据源配置ID
+	 */
+	private String profileId;
+
+	/**
+	 * 目标数据源
+	 */
+	private String target;
+
+	/**
+	 * 开始采集的时间
+	 */
+	private long startTime;
+
+	/**
+	 * 采集次数
+	 */
+	private long pollCount;
+
+	/**
+	 * 最后一次采集的时间
+	 */
+	private Long lastPollTime;
+
+	/**
+	 * 最后一次采集的耗时（毫秒）
+	 */
+	private long lastPollMillis;
+
+	/**
+	 * 最后一次采集返回的行数（只返回上次采集后有变化的摘要）
+	 */
+	private int lastRowCount;
+
+	/**
+	 * 正在统计的摘要个数
+	 */
+	private int digestCount;
+
+	/**
+	 * 目标库是否支持 QUERY_SAMPLE_TEXT，不支持时只统计不分析
+	 */
+	private boolean sampleSupported;
+
+	/**
+	 * 自动分析的次数
+	 */
+	private long analyzedCount;
+
+	/**
+	 * 最后一次采集失败的原因
+	 */
+	private String lastError;
+
+}
@@ -0,0 +1,98 @@
+package com.itjing.sql.domain.jd.vo;
+
+import lombok.*;
+
+/**
+ * performance_schema 语句摘要的增量统计
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class DigestStatsVO {
+
+	/**
+	 * 执行时的默认库
+	 */
+	private String schema;
+
+	/**
+	 * MySQL 计算的语句摘要
+	 */
+	private String digest;
+
+	/**
+	 * 规范化后的语句（字面量替换为 ?）
+	 */
+	private String digestText;
+
+	/**
+	 * 样本语句（QUERY_SAMPLE_TEXT，MySQL 8.0.3 及以上才有）
+	 */
+	private String sample;
+
+	/**
+	 * 开始采集以来的执行次数
+	 */
+	private long calls;
+
+	/**
+	 * 开始采集以来的总执行时间（毫秒）
+	 */
+	private double totalLatencyMillis;
+
+	/**
+	 * 平均执行时间（毫秒）
+	 */
+	private double avgLatencyMillis;
+
+	/**
+	 * 开始采集以来的扫描行数
+	 */
+	private long rowsExamined;
+
+	/**
+	 * 开始采集以来的返回行数
+	 */
+	private long rowsSent;
+
+	/**
+	 * 开始采集以来没有使用索引的执行次数
+	 */
+	private long noIndexUsed;
+
+	/**
+	 * 最近一个采集间隔的执行次数
+	 */
+	private long lastCalls;
+
+	/**
+	 * 最近一个采集间隔的总执行时间（毫秒）
+	 */
+	private double lastLatencyMillis;
+
+	/**
+	 * 第一次采集到变化的时间
+	 */
+	private Long firstSeen;
+
+	/**
+	 * 最后一次采集到变化的时间
+	 */
+	private Long lastSeen;
+
+	/**
+	 * 最后一次分析的时间
+	 */
+	private Long analyzedAt;
+
+	/**
+	 * 样本的 EXPLAIN 和评分结果，没有样本或还未分析时为空
+	 */
+	private SqlStatementAnalysisVO analysis;
+
+}
@@ -0,0 +1,51 @@
+package com.itjing.sql.domain.jd.vo;
+
+import com.itjing.sql.catalog.IndexMeta;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * 索引信息
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class IndexMetaVO {
+
+	/**
+	 * 索引名
+	 */
+	private String indexName;
+
+	/**
+	 * 是否唯一索引
+	 */
+	private boolean unique;
+
+	/**
+	 * 索引类型（如BTREE）
+	 */
+	private String indexType;
+
+	/**
+	 * 索引列，按在索引中的顺序排列，函数索引的列为 null
+	 */
+	private List<String> columns;
+
+	/**
+	 * 每个前缀的基数：第 i 个值是前 i + 1 列组合的不同值个数估计
+	 */
+	private List<Long> cardinalities;
+
+	public static IndexMetaVO of(IndexMeta index) {
+		return new IndexMetaVO(index.getName(), index.isUnique(), index.getIndexType(), index.getColumns(),
+				index.getCardinalities());
+	}
+
+}
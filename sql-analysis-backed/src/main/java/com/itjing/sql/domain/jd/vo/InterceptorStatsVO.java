@@ -0,0 +1,88 @@
+package com.itjing.sql.domain.jd.vo;
+
+import lombok.*;
+
+/**
+ * 异步 SQL 分析拦截器统计
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class InterceptorStatsVO {
+
+	/**
+	 * 是否启用异步拦截器（sql.analysis.interceptor.mode=ASYNC）
+	 */
+	private boolean async;
+
+	/**
+	 * 全局采样比例
+	 */
+	private double sampleRate;
+
+	/**
+	 * 同一个 sqlId 的采集间隔（毫秒）
+	 */
+	private long sqlIdInterval;
+
+	/**
+	 * 拦截的 SQL 次数（符合 SQL 类型）
+	 */
+	private long interceptedCount;
+
+	/**
+	 * 未被全局采样选中的次数
+	 */
+	private long sampledOutCount;
+
+	/**
+	 * 同一个 sqlId 在间隔内被跳过的次数
+	 */
+	private long rateLimitedCount;
+
+	/**
+	 * 放入队列的次数
+	 */
+	private long capturedCount;
+
+	/**
+	 * 队列满被丢弃的次数
+	 */
+	private long droppedCount;
+
+	/**
+	 * 采集异常次数（不影响业务 SQL）
+	 */
+	private long errorCount;
+
+	/**
+	 * 当前队列长度
+	 */
+	private int queueSize;
+
+	/**
+	 * 队列容量
+	 */
+	private int queueCapacity;
+
+	/**
+	 * 后台分析完成的次数
+	 */
+	private long analyzedCount;
+
+	/**
+	 * 后台分析失败的次数
+	 */
+	private long failedCount;
+
+	/**
+	 * 评分低于预期的次数
+	 */
+	private long warnedCount;
+
+}
@@ -0,0 +1,48 @@
+package com.itjing.sql.domain.jd.vo;
+
+import lombok.*;
+
+/**
+ * 异步 SQL 分析中评分低于预期的 SQL
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class InterceptorWarningVO {
+
+	/**
+	 * MyBatis 语句ID
+	 */
+	private String sqlId;
+
+	/**
+	 * 替换参数后的 SQL
+	 */
+	private String sql;
+
+	/**
+	 * 评分
+	 */
+	private Integer score;
+
+	/**
+	 * 评分结果
+	 */
+	private String scoreResult;
+
+	/**
+	 * 采集时间
+	 */
+	private long captureTime;
+
+	/**
+	 * 分析完成时间
+	 */
+	private long analyzeTime;
+
+}
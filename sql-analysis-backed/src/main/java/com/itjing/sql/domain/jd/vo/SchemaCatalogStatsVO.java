@@ -0,0 +1,73 @@
+package com.itjing.sql.domain.jd.vo;
+
+import lombok.*;
+
+/**
+ * 目标数据源的表结构目录统计
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SchemaCatalogStatsVO {
+
+	/**
+	 * 目标数据源
+	 */
+	private String target;
+
+	/**
+	 * 连接的默认库，用于解析不带库名的表
+	 */
+	private String defaultSchema;
+
+	/**
+	 * 缓存的表个数（包括不存在的表）
+	 */
+	private int tableCount;
+
+	/**
+	 * 直接使用缓存的次数（按表计）
+	 */
+	private long hitCount;
+
+	/**
+	 * 加载的表个数
+	 */
+	private long loadCount;
+
+	/**
+	 * 版本号变化后失效的表个数
+	 */
+	private long invalidatedCount;
+
+	/**
+	 * 访问目标库的次数（加载或校验版本号）
+	 */
+	private long queryCount;
+
+	/**
+	 * 后台校验次数
+	 */
+	private long refreshCount;
+
+	/**
+	 * 最后一次后台校验的时间
+	 */
+	private Long lastRefreshTime;
+
+	/**
+	 * 最后一次后台校验的耗时（毫秒）
+	 */
+	private long lastRefreshMillis;
+
+	/**
+	 * 最后一次后台校验的错误信息
+	 */
+	private String lastError;
+
+}
@@ -0,0 +1,75 @@
+package com.itjing.sql.domain.jd.vo;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * 慢查询日志分析结果
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SlowLogAnalysisVO {
+
+	/**
+	 * 分析ID，没有需要分析的 SQL 时为空
+	 */
+	private String analysisId;
+
+	/**
+	 * 慢查询日志文件
+	 */
+	private String path;
+
+	/**
+	 * 文件大小（字节）
+	 */
+	private long fileBytes;
+
+	/**
+	 * 解析出的记录数
+	 */
+	private long entryCount;
+
+	/**
+	 * 按库过滤掉的记录数
+	 */
+	private long filteredCount;
+
+	/**
+	 * 不同指纹的个数
+	 */
+	private int distinctCount;
+
+	/**
+	 * 指纹个数或保存的 SQL 大小达到上限后没有汇总的记录数
+	 */
+	private long overflowCount;
+
+	/**
+	 * 解析耗时（毫秒）
+	 */
+	private long parseMillis;
+
+	/**
+	 * 解析吞吐量（MB/s）
+	 */
+	private double throughputMbPerSecond;
+
+	/**
+	 * EXPLAIN 和评分耗时（毫秒）
+	 */
+	private long analyzeMillis;
+
+	/**
+	 * 按总执行时间倒序的前 top 类 SQL
+	 */
+	private List<SlowLogFingerprintVO> fingerprints;
+
+}
@@ -0,0 +1,93 @@
+package com.itjing.sql.domain.jd.vo;
+
+import lombok.*;
+
+/**
+ * 慢查询日志中同一指纹的 SQL 的汇总
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SlowLogFingerprintVO {
+
+	/**
+	 * SQL 指纹摘要
+	 */
+	private String digest;
+
+	/**
+	 * SQL 指纹
+	 */
+	private String fingerprint;
+
+	/**
+	 * 执行次数
+	 */
+	private long count;
+
+	/**
+	 * 总执行时间（秒）
+	 */
+	private double totalQueryTime;
+
+	/**
+	 * 平均执行时间（秒）
+	 */
+	private double avgQueryTime;
+
+	/**
+	 * 最长执行时间（秒）
+	 */
+	private double maxQueryTime;
+
+	/**
+	 * 总锁等待时间（秒）
+	 */
+	private double totalLockTime;
+
+	/**
+	 * 平均扫描行数
+	 */
+	private long avgRowsExamined;
+
+	/**
+	 * 最大扫描行数
+	 */
+	private long maxRowsExamined;
+
+	/**
+	 * 平均返回行数
+	 */
+	private long avgRowsSent;
+
+	/**
+	 * 样本：执行时间最长的一次
+	 */
+	private String sample;
+
+	/**
+	 * 样本执行时的默认库
+	 */
+	private String sampleSchema;
+
+	/**
+	 * 第一次出现的时间戳（毫秒），日志中没有 SET timestamp 时为空
+	 */
+	private Long firstSeen;
+
+	/**
+	 * 最后一次出现的时间戳（毫秒），日志中没有 SET timestamp 时为空
+	 */
+	private Long lastSeen;
+
+	/**
+	 * 样本的 EXPLAIN 和评分结果，不在 top 内、不是 DML、样本被截断或样本所在的库不是目标数据源的默认库时为空
+	 */
+	private SqlStatementAnalysisVO analysis;
+
+}
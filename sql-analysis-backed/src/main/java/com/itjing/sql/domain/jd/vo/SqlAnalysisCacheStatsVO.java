@@ -0,0 +1,58 @@
+package com.itjing.sql.domain.jd.vo;
+
+import lombok.*;
+
+/**
+ * SQL 分析结果缓存统计
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SqlAnalysisCacheStatsVO {
+
+	/**
+	 * 是否开启缓存
+	 */
+	private boolean enabled;
+
+	/**
+	 * 当前缓存条数
+	 */
+	private int size;
+
+	/**
+	 * 最多缓存条数
+	 */
+	private int capacity;
+
+	/**
+	 * 命中次数
+	 */
+	private long hitCount;
+
+	/**
+	 * 未命中次数
+	 */
+	private long missCount;
+
+	/**
+	 * 超过校验间隔后校验表结构版本号仍命中的次数
+	 */
+	private long revalidatedCount;
+
+	/**
+	 * 表结构版本号变化导致失效的次数
+	 */
+	private long invalidatedCount;
+
+	/**
+	 * 命中率
+	 */
+	private double hitRate;
+
+}
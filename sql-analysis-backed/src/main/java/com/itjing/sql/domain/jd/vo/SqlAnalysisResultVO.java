@@ -0,0 +1,85 @@
+package com.itjing.sql.domain.jd.vo;
+
+import com.itjing.sql.advisor.IndexRecommendation;
+import com.itjing.sql.constant.ExplainMode;
+import com.itjing.sql.explain.AnalyzePlan;
+import com.itjing.sql.explain.ExplainPlanNode;
+import com.jd.sql.analysis.analysis.SqlAnalysisResult;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * SQL 分析结果
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SqlAnalysisResultVO {
+
+	/**
+	 * 分析ID，分析过程中可以用来取消
+	 */
+	private String analysisId;
+
+	/**
+	 * SQL 指纹摘要，字面量不同的同一类 SQL 摘要相同
+	 */
+	private String digest;
+
+	/**
+	 * 执行计划模式
+	 */
+	private ExplainMode explainMode;
+
+	/**
+	 * 执行计划，JSON 模式下每行带有代价信息
+	 */
+	private List<SqlAnalysisResult> explainResultList;
+
+	/**
+	 * 总代价，JSON 模式才有
+	 */
+	private Double totalCost;
+
+	/**
+	 * 执行计划树，JSON 模式才有
+	 */
+	private ExplainPlanNode plan;
+
+	/**
+	 * 实际执行结果，ANALYZE 模式才有
+	 */
+	private AnalyzePlan analyze;
+
+	/**
+	 * 评分结果
+	 */
+	private SqlScoreVO score;
+
+	/**
+	 * 评分结果的文本报告，请求指定 textReport 时才有
+	 */
+	private String scoreResult;
+
+	/**
+	 * 评分规则版本号
+	 */
+	private String ruleVersion;
+
+	/**
+	 * 索引建议，没有建议时为 null
+	 */
+	private List<IndexRecommendation> indexAdvice;
+
+	/**
+	 * 是否命中缓存
+	 */
+	private boolean cacheHit;
+
+}
@@ -0,0 +1,50 @@
+package com.itjing.sql.domain.jd.vo;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * 批量 SQL 分析结果
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SqlBatchAnalysisVO {
+
+	/**
+	 * 分析ID，分析过程中可以用来取消
+	 */
+	private String analysisId;
+
+	/**
+	 * SQL 总数
+	 */
+	private int total;
+
+	/**
+	 * 成功数
+	 */
+	private int successCount;
+
+	/**
+	 * 失败数
+	 */
+	private int failureCount;
+
+	/**
+	 * 总耗时（毫秒）
+	 */
+	private long costMillis;
+
+	/**
+	 * 每条 SQL 的分析结果，按请求中的顺序排列
+	 */
+	private List<SqlStatementAnalysisVO> results;
+
+}
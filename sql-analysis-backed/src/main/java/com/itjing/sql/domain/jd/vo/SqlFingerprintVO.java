@@ -0,0 +1,33 @@
+package com.itjing.sql.domain.jd.vo;
+
+import lombok.*;
+
+/**
+ * SQL 指纹
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SqlFingerprintVO {
+
+	/**
+	 * 原始 SQL
+	 */
+	private String sql;
+
+	/**
+	 * 规范化后的 SQL
+	 */
+	private String fingerprint;
+
+	/**
+	 * 指纹摘要（16 位十六进制）
+	 */
+	private String digest;
+
+}
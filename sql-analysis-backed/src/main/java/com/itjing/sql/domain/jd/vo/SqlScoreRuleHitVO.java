@@ -0,0 +1,33 @@
+package com.itjing.sql.domain.jd.vo;
+
+import lombok.*;
+
+/**
+ * 命中的评分规则
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SqlScoreRuleHitVO {
+
+	/**
+	 * 命中原因
+	 */
+	private String reason;
+
+	/**
+	 * 修改建议
+	 */
+	private String suggestion;
+
+	/**
+	 * 扣除的分数，负数表示加分
+	 */
+	private Integer scoreDeduction;
+
+}
@@ -0,0 +1,33 @@
+package com.itjing.sql.domain.jd.vo;
+
+import lombok.*;
+
+/**
+ * 评分规则信息
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SqlScoreRuleVO {
+
+	/**
+	 * 规则版本号
+	 */
+	private String version;
+
+	/**
+	 * 规则引擎
+	 */
+	private String engine;
+
+	/**
+	 * 加载时间
+	 */
+	private long loadedAt;
+
+}
@@ -0,0 +1,58 @@
+package com.itjing.sql.domain.jd.vo;
+
+import com.jd.sql.analysis.score.SqlScoreResult;
+import com.jd.sql.analysis.score.SqlScoreResultDetail;
+import lombok.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 评分结果
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SqlScoreVO {
+
+	/**
+	 * 分数
+	 */
+	private Integer score;
+
+	/**
+	 * 是否低于预期（需要告警）
+	 */
+	private Boolean needWarn;
+
+	/**
+	 * 命中的规则，按命中顺序排列
+	 */
+	private List<SqlScoreRuleHitVO> hitRules;
+
+	/**
+	 * 从评分引擎的结果转换
+	 * @param scoreResult 评分结果
+	 * @return {@link SqlScoreVO }，评分结果为 null 时返回 null
+	 */
+	public static SqlScoreVO of(SqlScoreResult scoreResult) {
+		if (scoreResult == null) {
+			return null;
+		}
+		List<SqlScoreResultDetail> details = scoreResult.getAnalysisResults();
+		List<SqlScoreRuleHitVO> hitRules = new ArrayList<>(details == null ? 0 : details.size());
+		if (details != null) {
+			for (SqlScoreResultDetail detail : details) {
+				hitRules.add(new SqlScoreRuleHitVO(detail.getReason(), detail.getSuggestion(),
+						detail.getScoreDeduction()));
+			}
+		}
+		return new SqlScoreVO(scoreResult.getScore(), scoreResult.getNeedWarn(), hitRules);
+	}
+
+}
@@ -0,0 +1,101 @@
+package com.itjing.sql.domain.jd.vo;
+
+import com.itjing.sql.advisor.IndexRecommendation;
+import com.jd.sql.analysis.analysis.SqlAnalysisResult;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * 批量分析中单条 SQL 的分析结果
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SqlStatementAnalysisVO {
+
+	/**
+	 * 在批量请求中的下标（从0开始）
+	 */
+	private int index;
+
+	/**
+	 * 分析的 SQL
+	 */
+	private String sql;
+
+	/**
+	 * 是否分析成功
+	 */
+	private boolean success;
+
+	/**
+	 * 失败原因
+	 */
+	private String errorMsg;
+
+	/**
+	 * SQL 指纹摘要
+	 */
+	private String digest;
+
+	/**
+	 * 执行计划
+	 */
+	private List<SqlAnalysisResult> explainResultList;
+
+	/**
+	 * 总代价，JSON 模式才有
+	 */
+	private Double totalCost;
+
+	/**
+	 * 评分结果
+	 */
+	private SqlScoreVO score;
+
+	/**
+	 * 评分结果的文本报告，请求指定 textReport 时才有
+	 */
+	private String scoreResult;
+
+	/**
+	 * 评分规则版本号
+	 */
+	private String ruleVersion;
+
+	/**
+	 * 索引建议，没有建议时为 null
+	 */
+	private List<IndexRecommendation> indexAdvice;
+
+	/**
+	 * 分析成功
+	 * @param index 下标
+	 * @param sql SQL
+	 * @param result 分析结果
+	 * @return {@link SqlStatementAnalysisVO }
+	 */
+	public static SqlStatementAnalysisVO success(int index, String sql, SqlAnalysisResultVO result) {
+		return new SqlStatementAnalysisVO(index, sql, true, null, result.getDigest(),
+				result.getExplainResultList(), result.getTotalCost(), result.getScore(), result.getScoreResult(),
+				result.getRuleVersion(), result.getIndexAdvice());
+	}
+
+	/**
+	 * 分析失败
+	 * @param index 下标
+	 * @param sql SQL
+	 * @param errorMsg 失败原因
+	 * @return {@link SqlStatementAnalysisVO }
+	 */
+	public static SqlStatementAnalysisVO failure(int index, String sql, String errorMsg) {
+		return new SqlStatementAnalysisVO(index, sql, false, errorMsg, null, null, null, null, null, null, null);
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.itjing.sql.domain.jd.vo;
+
+import com.itjing.sql.catalog.TableMeta;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * 表结构和索引统计
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class TableMetaVO {
+
+	/**
+	 * 库名
+	 */
+	private String schema;
+
+	/**
+	 * 表名
+	 */
+	private String tableName;
+
+	/**
+	 * 表是否存在
+	 */
+	private boolean exists;
+
+	/**
+	 * 存储引擎（如InnoDB）
+	 */
+	private String engine;
+
+	/**
+	 * 估计的行数
+	 */
+	private Long tableRows;
+
+	/**
+	 * 结构版本号（CREATE_TIME|UPDATE_TIME）
+	 */
+	private String version;
+
+	/**
+	 * 加载时间
+	 */
+	private long loadedAt;
+
+	/**
+	 * 最后一次确认版本号未变化的时间
+	 */
+	private long checkedAt;
+
+	/**
+	 * 列
+	 */
+	private List<ColumnMetaVO> columns;
+
+	/**
+	 * 索引，主键在前
+	 */
+	private List<IndexMetaVO> indexes;
+
+	public static TableMetaVO of(TableMeta table) {
+		return new TableMetaVO(table.getSchema(), table.getName(), table.exists(), table.getEngine(),
+				table.getTableRows(), table.getVersion(), table.getLoadedAt(), table.getCheckedAt(),
+				table.getColumns().stream().map(ColumnMetaVO::of).toList(),
+				table.getIndexes().stream().map(IndexMetaVO::of).toList());
+	}
+
+}
@@ -0,0 +1,32 @@
+package com.itjing.sql.domain.xm.dto;
+
+import lombok.*;
+
+import javax.validation.constraints.NotEmpty;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * soar 批量启发式分析请求
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SoarBatchDTO implements Serializable {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * 需要分析的sql列表，每个元素一条语句
+	 */
+	@NotEmpty(message = "SQL列表不能为空")
+	private List<String> sqlList;
+
+}
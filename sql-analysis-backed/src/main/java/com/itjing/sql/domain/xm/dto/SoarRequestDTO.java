@@ -0,0 +1,50 @@
+package com.itjing.sql.domain.xm.dto;
+
+import lombok.*;
+
+import javax.validation.constraints.NotBlank;
+import javax.validation.constraints.Pattern;
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.Map;
+
+/**
+ * soar 优化建议、改写请求
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SoarRequestDTO implements Serializable {
+
+	@Serial
+	private static final long serialVersionUID = 1L;
+
+	/**
+	 * 需要分析的sql
+	 */
+	@NotBlank(message = "SQL不能为空")
+	private String sql;
+
+	/**
+	 * 报告格式（soar 的 -report-type），优化建议默认 markdown，改写时忽略
+	 */
+	@Pattern(regexp = "^[\\w-]{1,32}$", message = "报告格式只能包含字母、数字、下划线、中划线")
+	private String reportType;
+
+	/**
+	 * 改写规则（soar 的 -rewrite-rules），多个用逗号分隔，不指定时使用 soar 的默认规则
+	 */
+	@Pattern(regexp = "^[\\w,]{1,256}$", message = "改写规则只能包含字母、数字、下划线，多个用逗号分隔")
+	private String rewriteRules;
+
+	/**
+	 * 其他 soar 参数（不带 -），是否允许由 soar-web 校验
+	 */
+	private Map<String, String> options;
+
+}
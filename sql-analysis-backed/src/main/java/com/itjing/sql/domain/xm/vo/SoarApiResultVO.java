@@ -0,0 +1,33 @@
+package com.itjing.sql.domain.xm.vo;
+
+import lombok.*;
+
+/**
+ * soar-web 接口调用结果
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SoarApiResultVO {
+
+	/**
+	 * 是否成功
+	 */
+	private boolean status;
+
+	/**
+	 * soar 输出，失败时为失败原因
+	 */
+	private String result;
+
+	/**
+	 * soar 日志
+	 */
+	private String log;
+
+}
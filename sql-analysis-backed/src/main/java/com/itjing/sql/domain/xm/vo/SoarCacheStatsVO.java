@@ -0,0 +1,73 @@
+package com.itjing.sql.domain.xm.vo;
+
+import lombok.*;
+
+/**
+ * soar 结果缓存统计
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SoarCacheStatsVO {
+
+	/**
+	 * 是否开启缓存
+	 */
+	private boolean enabled;
+
+	/**
+	 * 当前缓存条数
+	 */
+	private int size;
+
+	/**
+	 * 最多缓存条数
+	 */
+	private int capacity;
+
+	/**
+	 * 命中次数
+	 */
+	private long hitCount;
+
+	/**
+	 * 未命中次数
+	 */
+	private long missCount;
+
+	/**
+	 * 淘汰和过期的条数
+	 */
+	private long evictedCount;
+
+	/**
+	 * 结果过大未缓存的次数
+	 */
+	private long skippedCount;
+
+	/**
+	 * 命中率
+	 */
+	private double hitRate;
+
+	/**
+	 * 持久化文件，未开启持久化时为空
+	 */
+	private String file;
+
+	/**
+	 * 启动时从持久化文件加载的条数
+	 */
+	private int loadedCount;
+
+	/**
+	 * 最近一次写入持久化文件的时间
+	 */
+	private Long persistedAt;
+
+}
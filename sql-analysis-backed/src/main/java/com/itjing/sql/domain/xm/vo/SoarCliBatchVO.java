@@ -0,0 +1,45 @@
+package com.itjing.sql.domain.xm.vo;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * soar 命令行批量分析结果
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SoarCliBatchVO {
+
+	/**
+	 * SQL 条数
+	 */
+	private int total;
+
+	/**
+	 * 成功条数
+	 */
+	private int successCount;
+
+	/**
+	 * soar 进程启动次数
+	 */
+	private int invocations;
+
+	/**
+	 * 总耗时（毫秒）
+	 */
+	private long elapsedMillis;
+
+	/**
+	 * 各条 SQL 的结果，顺序与请求一致
+	 */
+	private List<SoarCliResultVO> results;
+
+}
@@ -0,0 +1,75 @@
+package com.itjing.sql.domain.xm.vo;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * soar 命令行单条 SQL 的分析结果
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SoarCliResultVO {
+
+	/**
+	 * 在请求中的序号，从 0 开始
+	 */
+	private int index;
+
+	/**
+	 * SQL
+	 */
+	private String sql;
+
+	/**
+	 * 是否成功
+	 */
+	private boolean success;
+
+	/**
+	 * soar 的 SQL ID（指纹的哈希）
+	 */
+	private String id;
+
+	/**
+	 * soar 的 SQL 指纹
+	 */
+	private String fingerprint;
+
+	/**
+	 * soar 评分
+	 */
+	private Integer score;
+
+	/**
+	 * 启发式规则命中项
+	 */
+	private List<SoarRuleVO> heuristicRules;
+
+	/**
+	 * 索引建议
+	 */
+	private List<SoarRuleVO> indexRules;
+
+	/**
+	 * 涉及的表
+	 */
+	private List<String> tables;
+
+	/**
+	 * 与前面的语句指纹相同时为该语句的序号，soar 对指纹相同的语句只分析一次
+	 */
+	private Integer duplicateOf;
+
+	/**
+	 * 失败原因
+	 */
+	private String errorMsg;
+
+}
@@ -0,0 +1,43 @@
+package com.itjing.sql.domain.xm.vo;
+
+import lombok.*;
+
+/**
+ * soar 规则命中项
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SoarRuleVO {
+
+	/**
+	 * 规则编号
+	 */
+	private String item;
+
+	/**
+	 * 严重程度，L0 ~ L8
+	 */
+	private String severity;
+
+	/**
+	 * 规则摘要
+	 */
+	private String summary;
+
+	/**
+	 * 规则说明或建议
+	 */
+	private String content;
+
+	/**
+	 * 在 SQL 中的位置
+	 */
+	private Integer position;
+
+}
@@ -0,0 +1,64 @@
+package com.itjing.sql.domain.xm.vo;
+
+import com.itjing.sql.constant.CircuitState;
+import lombok.*;
+
+/**
+ * soar-web 客户端统计
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SoarWebClientStatsVO {
+
+	/**
+	 * 熔断器状态
+	 */
+	private CircuitState circuitState;
+
+	/**
+	 * 连续失败次数
+	 */
+	private int consecutiveFailures;
+
+	/**
+	 * 最大并发数
+	 */
+	private int maxConcurrency;
+
+	/**
+	 * 正在执行的请求数
+	 */
+	private int inFlight;
+
+	/**
+	 * 累计请求数
+	 */
+	private long requestCount;
+
+	/**
+	 * 累计失败数（连接失败、超时、5xx）
+	 */
+	private long failureCount;
+
+	/**
+	 * 并发已满等待超时被拒绝的请求数
+	 */
+	private long rejectedCount;
+
+	/**
+	 * 熔断打开时直接失败的请求数
+	 */
+	private long shortCircuitedCount;
+
+	/**
+	 * 合并到相同的执行中请求的调用数
+	 */
+	private long collapsedCount;
+
+}
@@ -0,0 +1,84 @@
+package com.itjing.sql.domain.xm.vo;
+
+import com.itjing.sql.constant.SoarWebState;
+import lombok.*;
+
+/**
+ * soar-web 实例状态和请求统计
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SoarWebInstanceVO {
+
+	/**
+	 * 实例序号
+	 */
+	private int index;
+
+	/**
+	 * 端口
+	 */
+	private int port;
+
+	/**
+	 * 运行状态
+	 */
+	private SoarWebState state;
+
+	/**
+	 * 进程ID
+	 */
+	private Long pid;
+
+	/**
+	 * 最近一次启动时间
+	 */
+	private long startTime;
+
+	/**
+	 * 重启次数
+	 */
+	private int restartCount;
+
+	/**
+	 * 正在转发的请求数
+	 */
+	private int inFlight;
+
+	/**
+	 * 转发的请求数
+	 */
+	private long requestCount;
+
+	/**
+	 * 失败的请求数（连接失败、超时、5xx）
+	 */
+	private long errorCount;
+
+	/**
+	 * 平均耗时（毫秒）
+	 */
+	private double avgLatencyMillis;
+
+	/**
+	 * 最大耗时（毫秒）
+	 */
+	private double maxLatencyMillis;
+
+	/**
+	 * 最近一次请求耗时（毫秒）
+	 */
+	private double lastLatencyMillis;
+
+	/**
+	 * 最近一次失败原因
+	 */
+	private String lastError;
+
+}
@@ -0,0 +1,45 @@
+package com.itjing.sql.domain.xm.vo;
+
+import lombok.*;
+
+import java.util.Map;
+
+/**
+ * soar-web 启动信息
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SoarWebStartupVO {
+
+	/**
+	 * 构建缓存键（源码、go.mod/go.sum、平台的哈希）
+	 */
+	private String cacheKey;
+
+	/**
+	 * 是否命中构建缓存
+	 */
+	private boolean cacheHit;
+
+	/**
+	 * 可执行文件路径
+	 */
+	private String executable;
+
+	/**
+	 * 各阶段耗时（毫秒），按执行顺序排列
+	 */
+	private Map<String, Long> phases;
+
+	/**
+	 * 总耗时（毫秒）
+	 */
+	private long totalMillis;
+
+}
@@ -0,0 +1,51 @@
+package com.itjing.sql.domain.xm.vo;
+
+import com.itjing.sql.constant.SoarWebState;
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * soar-web 运行状态
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class SoarWebStatusVO {
+
+	/**
+	 * 运行状态
+	 */
+	private SoarWebState state;
+
+	/**
+	 * 端口，多个实例时为第一个实例的端口
+	 */
+	private int port;
+
+	/**
+	 * 最近一次失败原因
+	 */
+	private String lastError;
+
+	/**
+	 * 各实例累计重启次数之和
+	 */
+	private int restartCount;
+
+	/**
+	 * 最近一次启动信息
+	 */
+	private SoarWebStartupVO startup;
+
+	/**
+	 * 各实例状态和请求统计
+	 */
+	private List<SoarWebInstanceVO> instances;
+
+}
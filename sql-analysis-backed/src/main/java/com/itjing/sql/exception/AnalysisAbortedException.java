@@ -0,0 +1,27 @@
+package com.itjing.sql.exception;
+
+import com.itjing.sql.constant.HttpStatus;
+
+/**
+ * 分析超时或被取消
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public class AnalysisAbortedException extends BusinessException {
+
+	/**
+	 * 是否超时，否则为被取消
+	 */
+	private final boolean timeout;
+
+	public AnalysisAbortedException(boolean timeout, String message) {
+		super(HttpStatus.ERROR, message);
+		this.timeout = timeout;
+	}
+
+	public boolean isTimeout() {
+		return timeout;
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.itjing.sql.explain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * EXPLAIN ANALYZE 迭代器节点
+ * <p>
+ * 对应树形输出中的一行（例如 {@code -> Table scan on t1  (cost=2.25 rows=20) (actual time=0.079..0.090 rows=20 loops=1)}），
+ * 预估行数和实际行数都是单次循环的行数。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class AnalyzeNode {
+
+	/**
+	 * 迭代器描述，例如 Table scan on t1
+	 */
+	private String description;
+
+	/**
+	 * 预估代价
+	 */
+	private Double estimatedCost;
+
+	/**
+	 * 预估行数
+	 */
+	private Double estimatedRows;
+
+	/**
+	 * 返回第一行的实际耗时（毫秒）
+	 */
+	private Double actualFirstRowMs;
+
+	/**
+	 * 返回全部行的实际耗时（毫秒）
+	 */
+	private Double actualLastRowMs;
+
+	/**
+	 * 实际行数
+	 */
+	private Double actualRows;
+
+	/**
+	 * 循环次数
+	 */
+	private Long loops;
+
+	/**
+	 * 是否未执行
+	 */
+	private Boolean neverExecuted;
+
+	/**
+	 * 预估行数和实际行数的偏差倍数（较大值 / 较小值，小于 1 的按 1 计算），没有预估或没有执行时为空
+	 */
+	private Double rowsGap;
+
+	/**
+	 * 子节点
+	 */
+	private List<AnalyzeNode> children;
+
+	void addChild(AnalyzeNode child) {
+		if (children == null) {
+			children = new ArrayList<>(2);
+		}
+		children.add(child);
+	}
+
+}
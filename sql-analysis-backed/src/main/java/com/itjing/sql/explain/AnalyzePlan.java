@@ -0,0 +1,45 @@
+package com.itjing.sql.explain;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * EXPLAIN ANALYZE 结果
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class AnalyzePlan {
+
+	/**
+	 * 实际执行耗时（毫秒），取根节点返回全部行的耗时
+	 */
+	private Double executionTimeMs;
+
+	/**
+	 * 最大的预估行数偏差倍数
+	 */
+	private Double maxRowsGap;
+
+	/**
+	 * 预估行数偏差超过阈值的迭代器
+	 */
+	private List<String> misestimated;
+
+	/**
+	 * 迭代器树
+	 */
+	private AnalyzeNode root;
+
+	/**
+	 * 原始输出
+	 */
+	private String raw;
+
+}
@@ -0,0 +1,52 @@
+package com.itjing.sql.explain;
+
+import com.jd.sql.analysis.analysis.SqlAnalysisResult;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * 带代价信息的执行计划行
+ * <p>
+ * 由 EXPLAIN FORMAT=JSON 的表节点转换而来，评分规则中可以使用 {@code param.queryCost}、{@code param.prefixCost}、
+ * {@code param.readCost}、{@code param.evalCost}、{@code param.rowsProducedPerJoin}。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Getter
+@Setter
+public class CostAwareSqlAnalysisResult extends SqlAnalysisResult {
+
+	/**
+	 * 所在查询块的总代价
+	 */
+	private Double queryCost;
+
+	/**
+	 * 关联到当前表为止的累计代价
+	 */
+	private Double prefixCost;
+
+	/**
+	 * 读取当前表的代价
+	 */
+	private Double readCost;
+
+	/**
+	 * 计算当前表过滤条件的代价
+	 */
+	private Double evalCost;
+
+	/**
+	 * 关联当前表后产生的行数
+	 */
+	private Long rowsProducedPerJoin;
+
+	/**
+	 * 用到的列
+	 */
+	private List<String> usedColumns;
+
+}
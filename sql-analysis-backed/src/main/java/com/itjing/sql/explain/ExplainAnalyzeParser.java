@@ -0,0 +1,143 @@
+package com.itjing.sql.explain;
+
+import cn.hutool.core.util.StrUtil;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * EXPLAIN ANALYZE 树形输出解析器
+ * <p>
+ * 每个迭代器一行，以 {@code ->} 开头，缩进 4 个空格表示一层；过长的条件可能换行，换行部分拼接到上一个迭代器。
+ * 从每行中提取预估代价和行数 {@code (cost=.. rows=..)}、实际耗时、行数和循环次数
+ * {@code (actual time=a..b rows=.. loops=..)}，以及 {@code (never executed)}。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public final class ExplainAnalyzeParser {
+
+	private static final String NUM = "(\\d+(?:\\.\\d+)?(?:[eE][+-]?\\d+)?)";
+
+	private static final Pattern COST = Pattern
+		.compile("\\(cost=" + NUM + "(?:\\.\\." + NUM + ")?(?: rows=" + NUM + ")?\\)");
+
+	private static final Pattern ACTUAL = Pattern
+		.compile("\\(actual time=" + NUM + "\\.\\." + NUM + " rows=" + NUM + " loops=(\\d+)\\)");
+
+	private static final String NEVER_EXECUTED = "(never executed)";
+
+	private static final int INDENT = 4;
+
+	private ExplainAnalyzeParser() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	/**
+	 * 解析 EXPLAIN ANALYZE 输出
+	 * @param text 输出
+	 * @param gapThreshold 预估行数偏差倍数达到该值时记为预估不准
+	 * @return {@link AnalyzePlan }
+	 */
+	public static AnalyzePlan parse(String text, double gapThreshold) {
+		List<AnalyzeNode> roots = new ArrayList<>(1);
+		Deque<AnalyzeNode> stack = new ArrayDeque<>();
+		Deque<Integer> depths = new ArrayDeque<>();
+		List<String> misestimated = new ArrayList<>();
+		double maxGap = 0D;
+		for (String logical : joinLines(text)) {
+			int arrow = logical.indexOf("->");
+			int depth = arrow / INDENT;
+			AnalyzeNode node = parseLine(logical.substring(arrow + 2).trim());
+			if (node.getRowsGap() != null) {
+				maxGap = Math.max(maxGap, node.getRowsGap());
+				if (node.getRowsGap() >= gapThreshold) {
+					misestimated.add(StrUtil.format("{}：预估 {} 行，实际 {} 行", node.getDescription(),
+							node.getEstimatedRows(), node.getActualRows()));
+				}
+			}
+			while (!depths.isEmpty() && depths.peek() >= depth) {
+				depths.pop();
+				stack.pop();
+			}
+			if (stack.isEmpty()) {
+				roots.add(node);
+			}
+			else {
+				stack.peek().addChild(node);
+			}
+			stack.push(node);
+			depths.push(depth);
+		}
+		if (roots.isEmpty()) {
+			throw new IllegalArgumentException("EXPLAIN ANALYZE 输出为空");
+		}
+		AnalyzeNode root = roots.get(0);
+		if (roots.size() > 1) {
+			root = new AnalyzeNode();
+			root.setDescription("Query");
+			roots.forEach(root::addChild);
+		}
+		Double executionTime = roots.get(0).getActualLastRowMs();
+		return new AnalyzePlan(executionTime, maxGap == 0D ? null : maxGap, misestimated, root, text);
+	}
+
+	private static List<String> joinLines(String text) {
+		List<String> lines = new ArrayList<>();
+		StringBuilder current = null;
+		for (String line : text.split("\\R")) {
+			if (line.trim().startsWith("->")) {
+				if (current != null) {
+					lines.add(current.toString());
+				}
+				current = new StringBuilder(line);
+			}
+			else if (current != null && !line.isBlank()) {
+				current.append(' ').append(line.trim());
+			}
+		}
+		if (current != null) {
+			lines.add(current.toString());
+		}
+		return lines;
+	}
+
+	private static AnalyzeNode parseLine(String line) {
+		AnalyzeNode node = new AnalyzeNode();
+		int descEnd = line.length();
+		Matcher cost = COST.matcher(line);
+		if (cost.find()) {
+			descEnd = Math.min(descEnd, cost.start());
+			node.setEstimatedCost(Double.parseDouble(cost.group(2) != null ? cost.group(2) : cost.group(1)));
+			if (cost.group(3) != null) {
+				node.setEstimatedRows(Double.parseDouble(cost.group(3)));
+			}
+		}
+		Matcher actual = ACTUAL.matcher(line);
+		if (actual.find()) {
+			descEnd = Math.min(descEnd, actual.start());
+			node.setActualFirstRowMs(Double.parseDouble(actual.group(1)));
+			node.setActualLastRowMs(Double.parseDouble(actual.group(2)));
+			node.setActualRows(Double.parseDouble(actual.group(3)));
+			node.setLoops(Long.parseLong(actual.group(4)));
+		}
+		int never = line.indexOf(NEVER_EXECUTED);
+		if (never >= 0) {
+			descEnd = Math.min(descEnd, never);
+			node.setNeverExecuted(true);
+		}
+		node.setDescription(line.substring(0, descEnd).trim());
+		if (node.getEstimatedRows() != null && node.getActualRows() != null) {
+			double estimated = node.getEstimatedRows();
+			double actualRows = node.getActualRows();
+			node.setRowsGap(
+					Math.max(Math.max(estimated, actualRows), 1D) / Math.max(Math.min(estimated, actualRows), 1D));
+		}
+		return node;
+	}
+
+}
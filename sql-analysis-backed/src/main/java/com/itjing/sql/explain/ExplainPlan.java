@@ -0,0 +1,28 @@
+package com.itjing.sql.explain;
+
+import lombok.*;
+
+/**
+ * 执行计划（EXPLAIN FORMAT=JSON）
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+public class ExplainPlan {
+
+	/**
+	 * 总代价（最外层查询块的 query_cost）
+	 */
+	private Double queryCost;
+
+	/**
+	 * 最外层查询块
+	 */
+	private ExplainPlanNode root;
+
+}
@@ -0,0 +1,154 @@
+package com.itjing.sql.explain;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 执行计划树节点
+ * <p>
+ * 对应 EXPLAIN FORMAT=JSON 中的一个结构：query_block、nested_loop、table、ordering_operation、grouping_operation、
+ * 子查询等，只保留评分和排查需要的字段，未出现的字段不输出。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExplainPlanNode {
+
+	/**
+	 * 节点类型，即 JSON 中的键名，例如 query_block、nested_loop、table
+	 */
+	private String operation;
+
+	/**
+	 * 查询块编号
+	 */
+	private Integer selectId;
+
+	/**
+	 * 查询块代价
+	 */
+	private Double queryCost;
+
+	/**
+	 * 提示信息，例如 No tables used
+	 */
+	private String message;
+
+	/**
+	 * 是否使用文件排序
+	 */
+	private Boolean usingFilesort;
+
+	/**
+	 * 是否使用临时表
+	 */
+	private Boolean usingTemporary;
+
+	/**
+	 * 是否依赖外层查询（子查询）
+	 */
+	private Boolean dependent;
+
+	/**
+	 * 表名
+	 */
+	private String tableName;
+
+	/**
+	 * 访问类型
+	 */
+	private String accessType;
+
+	/**
+	 * 可能用到的索引
+	 */
+	private List<String> possibleKeys;
+
+	/**
+	 * 实际使用的索引
+	 */
+	private String key;
+
+	/**
+	 * 使用的索引列
+	 */
+	private List<String> usedKeyParts;
+
+	/**
+	 * 每次扫描读取的行数
+	 */
+	private Long rowsExaminedPerScan;
+
+	/**
+	 * 关联后产生的行数
+	 */
+	private Long rowsProducedPerJoin;
+
+	/**
+	 * 过滤比例（百分比）
+	 */
+	private Double filtered;
+
+	/**
+	 * 是否覆盖索引
+	 */
+	private Boolean usingIndex;
+
+	/**
+	 * 读取代价
+	 */
+	private Double readCost;
+
+	/**
+	 * 条件计算代价
+	 */
+	private Double evalCost;
+
+	/**
+	 * 累计代价
+	 */
+	private Double prefixCost;
+
+	/**
+	 * 关联读取的数据量，例如 1K
+	 */
+	private String dataReadPerJoin;
+
+	/**
+	 * 用到的列
+	 */
+	private List<String> usedColumns;
+
+	/**
+	 * 过滤条件
+	 */
+	private String attachedCondition;
+
+	/**
+	 * 子节点
+	 */
+	private List<ExplainPlanNode> children;
+
+	public ExplainPlanNode(String operation) {
+		this.operation = operation;
+	}
+
+	void addChild(ExplainPlanNode child) {
+		if (children == null) {
+			children = new ArrayList<>(2);
+		}
+		children.add(child);
+	}
+
+}
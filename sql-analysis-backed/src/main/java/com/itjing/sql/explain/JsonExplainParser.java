@@ -0,0 +1,262 @@
+package com.itjing.sql.explain;
+
+import com.alibaba.fastjson2.JSONReader;
+import com.jd.sql.analysis.analysis.SqlAnalysisResult;
+import com.jd.sql.analysis.analysis.SqlAnalysisResultList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * EXPLAIN FORMAT=JSON 解析器
+ * <p>
+ * 用 {@link JSONReader} 顺序读取 JSON，直接构建 {@link ExplainPlanNode} 树，不生成中间的 JSONObject/Map，
+ * 不需要的字段直接跳过。MySQL 输出的代价和过滤比例是字符串（例如 "1.20"），读取时统一转为数值。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public final class JsonExplainParser {
+
+	private JsonExplainParser() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	/**
+	 * 解析执行计划
+	 * @param json EXPLAIN FORMAT=JSON 的输出
+	 * @return {@link ExplainPlan }
+	 */
+	public static ExplainPlan parse(String json) {
+		try (JSONReader reader = JSONReader.of(json)) {
+			ExplainPlanNode root = null;
+			if (!reader.nextIfObjectStart()) {
+				throw new IllegalArgumentException("执行计划不是 JSON 对象");
+			}
+			while (!reader.nextIfObjectEnd()) {
+				String name = reader.readFieldName();
+				if ("query_block".equals(name)) {
+					root = readNode(reader, name);
+				}
+				else {
+					reader.skipValue();
+				}
+			}
+			if (root == null) {
+				throw new IllegalArgumentException("执行计划缺少 query_block");
+			}
+			return new ExplainPlan(root.getQueryCost(), root);
+		}
+	}
+
+	/**
+	 * 转换为执行计划行，每个表节点一行，按关联顺序排列，供评分规则使用
+	 * @param plan 执行计划
+	 * @return {@link SqlAnalysisResultList }
+	 */
+	public static SqlAnalysisResultList toResultList(ExplainPlan plan) {
+		List<SqlAnalysisResult> rows = new ArrayList<>();
+		new Flattener(rows).visit(plan.getRoot(), "SIMPLE", 1L, plan.getQueryCost());
+		SqlAnalysisResultList resultList = new SqlAnalysisResultList();
+		resultList.setResultList(rows);
+		return resultList;
+	}
+
+	private static ExplainPlanNode readNode(JSONReader reader, String operation) {
+		ExplainPlanNode node = new ExplainPlanNode(operation);
+		if (!reader.nextIfObjectStart()) {
+			reader.skipValue();
+			return node;
+		}
+		while (!reader.nextIfObjectEnd()) {
+			String name = reader.readFieldName();
+			switch (name) {
+				case "select_id" -> node.setSelectId((int) readLong(reader));
+				case "message" -> node.setMessage(reader.readString());
+				case "cost_info" -> readCostInfo(reader, node);
+				case "using_filesort" -> node.setUsingFilesort(reader.readBoolValue());
+				case "using_temporary_table" -> node.setUsingTemporary(reader.readBoolValue());
+				case "using_index" -> node.setUsingIndex(reader.readBoolValue());
+				case "dependent" -> node.setDependent(reader.readBoolValue());
+				case "table_name" -> node.setTableName(reader.readString());
+				case "access_type" -> node.setAccessType(reader.readString());
+				case "key" -> node.setKey(reader.readString());
+				case "attached_condition" -> node.setAttachedCondition(reader.readString());
+				case "possible_keys" -> node.setPossibleKeys(readStrings(reader));
+				case "used_key_parts" -> node.setUsedKeyParts(readStrings(reader));
+				case "used_columns" -> node.setUsedColumns(readStrings(reader));
+				case "rows_examined_per_scan" -> node.setRowsExaminedPerScan(readLong(reader));
+				case "rows_produced_per_join" -> node.setRowsProducedPerJoin(readLong(reader));
+				case "filtered" -> node.setFiltered(readDouble(reader));
+				case "table", "query_block", "ordering_operation", "grouping_operation", "duplicates_removal",
+						"windowing", "buffer_result", "materialized_from_subquery", "union_result" ->
+					node.addChild(readNode(reader, name));
+				case "nested_loop", "attached_subqueries", "select_list_subqueries", "optimized_away_subqueries",
+						"query_specifications", "order_by_subqueries", "group_by_subqueries", "having_subqueries" ->
+					node.addChild(readNodeArray(reader, name));
+				default -> reader.skipValue();
+			}
+		}
+		return node;
+	}
+
+	/**
+	 * 数组结构（nested_loop、子查询列表），数组中的每个对象作为一个子节点
+	 */
+	private static ExplainPlanNode readNodeArray(JSONReader reader, String operation) {
+		ExplainPlanNode node = new ExplainPlanNode(operation);
+		if (!reader.nextIfArrayStart()) {
+			reader.skipValue();
+			return node;
+		}
+		while (!reader.nextIfArrayEnd()) {
+			ExplainPlanNode item = readNode(reader, "nested_loop".equals(operation) ? "join" : "subquery");
+			// nested_loop 中的元素只包一层 table，直接提升
+			if (item.getChildren() != null && item.getChildren().size() == 1 && item.getTableName() == null
+					&& item.getDependent() == null) {
+				node.addChild(item.getChildren().get(0));
+			}
+			else {
+				node.addChild(item);
+			}
+		}
+		return node;
+	}
+
+	private static void readCostInfo(JSONReader reader, ExplainPlanNode node) {
+		if (!reader.nextIfObjectStart()) {
+			reader.skipValue();
+			return;
+		}
+		while (!reader.nextIfObjectEnd()) {
+			String name = reader.readFieldName();
+			switch (name) {
+				case "query_cost" -> node.setQueryCost(readDouble(reader));
+				case "read_cost" -> node.setReadCost(readDouble(reader));
+				case "eval_cost" -> node.setEvalCost(readDouble(reader));
+				case "prefix_cost" -> node.setPrefixCost(readDouble(reader));
+				case "data_read_per_join" -> node.setDataReadPerJoin(reader.readString());
+				default -> reader.skipValue();
+			}
+		}
+	}
+
+	private static List<String> readStrings(JSONReader reader) {
+		List<String> values = new ArrayList<>(4);
+		if (!reader.nextIfArrayStart()) {
+			values.add(reader.readString());
+			return values;
+		}
+		while (!reader.nextIfArrayEnd()) {
+			values.add(reader.readString());
+		}
+		return values;
+	}
+
+	private static double readDouble(JSONReader reader) {
+		if (reader.isString()) {
+			String value = reader.readString();
+			return value == null || value.isEmpty() ? 0D : Double.parseDouble(value);
+		}
+		return reader.readDoubleValue();
+	}
+
+	private static long readLong(JSONReader reader) {
+		if (reader.isString()) {
+			String value = reader.readString();
+			return value == null || value.isEmpty() ? 0L : (long) Double.parseDouble(value);
+		}
+		return reader.readInt64Value();
+	}
+
+	/**
+	 * 把执行计划树展开为执行计划行
+	 * <p>
+	 * select_type 按所在结构近似推断；排序、分组、去重节点上的文件排序和临时表标记到其下的第一个表上，
+	 * 和传统 EXPLAIN 的 Extra 一致。
+	 */
+	private static class Flattener {
+
+		private final List<SqlAnalysisResult> rows;
+
+		private boolean pendingFilesort;
+
+		private boolean pendingTemporary;
+
+		Flattener(List<SqlAnalysisResult> rows) {
+			this.rows = rows;
+		}
+
+		void visit(ExplainPlanNode node, String selectType, long selectId, Double queryCost) {
+			if (Boolean.TRUE.equals(node.getUsingFilesort())) {
+				pendingFilesort = true;
+			}
+			if (Boolean.TRUE.equals(node.getUsingTemporary())) {
+				pendingTemporary = true;
+			}
+			long id = node.getSelectId() != null ? node.getSelectId() : selectId;
+			Double cost = node.getQueryCost() != null ? node.getQueryCost() : queryCost;
+			if (node.getTableName() != null || node.getAccessType() != null) {
+				rows.add(toRow(node, selectType, id, cost));
+			}
+			if (node.getChildren() == null) {
+				return;
+			}
+			for (ExplainPlanNode child : node.getChildren()) {
+				visit(child, childSelectType(node.getOperation(), selectType), id, cost);
+			}
+		}
+
+		private String childSelectType(String operation, String selectType) {
+			return switch (operation) {
+				case "materialized_from_subquery" -> "DERIVED";
+				case "query_specifications" -> "UNION";
+				case "attached_subqueries", "select_list_subqueries", "optimized_away_subqueries",
+						"order_by_subqueries", "group_by_subqueries", "having_subqueries" ->
+					"SUBQUERY";
+				default -> selectType;
+			};
+		}
+
+		private SqlAnalysisResult toRow(ExplainPlanNode node, String selectType, long id, Double queryCost) {
+			CostAwareSqlAnalysisResult row = new CostAwareSqlAnalysisResult();
+			row.setId(id);
+			row.setSelectType(selectType);
+			row.setTable(node.getTableName());
+			row.setType(node.getAccessType());
+			row.setPossibleKeys(node.getPossibleKeys() == null ? null : String.join(",", node.getPossibleKeys()));
+			row.setKey(node.getKey());
+			row.setRows(node.getRowsExaminedPerScan() == null ? null : String.valueOf(node.getRowsExaminedPerScan()));
+			row.setFiltered(node.getFiltered() == null ? 100D : node.getFiltered());
+			row.setExtra(buildExtra(node));
+			row.setQueryCost(queryCost);
+			row.setPrefixCost(node.getPrefixCost());
+			row.setReadCost(node.getReadCost());
+			row.setEvalCost(node.getEvalCost());
+			row.setRowsProducedPerJoin(node.getRowsProducedPerJoin());
+			row.setUsedColumns(node.getUsedColumns());
+			return row;
+		}
+
+		private String buildExtra(ExplainPlanNode node) {
+			List<String> extra = new ArrayList<>(4);
+			if (node.getAttachedCondition() != null) {
+				extra.add("Using where");
+			}
+			if (Boolean.TRUE.equals(node.getUsingIndex())) {
+				extra.add("Using index");
+			}
+			if (pendingTemporary) {
+				extra.add("Using temporary");
+				pendingTemporary = false;
+			}
+			if (pendingFilesort) {
+				extra.add("Using filesort");
+				pendingFilesort = false;
+			}
+			return extra.isEmpty() ? null : String.join("; ", extra);
+		}
+
+	}
+
+}
@@ -0,0 +1,195 @@
+package com.itjing.sql.explain;
+
+import cn.hutool.core.collection.CollUtil;
+import com.itjing.sql.util.SqlFingerprintUtils;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.ExpressionVisitorAdapter;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.select.FromItem;
+import net.sf.jsqlparser.statement.select.FromItemVisitorAdapter;
+import net.sf.jsqlparser.statement.select.Join;
+import net.sf.jsqlparser.statement.select.LateralSubSelect;
+import net.sf.jsqlparser.statement.select.ParenthesisFromItem;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.select.SelectBody;
+import net.sf.jsqlparser.statement.select.SelectItem;
+import net.sf.jsqlparser.statement.select.SelectVisitorAdapter;
+import net.sf.jsqlparser.statement.select.SetOperationList;
+import net.sf.jsqlparser.statement.select.SubJoin;
+import net.sf.jsqlparser.statement.select.SubSelect;
+import net.sf.jsqlparser.statement.select.WithItem;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 只读查询检查，用于会真正执行 SQL 的 EXPLAIN ANALYZE
+ * <p>
+ * 只接受单条 SELECT，遍历整棵语句树（集合运算、WITH、派生表、关联、表达式中的子查询），任何一层有
+ * FOR UPDATE 或 INTO 都拒绝。jsqlparser 不认识的加锁写法（LOCK IN SHARE MODE、FOR SHARE）会解析失败，
+ * 另外在指纹（去掉注释和字面量）上做一次词法检查兜底；MySQL 会执行 /*! 版本注释中的内容，直接拒绝。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public final class ReadOnlySelectChecker {
+
+	private ReadOnlySelectChecker() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	private static final Pattern LOCKING_OR_INTO = Pattern
+		.compile("\\binto\\b|\\bfor\\s+(?:update|share)\\b|\\block\\s+in\\s+share\\s+mode\\b");
+
+	/**
+	 * 检查 SQL 是否是只读的单条 SELECT
+	 * @param sql SQL
+	 * @return {@link String } 拒绝原因，允许执行时返回 null
+	 */
+	public static String rejectReason(String sql) {
+		if (sql == null || sql.contains("/*!")) {
+			return "不支持 /*! */ 版本注释";
+		}
+		Statement statement;
+		try {
+			statement = CCJSqlParserUtil.parse(sql);
+		}
+		catch (JSQLParserException e) {
+			return "无法解析sql，只支持单条 SELECT 语句";
+		}
+		if (!(statement instanceof Select select)) {
+			return "只支持 SELECT 语句";
+		}
+		Walker walker = new Walker();
+		walker.withItems(select.getWithItemsList());
+		walker.select(select.getSelectBody());
+		if (walker.reason != null) {
+			return walker.reason;
+		}
+		if (LOCKING_OR_INTO.matcher(SqlFingerprintUtils.fingerprint(sql)).find()) {
+			return "不支持加锁读和 INTO";
+		}
+		return null;
+	}
+
+	/**
+	 * 遍历语句树，记录第一个不允许的子句
+	 */
+	private static final class Walker extends SelectVisitorAdapter {
+
+		private final ExpressionVisitorAdapter expressions = new ExpressionVisitorAdapter();
+
+		private final FromItemVisitorAdapter fromItems = new FromItemVisitorAdapter() {
+
+			@Override
+			public void visit(SubSelect subSelect) {
+				subSelect(subSelect);
+			}
+
+			@Override
+			public void visit(SubJoin subJoin) {
+				fromItem(subJoin.getLeft());
+				joins(subJoin.getJoinList());
+			}
+
+			@Override
+			public void visit(LateralSubSelect lateralSubSelect) {
+				subSelect(lateralSubSelect.getSubSelect());
+			}
+
+			@Override
+			public void visit(ParenthesisFromItem parenthesisFromItem) {
+				fromItem(parenthesisFromItem.getFromItem());
+			}
+
+		};
+
+		private String reason;
+
+		Walker() {
+			// 表达式中的子查询（IN、EXISTS、ANY、标量子查询）回到 SELECT 的遍历
+			expressions.setSelectVisitor(this);
+		}
+
+		@Override
+		public void visit(PlainSelect plainSelect) {
+			if (plainSelect.isForUpdate()) {
+				reject("不支持 SELECT ... FOR UPDATE");
+			}
+			if (CollUtil.isNotEmpty(plainSelect.getIntoTables())) {
+				reject("不支持 SELECT ... INTO");
+			}
+			if (plainSelect.getSelectItems() != null) {
+				for (SelectItem item : plainSelect.getSelectItems()) {
+					item.accept(expressions);
+				}
+			}
+			fromItem(plainSelect.getFromItem());
+			joins(plainSelect.getJoins());
+			expression(plainSelect.getWhere());
+			expression(plainSelect.getHaving());
+		}
+
+		@Override
+		public void visit(SetOperationList setOperationList) {
+			setOperationList.getSelects().forEach(this::select);
+		}
+
+		@Override
+		public void visit(WithItem withItem) {
+			subSelect(withItem.getSubSelect());
+		}
+
+		void select(SelectBody body) {
+			if (body != null) {
+				body.accept(this);
+			}
+		}
+
+		void withItems(List<WithItem> withItems) {
+			if (withItems != null) {
+				withItems.forEach(this::visit);
+			}
+		}
+
+		private void subSelect(SubSelect subSelect) {
+			if (subSelect != null) {
+				withItems(subSelect.getWithItemsList());
+				select(subSelect.getSelectBody());
+			}
+		}
+
+		private void fromItem(FromItem item) {
+			if (item != null) {
+				item.accept(fromItems);
+			}
+		}
+
+		private void joins(List<Join> joins) {
+			if (joins == null) {
+				return;
+			}
+			for (Join join : joins) {
+				fromItem(join.getRightItem());
+				join.getOnExpressions().forEach(this::expression);
+			}
+		}
+
+		private void expression(Expression expression) {
+			if (expression != null) {
+				expression.accept(expressions);
+			}
+		}
+
+		private void reject(String message) {
+			if (reason == null) {
+				reason = message;
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,89 @@
+package com.itjing.sql.explain.dialect;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * 按列名定位的结果集列
+ * <p>
+ * 每个结果集只按列名（不区分大小写）查找一次下标，之后按下标读取，避免每行每列都按列名查找；
+ * 结果集中没有的列下标为 -1，读取时返回 null，兼容不同版本输出的列不同（例如 MySQL 5.6 没有 filtered）。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public final class ExplainColumns {
+
+	private final ResultSet rs;
+
+	private final int[] indexes;
+
+	private ExplainColumns(ResultSet rs, int[] indexes) {
+		this.rs = rs;
+		this.indexes = indexes;
+	}
+
+	/**
+	 * 查找列的下标
+	 * @param rs 结果集
+	 * @param labels 列名，读取时按这里的顺序指定
+	 * @return {@link ExplainColumns }
+	 * @throws SQLException sql异常
+	 */
+	public static ExplainColumns resolve(ResultSet rs, String... labels) throws SQLException {
+		ResultSetMetaData meta = rs.getMetaData();
+		int columnCount = meta.getColumnCount();
+		int[] indexes = new int[labels.length];
+		for (int i = 0; i < labels.length; i++) {
+			indexes[i] = -1;
+			for (int column = 1; column <= columnCount; column++) {
+				if (labels[i].equalsIgnoreCase(meta.getColumnLabel(column))) {
+					indexes[i] = column;
+					break;
+				}
+			}
+		}
+		return new ExplainColumns(rs, indexes);
+	}
+
+	/**
+	 * 结果集中是否有该列
+	 * @param column 列在 labels 中的位置
+	 * @return boolean
+	 */
+	public boolean has(int column) {
+		return indexes[column] > 0;
+	}
+
+	/**
+	 * 读取当前行的字符串
+	 * @param column 列在 labels 中的位置
+	 * @return {@link String } 没有该列或值为 NULL 时返回 null
+	 * @throws SQLException sql异常
+	 */
+	public String getString(int column) throws SQLException {
+		return has(column) ? rs.getString(indexes[column]) : null;
+	}
+
+	/**
+	 * 读取当前行的整数，NULL 读取为 0（和 {@link ResultSet#getLong(int)} 一致）
+	 * @param column 列在 labels 中的位置
+	 * @return {@link Long } 没有该列时返回 null
+	 * @throws SQLException sql异常
+	 */
+	public Long getLong(int column) throws SQLException {
+		return has(column) ? rs.getLong(indexes[column]) : null;
+	}
+
+	/**
+	 * 读取当前行的小数，NULL 读取为 0（和 {@link ResultSet#getDouble(int)} 一致）
+	 * @param column 列在 labels 中的位置
+	 * @return {@link Double } 没有该列时返回 null
+	 * @throws SQLException sql异常
+	 */
+	public Double getDouble(int column) throws SQLException {
+		return has(column) ? rs.getDouble(indexes[column]) : null;
+	}
+
+}
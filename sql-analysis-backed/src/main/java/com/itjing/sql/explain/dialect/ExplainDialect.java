@@ -0,0 +1,67 @@
+package com.itjing.sql.explain.dialect;
+
+import com.itjing.sql.constant.ExplainMode;
+import com.jd.sql.analysis.analysis.SqlAnalysisResultList;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 数据库方言的执行计划解析
+ * <p>
+ * 按 {@link java.sql.DatabaseMetaData#getDatabaseProductName()} 和
+ * {@link java.sql.DatabaseMetaData#getDatabaseProductVersion()} 选择实现，各方言的执行计划统一转换为
+ * {@link SqlAnalysisResultList}（MySQL EXPLAIN 的列），评分规则不区分数据库。实现没有状态，可以在线程间共享。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public interface ExplainDialect {
+
+	/**
+	 * 方言名称
+	 * @return {@link String }
+	 */
+	String getName();
+
+	/**
+	 * 是否支持该数据库
+	 * @param productName 数据库产品名
+	 * @param productVersion 数据库版本
+	 * @return boolean
+	 */
+	boolean supports(String productName, String productVersion);
+
+	/**
+	 * 是否支持执行计划模式，默认只支持 TRADITIONAL
+	 * @param explainMode 执行计划模式
+	 * @return boolean
+	 */
+	default boolean supports(ExplainMode explainMode) {
+		return explainMode == ExplainMode.TRADITIONAL;
+	}
+
+	/**
+	 * 是否可以从 information_schema 加载表结构目录（分析结果缓存的版本号、索引建议依赖它）
+	 * @return boolean
+	 */
+	default boolean supportsSchemaCatalog() {
+		return false;
+	}
+
+	/**
+	 * 生成执行计划语句
+	 * @param sql SQL
+	 * @return {@link String }
+	 */
+	String explainSql(String sql);
+
+	/**
+	 * 解析执行计划结果集
+	 * @param rs 执行 {@link #explainSql(String)} 的结果集
+	 * @return {@link SqlAnalysisResultList }
+	 * @throws SQLException sql异常
+	 */
+	SqlAnalysisResultList parse(ResultSet rs) throws SQLException;
+
+}
@@ -0,0 +1,222 @@
+package com.itjing.sql.explain.dialect;
+
+import com.jd.sql.analysis.analysis.SqlAnalysisResult;
+import com.jd.sql.analysis.analysis.SqlAnalysisResultList;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * H2 的执行计划解析，主要用于在嵌入式数据库上运行分析流程
+ * <p>
+ * H2 的 EXPLAIN 返回改写后的 SQL，每个表引用后跟一段注释说明访问方式：PUBLIC.T.tableScan 为 ALL，
+ * PUBLIC.IDX_NAME: NAME = 'a' 按索引条件为 ref（只有等值）或 range，只有索引名时为 index。
+ * 子查询按括号层级使用新的 id。H2 不输出预估行数，rows 和 filtered 为 null。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public class H2ExplainDialect implements ExplainDialect {
+
+	private static final String IDENTIFIER = "(?:\"[^\"]+\"|[\\w$]+)";
+
+	/**
+	 * 注释前的表引用：FROM/JOIN/逗号 表名 [别名]
+	 */
+	private static final Pattern TABLE_REFERENCE = Pattern.compile("(?:\\bFROM|\\bJOIN|,)\\s+(" + IDENTIFIER
+			+ "(?:\\." + IDENTIFIER + ")*)(?:\\s+(?:AS\\s+)?(" + IDENTIFIER + "))?\\s*$", Pattern.CASE_INSENSITIVE);
+
+	/**
+	 * 访问方式注释：索引或 表.tableScan，可以带冒号后的索引条件
+	 */
+	private static final Pattern ACCESS = Pattern.compile("^([\\w$.\"]+?)(?::\\s*(.+))?$", Pattern.DOTALL);
+
+	private static final Pattern RANGE_CONDITION = Pattern.compile("[<>]|\\bIN\\s*\\(|\\bLIKE\\b|\\bBETWEEN\\b",
+			Pattern.CASE_INSENSITIVE);
+
+	private static final Pattern SELECT_AHEAD = Pattern.compile("\\s*SELECT\\b", Pattern.CASE_INSENSITIVE);
+
+	private static final Pattern DERIVED_BEHIND = Pattern.compile("(?:\\bFROM|\\bJOIN|,)\\s*$",
+			Pattern.CASE_INSENSITIVE);
+
+	private static final String TABLE_SCAN = ".tableScan";
+
+	@Override
+	public String getName() {
+		return "H2";
+	}
+
+	@Override
+	public boolean supports(String productName, String productVersion) {
+		return "H2".equalsIgnoreCase(productName);
+	}
+
+	@Override
+	public String explainSql(String sql) {
+		return "EXPLAIN " + sql;
+	}
+
+	@Override
+	public SqlAnalysisResultList parse(ResultSet rs) throws SQLException {
+		List<SqlAnalysisResult> rows = new ArrayList<>();
+		boolean subquery = false;
+		while (rs.next()) {
+			subquery |= parsePlan(rs.getString(1), rows);
+		}
+		if (rows.isEmpty()) {
+			SqlAnalysisResult result = new SqlAnalysisResult();
+			result.setId(1L);
+			result.setSelectType("SIMPLE");
+			result.setExtra("No tables used");
+			rows.add(result);
+		}
+		else if (subquery) {
+			rows.stream().filter(row -> row.getId() == 1L).forEach(row -> row.setSelectType("PRIMARY"));
+		}
+		SqlAnalysisResultList resultList = new SqlAnalysisResultList();
+		resultList.setResultList(rows);
+		return resultList;
+	}
+
+	/**
+	 * 顺序扫描执行计划文本，跳过字符串和带引号的标识符，按括号维护子查询层级，处理最外层的注释
+	 * @return boolean 是否有子查询
+	 */
+	private boolean parsePlan(String plan, List<SqlAnalysisResult> rows) {
+		if (plan == null) {
+			return false;
+		}
+		Deque<Long> scopes = new ArrayDeque<>();
+		List<String> selectTypes = new ArrayList<>();
+		long nextId = 1L;
+		int segmentStart = 0;
+		int length = plan.length();
+		int i = 0;
+		while (i < length) {
+			char c = plan.charAt(i);
+			if (c == '\'' || c == '"') {
+				i = skipQuoted(plan, i, c);
+			}
+			else if (c == '/' && i + 1 < length && plan.charAt(i + 1) == '*') {
+				int end = skipComment(plan, i);
+				long id = scopes.isEmpty() ? 1L : scopes.peek();
+				String selectType = id == 1L ? "SIMPLE" : selectTypes.get((int) id - 2);
+				addRow(plan.substring(segmentStart, i), plan.substring(i + 2, Math.max(i + 2, end - 2)).trim(), id,
+						selectType, rows);
+				segmentStart = end;
+				i = end;
+			}
+			else if (c == '(') {
+				if (SELECT_AHEAD.matcher(plan).region(i + 1, length).lookingAt()) {
+					nextId++;
+					selectTypes.add(DERIVED_BEHIND.matcher(plan.substring(segmentStart, i)).find() ? "DERIVED"
+							: "SUBQUERY");
+					scopes.push(nextId);
+				}
+				else {
+					scopes.push(scopes.isEmpty() ? 1L : scopes.peek());
+				}
+				i++;
+			}
+			else if (c == ')') {
+				if (!scopes.isEmpty()) {
+					scopes.pop();
+				}
+				i++;
+			}
+			else {
+				i++;
+			}
+		}
+		return nextId > 1L;
+	}
+
+	/**
+	 * 注释紧跟在表引用之后且是访问方式时生成一行
+	 */
+	private void addRow(String before, String comment, long id, String selectType, List<SqlAnalysisResult> rows) {
+		Matcher reference = TABLE_REFERENCE.matcher(before);
+		Matcher access = ACCESS.matcher(comment);
+		if (!reference.find() || !access.matches()) {
+			return;
+		}
+		String target = access.group(1);
+		String condition = access.group(2);
+		String key = null;
+		String type;
+		if (target.endsWith(TABLE_SCAN)) {
+			type = "ALL";
+		}
+		else {
+			key = unquote(target.substring(target.lastIndexOf('.') + 1));
+			if (condition == null) {
+				type = "index";
+			}
+			else {
+				type = RANGE_CONDITION.matcher(condition).find() ? "range" : "ref";
+			}
+		}
+		String table = reference.group(2) != null ? reference.group(2) : reference.group(1);
+		SqlAnalysisResult result = new SqlAnalysisResult();
+		result.setId(id);
+		result.setSelectType(selectType);
+		result.setTable(unquote(table.substring(table.lastIndexOf('.') + 1)));
+		result.setType(type);
+		result.setPossibleKeys(key);
+		result.setKey(key);
+		rows.add(result);
+	}
+
+	private int skipQuoted(String plan, int start, char quote) {
+		int i = start + 1;
+		while (i < plan.length()) {
+			if (plan.charAt(i) == quote) {
+				// 两个引号是转义
+				if (i + 1 < plan.length() && plan.charAt(i + 1) == quote) {
+					i += 2;
+					continue;
+				}
+				return i + 1;
+			}
+			i++;
+		}
+		return i;
+	}
+
+	/**
+	 * H2 的注释可以嵌套（派生表后的注释里包含子查询的计划）
+	 * @return int 注释结束后的位置
+	 */
+	private int skipComment(String plan, int start) {
+		int depth = 0;
+		int i = start;
+		while (i + 1 < plan.length()) {
+			if (plan.charAt(i) == '/' && plan.charAt(i + 1) == '*') {
+				depth++;
+				i += 2;
+			}
+			else if (plan.charAt(i) == '*' && plan.charAt(i + 1) == '/') {
+				i += 2;
+				if (--depth == 0) {
+					return i;
+				}
+			}
+			else {
+				i++;
+			}
+		}
+		return plan.length();
+	}
+
+	private String unquote(String identifier) {
+		return identifier.length() > 1 && identifier.charAt(0) == '"' ? identifier.substring(1, identifier.length() - 1)
+				: identifier;
+	}
+
+}
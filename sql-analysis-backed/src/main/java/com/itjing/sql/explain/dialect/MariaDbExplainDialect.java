@@ -0,0 +1,34 @@
+package com.itjing.sql.explain.dialect;
+
+import cn.hutool.core.util.StrUtil;
+import com.itjing.sql.constant.ExplainMode;
+
+/**
+ * MariaDB 的执行计划解析
+ * <p>
+ * 普通 EXPLAIN 的列和 MySQL 相同（没有 filtered），information_schema 也兼容；EXPLAIN FORMAT=JSON 的结构和
+ * ANALYZE 语句都和 MySQL 不同，只支持 TRADITIONAL。MariaDB 驱动报告 MariaDB，MySQL 驱动报告 MySQL，
+ * 版本号形如 5.5.5-10.6.12-MariaDB。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public class MariaDbExplainDialect extends MySqlExplainDialect {
+
+	@Override
+	public String getName() {
+		return "MariaDB";
+	}
+
+	@Override
+	public boolean supports(String productName, String productVersion) {
+		return "MariaDB".equalsIgnoreCase(productName)
+				|| "MySQL".equalsIgnoreCase(productName) && StrUtil.containsIgnoreCase(productVersion, "MariaDB");
+	}
+
+	@Override
+	public boolean supports(ExplainMode explainMode) {
+		return explainMode == ExplainMode.TRADITIONAL;
+	}
+
+}
@@ -0,0 +1,92 @@
+package com.itjing.sql.explain.dialect;
+
+import cn.hutool.core.util.StrUtil;
+import com.itjing.sql.constant.ExplainMode;
+import com.jd.sql.analysis.analysis.SqlAnalysisResult;
+import com.jd.sql.analysis.analysis.SqlAnalysisResultList;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MySQL 5.7/8.0 的执行计划解析，支持所有执行计划模式
+ * <p>
+ * 结果集的列名在各版本之间一致，只是 5.6 没有 filtered、8.0 多了 partitions 等列，按列名查找一次下标后按下标读取。
+ * 连接 MariaDB 的 MySQL 驱动也报告 MySQL，按版本号中的 MariaDB 排除。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public class MySqlExplainDialect implements ExplainDialect {
+
+	private static final int ID = 0;
+
+	private static final int SELECT_TYPE = 1;
+
+	private static final int TABLE = 2;
+
+	private static final int TYPE = 3;
+
+	private static final int POSSIBLE_KEYS = 4;
+
+	private static final int KEY = 5;
+
+	private static final int ROWS = 6;
+
+	private static final int FILTERED = 7;
+
+	private static final int EXTRA = 8;
+
+	private static final String[] LABELS = { "id", "select_type", "table", "type", "possible_keys", "key", "rows",
+			"filtered", "Extra" };
+
+	@Override
+	public String getName() {
+		return "MySQL";
+	}
+
+	@Override
+	public boolean supports(String productName, String productVersion) {
+		return "MySQL".equalsIgnoreCase(productName) && !StrUtil.containsIgnoreCase(productVersion, "MariaDB");
+	}
+
+	@Override
+	public boolean supports(ExplainMode explainMode) {
+		return true;
+	}
+
+	@Override
+	public boolean supportsSchemaCatalog() {
+		return true;
+	}
+
+	@Override
+	public String explainSql(String sql) {
+		return "EXPLAIN " + sql;
+	}
+
+	@Override
+	public SqlAnalysisResultList parse(ResultSet rs) throws SQLException {
+		ExplainColumns columns = ExplainColumns.resolve(rs, LABELS);
+		List<SqlAnalysisResult> analysisResults = new ArrayList<>();
+		while (rs.next()) {
+			SqlAnalysisResult result = new SqlAnalysisResult();
+			result.setId(columns.getLong(ID));
+			result.setSelectType(columns.getString(SELECT_TYPE));
+			result.setTable(columns.getString(TABLE));
+			result.setType(columns.getString(TYPE));
+			result.setPossibleKeys(columns.getString(POSSIBLE_KEYS));
+			result.setKey(columns.getString(KEY));
+			result.setRows(columns.getString(ROWS));
+			result.setFiltered(columns.getDouble(FILTERED));
+			result.setExtra(columns.getString(EXTRA));
+			analysisResults.add(result);
+		}
+		SqlAnalysisResultList resultList = new SqlAnalysisResultList();
+		resultList.setResultList(analysisResults);
+		return resultList;
+	}
+
+}
@@ -0,0 +1,237 @@
+package com.itjing.sql.explain.dialect;
+
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.jd.sql.analysis.analysis.SqlAnalysisResult;
+import com.jd.sql.analysis.analysis.SqlAnalysisResultList;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * PostgreSQL 的执行计划解析，执行 EXPLAIN (FORMAT JSON)
+ * <p>
+ * 每个访问表的节点转换为一行：Seq Scan 为 ALL；Index Scan、Index Only Scan、Bitmap Heap Scan 按索引条件为
+ * ref（只有等值）、range（范围、IN、LIKE）或 index（没有条件，全索引扫描）；多个位图索引合并为 index_merge。
+ * Filter 转换为 Using where，Index Only Scan 转换为 Using index，Sort 和 Hash 聚合分别转换为子树中第一个表的
+ * Using filesort 和 Using temporary。SubPlan、InitPlan 和子查询扫描使用新的 id。
+ * <p>
+ * rows 取 Plan Rows，是过滤后的预估行数，不是 MySQL 的预估扫描行数；没有 filtered。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public class PostgreSqlExplainDialect implements ExplainDialect {
+
+	/**
+	 * 范围条件：比较、不等、= ANY（IN 列表）、LIKE（~~）
+	 */
+	private static final Pattern RANGE_CONDITION = Pattern.compile("[<>]|~~|\\bANY\\b", Pattern.CASE_INSENSITIVE);
+
+	@Override
+	public String getName() {
+		return "PostgreSQL";
+	}
+
+	@Override
+	public boolean supports(String productName, String productVersion) {
+		return "PostgreSQL".equalsIgnoreCase(productName);
+	}
+
+	@Override
+	public String explainSql(String sql) {
+		return "EXPLAIN (FORMAT JSON) " + sql;
+	}
+
+	@Override
+	public SqlAnalysisResultList parse(ResultSet rs) throws SQLException {
+		if (!rs.next()) {
+			throw new SQLException("EXPLAIN (FORMAT JSON) 没有返回结果");
+		}
+		String json = rs.getString(1);
+		List<SqlAnalysisResult> rows = new ArrayList<>();
+		try {
+			JSONArray plans = JSON.parseArray(json);
+			JSONObject root = plans == null || plans.isEmpty() ? null : plans.getJSONObject(0).getJSONObject("Plan");
+			if (root == null) {
+				throw new SQLException("执行计划缺少 Plan");
+			}
+			Flattener flattener = new Flattener(rows);
+			flattener.visit(root, 1L, "SIMPLE");
+			if (rows.isEmpty()) {
+				rows.add(row(1L, "SIMPLE", null, null, null, null, "No tables used"));
+			}
+			else if (flattener.nextId > 1L) {
+				rows.stream().filter(row -> row.getId() == 1L).forEach(row -> row.setSelectType("PRIMARY"));
+			}
+		}
+		catch (RuntimeException e) {
+			throw new SQLException("解析 JSON 执行计划失败：" + e.getMessage(), e);
+		}
+		SqlAnalysisResultList resultList = new SqlAnalysisResultList();
+		resultList.setResultList(rows);
+		return resultList;
+	}
+
+	private static SqlAnalysisResult row(Long id, String selectType, String table, String type, String key,
+			String rows, String extra) {
+		SqlAnalysisResult result = new SqlAnalysisResult();
+		result.setId(id);
+		result.setSelectType(selectType);
+		result.setTable(table);
+		result.setType(type);
+		result.setPossibleKeys(key);
+		result.setKey(key);
+		result.setRows(rows);
+		result.setExtra(extra);
+		return result;
+	}
+
+	/**
+	 * 深度优先遍历计划树，先访问普通子节点（关联顺序），再访问子查询
+	 */
+	private static final class Flattener {
+
+		private final List<SqlAnalysisResult> rows;
+
+		/**
+		 * 等待子树中第一个表认领的 Extra（Using filesort、Using temporary）
+		 */
+		private final List<String> pending = new ArrayList<>();
+
+		private long nextId = 1L;
+
+		Flattener(List<SqlAnalysisResult> rows) {
+			this.rows = rows;
+		}
+
+		void visit(JSONObject node, long id, String selectType) {
+			String nodeType = node.getString("Node Type");
+			int mark = pending.size();
+			if ("Sort".equals(nodeType) || "Incremental Sort".equals(nodeType)) {
+				pending.add("Using filesort");
+			}
+			else if ("Hashed".equals(node.getString("Strategy"))) {
+				pending.add("Using temporary");
+			}
+			if (node.containsKey("Relation Name")) {
+				rows.add(toRow(node, nodeType, id, selectType));
+			}
+			JSONArray children = node.getJSONArray("Plans");
+			if (children != null) {
+				for (int i = 0; i < children.size(); i++) {
+					JSONObject child = children.getJSONObject(i);
+					if (subqueryType(child) == null) {
+						visit(child, id, selectType);
+					}
+				}
+				for (int i = 0; i < children.size(); i++) {
+					JSONObject child = children.getJSONObject(i);
+					String type = subqueryType(child);
+					if (type != null) {
+						// 外层的排序和聚合不属于子查询
+						List<String> outer = new ArrayList<>(pending);
+						pending.clear();
+						visit(child, ++nextId, type);
+						pending.clear();
+						pending.addAll(outer);
+					}
+				}
+			}
+			// 子树中没有表时丢弃，避免落到其他表上
+			while (pending.size() > mark) {
+				pending.remove(pending.size() - 1);
+			}
+		}
+
+		private SqlAnalysisResult toRow(JSONObject node, String nodeType, long id, String selectType) {
+			String type;
+			String key = node.getString("Index Name");
+			switch (StrUtil.nullToEmpty(nodeType)) {
+				case "Index Scan":
+				case "Index Only Scan":
+					type = accessType(node.getString("Index Cond"));
+					break;
+				case "Bitmap Heap Scan":
+					List<String> indexes = new ArrayList<>();
+					boolean merged = collectBitmapIndexes(node, indexes);
+					key = indexes.isEmpty() ? null : String.join(",", indexes);
+					type = merged ? "index_merge" : accessType(node.getString("Recheck Cond"));
+					break;
+				case "Tid Scan":
+					type = "const";
+					break;
+				default:
+					type = "ALL";
+			}
+			List<String> extras = new ArrayList<>();
+			if (node.containsKey("Filter")) {
+				extras.add("Using where");
+			}
+			if ("Index Only Scan".equals(nodeType)) {
+				extras.add("Using index");
+			}
+			extras.addAll(pending);
+			pending.clear();
+			String table = StrUtil.blankToDefault(node.getString("Alias"), node.getString("Relation Name"));
+			Long planRows = node.getLong("Plan Rows");
+			return row(id, selectType, table, type, key, planRows == null ? null : String.valueOf(planRows),
+					extras.isEmpty() ? null : String.join("; ", extras));
+		}
+
+		/**
+		 * 收集位图扫描使用的索引
+		 * @return boolean 是否合并了多个索引（BitmapAnd、BitmapOr）
+		 */
+		private boolean collectBitmapIndexes(JSONObject node, List<String> indexes) {
+			boolean merged = false;
+			JSONArray children = node.getJSONArray("Plans");
+			if (children == null) {
+				return false;
+			}
+			for (int i = 0; i < children.size(); i++) {
+				JSONObject child = children.getJSONObject(i);
+				String nodeType = child.getString("Node Type");
+				if ("Bitmap Index Scan".equals(nodeType)) {
+					indexes.add(child.getString("Index Name"));
+				}
+				else if ("BitmapAnd".equals(nodeType) || "BitmapOr".equals(nodeType)) {
+					merged = true;
+					collectBitmapIndexes(child, indexes);
+				}
+			}
+			return merged;
+		}
+
+		private String accessType(String condition) {
+			if (StrUtil.isBlank(condition)) {
+				return "index";
+			}
+			return RANGE_CONDITION.matcher(condition).find() ? "range" : "ref";
+		}
+
+		/**
+		 * 子查询的 select_type，不是子查询时返回 null
+		 */
+		private String subqueryType(JSONObject child) {
+			String relationship = child.getString("Parent Relationship");
+			if ("SubPlan".equals(relationship)) {
+				return "DEPENDENT SUBQUERY";
+			}
+			if ("InitPlan".equals(relationship)) {
+				return "SUBQUERY";
+			}
+			if ("Subquery".equals(relationship)) {
+				return "DERIVED";
+			}
+			return null;
+		}
+
+	}
+
+}
@@ -0,0 +1,224 @@
+package com.itjing.sql.interceptor;
+
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 异步 SQL 分析拦截器
+ * <p>
+ * 替代在业务线程中同步执行 EXPLAIN 的 SqlAnalysisAspect：业务线程只判断是否采样，采中时取出 SQL 和参数值放入
+ * {@link SqlCaptureQueue}，由后台线程执行 EXPLAIN 和评分。采样按顺序判断，越靠前越便宜：
+ * <ol>
+ * <li>开关、SQL 类型和排除的 sqlId</li>
+ * <li>全局采样比例（ThreadLocalRandom）</li>
+ * <li>同一个 sqlId 在间隔内只采集一次（CAS 抢占，失败的线程直接跳过）</li>
+ * </ol>
+ * 没有采中的执行只有几次字段读取和一次随机数，不解析参数、不分配对象；采中但队列已满时也在解析参数前返回。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Intercepts({
+		@Signature(type = Executor.class, method = "update", args = { MappedStatement.class, Object.class }),
+		@Signature(type = Executor.class, method = "query",
+				args = { MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class }),
+		@Signature(type = Executor.class, method = "query", args = { MappedStatement.class, Object.class,
+				RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class }) })
+public class AsyncSqlAnalysisInterceptor implements Interceptor {
+
+	private static final Object[] NO_PARAMETERS = new Object[0];
+
+	private final SqlCaptureQueue queue;
+
+	private final boolean enabled;
+
+	private final double sampleRate;
+
+	private final long sqlIdInterval;
+
+	private final Set<SqlCommandType> sqlTypes;
+
+	private final Set<String> exceptSqlIds;
+
+	/**
+	 * 每个 sqlId 最后一次采集的时间
+	 */
+	private final Map<String, AtomicLong> lastCaptureTimes = new ConcurrentHashMap<>();
+
+	private final LongAdder interceptedCount = new LongAdder();
+
+	private final LongAdder sampledOutCount = new LongAdder();
+
+	private final LongAdder rateLimitedCount = new LongAdder();
+
+	private final LongAdder errorCount = new LongAdder();
+
+	/**
+	 * @param queue 采集队列
+	 * @param enabled 是否开启分析
+	 * @param sampleRate 全局采样比例（0~1）
+	 * @param sqlIdInterval 同一个 sqlId 的采集间隔（毫秒），小于等于 0 时不限制
+	 * @param sqlTypes 采集的 SQL 类型
+	 * @param exceptSqlIds 不采集的 sqlId
+	 */
+	public AsyncSqlAnalysisInterceptor(SqlCaptureQueue queue, boolean enabled, double sampleRate, long sqlIdInterval,
+			Set<SqlCommandType> sqlTypes, Set<String> exceptSqlIds) {
+		this.queue = queue;
+		this.enabled = enabled;
+		this.sampleRate = sampleRate;
+		this.sqlIdInterval = sqlIdInterval;
+		this.sqlTypes = sqlTypes;
+		this.exceptSqlIds = exceptSqlIds;
+	}
+
+	@Override
+	public Object intercept(Invocation invocation) throws Throwable {
+		if (enabled) {
+			try {
+				capture(invocation.getArgs());
+			}
+			catch (RuntimeException e) {
+				// 采集失败不影响业务 SQL
+				errorCount.increment();
+			}
+		}
+		return invocation.proceed();
+	}
+
+	private void capture(Object[] args) {
+		MappedStatement ms = (MappedStatement) args[0];
+		if (!sqlTypes.contains(ms.getSqlCommandType())) {
+			return;
+		}
+		interceptedCount.increment();
+		String sqlId = ms.getId();
+		if (sampleRate < 1D && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+			sampledOutCount.increment();
+			return;
+		}
+		if (!exceptSqlIds.isEmpty() && exceptSqlIds.contains(sqlId)) {
+			return;
+		}
+		if (!acquire(sqlId)) {
+			rateLimitedCount.increment();
+			return;
+		}
+		if (!queue.reserve()) {
+			return;
+		}
+		try {
+			Object parameter = args[1];
+			BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] : ms.getBoundSql(parameter);
+			Configuration configuration = ms.getConfiguration();
+			queue.put(new SqlCapture(sqlId, boundSql.getSql(), resolveParameters(configuration, boundSql, parameter),
+					configuration.getEnvironment() == null ? null : configuration.getEnvironment().getDataSource()));
+		}
+		catch (RuntimeException e) {
+			queue.cancel();
+			throw e;
+		}
+	}
+
+	/**
+	 * 同一个 sqlId 在间隔内只有一个线程能抢到
+	 */
+	private boolean acquire(String sqlId) {
+		if (sqlIdInterval <= 0) {
+			return true;
+		}
+		long now = System.currentTimeMillis();
+		AtomicLong last = lastCaptureTimes.get(sqlId);
+		if (last == null) {
+			last = lastCaptureTimes.computeIfAbsent(sqlId, key -> new AtomicLong(Long.MIN_VALUE));
+		}
+		long previous = last.get();
+		return (previous == Long.MIN_VALUE || now - previous >= sqlIdInterval) && last.compareAndSet(previous, now);
+	}
+
+	/**
+	 * 按 DefaultParameterHandler 的规则取出参数值，只复制引用
+	 */
+	private static Object[] resolveParameters(Configuration configuration, BoundSql boundSql, Object parameter) {
+		List<ParameterMapping> mappings = boundSql.getParameterMappings();
+		if (mappings == null || mappings.isEmpty()) {
+			return NO_PARAMETERS;
+		}
+		TypeHandlerRegistry typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+		Object[] values = new Object[mappings.size()];
+		MetaObject metaObject = null;
+		for (int i = 0; i < values.length; i++) {
+			ParameterMapping mapping = mappings.get(i);
+			if (mapping.getMode() == ParameterMode.OUT) {
+				continue;
+			}
+			String property = mapping.getProperty();
+			if (boundSql.hasAdditionalParameter(property)) {
+				values[i] = boundSql.getAdditionalParameter(property);
+			}
+			else if (parameter == null) {
+				values[i] = null;
+			}
+			else if (typeHandlerRegistry.hasTypeHandler(parameter.getClass())) {
+				values[i] = parameter;
+			}
+			else {
+				if (metaObject == null) {
+					metaObject = configuration.newMetaObject(parameter);
+				}
+				values[i] = metaObject.getValue(property);
+			}
+		}
+		return values;
+	}
+
+	public SqlCaptureQueue getQueue() {
+		return queue;
+	}
+
+	public double getSampleRate() {
+		return sampleRate;
+	}
+
+	public long getSqlIdInterval() {
+		return sqlIdInterval;
+	}
+
+	public long getInterceptedCount() {
+		return interceptedCount.sum();
+	}
+
+	public long getSampledOutCount() {
+		return sampledOutCount.sum();
+	}
+
+	public long getRateLimitedCount() {
+		return rateLimitedCount.sum();
+	}
+
+	public long getErrorCount() {
+		return errorCount.sum();
+	}
+
+}
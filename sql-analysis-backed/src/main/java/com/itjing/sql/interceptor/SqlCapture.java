@@ -0,0 +1,170 @@
+package com.itjing.sql.interceptor;
+
+import javax.sql.DataSource;
+import java.time.temporal.TemporalAccessor;
+import java.util.Calendar;
+import java.util.Date;
+
+/**
+ * 采集到的一次 SQL 执行：sqlId、带 ? 的 SQL 和参数值
+ * <p>
+ * 业务线程只复制引用，参数替换为字面量放到后台线程的 {@link #render()} 中执行。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public class SqlCapture {
+
+	private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+	private final String sqlId;
+
+	private final String sql;
+
+	private final Object[] parameters;
+
+	private final DataSource dataSource;
+
+	private final long captureTime;
+
+	public SqlCapture(String sqlId, String sql, Object[] parameters, DataSource dataSource) {
+		this.sqlId = sqlId;
+		this.sql = sql;
+		this.parameters = parameters;
+		this.dataSource = dataSource;
+		this.captureTime = System.currentTimeMillis();
+	}
+
+	public String getSqlId() {
+		return sqlId;
+	}
+
+	public String getSql() {
+		return sql;
+	}
+
+	public Object[] getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * 执行该 SQL 的数据源（MyBatis Environment 中的数据源）
+	 * @return {@link DataSource }
+	 */
+	public DataSource getDataSource() {
+		return dataSource;
+	}
+
+	public long getCaptureTime() {
+		return captureTime;
+	}
+
+	/**
+	 * 把参数替换为字面量，得到可以 EXPLAIN 的 SQL；跳过字符串、标识符和注释中的 ?
+	 * @return {@link String }
+	 */
+	public String render() {
+		if (parameters.length == 0) {
+			return sql;
+		}
+		StringBuilder builder = new StringBuilder(sql.length() + parameters.length * 8);
+		int index = 0;
+		int length = sql.length();
+		for (int i = 0; i < length; i++) {
+			char c = sql.charAt(i);
+			if (c == '\'' || c == '"' || c == '`') {
+				int end = skipQuoted(sql, i, c);
+				builder.append(sql, i, end);
+				i = end - 1;
+			}
+			else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-' || c == '#') {
+				int end = sql.indexOf('\n', i);
+				end = end < 0 ? length : end;
+				builder.append(sql, i, end);
+				i = end - 1;
+			}
+			else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+				int end = sql.indexOf("*/", i + 2);
+				end = end < 0 ? length : end + 2;
+				builder.append(sql, i, end);
+				i = end - 1;
+			}
+			else if (c == '?' && index < parameters.length) {
+				appendLiteral(builder, parameters[index++]);
+			}
+			else {
+				builder.append(c);
+			}
+		}
+		return builder.toString();
+	}
+
+	private static int skipQuoted(String sql, int start, char quote) {
+		int length = sql.length();
+		for (int i = start + 1; i < length; i++) {
+			char c = sql.charAt(i);
+			if (c == '\\' && quote != '`') {
+				i++;
+			}
+			else if (c == quote) {
+				if (i + 1 < length && sql.charAt(i + 1) == quote) {
+					i++;
+				}
+				else {
+					return i + 1;
+				}
+			}
+		}
+		return length;
+	}
+
+	private static void appendLiteral(StringBuilder builder, Object value) {
+		if (value == null) {
+			builder.append("NULL");
+		}
+		else if (value instanceof Number || value instanceof Boolean) {
+			builder.append(value);
+		}
+		else if (value instanceof byte[] bytes) {
+			builder.append("X'");
+			for (byte b : bytes) {
+				builder.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+			}
+			builder.append('\'');
+		}
+		else if (value instanceof Date date) {
+			// java.sql.Date/Time/Timestamp 的 toString 就是 MySQL 能识别的格式
+			appendString(builder, (date instanceof java.sql.Date || date instanceof java.sql.Time
+					|| date instanceof java.sql.Timestamp) ? date.toString()
+							: new java.sql.Timestamp(date.getTime()).toString());
+		}
+		else if (value instanceof Calendar calendar) {
+			appendString(builder, new java.sql.Timestamp(calendar.getTimeInMillis()).toString());
+		}
+		else if (value instanceof TemporalAccessor) {
+			// LocalDateTime 的 toString 以 T 分隔日期和时间，MySQL 可以识别
+			appendString(builder, value.toString());
+		}
+		else if (value instanceof Enum<?> e) {
+			appendString(builder, e.name());
+		}
+		else {
+			appendString(builder, value.toString());
+		}
+	}
+
+	private static void appendString(StringBuilder builder, String value) {
+		builder.append('\'');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '\'' -> builder.append("''");
+				case '\\' -> builder.append("\\\\");
+				case '\0' -> builder.append("\\0");
+				default -> builder.append(c);
+			}
+		}
+		builder.append('\'');
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.itjing.sql.interceptor;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 采集队列：有界、无锁
+ * <p>
+ * 业务线程先预留位置再入队，队列满时直接丢弃并计数，不等待、不阻塞；后台线程依次取出分析。
+ * 长度用单独的计数器限制，ConcurrentLinkedQueue 的 size() 需要遍历，不在热路径上调用。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public class SqlCaptureQueue {
+
+	private final Queue<SqlCapture> queue = new ConcurrentLinkedQueue<>();
+
+	private final AtomicInteger size = new AtomicInteger();
+
+	private final int capacity;
+
+	private final LongAdder offeredCount = new LongAdder();
+
+	private final LongAdder droppedCount = new LongAdder();
+
+	/**
+	 * @param capacity 最多排队的条数
+	 */
+	public SqlCaptureQueue(int capacity) {
+		this.capacity = capacity;
+	}
+
+	/**
+	 * 预留一个位置，队列满时丢弃并返回 false。先预留再准备入队的数据，队列满时不用解析参数
+	 * @return boolean 是否预留成功
+	 */
+	public boolean reserve() {
+		if (size.incrementAndGet() > capacity) {
+			size.decrementAndGet();
+			droppedCount.increment();
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * 放入预留的位置
+	 * @param capture 采集的 SQL
+	 */
+	public void put(SqlCapture capture) {
+		queue.offer(capture);
+		offeredCount.increment();
+	}
+
+	/**
+	 * 取消预留的位置
+	 */
+	public void cancel() {
+		size.decrementAndGet();
+	}
+
+	/**
+	 * 出队
+	 * @return {@link SqlCapture } 队列为空时返回 null
+	 */
+	public SqlCapture poll() {
+		SqlCapture capture = queue.poll();
+		if (capture != null) {
+			size.decrementAndGet();
+		}
+		return capture;
+	}
+
+	public int size() {
+		return size.get();
+	}
+
+	public int getCapacity() {
+		return capacity;
+	}
+
+	public long getOfferedCount() {
+		return offeredCount.sum();
+	}
+
+	public long getDroppedCount() {
+		return droppedCount.sum();
+	}
+
+}
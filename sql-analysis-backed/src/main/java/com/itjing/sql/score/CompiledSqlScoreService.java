@@ -0,0 +1,146 @@
+package com.itjing.sql.score;
+
+import cn.hutool.core.util.StrUtil;
+import com.jd.sql.analysis.analysis.SqlAnalysisResult;
+import com.jd.sql.analysis.analysis.SqlAnalysisResultList;
+import com.jd.sql.analysis.score.SqlScoreResult;
+import com.jd.sql.analysis.score.SqlScoreResultDetail;
+import com.jd.sql.analysis.score.SqlScoreService;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.*;
+
+/**
+ * 编译型评分规则引擎
+ * <p>
+ * 和 {@link com.jd.sql.analysis.score.SqlScoreServiceRulesEngine} 使用同一份规则文件，加载时把每条规则的条件编译为
+ * {@link ScoreCondition}，评分时每行执行计划只提取一次字段，再按优先级依次匹配：满分 100，命中规则扣除对应分数，
+ * 命中 strict 规则后该行不再匹配后续规则，最低 0 分，低于 80 分需要告警。
+ * <p>
+ * 加载后不再修改，可以被多个线程同时使用。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public class CompiledSqlScoreService implements SqlScoreService {
+
+	/**
+	 * 满分
+	 */
+	private static final int FULL_SCORE = 100;
+
+	/**
+	 * 低于该分数需要告警
+	 */
+	private static final int WARN_SCORE = 80;
+
+	private final ScoreRule[] rules;
+
+	private CompiledSqlScoreService(ScoreRule[] rules) {
+		this.rules = rules;
+	}
+
+	/**
+	 * 从规则文件内容加载
+	 * @param content 规则文件内容
+	 * @return {@link CompiledSqlScoreService }
+	 * @throws IllegalArgumentException 规则格式不正确或条件无法编译
+	 */
+	public static CompiledSqlScoreService load(String content) {
+		Properties properties = new Properties();
+		try {
+			properties.load(new StringReader(content));
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("读取规则失败：" + e.getMessage(), e);
+		}
+		Set<String> names = new TreeSet<>();
+		for (String key : properties.stringPropertyNames()) {
+			int dot = key.indexOf('.');
+			if (dot > 0) {
+				names.add(key.substring(0, dot));
+			}
+		}
+		List<ScoreRule> rules = new ArrayList<>(names.size());
+		for (String name : names) {
+			String condition = properties.getProperty(name + ".condition");
+			if (StrUtil.isBlank(condition)) {
+				throw new IllegalArgumentException("规则缺少条件：" + name);
+			}
+			rules.add(new ScoreRule(name, ScoreConditionCompiler.compile(condition),
+					Integer.parseInt(properties.getProperty(name + ".priority", "0").trim()),
+					Integer.parseInt(properties.getProperty(name + ".score", "0").trim()),
+					unquote(properties.getProperty(name + ".reason")),
+					unquote(properties.getProperty(name + ".suggestion")),
+					Boolean.parseBoolean(properties.getProperty(name + ".strict", "false").trim())));
+		}
+		rules.sort(Comparator.comparingInt(ScoreRule::priority));
+		return new CompiledSqlScoreService(rules.toArray(new ScoreRule[0]));
+	}
+
+	@Override
+	public SqlScoreResult score(SqlAnalysisResultList sqlAnalysisResultList) {
+		if (sqlAnalysisResultList == null || sqlAnalysisResultList.getResultList() == null
+				|| sqlAnalysisResultList.getResultList().isEmpty()) {
+			return null;
+		}
+		int score = FULL_SCORE;
+		List<SqlScoreResultDetail> details = new ArrayList<>();
+		for (SqlAnalysisResult result : sqlAnalysisResultList.getResultList()) {
+			ExplainRow row = new ExplainRow(result);
+			for (ScoreRule rule : rules) {
+				if (!rule.condition().test(row)) {
+					continue;
+				}
+				score -= rule.score();
+				details.add(rule.toDetail());
+				if (rule.strict()) {
+					break;
+				}
+			}
+		}
+		score = Math.max(score, 0);
+		SqlScoreResult scoreResult = new SqlScoreResult();
+		scoreResult.setScore(score);
+		scoreResult.setNeedWarn(score < WARN_SCORE);
+		scoreResult.setAnalysisResults(details);
+		return scoreResult;
+	}
+
+	/**
+	 * 规则个数
+	 * @return int
+	 */
+	public int size() {
+		return rules.length;
+	}
+
+	private static String unquote(String value) {
+		if (value == null) {
+			return null;
+		}
+		String trimmed = value.trim();
+		if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+			return trimmed.substring(1, trimmed.length() - 1);
+		}
+		return trimmed;
+	}
+
+	/**
+	 * 编译后的规则
+	 */
+	private record ScoreRule(String name, ScoreCondition condition, int priority, int score, String reason,
+			String suggestion, boolean strict) {
+
+		SqlScoreResultDetail toDetail() {
+			SqlScoreResultDetail detail = new SqlScoreResultDetail();
+			detail.setReason(reason);
+			detail.setSuggestion(suggestion);
+			detail.setScoreDeduction(score);
+			return detail;
+		}
+
+	}
+
+}
@@ -0,0 +1,106 @@
+package com.itjing.sql.score;
+
+import com.itjing.sql.explain.CostAwareSqlAnalysisResult;
+import com.jd.sql.analysis.analysis.SqlAnalysisResult;
+
+/**
+ * 预先提取的执行计划行
+ * <p>
+ * 每行只解析一次：rows 转为 long，filtered、id 转为基本类型，规则匹配时不再做类型转换。
+ * EXPLAIN FORMAT=JSON 得到的行（{@link CostAwareSqlAnalysisResult}）同时提取代价字段。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public final class ExplainRow {
+
+	final boolean hasId;
+
+	final long id;
+
+	final String selectType;
+
+	final String table;
+
+	final String type;
+
+	final String possibleKeys;
+
+	final String key;
+
+	final boolean hasRows;
+
+	final long rows;
+
+	final boolean hasFiltered;
+
+	final double filtered;
+
+	final String extra;
+
+	final boolean hasQueryCost;
+
+	final double queryCost;
+
+	final boolean hasPrefixCost;
+
+	final double prefixCost;
+
+	final boolean hasReadCost;
+
+	final double readCost;
+
+	final boolean hasEvalCost;
+
+	final double evalCost;
+
+	final boolean hasRowsProducedPerJoin;
+
+	final long rowsProducedPerJoin;
+
+	public ExplainRow(SqlAnalysisResult result) {
+		Long resultId = result.getId();
+		this.hasId = resultId != null;
+		this.id = hasId ? resultId : 0L;
+		this.selectType = result.getSelectType();
+		this.table = result.getTable();
+		this.type = result.getType();
+		this.possibleKeys = result.getPossibleKeys();
+		this.key = result.getKey();
+		long parsedRows = 0L;
+		boolean rowsPresent = false;
+		String resultRows = result.getRows();
+		if (resultRows != null) {
+			try {
+				parsedRows = Long.parseLong(resultRows.trim());
+				rowsPresent = true;
+			}
+			catch (NumberFormatException e) {
+				// 非数字的 rows 不参与数值比较
+			}
+		}
+		this.hasRows = rowsPresent;
+		this.rows = parsedRows;
+		Double resultFiltered = result.getFiltered();
+		this.hasFiltered = resultFiltered != null;
+		this.filtered = hasFiltered ? resultFiltered : 0D;
+		this.extra = result.getExtra();
+		CostAwareSqlAnalysisResult cost = result instanceof CostAwareSqlAnalysisResult c ? c : null;
+		Double value = cost == null ? null : cost.getQueryCost();
+		this.hasQueryCost = value != null;
+		this.queryCost = hasQueryCost ? value : 0D;
+		value = cost == null ? null : cost.getPrefixCost();
+		this.hasPrefixCost = value != null;
+		this.prefixCost = hasPrefixCost ? value : 0D;
+		value = cost == null ? null : cost.getReadCost();
+		this.hasReadCost = value != null;
+		this.readCost = hasReadCost ? value : 0D;
+		value = cost == null ? null : cost.getEvalCost();
+		this.hasEvalCost = value != null;
+		this.evalCost = hasEvalCost ? value : 0D;
+		Long produced = cost == null ? null : cost.getRowsProducedPerJoin();
+		this.hasRowsProducedPerJoin = produced != null;
+		this.rowsProducedPerJoin = hasRowsProducedPerJoin ? produced : 0L;
+	}
+
+}
@@ -0,0 +1,31 @@
+package com.itjing.sql.score;
+
+/**
+ * 编译后的规则条件
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@FunctionalInterface
+public interface ScoreCondition {
+
+	/**
+	 * 判断执行计划行是否命中条件
+	 * @param row 执行计划行
+	 * @return boolean
+	 */
+	boolean test(ExplainRow row);
+
+	default ScoreCondition and(ScoreCondition other) {
+		return row -> test(row) && other.test(row);
+	}
+
+	default ScoreCondition or(ScoreCondition other) {
+		return row -> test(row) || other.test(row);
+	}
+
+	default ScoreCondition negate() {
+		return row -> !test(row);
+	}
+
+}
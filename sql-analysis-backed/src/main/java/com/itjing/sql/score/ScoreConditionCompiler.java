@@ -0,0 +1,299 @@
+package com.itjing.sql.score;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 规则条件编译器
+ * <p>
+ * 把规则文件中的条件表达式（例如 {@code param.type == "ALL"}、{@code param.extra contains("filesort")}、
+ * {@code param.rows > 50000}）解析一次，按字段和运算符生成专用的判断逻辑，匹配时只做基本类型比较。
+ * <p>
+ * 支持的语法：{@code param.字段 运算符 常量}，运算符为 ==、!=、&gt;、&gt;=、&lt;、&lt;=、contains，
+ * 条件之间可以用 &amp;&amp;、||、!、括号组合。数值字段为 id、rows、filtered 以及 JSON 执行计划的代价字段
+ * queryCost、prefixCost、readCost、evalCost、rowsProducedPerJoin，其余为字符串字段。
+ * 不支持的写法直接抛出 {@link IllegalArgumentException}，由调用方退回京东 sql-analysis 的规则引擎。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public final class ScoreConditionCompiler {
+
+	private static final String PARAM_PREFIX = "param.";
+
+	private final String source;
+
+	private final List<String> tokens;
+
+	private int pos;
+
+	private ScoreConditionCompiler(String source) {
+		this.source = source;
+		this.tokens = tokenize(source);
+	}
+
+	/**
+	 * 编译条件表达式
+	 * @param condition 条件表达式
+	 * @return {@link ScoreCondition }
+	 */
+	public static ScoreCondition compile(String condition) {
+		ScoreConditionCompiler compiler = new ScoreConditionCompiler(condition);
+		ScoreCondition result = compiler.parseOr();
+		if (compiler.pos != compiler.tokens.size()) {
+			throw compiler.error("多余的内容：" + compiler.tokens.get(compiler.pos));
+		}
+		return result;
+	}
+
+	private ScoreCondition parseOr() {
+		ScoreCondition left = parseAnd();
+		while (accept("||") || accept("or")) {
+			left = left.or(parseAnd());
+		}
+		return left;
+	}
+
+	private ScoreCondition parseAnd() {
+		ScoreCondition left = parseUnary();
+		while (accept("&&") || accept("and")) {
+			left = left.and(parseUnary());
+		}
+		return left;
+	}
+
+	private ScoreCondition parseUnary() {
+		if (accept("!")) {
+			return parseUnary().negate();
+		}
+		if (accept("(")) {
+			ScoreCondition inner = parseOr();
+			expect(")");
+			return inner;
+		}
+		return parseComparison();
+	}
+
+	private ScoreCondition parseComparison() {
+		String field = next();
+		boolean methodCall = false;
+		if (field.endsWith(".contains")) {
+			// param.extra.contains("x") 写法
+			field = field.substring(0, field.length() - ".contains".length());
+			methodCall = true;
+		}
+		if (!field.startsWith(PARAM_PREFIX)) {
+			throw error("条件必须以 param. 开头：" + field);
+		}
+		String name = field.substring(PARAM_PREFIX.length());
+		String op = methodCall ? "contains" : next();
+		if ("contains".equals(op)) {
+			boolean paren = accept("(");
+			String literal = next();
+			if (paren) {
+				expect(")");
+			}
+			return compileContains(name, stringLiteral(literal));
+		}
+		String literal = next();
+		if (isNumericField(name)) {
+			return compileNumeric(name, op, literal);
+		}
+		return compileString(name, op, literal);
+	}
+
+	private ScoreCondition compileContains(String name, String value) {
+		Function<ExplainRow, String> getter = stringField(name);
+		return row -> {
+			String actual = getter.apply(row);
+			return actual != null && actual.contains(value);
+		};
+	}
+
+	private ScoreCondition compileString(String name, String op, String literal) {
+		Function<ExplainRow, String> getter = stringField(name);
+		if ("null".equals(literal)) {
+			return switch (op) {
+				case "==" -> row -> getter.apply(row) == null;
+				case "!=" -> row -> getter.apply(row) != null;
+				default -> throw error("字符串字段不支持运算符：" + op);
+			};
+		}
+		String value = stringLiteral(literal);
+		return switch (op) {
+			case "==" -> row -> value.equals(getter.apply(row));
+			case "!=" -> row -> !value.equals(getter.apply(row));
+			default -> throw error("字符串字段不支持运算符：" + op);
+		};
+	}
+
+	private ScoreCondition compileNumeric(String name, String op, String literal) {
+		if ("null".equals(literal)) {
+			return switch (op) {
+				case "==" -> numericAbsent(name);
+				case "!=" -> numericAbsent(name).negate();
+				default -> throw error("数值字段不支持和 null 比较：" + op);
+			};
+		}
+		double value;
+		try {
+			value = Double.parseDouble(literal);
+		}
+		catch (NumberFormatException e) {
+			throw error("数值字段只能和数字比较：" + literal);
+		}
+		// 每个字段、运算符组合生成单独的判断，匹配时没有分支和装箱
+		return switch (name) {
+			case "rows" -> {
+				long bound = (long) value;
+				if (bound != value) {
+					yield compileDouble(row -> row.hasRows, row -> row.rows, op, value);
+				}
+				yield switch (op) {
+					case ">" -> row -> row.hasRows && row.rows > bound;
+					case ">=" -> row -> row.hasRows && row.rows >= bound;
+					case "<" -> row -> row.hasRows && row.rows < bound;
+					case "<=" -> row -> row.hasRows && row.rows <= bound;
+					case "==" -> row -> row.hasRows && row.rows == bound;
+					case "!=" -> row -> !row.hasRows || row.rows != bound;
+					default -> throw error("不支持的运算符：" + op);
+				};
+			}
+			case "filtered" -> compileDouble(row -> row.hasFiltered, row -> row.filtered, op, value);
+			case "id" -> compileDouble(row -> row.hasId, row -> row.id, op, value);
+			case "queryCost" -> compileDouble(row -> row.hasQueryCost, row -> row.queryCost, op, value);
+			case "prefixCost" -> compileDouble(row -> row.hasPrefixCost, row -> row.prefixCost, op, value);
+			case "readCost" -> compileDouble(row -> row.hasReadCost, row -> row.readCost, op, value);
+			case "evalCost" -> compileDouble(row -> row.hasEvalCost, row -> row.evalCost, op, value);
+			case "rowsProducedPerJoin" ->
+				compileDouble(row -> row.hasRowsProducedPerJoin, row -> row.rowsProducedPerJoin, op, value);
+			default -> throw error("未知字段：" + name);
+		};
+	}
+
+	private ScoreCondition compileDouble(ScoreCondition present, ToDoubleFunction<ExplainRow> getter, String op,
+			double value) {
+		return switch (op) {
+			case ">" -> row -> present.test(row) && getter.applyAsDouble(row) > value;
+			case ">=" -> row -> present.test(row) && getter.applyAsDouble(row) >= value;
+			case "<" -> row -> present.test(row) && getter.applyAsDouble(row) < value;
+			case "<=" -> row -> present.test(row) && getter.applyAsDouble(row) <= value;
+			case "==" -> row -> present.test(row) && getter.applyAsDouble(row) == value;
+			case "!=" -> row -> !present.test(row) || getter.applyAsDouble(row) != value;
+			default -> throw error("不支持的运算符：" + op);
+		};
+	}
+
+	private ScoreCondition numericAbsent(String name) {
+		return switch (name) {
+			case "rows" -> row -> !row.hasRows;
+			case "filtered" -> row -> !row.hasFiltered;
+			case "id" -> row -> !row.hasId;
+			case "queryCost" -> row -> !row.hasQueryCost;
+			case "prefixCost" -> row -> !row.hasPrefixCost;
+			case "readCost" -> row -> !row.hasReadCost;
+			case "evalCost" -> row -> !row.hasEvalCost;
+			case "rowsProducedPerJoin" -> row -> !row.hasRowsProducedPerJoin;
+			default -> throw error("未知字段：" + name);
+		};
+	}
+
+	private Function<ExplainRow, String> stringField(String name) {
+		return switch (name) {
+			case "selectType" -> row -> row.selectType;
+			case "table" -> row -> row.table;
+			case "type" -> row -> row.type;
+			case "possibleKeys" -> row -> row.possibleKeys;
+			case "key" -> row -> row.key;
+			case "extra" -> row -> row.extra;
+			default -> throw error("未知字段或字段不是字符串：" + name);
+		};
+	}
+
+	private static boolean isNumericField(String name) {
+		return switch (name) {
+			case "rows", "filtered", "id", "queryCost", "prefixCost", "readCost", "evalCost", "rowsProducedPerJoin" ->
+				true;
+			default -> false;
+		};
+	}
+
+	private String stringLiteral(String literal) {
+		if (literal.length() >= 2 && (literal.charAt(0) == '"' || literal.charAt(0) == '\'')
+				&& literal.charAt(literal.length() - 1) == literal.charAt(0)) {
+			return literal.substring(1, literal.length() - 1);
+		}
+		throw error("需要字符串常量：" + literal);
+	}
+
+	private boolean accept(String token) {
+		if (pos < tokens.size() && tokens.get(pos).equals(token)) {
+			pos++;
+			return true;
+		}
+		return false;
+	}
+
+	private void expect(String token) {
+		if (!accept(token)) {
+			throw error("缺少 " + token);
+		}
+	}
+
+	private String next() {
+		if (pos >= tokens.size()) {
+			throw error("条件不完整");
+		}
+		return tokens.get(pos++);
+	}
+
+	private IllegalArgumentException error(String msg) {
+		return new IllegalArgumentException(msg + "，条件：" + source);
+	}
+
+	private static List<String> tokenize(String source) {
+		List<String> result = new ArrayList<>();
+		int i = 0;
+		int n = source.length();
+		while (i < n) {
+			char c = source.charAt(i);
+			if (Character.isWhitespace(c)) {
+				i++;
+			}
+			else if (c == '"' || c == '\'') {
+				int end = source.indexOf(c, i + 1);
+				if (end < 0) {
+					throw new IllegalArgumentException("字符串未结束，条件：" + source);
+				}
+				result.add(source.substring(i, end + 1));
+				i = end + 1;
+			}
+			else if (c == '(' || c == ')') {
+				result.add(String.valueOf(c));
+				i++;
+			}
+			else if ("=!<>&|".indexOf(c) >= 0) {
+				int start = i++;
+				while (i < n && "=&|".indexOf(source.charAt(i)) >= 0) {
+					i++;
+				}
+				result.add(source.substring(start, i));
+			}
+			else {
+				int start = i;
+				while (i < n && !Character.isWhitespace(source.charAt(i)) && !isDelimiter(source.charAt(i))) {
+					i++;
+				}
+				result.add(source.substring(start, i));
+			}
+		}
+		return result;
+	}
+
+	private static boolean isDelimiter(char c) {
+		return "()\"'=!<>&|".indexOf(c) >= 0;
+	}
+
+}
@@ -0,0 +1,157 @@
+package com.itjing.sql.score;
+
+import cn.hutool.core.util.StrUtil;
+import com.itjing.sql.explain.CostAwareSqlAnalysisResult;
+import com.jd.sql.analysis.analysis.SqlAnalysisResult;
+import com.jd.sql.analysis.analysis.SqlAnalysisResultList;
+import com.jd.sql.analysis.score.SqlScoreResult;
+import com.jd.sql.analysis.score.SqlScoreResultDetail;
+import com.jd.sql.analysis.score.SqlScoreService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * 评分规则引擎一致性校验
+ * <p>
+ * 用一组覆盖常见访问类型、Extra、扫描行数、过滤率边界值的执行计划，对比两个规则引擎的评分结果
+ * （分数、是否告警、命中规则的原因、建议、扣分及顺序）。执行计划行带有代价字段，覆盖使用代价的规则。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public final class ScoreEngineVerifier {
+
+	private static final String[] TYPES = { "ALL", "index", "range", "ref", "eq_ref", "const", "system", null };
+
+	private static final String[] EXTRAS = { null, "Using where", "Using filesort", "Using index",
+			"Using where; Using temporary; Using filesort", "Using index condition" };
+
+	private static final String[] ROWS = { null, "0", "1", "49", "50", "51", "4999", "5000", "5001", "49999",
+			"50000", "50001", "1000000" };
+
+	private static final double[] FILTERED = { 0D, 10D, 59.99D, 60D, 60.01D, 100D };
+
+	private static final double[] COSTS = { 0D, 0.35D, 1D, 10D, 99.99D, 100D, 1000D, 1000.01D, 10000D, 250000D };
+
+	private ScoreEngineVerifier() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	/**
+	 * 对比两个规则引擎
+	 * @param expected 参照引擎
+	 * @param actual 待校验引擎
+	 * @return {@link String } 第一处不一致的描述，全部一致返回 null
+	 */
+	public static String firstMismatch(SqlScoreService expected, SqlScoreService actual) {
+		List<SqlAnalysisResult> samples = new ArrayList<>();
+		for (String type : TYPES) {
+			for (String extra : EXTRAS) {
+				for (String rows : ROWS) {
+					for (double filtered : FILTERED) {
+						samples.add(row(samples.size(), type, extra, rows, filtered));
+					}
+				}
+			}
+		}
+		for (SqlAnalysisResult sample : samples) {
+			String mismatch = compare(expected, actual, Collections.singletonList(sample));
+			if (mismatch != null) {
+				return mismatch;
+			}
+		}
+		// 多行执行计划：相邻的若干行组合在一起，覆盖累计扣分和最低分
+		for (int size = 2; size <= 8; size++) {
+			for (int start = 0; start + size <= samples.size(); start += 97) {
+				String mismatch = compare(expected, actual, samples.subList(start, start + size));
+				if (mismatch != null) {
+					return mismatch;
+				}
+			}
+		}
+		return null;
+	}
+
+	private static String compare(SqlScoreService expected, SqlScoreService actual, List<SqlAnalysisResult> rows) {
+		SqlAnalysisResultList plan = new SqlAnalysisResultList();
+		plan.setResultList(new ArrayList<>(rows));
+		SqlScoreResult left;
+		try {
+			left = expected.score(plan);
+		}
+		catch (RuntimeException e) {
+			// 参照引擎本身无法评分的执行计划不参与对比
+			return null;
+		}
+		SqlScoreResult right = actual.score(plan);
+		if (left == null || right == null) {
+			return left == right ? null : StrUtil.format("评分结果为空不一致，执行计划：{}", describe(rows));
+		}
+		if (!Objects.equals(left.getScore(), right.getScore())
+				|| !Objects.equals(left.getNeedWarn(), right.getNeedWarn())
+				|| !sameDetails(left.getAnalysisResults(), right.getAnalysisResults())) {
+			return StrUtil.format("分数 {} / {}，告警 {} / {}，命中规则 {} / {}，执行计划：{}", left.getScore(),
+					right.getScore(), left.getNeedWarn(), right.getNeedWarn(), describe(left.getAnalysisResults()),
+					describe(right.getAnalysisResults()), describe(rows));
+		}
+		return null;
+	}
+
+	private static boolean sameDetails(List<SqlScoreResultDetail> left, List<SqlScoreResultDetail> right) {
+		List<SqlScoreResultDetail> a = left == null ? Collections.emptyList() : left;
+		List<SqlScoreResultDetail> b = right == null ? Collections.emptyList() : right;
+		if (a.size() != b.size()) {
+			return false;
+		}
+		for (int i = 0; i < a.size(); i++) {
+			SqlScoreResultDetail x = a.get(i);
+			SqlScoreResultDetail y = b.get(i);
+			if (!Objects.equals(x.getReason(), y.getReason()) || !Objects.equals(x.getSuggestion(), y.getSuggestion())
+					|| !Objects.equals(x.getScoreDeduction(), y.getScoreDeduction())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String describe(List<?> list) {
+		if (list == null) {
+			return "[]";
+		}
+		List<String> items = new ArrayList<>(list.size());
+		for (Object item : list) {
+			if (item instanceof SqlAnalysisResult row) {
+				items.add(StrUtil.format("type={},extra={},rows={},filtered={}", row.getType(), row.getExtra(),
+						row.getRows(), row.getFiltered()));
+			}
+			else if (item instanceof SqlScoreResultDetail detail) {
+				items.add(detail.getReason() + ":" + detail.getScoreDeduction());
+			}
+		}
+		return items.toString();
+	}
+
+	private static SqlAnalysisResult row(int id, String type, String extra, String rows, double filtered) {
+		CostAwareSqlAnalysisResult row = new CostAwareSqlAnalysisResult();
+		row.setId(id % 3 + 1L);
+		row.setSelectType("SIMPLE");
+		row.setTable("t" + id);
+		row.setType(type);
+		row.setKey("ALL".equals(type) ? null : "idx_a");
+		row.setPossibleKeys("ALL".equals(type) ? null : "idx_a");
+		row.setRows(rows);
+		row.setFiltered(filtered);
+		row.setExtra(extra);
+		// 代价按下标错开取值，和其他字段组合出不同的情况
+		row.setQueryCost(COSTS[id % COSTS.length]);
+		row.setPrefixCost(COSTS[(id / 3) % COSTS.length]);
+		row.setReadCost(COSTS[(id / 7) % COSTS.length]);
+		row.setEvalCost(COSTS[(id / 11) % COSTS.length]);
+		row.setRowsProducedPerJoin((long) COSTS[(id / 13) % COSTS.length]);
+		return row;
+	}
+
+}
@@ -0,0 +1,355 @@
+package com.itjing.sql.service;
+
+import cn.hutool.core.util.StrUtil;
+import com.itjing.sql.constant.AnalysisJobStatus;
+import com.itjing.sql.constant.ExplainMode;
+import com.itjing.sql.constant.HttpStatus;
+import com.itjing.sql.domain.jd.vo.AnalysisJobVO;
+import com.itjing.sql.domain.jd.vo.SqlStatementAnalysisVO;
+import com.itjing.sql.exception.BusinessException;
+import com.itjing.sql.service.AnalysisTaskRegistry.AnalysisTask;
+import com.itjing.sql.service.DataSourceRegistryService.TargetDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/**
+ * 异步分析任务服务
+ * <p>
+ * 提交后立即返回任务ID，任务在单独的线程池中执行批量分析，每条 SQL 分析完成后推送给通过 SSE 订阅的客户端。
+ * 任务保存在内存中，结束超过 ttl 后清除；任务数达到上限时优先淘汰最早结束的任务，全部未结束时拒绝提交。
+ * 任务的超时时间单独配置，从开始执行时计算，排队时间不占用超时时间。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class AnalysisJobService {
+
+	/**
+	 * 单条 SQL 分析结果事件
+	 */
+	private static final String EVENT_RESULT = "result";
+
+	/**
+	 * 任务结束事件
+	 */
+	private static final String EVENT_DONE = "done";
+
+	@Resource
+	private JdSqlAnalysisService jdSqlAnalysisService;
+
+	@Resource
+	private AnalysisTaskRegistry analysisTaskRegistry;
+
+	@Resource
+	@Qualifier("sqlAnalysisJobExecutor")
+	private ThreadPoolTaskExecutor sqlAnalysisJobExecutor;
+
+	/**
+	 * 最多保存的任务数
+	 */
+	@Value("${sql.analysis.job.capacity:1000}")
+	private int capacity;
+
+	/**
+	 * 任务结束后保留的时间（毫秒）
+	 */
+	@Value("${sql.analysis.job.ttl:600000}")
+	private long ttl;
+
+	/**
+	 * 任务默认超时时间（毫秒）
+	 */
+	@Value("${sql.analysis.job.timeout.default:600000}")
+	private long defaultTimeout;
+
+	/**
+	 * 请求可以指定的任务最大超时时间（毫秒）
+	 */
+	@Value("${sql.analysis.job.timeout.max:3600000}")
+	private long maxTimeout;
+
+	/**
+	 * SSE 连接超时时间（毫秒）
+	 */
+	@Value("${sql.analysis.job.sse-timeout:600000}")
+	private long sseTimeout;
+
+	private final Map<String, AnalysisJob> jobs = new ConcurrentHashMap<>();
+
+	/**
+	 * 提交异步分析任务
+	 * @param target 目标数据源
+	 * @param sqlList SQL 列表
+	 * @param explainMode 执行计划模式
+	 * @param textReport 是否生成评分结果的文本报告
+	 * @param analysisId 请求指定的分析ID，为空时自动生成
+	 * @param timeoutMillis 请求指定的超时时间（毫秒），从开始执行时计算，为空时使用默认值，不超过最大值
+	 * @return {@link AnalysisJobVO }
+	 */
+	public AnalysisJobVO submit(TargetDataSource target, List<String> sqlList, ExplainMode explainMode,
+			boolean textReport, String analysisId, Long timeoutMillis) {
+		jdSqlAnalysisService.checkBatch(sqlList, explainMode);
+		long timeout = Math.min(timeoutMillis == null || timeoutMillis <= 0 ? defaultTimeout : timeoutMillis,
+				maxTimeout);
+		AnalysisJob job;
+		AnalysisTask task;
+		// 检查容量和登记任务在同一个锁内，并发提交不会超过上限
+		synchronized (jobs) {
+			ensureCapacity();
+			task = analysisTaskRegistry.enqueue(analysisId, target.getName(), timeout);
+			job = new AnalysisJob(task, target.getName(), explainMode, sqlList.size());
+			jobs.put(job.id, job);
+		}
+		try {
+			sqlAnalysisJobExecutor.execute(() -> run(job, target, sqlList, textReport));
+		}
+		catch (TaskRejectedException e) {
+			jobs.remove(job.id, job);
+			analysisTaskRegistry.finish(task, e);
+			throw new BusinessException(HttpStatus.ERROR, "分析任务队列已满，请稍后再试");
+		}
+		log.info("提交异步分析任务：{}，目标：{}，SQL 条数：{}", job.id, job.target, job.total);
+		return job.toVO(false);
+	}
+
+	/**
+	 * 查询任务状态和已完成的结果
+	 * @param jobId 任务ID
+	 * @return {@link AnalysisJobVO }
+	 */
+	public AnalysisJobVO status(String jobId) {
+		return getJob(jobId).toVO(true);
+	}
+
+	/**
+	 * 订阅任务：先补发已完成的结果，之后每完成一条推送一个 result 事件，任务结束时推送 done 事件并关闭连接
+	 * @param jobId 任务ID
+	 * @return {@link SseEmitter }
+	 */
+	public SseEmitter subscribe(String jobId) {
+		AnalysisJob job = getJob(jobId);
+		SseEmitter emitter = new SseEmitter(sseTimeout);
+		job.subscribe(emitter);
+		return emitter;
+	}
+
+	/**
+	 * 取消任务，排队中的任务开始执行时直接结束，执行中的语句随之取消
+	 * @param jobId 任务ID
+	 * @return {@link AnalysisJobVO }
+	 */
+	public AnalysisJobVO cancel(String jobId) {
+		AnalysisJob job = getJob(jobId);
+		if (job.status.isFinished()) {
+			throw new BusinessException(HttpStatus.BAD_REQUEST, "分析任务已结束：" + jobId);
+		}
+		analysisTaskRegistry.cancel(jobId);
+		return job.toVO(false);
+	}
+
+	/**
+	 * 定期清除结束超过 ttl 的任务
+	 */
+	@Scheduled(fixedDelayString = "${sql.analysis.job.evict-interval:60000}")
+	public void evictExpired() {
+		long now = System.currentTimeMillis();
+		jobs.values().removeIf(job -> job.finishTime != null && now - job.finishTime > ttl);
+	}
+
+	private void run(AnalysisJob job, TargetDataSource target, List<String> sqlList, boolean textReport) {
+		job.start();
+		try {
+			jdSqlAnalysisService.analyzeBatch(target, sqlList, job.explainMode, textReport, job.task, job::publish);
+			AnalysisTask task = job.task;
+			job.finish(task.isCancelled() ? AnalysisJobStatus.CANCELLED
+					: task.isTimedOut() ? AnalysisJobStatus.TIMEOUT : AnalysisJobStatus.COMPLETED, null);
+		}
+		catch (RuntimeException e) {
+			log.warn("异步分析任务失败：{}，{}", job.id, e.getMessage());
+			job.finish(AnalysisJobStatus.FAILED, e.getMessage());
+		}
+	}
+
+	private AnalysisJob getJob(String jobId) {
+		AnalysisJob job = jobs.get(jobId);
+		if (job == null) {
+			throw new BusinessException(HttpStatus.NOT_FOUND, "分析任务不存在或已过期：" + jobId);
+		}
+		return job;
+	}
+
+	/**
+	 * 检查任务数上限，调用方持有 jobs 的锁
+	 */
+	private void ensureCapacity() {
+		if (jobs.size() < capacity) {
+			return;
+		}
+		evictExpired();
+		if (jobs.size() < capacity) {
+			return;
+		}
+		jobs.values()
+			.stream()
+			.filter(job -> job.finishTime != null)
+			.min(Comparator.comparingLong(job -> job.finishTime))
+			.ifPresent(job -> jobs.remove(job.id, job));
+		if (jobs.size() >= capacity) {
+			throw new BusinessException(HttpStatus.ERROR, StrUtil.format("未结束的分析任务已达上限{}，请稍后再试", capacity));
+		}
+	}
+
+	/**
+	 * 异步分析任务，结果和订阅者的变更都在对象锁内进行，保证补发和推送不重复、不遗漏
+	 */
+	private static class AnalysisJob {
+
+		private final AnalysisTask task;
+
+		private final String id;
+
+		private final String target;
+
+		private final ExplainMode explainMode;
+
+		private final int total;
+
+		private final long submitTime = System.currentTimeMillis();
+
+		private final AtomicReferenceArray<SqlStatementAnalysisVO> results;
+
+		private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+		private int completedCount;
+
+		private int successCount;
+
+		private volatile AnalysisJobStatus status = AnalysisJobStatus.QUEUED;
+
+		private volatile Long startTime;
+
+		private volatile Long finishTime;
+
+		private volatile String errorMsg;
+
+		AnalysisJob(AnalysisTask task, String target, ExplainMode explainMode, int total) {
+			this.task = task;
+			this.id = task.getId();
+			this.target = target;
+			this.explainMode = explainMode;
+			this.total = total;
+			this.results = new AtomicReferenceArray<>(total);
+		}
+
+		void start() {
+			task.begin();
+			startTime = System.currentTimeMillis();
+			status = AnalysisJobStatus.RUNNING;
+		}
+
+		synchronized void publish(SqlStatementAnalysisVO item) {
+			results.set(item.getIndex(), item);
+			completedCount++;
+			if (item.isSuccess()) {
+				successCount++;
+			}
+			for (SseEmitter emitter : emitters) {
+				send(emitter, () -> resultEvent(item));
+			}
+		}
+
+		synchronized void finish(AnalysisJobStatus finalStatus, String error) {
+			errorMsg = error;
+			finishTime = System.currentTimeMillis();
+			status = finalStatus;
+			AnalysisJobVO summary = toVO(false);
+			for (SseEmitter emitter : emitters) {
+				if (send(emitter, () -> doneEvent(summary))) {
+					emitter.complete();
+				}
+			}
+			emitters.clear();
+		}
+
+		synchronized void subscribe(SseEmitter emitter) {
+			for (int i = 0; i < total; i++) {
+				SqlStatementAnalysisVO item = results.get(i);
+				if (item != null && !send(emitter, () -> resultEvent(item))) {
+					return;
+				}
+			}
+			if (status.isFinished()) {
+				if (send(emitter, () -> doneEvent(toVO(false)))) {
+					emitter.complete();
+				}
+				return;
+			}
+			emitters.add(emitter);
+			emitter.onCompletion(() -> emitters.remove(emitter));
+			emitter.onTimeout(() -> emitters.remove(emitter));
+			emitter.onError(e -> emitters.remove(emitter));
+		}
+
+		synchronized AnalysisJobVO toVO(boolean withResults) {
+			List<SqlStatementAnalysisVO> list = null;
+			if (withResults) {
+				list = new ArrayList<>(completedCount);
+				for (int i = 0; i < total; i++) {
+					SqlStatementAnalysisVO item = results.get(i);
+					if (item != null) {
+						list.add(item);
+					}
+				}
+			}
+			return new AnalysisJobVO(id, target, explainMode, status, total, completedCount, successCount,
+					completedCount - successCount, submitTime, startTime, finishTime, errorMsg, list);
+		}
+
+		/**
+		 * 推送事件，客户端已断开时移除订阅
+		 * @return boolean 是否推送成功
+		 */
+		private boolean send(SseEmitter emitter, Supplier<SseEventBuilder> event) {
+			try {
+				// 每个订阅者单独构建事件，SseEventBuilder 不能重复使用
+				emitter.send(event.get());
+				return true;
+			}
+			catch (IOException | IllegalStateException e) {
+				log.debug("推送分析结果失败，任务：{}，{}", id, e.getMessage());
+				emitters.remove(emitter);
+				return false;
+			}
+		}
+
+		private static SseEventBuilder resultEvent(SqlStatementAnalysisVO item) {
+			return SseEmitter.event().id(String.valueOf(item.getIndex())).name(EVENT_RESULT).data(item);
+		}
+
+		private static SseEventBuilder doneEvent(AnalysisJobVO summary) {
+			return SseEmitter.event().name(EVENT_DONE).data(summary);
+		}
+
+	}
+
+}
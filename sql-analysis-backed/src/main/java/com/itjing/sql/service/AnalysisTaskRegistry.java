@@ -0,0 +1,318 @@
+package com.itjing.sql.service;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import com.itjing.sql.constant.HttpStatus;
+import com.itjing.sql.domain.jd.vo.AnalysisTaskStatsVO;
+import com.itjing.sql.domain.jd.vo.AnalysisTaskVO;
+import com.itjing.sql.exception.AnalysisAbortedException;
+import com.itjing.sql.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 分析任务登记
+ * <p>
+ * 每次分析（单条或批量）登记为一个任务并带有截止时间，截止时间用于等待并发许可、JDBC 查询超时和评分前的检查。
+ * 任务执行中的语句都登记在任务上，取消任务或看门狗发现任务超时时对这些语句调用 {@link Statement#cancel()}。
+ * 异步任务在排队时登记，截止时间从开始执行时计算。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class AnalysisTaskRegistry {
+
+	/**
+	 * 默认超时时间（毫秒）
+	 */
+	@Value("${sql.analysis.timeout.default:30000}")
+	private long defaultTimeout;
+
+	/**
+	 * 请求可以指定的最大超时时间（毫秒）
+	 */
+	@Value("${sql.analysis.timeout.max:300000}")
+	private long maxTimeout;
+
+	private final Map<String, AnalysisTask> tasks = new ConcurrentHashMap<>();
+
+	private final LongAdder completedCount = new LongAdder();
+
+	private final LongAdder timedOutCount = new LongAdder();
+
+	private final LongAdder cancelledCount = new LongAdder();
+
+	private final LongAdder failedCount = new LongAdder();
+
+	/**
+	 * 登记任务
+	 * @param analysisId 请求指定的分析ID，为空时自动生成
+	 * @param target 目标数据源名称
+	 * @param timeoutMillis 请求指定的超时时间（毫秒），为空时使用默认值，不超过最大值
+	 * @return {@link AnalysisTask }
+	 */
+	public AnalysisTask start(String analysisId, String target, Long timeoutMillis) {
+		String id = StrUtil.isBlank(analysisId) ? IdUtil.fastSimpleUUID() : analysisId;
+		long timeout = Math.min(timeoutMillis == null || timeoutMillis <= 0 ? defaultTimeout : timeoutMillis,
+				maxTimeout);
+		return register(new AnalysisTask(id, target, timeout));
+	}
+
+	/**
+	 * 登记排队中的任务，截止时间从调用 {@link AnalysisTask#begin()} 时开始计算，排队期间可以取消
+	 * @param analysisId 请求指定的分析ID，为空时自动生成
+	 * @param target 目标数据源名称
+	 * @param timeoutMillis 超时时间（毫秒），由调用方确定默认值和上限
+	 * @return {@link AnalysisTask }
+	 */
+	public AnalysisTask enqueue(String analysisId, String target, long timeoutMillis) {
+		String id = StrUtil.isBlank(analysisId) ? IdUtil.fastSimpleUUID() : analysisId;
+		return register(new AnalysisTask(id, target, timeoutMillis, false));
+	}
+
+	private AnalysisTask register(AnalysisTask task) {
+		if (tasks.putIfAbsent(task.getId(), task) != null) {
+			throw new BusinessException(HttpStatus.CONFLICT, "分析ID正在使用：" + task.getId());
+		}
+		return task;
+	}
+
+	/**
+	 * 任务结束
+	 * @param task 任务
+	 * @param error 异常，正常结束为 null
+	 */
+	public void finish(AnalysisTask task, Throwable error) {
+		if (!tasks.remove(task.getId(), task)) {
+			return;
+		}
+		if (task.isCancelled()) {
+			cancelledCount.increment();
+		}
+		else if (task.isTimedOut() || error instanceof AnalysisAbortedException aborted && aborted.isTimeout()) {
+			timedOutCount.increment();
+		}
+		else if (error != null) {
+			failedCount.increment();
+		}
+		else {
+			completedCount.increment();
+		}
+	}
+
+	/**
+	 * 取消任务
+	 * @param analysisId 分析ID
+	 */
+	public void cancel(String analysisId) {
+		AnalysisTask task = tasks.get(analysisId);
+		if (task == null) {
+			throw new BusinessException(HttpStatus.NOT_FOUND, "分析任务不存在或已结束：" + analysisId);
+		}
+		log.info("取消分析任务：{}，目标：{}", analysisId, task.getTarget());
+		task.cancel();
+	}
+
+	/**
+	 * 执行中的任务
+	 * @return {@link List }<{@link AnalysisTaskVO }>
+	 */
+	public List<AnalysisTaskVO> list() {
+		long now = System.currentTimeMillis();
+		List<AnalysisTaskVO> result = new ArrayList<>(tasks.size());
+		for (AnalysisTask task : tasks.values()) {
+			result.add(new AnalysisTaskVO(task.getId(), task.getTarget(), task.getStartTime(),
+					now - task.getStartTime(), task.remainingMillis(), task.statements.size(), task.isCancelled()));
+		}
+		return result;
+	}
+
+	/**
+	 * 任务统计
+	 * @return {@link AnalysisTaskStatsVO }
+	 */
+	public AnalysisTaskStatsVO stats() {
+		return new AnalysisTaskStatsVO(tasks.size(), completedCount.sum(), timedOutCount.sum(), cancelledCount.sum(),
+				failedCount.sum());
+	}
+
+	/**
+	 * 看门狗：取消已过截止时间但语句仍在执行的任务（JDBC 查询超时未生效、连接卡住等情况）
+	 */
+	@Scheduled(fixedDelayString = "${sql.analysis.timeout.watchdog-interval:1000}")
+	public void watchdog() {
+		for (AnalysisTask task : tasks.values()) {
+			if (!task.isTimedOut() && task.remainingMillis() == 0) {
+				log.warn("分析任务超时，取消执行中的语句：{}，目标：{}", task.getId(), task.getTarget());
+				task.expire();
+			}
+		}
+	}
+
+	/**
+	 * 分析任务
+	 */
+	public static class AnalysisTask {
+
+		private final String id;
+
+		private final String target;
+
+		private final long timeoutMillis;
+
+		private volatile long startTime;
+
+		private volatile long deadline;
+
+		private volatile boolean started;
+
+		private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+
+		private volatile boolean cancelled;
+
+		private volatile boolean timedOut;
+
+		AnalysisTask(String id, String target, long timeoutMillis) {
+			this(id, target, timeoutMillis, true);
+		}
+
+		AnalysisTask(String id, String target, long timeoutMillis, boolean started) {
+			this.id = id;
+			this.target = target;
+			this.timeoutMillis = timeoutMillis;
+			this.startTime = System.currentTimeMillis();
+			if (started) {
+				begin();
+			}
+		}
+
+		/**
+		 * 开始执行，截止时间从此时开始计算；重复调用不会延长截止时间
+		 */
+		public synchronized void begin() {
+			if (started) {
+				return;
+			}
+			startTime = System.currentTimeMillis();
+			deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+			started = true;
+		}
+
+		public String getId() {
+			return id;
+		}
+
+		public String getTarget() {
+			return target;
+		}
+
+		public long getStartTime() {
+			return startTime;
+		}
+
+		public boolean isCancelled() {
+			return cancelled;
+		}
+
+		public boolean isTimedOut() {
+			return timedOut;
+		}
+
+		/**
+		 * 剩余时间（毫秒），已超时返回 0，还在排队时返回完整的超时时间
+		 * @return long
+		 */
+		public long remainingMillis() {
+			if (!started) {
+				return timeoutMillis;
+			}
+			return Math.max(0L, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+		}
+
+		/**
+		 * 检查任务是否已取消或超时
+		 * @throws AnalysisAbortedException 已取消或超时
+		 */
+		public void checkAlive() {
+			if (cancelled) {
+				throw new AnalysisAbortedException(false, "分析已取消：" + id);
+			}
+			if (timedOut || remainingMillis() == 0) {
+				timedOut = true;
+				throw new AnalysisAbortedException(true, "分析超时：" + id);
+			}
+		}
+
+		/**
+		 * 执行语句前调用：按剩余时间设置查询超时，并登记语句以便取消
+		 * @param stmt 语句
+		 * @throws SQLException sql异常
+		 */
+		public void register(Statement stmt) throws SQLException {
+			checkAlive();
+			stmt.setQueryTimeout((int) Math.max(1L, TimeUnit.MILLISECONDS.toSeconds(remainingMillis() + 999)));
+			statements.add(stmt);
+		}
+
+		/**
+		 * 语句执行结束
+		 * @param stmt 语句
+		 */
+		public void unregister(Statement stmt) {
+			statements.remove(stmt);
+		}
+
+		/**
+		 * 语句执行失败时调用：如果是任务被取消或超时导致的，抛出 {@link AnalysisAbortedException}，否则直接返回，由调用方抛出原异常
+		 * @param e sql异常
+		 * @throws AnalysisAbortedException 已取消或超时
+		 */
+		public void checkAborted(SQLException e) {
+			if (cancelled) {
+				throw new AnalysisAbortedException(false, "分析已取消：" + id);
+			}
+			if (timedOut || e instanceof SQLTimeoutException || remainingMillis() == 0) {
+				timedOut = true;
+				throw new AnalysisAbortedException(true, "分析超时：" + id);
+			}
+		}
+
+		void cancel() {
+			cancelled = true;
+			cancelStatements();
+		}
+
+		void expire() {
+			timedOut = true;
+			cancelStatements();
+		}
+
+		private void cancelStatements() {
+			for (Statement stmt : statements) {
+				try {
+					stmt.cancel();
+				}
+				catch (SQLException e) {
+					log.warn("取消语句失败，{}", e.getMessage());
+				}
+			}
+		}
+
+	}
+
+}
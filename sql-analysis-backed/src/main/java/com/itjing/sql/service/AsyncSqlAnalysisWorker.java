@@ -0,0 +1,233 @@
+package com.itjing.sql.service;
+
+import cn.hutool.core.util.StrUtil;
+import com.itjing.sql.domain.jd.vo.InterceptorStatsVO;
+import com.itjing.sql.domain.jd.vo.InterceptorWarningVO;
+import com.itjing.sql.explain.dialect.ExplainDialect;
+import com.itjing.sql.interceptor.AsyncSqlAnalysisInterceptor;
+import com.itjing.sql.interceptor.SqlCapture;
+import com.itjing.sql.interceptor.SqlCaptureQueue;
+import com.jd.sql.analysis.analysis.SqlAnalysisResultList;
+import com.jd.sql.analysis.score.SqlScoreResult;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步 SQL 分析后台线程
+ * <p>
+ * sql.analysis.interceptor.mode=ASYNC 时由 {@link com.itjing.sql.config.MyBatisPlusConfig} 创建
+ * {@link AsyncSqlAnalysisInterceptor}，同时启动一个后台线程从采集队列中取出 SQL，替换参数后在执行该 SQL 的数据源上
+ * 执行 EXPLAIN，用当前规则引擎评分。评分低于预期的结果打印告警日志，并保留最近的若干条供接口查询。
+ * 单线程依次分析，最多占用业务数据源的一个连接；分析跟不上时队列满，新采集的 SQL 被丢弃。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class AsyncSqlAnalysisWorker {
+
+	/**
+	 * 队列为空时的等待时间
+	 */
+	private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+	@Resource
+	private ExplainDialectService explainDialectService;
+
+	@Resource
+	private SqlScoreRuleService sqlScoreRuleService;
+
+	@Resource
+	private JdMySqlScoreResultOutService jdMySqlScoreResultOutService;
+
+	/**
+	 * 是否开启 SQL 分析（和 SqlAnalysisAspect 共用）
+	 */
+	@Value("${sql.slow.analysisSwitch:true}")
+	private boolean analysisSwitch;
+
+	/**
+	 * 拦截的 SQL 类型（和 SqlAnalysisAspect 共用）
+	 */
+	@Value("${sql.slow.sqlType:SELECT,UPDATE,DELETE}")
+	private String sqlType;
+
+	/**
+	 * 不需要分析的 sqlId（和 SqlAnalysisAspect 共用）
+	 */
+	@Value("${sql.slow.exceptSqlIds:}")
+	private String exceptSqlIds;
+
+	/**
+	 * 全局采样比例（0~1）
+	 */
+	@Value("${sql.analysis.interceptor.sample-rate:0.1}")
+	private double sampleRate;
+
+	/**
+	 * 同一个 sqlId 的采集间隔（毫秒），小于等于 0 时不限制
+	 */
+	@Value("${sql.analysis.interceptor.sql-id-interval:60000}")
+	private long sqlIdInterval;
+
+	/**
+	 * 采集队列容量
+	 */
+	@Value("${sql.analysis.interceptor.queue-capacity:1024}")
+	private int queueCapacity;
+
+	/**
+	 * EXPLAIN 超时时间（秒）
+	 */
+	@Value("${sql.analysis.interceptor.query-timeout:5}")
+	private int queryTimeout;
+
+	/**
+	 * 保留的最近告警条数
+	 */
+	@Value("${sql.analysis.interceptor.recent-warnings:100}")
+	private int recentWarnings;
+
+	private volatile AsyncSqlAnalysisInterceptor interceptor;
+
+	private volatile Thread worker;
+
+	private volatile boolean running;
+
+	private final Deque<InterceptorWarningVO> warnings = new ArrayDeque<>();
+
+	private final LongAdder analyzedCount = new LongAdder();
+
+	private final LongAdder failedCount = new LongAdder();
+
+	private final LongAdder warnedCount = new LongAdder();
+
+	/**
+	 * 创建拦截器并启动后台线程，只调用一次
+	 * @return {@link AsyncSqlAnalysisInterceptor }
+	 */
+	public synchronized AsyncSqlAnalysisInterceptor createInterceptor() {
+		if (interceptor != null) {
+			return interceptor;
+		}
+		Set<SqlCommandType> types = EnumSet.noneOf(SqlCommandType.class);
+		for (String type : StrUtil.splitTrim(sqlType, ',')) {
+			types.add(SqlCommandType.valueOf(type.toUpperCase()));
+		}
+		Set<String> excepts = new HashSet<>(StrUtil.splitTrim(exceptSqlIds, ','));
+		double rate = Math.max(0D, Math.min(1D, sampleRate));
+		interceptor = new AsyncSqlAnalysisInterceptor(new SqlCaptureQueue(queueCapacity), analysisSwitch, rate,
+				sqlIdInterval, types, excepts);
+		running = true;
+		worker = new Thread(this::run, "sql-analysis-interceptor");
+		worker.setDaemon(true);
+		worker.start();
+		log.info("异步SQL分析已开启，采样比例：{}，sqlId采集间隔：{}ms，队列容量：{}", rate, sqlIdInterval, queueCapacity);
+		return interceptor;
+	}
+
+	/**
+	 * 拦截器统计
+	 * @return {@link InterceptorStatsVO }
+	 */
+	public InterceptorStatsVO stats() {
+		AsyncSqlAnalysisInterceptor current = interceptor;
+		if (current == null) {
+			return new InterceptorStatsVO(false, 0D, 0L, 0L, 0L, 0L, 0L, 0L, 0L, 0, 0, 0L, 0L, 0L);
+		}
+		SqlCaptureQueue queue = current.getQueue();
+		return new InterceptorStatsVO(true, current.getSampleRate(), current.getSqlIdInterval(),
+				current.getInterceptedCount(), current.getSampledOutCount(), current.getRateLimitedCount(),
+				queue.getOfferedCount(), queue.getDroppedCount(), current.getErrorCount(), queue.size(),
+				queue.getCapacity(), analyzedCount.sum(), failedCount.sum(), warnedCount.sum());
+	}
+
+	/**
+	 * 最近评分低于预期的 SQL，最新的在前
+	 * @return {@link List }<{@link InterceptorWarningVO }>
+	 */
+	public List<InterceptorWarningVO> recentWarnings() {
+		synchronized (warnings) {
+			return new ArrayList<>(warnings);
+		}
+	}
+
+	@PreDestroy
+	public void destroy() {
+		running = false;
+		Thread current = worker;
+		if (current != null) {
+			LockSupport.unpark(current);
+		}
+	}
+
+	private void run() {
+		SqlCaptureQueue queue = interceptor.getQueue();
+		while (running) {
+			SqlCapture capture = queue.poll();
+			if (capture == null) {
+				LockSupport.parkNanos(IDLE_PARK_NANOS);
+				continue;
+			}
+			try {
+				analyze(capture);
+				analyzedCount.increment();
+			}
+			catch (SQLException | RuntimeException e) {
+				failedCount.increment();
+				log.debug("异步分析SQL失败：{}，{}", capture.getSqlId(), e.getMessage());
+			}
+		}
+	}
+
+	private void analyze(SqlCapture capture) throws SQLException {
+		if (capture.getDataSource() == null) {
+			throw new SQLException("MyBatis 未配置数据源");
+		}
+		String sql = capture.render();
+		SqlAnalysisResultList resultList;
+		try (Connection conn = capture.getDataSource().getConnection(); Statement stmt = conn.createStatement()) {
+			ExplainDialect dialect = explainDialectService.resolve(capture.getDataSource(), conn);
+			stmt.setQueryTimeout(queryTimeout);
+			try (ResultSet rs = stmt.executeQuery(dialect.explainSql(sql))) {
+				resultList = dialect.parse(rs);
+			}
+		}
+		SqlScoreResult score = sqlScoreRuleService.score(resultList);
+		if (score == null || !Boolean.TRUE.equals(score.getNeedWarn())) {
+			return;
+		}
+		score.setSqlId(capture.getSqlId());
+		String scoreResult = jdMySqlScoreResultOutService.outResult(score);
+		warnedCount.increment();
+		log.warn("SQL评分低于预期：{}\n{}\n{}", capture.getSqlId(), sql, scoreResult);
+		synchronized (warnings) {
+			warnings.addFirst(new InterceptorWarningVO(capture.getSqlId(), sql, score.getScore(), scoreResult,
+					capture.getCaptureTime(), System.currentTimeMillis()));
+			while (warnings.size() > recentWarnings) {
+				warnings.removeLast();
+			}
+		}
+	}
+
+}
@@ -0,0 +1,463 @@
+package com.itjing.sql.service;
+
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.itjing.sql.constant.HttpStatus;
+import com.itjing.sql.domain.jd.dto.DataSourceDTO;
+import com.itjing.sql.domain.jd.dto.DataSourceProfileDTO;
+import com.itjing.sql.domain.jd.vo.DataSourcePoolVO;
+import com.itjing.sql.domain.jd.vo.DataSourceProfileVO;
+import com.itjing.sql.exception.BusinessException;
+import com.itjing.sql.explain.dialect.ExplainDialect;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import com.zaxxer.hikari.pool.HikariPool;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 目标数据源注册中心
+ * <p>
+ * 按（url、用户名、密码摘要）缓存每个目标库的连接池，避免每次请求都新建连接池并重新握手；
+ * 连接池数量超过上限时按 LRU 淘汰，长时间未使用的连接池定时关闭。淘汰或被替换的连接池还在使用时（持有并发许可、
+ * 有活跃连接或刚被获取）不立即关闭，先移出缓存，由定时任务在空闲后关闭，避免正在执行的分析失败。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class DataSourceRegistryService {
+
+	/**
+	 * URL 协议对应的驱动类。按 URL 自动选择驱动时 MariaDB 2.x 驱动也接受 jdbc:mysql:，需要显式指定
+	 */
+	private static final Map<String, String> DRIVER_CLASS_NAMES = Map.of("mysql", "com.mysql.cj.jdbc.Driver",
+			"mariadb", "org.mariadb.jdbc.Driver", "postgresql", "org.postgresql.Driver", "h2", "org.h2.Driver");
+
+	@Resource
+	private MeterRegistry meterRegistry;
+
+	/**
+	 * 最多缓存的目标数据源个数
+	 */
+	@Value("${sql.analysis.datasource.max-targets:32}")
+	private int maxTargets;
+
+	/**
+	 * 单个目标数据源的最大连接数
+	 */
+	@Value("${sql.analysis.datasource.max-pool-size:4}")
+	private int maxPoolSize;
+
+	/**
+	 * 单个目标数据源同时执行的分析数上限
+	 */
+	@Value("${sql.analysis.datasource.max-concurrency:${sql.analysis.datasource.max-pool-size:4}}")
+	private int maxConcurrency;
+
+	/**
+	 * 获取连接超时时间（毫秒）
+	 */
+	@Value("${sql.analysis.datasource.connection-timeout:5000}")
+	private long connectionTimeout;
+
+	/**
+	 * 连接空闲回收时间（毫秒）
+	 */
+	@Value("${sql.analysis.datasource.idle-timeout:60000}")
+	private long idleTimeout;
+
+	/**
+	 * 目标数据源整体空闲多久后关闭连接池（毫秒）
+	 */
+	@Value("${sql.analysis.datasource.target-idle-timeout:600000}")
+	private long targetIdleTimeout;
+
+	/**
+	 * 已注册的数据源配置
+	 */
+	private final Map<String, DataSourceProfileDTO> profiles = new ConcurrentHashMap<>();
+
+	/**
+	 * 目标数据源连接池，按访问顺序排列，用于 LRU 淘汰（访问需持有 targets 锁）
+	 */
+	private final LinkedHashMap<String, TargetDataSource> targets = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * 已移出缓存、等待空闲后关闭的连接池（访问需持有 targets 锁）
+	 */
+	private final List<TargetDataSource> retired = new ArrayList<>();
+
+	private final AtomicInteger poolSequence = new AtomicInteger();
+
+	/**
+	 * 获取目标数据源（已缓存则直接复用连接池）
+	 * @param config 配置
+	 * @return {@link DataSource }
+	 * @throws SQLException sql异常
+	 */
+	public DataSource getDataSource(DataSourceDTO config) throws SQLException {
+		return getTarget(config).getDataSource();
+	}
+
+	/**
+	 * 获取目标数据源
+	 * @param config 配置
+	 * @return {@link TargetDataSource }
+	 * @throws SQLException sql异常
+	 */
+	public TargetDataSource getTarget(DataSourceDTO config) throws SQLException {
+		DataSourceProfileDTO profile = resolveProfile(config);
+		String key = buildKey(profile.getUrl(), profile.getUsername(), profile.getPassword());
+
+		TargetDataSource target;
+		synchronized (targets) {
+			target = targets.get(key);
+		}
+		if (target != null) {
+			target.touch();
+			return target;
+		}
+
+		// 连接池初始化需要建立连接，放在锁外执行，避免慢目标阻塞其它目标
+		TargetDataSource created = createTarget(key, profile);
+		List<TargetDataSource> evicted = new ArrayList<>();
+		synchronized (targets) {
+			target = targets.get(key);
+			if (target == null) {
+				target = created;
+				targets.put(key, target);
+				Iterator<TargetDataSource> iterator = targets.values().iterator();
+				while (targets.size() > maxTargets && iterator.hasNext()) {
+					TargetDataSource eldest = iterator.next();
+					iterator.remove();
+					evicted.add(eldest);
+				}
+			}
+		}
+		if (target != created) {
+			// 并发创建了同一个目标，新建的连接池没有被使用过
+			closeQuietly(created, "重复创建");
+		}
+		target.touch();
+		evicted.forEach(item -> retire(item, "超过最大目标数据源个数"));
+		return target;
+	}
+
+	/**
+	 * 注册数据源配置，替换同ID的配置时关闭旧配置的连接池
+	 * @param profile 数据源配置
+	 */
+	public void registerProfile(DataSourceProfileDTO profile) {
+		DataSourceProfileDTO previous = profiles.put(profile.getId(), profile);
+		log.info("注册数据源配置：{}", profile);
+		if (previous != null && !buildKey(previous.getUrl(), previous.getUsername(), previous.getPassword())
+			.equals(buildKey(profile.getUrl(), profile.getUsername(), profile.getPassword()))) {
+			close(previous.getUrl(), previous.getUsername(), previous.getPassword(), "配置被替换");
+		}
+	}
+
+	/**
+	 * 删除数据源配置，并关闭其连接池
+	 * @param profileId 数据源配置ID
+	 * @return boolean 是否存在
+	 */
+	public boolean removeProfile(String profileId) {
+		DataSourceProfileDTO profile = profiles.remove(profileId);
+		if (profile == null) {
+			return false;
+		}
+		close(profile.getUrl(), profile.getUsername(), profile.getPassword(), "配置被删除");
+		log.info("删除数据源配置：{}", profileId);
+		return true;
+	}
+
+	/**
+	 * 已注册的数据源配置列表
+	 * @return {@link List }<{@link DataSourceProfileVO }>
+	 */
+	public List<DataSourceProfileVO> listProfiles() {
+		List<DataSourceProfileVO> result = new ArrayList<>();
+		profiles.values()
+			.forEach(item -> result.add(new DataSourceProfileVO(item.getId(), item.getUrl(), item.getUsername(),
+					item.getDescription())));
+		result.sort(Comparator.comparing(DataSourceProfileVO::getId));
+		return result;
+	}
+
+	/**
+	 * 目标数据源连接池状态列表
+	 * @return {@link List }<{@link DataSourcePoolVO }>
+	 */
+	public List<DataSourcePoolVO> listPools() {
+		List<TargetDataSource> snapshot;
+		synchronized (targets) {
+			snapshot = new ArrayList<>(targets.values());
+		}
+		List<DataSourcePoolVO> result = new ArrayList<>();
+		for (TargetDataSource target : snapshot) {
+			HikariPoolMXBean pool = target.getDataSource().getHikariPoolMXBean();
+			if (pool == null) {
+				continue;
+			}
+			result.add(new DataSourcePoolVO(target.getName(), target.getDataSource().getPoolName(),
+					pool.getActiveConnections(), pool.getIdleConnections(), pool.getTotalConnections(),
+					pool.getThreadsAwaitingConnection(), target.getLastAccessTime()));
+		}
+		return result;
+	}
+
+	/**
+	 * 关闭指定目标数据源的连接池
+	 * @param config 配置
+	 * @return boolean 是否存在
+	 */
+	public boolean close(DataSourceDTO config) {
+		DataSourceProfileDTO profile = resolveProfile(config);
+		return close(profile.getUrl(), profile.getUsername(), profile.getPassword(), "手动关闭");
+	}
+
+	/**
+	 * 关闭全部目标数据源的连接池
+	 */
+	@PreDestroy
+	public void closeAll() {
+		List<TargetDataSource> snapshot;
+		synchronized (targets) {
+			snapshot = new ArrayList<>(targets.values());
+			snapshot.addAll(retired);
+			targets.clear();
+			retired.clear();
+		}
+		snapshot.forEach(item -> closeQuietly(item, "关闭全部"));
+	}
+
+	/**
+	 * 定时关闭长时间未使用且没有在使用的连接池，以及已移出缓存、现在空闲的连接池
+	 */
+	@Scheduled(fixedDelayString = "${sql.analysis.datasource.evict-interval:60000}")
+	public void evictIdleTargets() {
+		long now = System.currentTimeMillis();
+		List<TargetDataSource> evicted = new ArrayList<>();
+		List<TargetDataSource> released = new ArrayList<>();
+		synchronized (targets) {
+			Iterator<TargetDataSource> iterator = targets.values().iterator();
+			while (iterator.hasNext()) {
+				TargetDataSource target = iterator.next();
+				if (!isInUse(target) && now - target.getLastAccessTime() > targetIdleTimeout) {
+					iterator.remove();
+					evicted.add(target);
+				}
+			}
+			iterator = retired.iterator();
+			while (iterator.hasNext()) {
+				TargetDataSource target = iterator.next();
+				if (!isInUse(target)) {
+					iterator.remove();
+					released.add(target);
+				}
+			}
+		}
+		evicted.forEach(item -> closeQuietly(item, "长时间未使用"));
+		released.forEach(item -> closeQuietly(item, "使用结束"));
+	}
+
+	private boolean close(String url, String username, String password, String reason) {
+		TargetDataSource target;
+		synchronized (targets) {
+			target = targets.remove(buildKey(url, username, password));
+		}
+		if (target == null) {
+			return false;
+		}
+		retire(target, reason);
+		return true;
+	}
+
+	/**
+	 * 关闭已移出缓存的连接池，还在使用时等定时任务在空闲后关闭
+	 */
+	private void retire(TargetDataSource target, String reason) {
+		synchronized (targets) {
+			if (isInUse(target)) {
+				retired.add(target);
+				log.info("目标数据源连接池仍在使用，空闲后关闭（{}）：{}", reason, target.getName());
+				return;
+			}
+		}
+		closeQuietly(target, reason);
+	}
+
+	/**
+	 * 连接池是否在使用：有分析持有并发许可、有活跃连接或等待连接的线程，或者刚被获取（还没来得及取连接）
+	 */
+	private boolean isInUse(TargetDataSource target) {
+		if (target.getPermits().availablePermits() < target.getMaxConcurrency()
+				|| System.currentTimeMillis() - target.getLastAccessTime() < connectionTimeout) {
+			return true;
+		}
+		HikariPoolMXBean pool = target.getDataSource().getHikariPoolMXBean();
+		return pool != null && (pool.getActiveConnections() > 0 || pool.getThreadsAwaitingConnection() > 0);
+	}
+
+	/**
+	 * 解析数据源配置：指定了配置ID时使用注册的配置，否则使用请求中的 url、用户名、密码
+	 * @param config 配置
+	 * @return {@link DataSourceProfileDTO }
+	 */
+	private DataSourceProfileDTO resolveProfile(DataSourceDTO config) {
+		if (StrUtil.isNotBlank(config.getProfileId())) {
+			DataSourceProfileDTO profile = profiles.get(config.getProfileId());
+			if (profile == null) {
+				throw new BusinessException(HttpStatus.NOT_FOUND,
+						StrUtil.format("数据源配置不存在：{}", config.getProfileId()));
+			}
+			return profile;
+		}
+		return new DataSourceProfileDTO(null, config.getUrl(), config.getUsername(), config.getPassword(), null);
+	}
+
+	private TargetDataSource createTarget(String key, DataSourceProfileDTO profile) throws SQLException {
+		HikariConfig hikariConfig = new HikariConfig();
+		hikariConfig.setPoolName("sql-analysis-target-" + poolSequence.incrementAndGet());
+		hikariConfig.setJdbcUrl(profile.getUrl());
+		String driverClassName = DRIVER_CLASS_NAMES.get(StrUtil.subBetween(profile.getUrl(), "jdbc:", ":"));
+		if (driverClassName != null) {
+			hikariConfig.setDriverClassName(driverClassName);
+		}
+		hikariConfig.setUsername(profile.getUsername());
+		hikariConfig.setPassword(profile.getPassword());
+		hikariConfig.setMaximumPoolSize(maxPoolSize);
+		hikariConfig.setMinimumIdle(0);
+		hikariConfig.setIdleTimeout(idleTimeout);
+		hikariConfig.setConnectionTimeout(connectionTimeout);
+		// 连接池指标（hikaricp_connections_*，按 pool 标签区分），连接池关闭时一并移除
+		hikariConfig.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+		try {
+			HikariDataSource dataSource = new HikariDataSource(hikariConfig);
+			String name = StrUtil.format("{}@{}", profile.getUsername(),
+					StrUtil.subBefore(profile.getUrl(), "?", false));
+			log.info("创建目标数据源连接池：{}，{}", hikariConfig.getPoolName(), name);
+			return new TargetDataSource(key, name, dataSource, Math.min(maxConcurrency, maxPoolSize));
+		}
+		catch (HikariPool.PoolInitializationException e) {
+			// 初始化失败时抛出底层的 SQLException，和直接获取连接失败的处理方式保持一致
+			if (e.getCause() instanceof SQLException) {
+				throw (SQLException) e.getCause();
+			}
+			throw new SQLException(e.getMessage(), e);
+		}
+	}
+
+	private void closeQuietly(TargetDataSource target, String reason) {
+		try {
+			target.getDataSource().close();
+			log.info("关闭目标数据源连接池（{}）：{}", reason, target.getName());
+		}
+		catch (Exception e) {
+			log.warn("关闭目标数据源连接池失败：{}", target.getName(), e);
+		}
+	}
+
+	private String buildKey(String url, String username, String password) {
+		return url + "|" + username + "|" + DigestUtil.sha256Hex(StrUtil.nullToEmpty(password));
+	}
+
+	/**
+	 * 目标数据源
+	 */
+	public static class TargetDataSource {
+
+		private final String key;
+
+		private final String name;
+
+		private final HikariDataSource dataSource;
+
+		private final int maxConcurrency;
+
+		private final Semaphore permits;
+
+		private volatile long lastAccessTime;
+
+		private volatile ExplainDialect dialect;
+
+		TargetDataSource(String key, String name, HikariDataSource dataSource, int maxConcurrency) {
+			this.key = key;
+			this.name = name;
+			this.dataSource = dataSource;
+			this.maxConcurrency = maxConcurrency;
+			this.permits = new Semaphore(maxConcurrency, true);
+			this.lastAccessTime = System.currentTimeMillis();
+		}
+
+		void touch() {
+			lastAccessTime = System.currentTimeMillis();
+		}
+
+		public String getKey() {
+			return key;
+		}
+
+		/**
+		 * 目标名称（用户名@连接URL，不含密码）
+		 * @return {@link String }
+		 */
+		public String getName() {
+			return name;
+		}
+
+		public HikariDataSource getDataSource() {
+			return dataSource;
+		}
+
+		public long getLastAccessTime() {
+			return lastAccessTime;
+		}
+
+		/**
+		 * 同时执行的分析数上限
+		 * @return int
+		 */
+		public int getMaxConcurrency() {
+			return maxConcurrency;
+		}
+
+		/**
+		 * 并发许可，执行分析前获取，限制对单个目标库的并发压力
+		 * @return {@link Semaphore }
+		 */
+		public Semaphore getPermits() {
+			return permits;
+		}
+
+		/**
+		 * 执行计划方言，第一次分析时按数据库产品名确定
+		 * @return {@link ExplainDialect } 未确定时返回 null
+		 */
+		public ExplainDialect getDialect() {
+			return dialect;
+		}
+
+		void setDialect(ExplainDialect dialect) {
+			this.dialect = dialect;
+		}
+
+	}
+
+}
@@ -0,0 +1,650 @@
+package com.itjing.sql.service;
+
+import cn.hutool.core.util.StrUtil;
+import com.itjing.sql.constant.ExplainMode;
+import com.itjing.sql.constant.HttpStatus;
+import com.itjing.sql.domain.jd.dto.DataSourceDTO;
+import com.itjing.sql.domain.jd.vo.DigestMonitorVO;
+import com.itjing.sql.domain.jd.vo.DigestStatsVO;
+import com.itjing.sql.domain.jd.vo.SqlBatchAnalysisVO;
+import com.itjing.sql.domain.jd.vo.SqlStatementAnalysisVO;
+import com.itjing.sql.exception.BusinessException;
+import com.itjing.sql.service.AnalysisTaskRegistry.AnalysisTask;
+import com.itjing.sql.service.DataSourceRegistryService.TargetDataSource;
+import com.itjing.sql.util.SqlFingerprintUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * performance_schema 语句摘要采集服务
+ * <p>
+ * 对开启采集的数据源配置，每个采集间隔查询一次 events_statements_summary_by_digest，只取上次采集之后
+ * LAST_SEEN 有变化的摘要，和上一次的快照相减得到执行次数、执行时间、扫描行数的增量，累加后按总执行时间排名。
+ * 第一次采集只记录快照。单个间隔内执行时间超过阈值的摘要，用 QUERY_SAMPLE_TEXT 走批量分析执行 EXPLAIN
+ * 和评分，同一个摘要在重新分析间隔内只分析一次。
+ * <p>
+ * 计数器变小（TRUNCATE 或重启）时把当前值作为增量。样本在目标库默认库以外的库执行、被截断或者不是 DML 时不分析。
+ * 同一个数据源配置的采集依次执行；本次没有返回的摘要在这个间隔内没有执行，最近一个间隔的增量记为 0。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class DigestMonitorService {
+
+	private static final String DIGEST_SQL = "SELECT SCHEMA_NAME, DIGEST, DIGEST_TEXT, COUNT_STAR, SUM_TIMER_WAIT, "
+			+ "SUM_ROWS_EXAMINED, SUM_ROWS_SENT, SUM_NO_INDEX_USED, FIRST_SEEN, LAST_SEEN{} "
+			+ "FROM performance_schema.events_statements_summary_by_digest WHERE DIGEST IS NOT NULL "
+			+ "AND (SCHEMA_NAME IS NULL "
+			+ "OR SCHEMA_NAME NOT IN ('performance_schema', 'information_schema', 'mysql', 'sys')) "
+			+ "AND LAST_SEEN >= ? ORDER BY SUM_TIMER_WAIT DESC LIMIT ?";
+
+	/**
+	 * 列不存在（MySQL 5.7 没有 QUERY_SAMPLE_TEXT）
+	 */
+	private static final int ER_BAD_FIELD_ERROR = 1054;
+
+	/**
+	 * SUM_TIMER_WAIT 的单位是皮秒
+	 */
+	private static final double PICOS_PER_MILLI = 1_000_000_000D;
+
+	@Resource
+	private DataSourceRegistryService dataSourceRegistryService;
+
+	@Resource
+	private JdSqlAnalysisService jdSqlAnalysisService;
+
+	@Resource
+	private AnalysisTaskRegistry analysisTaskRegistry;
+
+	@Resource
+	@Qualifier("sqlAnalysisJobExecutor")
+	private ThreadPoolTaskExecutor sqlAnalysisJobExecutor;
+
+	@Resource
+	@Qualifier("sqlAnalysisBackgroundExecutor")
+	private ThreadPoolTaskExecutor sqlAnalysisBackgroundExecutor;
+
+	/**
+	 * 单次采集最多返回的摘要行数，按 SUM_TIMER_WAIT 倒序
+	 */
+	@Value("${sql.analysis.digest.max-rows:1000}")
+	private int maxRows;
+
+	/**
+	 * 每个目标最多统计的摘要个数，超过后淘汰总执行时间最短的
+	 */
+	@Value("${sql.analysis.digest.max-digests:5000}")
+	private int maxDigests;
+
+	/**
+	 * 采集查询的超时时间（秒）
+	 */
+	@Value("${sql.analysis.digest.query-timeout:10}")
+	private int queryTimeout;
+
+	/**
+	 * 单个采集间隔内总执行时间超过该值（毫秒）的摘要自动分析
+	 */
+	@Value("${sql.analysis.digest.hot-threshold:1000}")
+	private long hotThreshold;
+
+	/**
+	 * 每次采集最多自动分析的摘要个数
+	 */
+	@Value("${sql.analysis.digest.max-analyze:10}")
+	private int maxAnalyze;
+
+	/**
+	 * 同一个摘要的重新分析间隔（毫秒）
+	 */
+	@Value("${sql.analysis.digest.reanalyze-interval:3600000}")
+	private long reanalyzeInterval;
+
+	/**
+	 * 开启采集的数据源配置
+	 */
+	private final Map<String, MonitorState> monitors = new ConcurrentHashMap<>();
+
+	/**
+	 * 开启采集，立即采集一次作为基准快照
+	 * @param profileId 数据源配置ID
+	 * @return {@link DigestMonitorVO }
+	 * @throws SQLException sql异常
+	 */
+	public DigestMonitorVO start(String profileId) throws SQLException {
+		MonitorState state = monitors.computeIfAbsent(profileId, MonitorState::new);
+		try {
+			poll(state);
+		}
+		catch (SQLException | RuntimeException e) {
+			monitors.remove(profileId, state);
+			throw e;
+		}
+		return state.toVO();
+	}
+
+	/**
+	 * 停止采集，丢弃统计结果
+	 * @param profileId 数据源配置ID
+	 * @return boolean 是否存在
+	 */
+	public boolean stop(String profileId) {
+		return monitors.remove(profileId) != null;
+	}
+
+	/**
+	 * 立即采集一次
+	 * @param profileId 数据源配置ID
+	 * @return {@link DigestMonitorVO }
+	 * @throws SQLException sql异常
+	 */
+	public DigestMonitorVO pollNow(String profileId) throws SQLException {
+		MonitorState state = getState(profileId);
+		poll(state);
+		return state.toVO();
+	}
+
+	/**
+	 * 采集状态列表
+	 * @return {@link List }<{@link DigestMonitorVO }>
+	 */
+	public List<DigestMonitorVO> list() {
+		List<DigestMonitorVO> result = new ArrayList<>();
+		monitors.values().forEach(state -> result.add(state.toVO()));
+		result.sort(Comparator.comparing(DigestMonitorVO::getProfileId));
+		return result;
+	}
+
+	/**
+	 * 最差的语句排名
+	 * @param profileId 数据源配置ID
+	 * @param sort 排序：total 总执行时间（默认），avg 平均执行时间，recent 最近一个采集间隔的执行时间，rows 扫描行数
+	 * @param limit 条数
+	 * @return {@link List }<{@link DigestStatsVO }>
+	 */
+	public List<DigestStatsVO> top(String profileId, String sort, int limit) {
+		Comparator<DigestStats> comparator = switch (StrUtil.blankToDefault(sort, "total")) {
+			case "total" -> Comparator.comparingLong(stats -> stats.timerWait);
+			case "avg" -> Comparator.comparingDouble(DigestStats::avgTimerWait);
+			case "recent" -> Comparator.comparingLong(stats -> stats.lastTimerWait);
+			case "rows" -> Comparator.comparingLong(stats -> stats.rowsExamined);
+			default -> throw new BusinessException(HttpStatus.BAD_REQUEST, "不支持的排序：" + sort);
+		};
+		MonitorState state = getState(profileId);
+		synchronized (state) {
+			return state.digests.values()
+				.stream()
+				.filter(stats -> stats.calls > 0)
+				.sorted(comparator.reversed())
+				.limit(limit)
+				.map(DigestStats::toVO)
+				.toList();
+		}
+	}
+
+	/**
+	 * 定时采集全部开启采集的数据源配置，在后台采集线程池中执行，单个目标失败不影响其它目标
+	 * <p>
+	 * 上一次定时采集还没有结束的目标本轮跳过，慢目标不会堆积采集任务。
+	 */
+	@Scheduled(fixedDelayString = "${sql.analysis.digest.poll-interval:60000}")
+	public void pollAll() {
+		for (MonitorState state : monitors.values()) {
+			if (!state.polling.compareAndSet(false, true)) {
+				continue;
+			}
+			try {
+				sqlAnalysisBackgroundExecutor.execute(() -> {
+					try {
+						poll(state);
+					}
+					catch (SQLException | RuntimeException e) {
+						log.warn("采集语句摘要失败：{}，{}", state.profileId, e.getMessage());
+					}
+					finally {
+						state.polling.set(false);
+					}
+				});
+			}
+			catch (RuntimeException e) {
+				state.polling.set(false);
+				log.warn("提交语句摘要采集失败：{}，{}", state.profileId, e.getMessage());
+			}
+		}
+	}
+
+	private MonitorState getState(String profileId) {
+		MonitorState state = monitors.get(profileId);
+		if (state == null) {
+			throw new BusinessException(HttpStatus.NOT_FOUND, "数据源配置未开启语句摘要采集：" + profileId);
+		}
+		return state;
+	}
+
+	private void poll(MonitorState state) throws SQLException {
+		TargetDataSource target;
+		List<DigestStats> hot;
+		// 查询和累加在同一个锁内：定时采集、立即采集和开启采集并发时依次执行，旧快照不会在新快照之后累加
+		synchronized (state.pollLock) {
+			long start = System.currentTimeMillis();
+			try {
+				DataSourceDTO config = new DataSourceDTO();
+				config.setProfileId(state.profileId);
+				target = dataSourceRegistryService.getTarget(config);
+				List<DigestRow> rows;
+				String catalog;
+				try (Connection conn = target.getDataSource().getConnection()) {
+					catalog = conn.getCatalog();
+					rows = query(conn, state);
+				}
+				synchronized (state) {
+					state.target = target.getName();
+					state.catalog = catalog;
+					hot = apply(state, rows, start);
+					state.pollCount++;
+					state.lastPollTime = start;
+					state.lastPollMillis = System.currentTimeMillis() - start;
+					state.lastRowCount = rows.size();
+					state.lastError = null;
+				}
+			}
+			catch (SQLException | RuntimeException e) {
+				synchronized (state) {
+					state.lastError = e.getMessage();
+				}
+				throw e;
+			}
+		}
+		if (!hot.isEmpty()) {
+			analyzeAsync(state, target, hot);
+		}
+	}
+
+	/**
+	 * 查询上次采集之后有变化的摘要，目标库不支持 QUERY_SAMPLE_TEXT 时去掉该列重试
+	 */
+	private List<DigestRow> query(Connection conn, MonitorState state) throws SQLException {
+		try {
+			return query(conn, state, state.sampleSupported);
+		}
+		catch (SQLException e) {
+			if (!state.sampleSupported || e.getErrorCode() != ER_BAD_FIELD_ERROR) {
+				throw e;
+			}
+			log.info("目标库不支持 QUERY_SAMPLE_TEXT，只统计不分析：{}", state.profileId);
+			state.sampleSupported = false;
+			return query(conn, state, false);
+		}
+	}
+
+	private List<DigestRow> query(Connection conn, MonitorState state, boolean withSample) throws SQLException {
+		String sql = StrUtil.format(DIGEST_SQL, withSample ? ", QUERY_SAMPLE_TEXT" : "");
+		List<DigestRow> rows = new ArrayList<>();
+		try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+			stmt.setQueryTimeout(queryTimeout);
+			stmt.setTimestamp(1, state.lastSeen == null ? new Timestamp(0L) : state.lastSeen);
+			stmt.setInt(2, maxRows);
+			try (ResultSet rs = stmt.executeQuery()) {
+				while (rs.next()) {
+					rows.add(new DigestRow(rs.getString(1), rs.getString(2), rs.getString(3), rs.getLong(4),
+							rs.getLong(5), rs.getLong(6), rs.getLong(7), rs.getLong(8), rs.getTimestamp(9),
+							rs.getTimestamp(10), withSample ? rs.getString(11) : null));
+				}
+			}
+		}
+		return rows;
+	}
+
+	/**
+	 * 计算增量并累加，返回需要分析的摘要（持有 state 锁调用）
+	 */
+	private List<DigestStats> apply(MonitorState state, List<DigestRow> rows, long now) {
+		boolean baseline = state.pollCount == 0;
+		long poll = state.pollCount + 1;
+		List<DigestStats> candidates = new ArrayList<>();
+		for (DigestRow row : rows) {
+			if (row.lastSeen() != null && (state.lastSeen == null || row.lastSeen().after(state.lastSeen))) {
+				state.lastSeen = row.lastSeen();
+			}
+			String key = row.schema() + "|" + row.digest();
+			DigestStats stats = state.digests.get(key);
+			boolean rowBaseline = baseline;
+			if (stats == null) {
+				DigestCounters evicted = state.evicted.remove(key);
+				if (state.digests.size() >= maxDigests) {
+					evictCheapest(state);
+				}
+				stats = new DigestStats(row.schema(), row.digest());
+				state.digests.put(key, stats);
+				if (evicted != null) {
+					// 被淘汰后再次出现的摘要，从淘汰时的计数继续算增量
+					stats.restore(evicted);
+				}
+				else {
+					// 基准快照时已经存在、只是没有返回（超过行数上限）的摘要，当前值不是增量
+					rowBaseline = baseline || state.baselineSeen != null && row.firstSeen() != null
+							&& !row.firstSeen().after(state.baselineSeen);
+				}
+			}
+			stats.update(row, rowBaseline, now);
+			stats.lastPoll = poll;
+			if (stats.lastTimerWait >= hotThreshold * 1_000_000_000L && stats.isExplainable(state.catalog)
+					&& (stats.analyzedAt == null || now - stats.analyzedAt >= reanalyzeInterval)) {
+				candidates.add(stats);
+			}
+		}
+		// 本次没有返回的摘要在这个间隔内没有执行，最近一个间隔的增量清零
+		for (DigestStats stats : state.digests.values()) {
+			if (stats.lastPoll != poll) {
+				stats.lastCalls = 0L;
+				stats.lastTimerWait = 0L;
+			}
+		}
+		if (baseline) {
+			state.baselineSeen = state.lastSeen;
+		}
+		if (state.analyzing.get()) {
+			return List.of();
+		}
+		candidates.sort(Comparator.comparingLong((DigestStats stats) -> stats.lastTimerWait).reversed());
+		List<DigestStats> hot = candidates.subList(0, Math.min(maxAnalyze, candidates.size()));
+		hot.forEach(stats -> stats.analyzedAt = now);
+		return new ArrayList<>(hot);
+	}
+
+	private void evictCheapest(MonitorState state) {
+		String cheapest = null;
+		long min = Long.MAX_VALUE;
+		for (Map.Entry<String, DigestStats> entry : state.digests.entrySet()) {
+			if (entry.getValue().timerWait < min) {
+				min = entry.getValue().timerWait;
+				cheapest = entry.getKey();
+			}
+		}
+		if (cheapest == null) {
+			return;
+		}
+		// 保留淘汰时的原始计数，再次出现时不会把累计值当成一次增量
+		state.evicted.put(cheapest, state.digests.remove(cheapest).counters());
+		if (state.evicted.size() > maxDigests) {
+			Iterator<String> eldest = state.evicted.keySet().iterator();
+			eldest.next();
+			eldest.remove();
+		}
+	}
+
+	/**
+	 * 在异步分析线程池中分析新出现的慢摘要，同一个目标同时只有一个分析在执行
+	 */
+	private void analyzeAsync(MonitorState state, TargetDataSource target, List<DigestStats> hot) {
+		if (!state.analyzing.compareAndSet(false, true)) {
+			resetAnalyzedAt(state, hot);
+			return;
+		}
+		List<String> samples = new ArrayList<>(hot.size());
+		hot.forEach(stats -> samples.add(stats.sample));
+		try {
+			sqlAnalysisJobExecutor.execute(() -> {
+				try {
+					AnalysisTask task = analysisTaskRegistry.start(null, target.getName(), null);
+					SqlBatchAnalysisVO batch = jdSqlAnalysisService.analyzeBatch(target, samples,
+							ExplainMode.TRADITIONAL, false, task);
+					synchronized (state) {
+						for (SqlStatementAnalysisVO result : batch.getResults()) {
+							hot.get(result.getIndex()).analysis = result;
+						}
+						state.analyzedCount += samples.size();
+					}
+					log.info("自动分析语句摘要：{}，{}条，成功{}条", state.profileId, samples.size(),
+							batch.getSuccessCount());
+				}
+				catch (RuntimeException e) {
+					log.warn("自动分析语句摘要失败：{}，{}", state.profileId, e.getMessage());
+				}
+				finally {
+					state.analyzing.set(false);
+				}
+			});
+		}
+		catch (RuntimeException e) {
+			state.analyzing.set(false);
+			resetAnalyzedAt(state, hot);
+			log.warn("提交语句摘要分析失败：{}，{}", state.profileId, e.getMessage());
+		}
+	}
+
+	/**
+	 * 没有提交分析时清除分析时间，下次采集仍然是慢摘要时重新提交
+	 */
+	private void resetAnalyzedAt(MonitorState state, List<DigestStats> hot) {
+		synchronized (state) {
+			hot.forEach(stats -> stats.analyzedAt = null);
+		}
+	}
+
+	/**
+	 * 一行采集结果
+	 */
+	private record DigestRow(String schema, String digest, String digestText, long count, long timerWait,
+			long rowsExamined, long rowsSent, long noIndexUsed, Timestamp firstSeen, Timestamp lastSeen,
+			String sample) {
+	}
+
+	/**
+	 * 被淘汰摘要最后一次采集到的原始计数
+	 */
+	private record DigestCounters(long count, long timerWait, long rowsExamined, long rowsSent, long noIndexUsed) {
+	}
+
+	/**
+	 * 一个数据源配置的采集状态，字段由 state 锁保护
+	 */
+	private static class MonitorState {
+
+		private final String profileId;
+
+		/**
+		 * 采集锁，一次采集从查询到累加完成期间持有
+		 */
+		private final Object pollLock = new Object();
+
+		private final long startTime = System.currentTimeMillis();
+
+		private final Map<String, DigestStats> digests = new HashMap<>();
+
+		/**
+		 * 被淘汰摘要的原始计数，按淘汰顺序保留，个数和摘要上限相同
+		 */
+		private final Map<String, DigestCounters> evicted = new LinkedHashMap<>();
+
+		private final AtomicBoolean analyzing = new AtomicBoolean();
+
+		/**
+		 * 是否有定时采集已提交还没有结束
+		 */
+		private final AtomicBoolean polling = new AtomicBoolean();
+
+		private String target;
+
+		private String catalog;
+
+		private volatile Timestamp lastSeen;
+
+		private Timestamp baselineSeen;
+
+		private volatile boolean sampleSupported = true;
+
+		private long pollCount;
+
+		private Long lastPollTime;
+
+		private long lastPollMillis;
+
+		private int lastRowCount;
+
+		private long analyzedCount;
+
+		private String lastError;
+
+		MonitorState(String profileId) {
+			this.profileId = profileId;
+		}
+
+		synchronized DigestMonitorVO toVO() {
+			return new DigestMonitorVO(profileId, target, startTime, pollCount, lastPollTime, lastPollMillis,
+					lastRowCount, digests.size(), sampleSupported, analyzedCount, lastError);
+		}
+
+	}
+
+	/**
+	 * 一个摘要的快照和开始采集以来的累计增量
+	 */
+	private static class DigestStats {
+
+		private final String schema;
+
+		private final String digest;
+
+		private String digestText;
+
+		private String sample;
+
+		private long prevCount;
+
+		private long prevTimerWait;
+
+		private long prevRowsExamined;
+
+		private long prevRowsSent;
+
+		private long prevNoIndexUsed;
+
+		private long calls;
+
+		private long timerWait;
+
+		private long rowsExamined;
+
+		private long rowsSent;
+
+		private long noIndexUsed;
+
+		private long lastCalls;
+
+		private long lastTimerWait;
+
+		/**
+		 * 最近一次返回该摘要的采集序号
+		 */
+		private long lastPoll;
+
+		private Long firstSeen;
+
+		private Long lastSeen;
+
+		private Long analyzedAt;
+
+		private SqlStatementAnalysisVO analysis;
+
+		DigestStats(String schema, String digest) {
+			this.schema = schema;
+			this.digest = digest;
+		}
+
+		/**
+		 * 基准快照只记录当前值，之后和上一次的值相减；新出现的摘要上一次的值都是 0，当前值就是增量，被淘汰后再次出现的摘要上一次的值是淘汰时的值
+		 */
+		void update(DigestRow row, boolean baseline, long now) {
+			boolean reset = row.count() < prevCount;
+			long deltaCount = baseline ? 0L : reset ? row.count() : row.count() - prevCount;
+			long deltaTimerWait = baseline ? 0L : reset ? row.timerWait() : row.timerWait() - prevTimerWait;
+			if (!baseline) {
+				rowsExamined += reset ? row.rowsExamined() : row.rowsExamined() - prevRowsExamined;
+				rowsSent += reset ? row.rowsSent() : row.rowsSent() - prevRowsSent;
+				noIndexUsed += reset ? row.noIndexUsed() : row.noIndexUsed() - prevNoIndexUsed;
+			}
+			calls += deltaCount;
+			timerWait += deltaTimerWait;
+			lastCalls = deltaCount;
+			lastTimerWait = deltaTimerWait;
+			prevCount = row.count();
+			prevTimerWait = row.timerWait();
+			prevRowsExamined = row.rowsExamined();
+			prevRowsSent = row.rowsSent();
+			prevNoIndexUsed = row.noIndexUsed();
+			digestText = row.digestText();
+			if (row.sample() != null) {
+				sample = row.sample();
+			}
+			if (deltaCount > 0) {
+				firstSeen = firstSeen == null ? now : firstSeen;
+				lastSeen = now;
+			}
+		}
+
+		DigestCounters counters() {
+			return new DigestCounters(prevCount, prevTimerWait, prevRowsExamined, prevRowsSent, prevNoIndexUsed);
+		}
+
+		/**
+		 * 恢复淘汰时的原始计数，下一次 {@link #update} 和它相减
+		 */
+		void restore(DigestCounters counters) {
+			prevCount = counters.count();
+			prevTimerWait = counters.timerWait();
+			prevRowsExamined = counters.rowsExamined();
+			prevRowsSent = counters.rowsSent();
+			prevNoIndexUsed = counters.noIndexUsed();
+		}
+
+		double avgTimerWait() {
+			return calls == 0 ? 0D : (double) timerWait / calls;
+		}
+
+		/**
+		 * 样本完整、在目标库的默认库下执行并且是 DML 时才能 EXPLAIN
+		 */
+		boolean isExplainable(String catalog) {
+			if (StrUtil.isBlank(sample) || sample.endsWith("...")) {
+				return false;
+			}
+			if (schema != null && !schema.equalsIgnoreCase(catalog)) {
+				return false;
+			}
+			return StrUtil.startWithAny(SqlFingerprintUtils.fingerprint(sample), "select ", "insert ", "update ",
+					"delete ", "replace ", "with ", "(select ");
+		}
+
+		DigestStatsVO toVO() {
+			return new DigestStatsVO(schema, digest, digestText, sample, calls, timerWait / PICOS_PER_MILLI,
+					avgTimerWait() / PICOS_PER_MILLI, rowsExamined, rowsSent, noIndexUsed, lastCalls,
+					lastTimerWait / PICOS_PER_MILLI, firstSeen, lastSeen, analyzedAt, analysis);
+		}
+
+	}
+
+}
@@ -0,0 +1,237 @@
+package com.itjing.sql.service;
+
+import cn.hutool.core.util.StrUtil;
+import com.itjing.sql.constant.HttpStatus;
+import com.itjing.sql.exception.BusinessException;
+import com.itjing.sql.explain.AnalyzePlan;
+import com.itjing.sql.explain.ExplainAnalyzeParser;
+import com.itjing.sql.explain.ReadOnlySelectChecker;
+import com.itjing.sql.service.AnalysisTaskRegistry.AnalysisTask;
+import com.jd.sql.analysis.analysis.SqlAnalysisResult;
+import com.jd.sql.analysis.analysis.SqlAnalysisResultList;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * EXPLAIN ANALYZE 服务
+ * <p>
+ * EXPLAIN ANALYZE 会真正执行 SQL，执行前依次检查：功能开关、MySQL 8.0.18 及以上、只能是不加锁且没有 INTO 的
+ * SELECT（见 {@link ReadOnlySelectChecker}）、普通 EXPLAIN 预估的执行行数不超过上限。执行时开启只读事务并在结束后
+ * 回滚，同时设置会话级 MAX_EXECUTION_TIME 和 JDBC 查询超时（不超过分析任务的剩余时间），结束后恢复连接原来的设置；
+ * 回滚或恢复失败时中止连接，不把状态未知的连接还给连接池。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class ExplainAnalyzeService {
+
+	private static final Pattern VERSION = Pattern.compile("^(\\d+)\\.(\\d+)\\.(\\d+)");
+
+	/**
+	 * 是否允许使用 EXPLAIN ANALYZE
+	 */
+	@Value("${sql.analysis.analyze.enabled:true}")
+	private boolean enabled;
+
+	/**
+	 * 执行超时时间（毫秒）
+	 */
+	@Value("${sql.analysis.analyze.timeout:5000}")
+	private long timeout;
+
+	/**
+	 * 普通 EXPLAIN 预估执行行数的上限，超过时不执行，计算方式见 {@link #estimatedRows(List)}
+	 */
+	@Value("${sql.analysis.analyze.max-estimated-rows:1000000}")
+	private long maxEstimatedRows;
+
+	/**
+	 * 预估行数和实际行数相差多少倍时记为预估不准
+	 */
+	@Value("${sql.analysis.analyze.rows-gap-threshold:10}")
+	private double rowsGapThreshold;
+
+	/**
+	 * 执行 EXPLAIN ANALYZE
+	 * @param conn 连接
+	 * @param sql SQL
+	 * @param estimated 普通 EXPLAIN 的执行计划，用于检查预估执行行数
+	 * @param task 分析任务
+	 * @return {@link AnalyzePlan }
+	 * @throws SQLException sql异常
+	 */
+	public AnalyzePlan analyze(Connection conn, String sql, SqlAnalysisResultList estimated, AnalysisTask task)
+			throws SQLException {
+		checkAllowed(conn, sql, estimated);
+		try (Statement stmt = conn.createStatement()) {
+			task.register(stmt);
+			long limit = Math.max(1L, Math.min(timeout, task.remainingMillis()));
+			long sessionTimeout;
+			try {
+				sessionTimeout = querySessionTimeout(stmt);
+			}
+			catch (SQLException e) {
+				task.unregister(stmt);
+				task.checkAborted(e);
+				throw e;
+			}
+			Throwable failure = null;
+			try {
+				return execute(stmt, sql, limit, task);
+			}
+			catch (Throwable e) {
+				failure = e;
+				throw e;
+			}
+			finally {
+				task.unregister(stmt);
+				restore(conn, stmt, sessionTimeout, failure);
+			}
+		}
+	}
+
+	private AnalyzePlan execute(Statement stmt, String sql, long limit, AnalysisTask task) throws SQLException {
+		try {
+			stmt.execute("SET SESSION MAX_EXECUTION_TIME = " + limit);
+			stmt.setQueryTimeout((int) Math.max(1, (limit + 999) / 1000));
+			stmt.execute("START TRANSACTION READ ONLY");
+			try (ResultSet rs = stmt.executeQuery("EXPLAIN ANALYZE " + sql)) {
+				if (!rs.next()) {
+					throw new SQLException("EXPLAIN ANALYZE 没有返回结果");
+				}
+				return ExplainAnalyzeParser.parse(rs.getString(1), rowsGapThreshold);
+			}
+		}
+		catch (SQLException e) {
+			task.checkAborted(e);
+			throw e;
+		}
+	}
+
+	/**
+	 * 回滚只读事务并恢复会话超时，每一步单独处理，失败不会掩盖分析本身的异常
+	 * <p>
+	 * 任何一步失败时连接状态未知（可能还在事务中或带着分析用的超时），中止连接让连接池丢弃它。
+	 * @param failure 分析的异常，恢复失败时作为 suppressed 附加；没有时直接抛出恢复失败的异常
+	 */
+	private void restore(Connection conn, Statement stmt, long sessionTimeout, Throwable failure) throws SQLException {
+		SQLException restoreFailure = null;
+		for (String sql : new String[] { "ROLLBACK", "SET SESSION MAX_EXECUTION_TIME = " + sessionTimeout }) {
+			try {
+				stmt.execute(sql);
+			}
+			catch (SQLException e) {
+				if (restoreFailure == null) {
+					restoreFailure = e;
+				}
+				else {
+					restoreFailure.addSuppressed(e);
+				}
+			}
+		}
+		if (restoreFailure == null) {
+			return;
+		}
+		log.warn("EXPLAIN ANALYZE 后恢复连接失败，中止连接：{}", restoreFailure.getMessage());
+		try {
+			conn.abort(Runnable::run);
+		}
+		catch (SQLException e) {
+			restoreFailure.addSuppressed(e);
+		}
+		if (failure != null) {
+			failure.addSuppressed(restoreFailure);
+			return;
+		}
+		throw restoreFailure;
+	}
+
+	private void checkAllowed(Connection conn, String sql, SqlAnalysisResultList estimated) throws SQLException {
+		if (!enabled) {
+			throw new BusinessException(HttpStatus.FORBIDDEN, "EXPLAIN ANALYZE 未开启");
+		}
+		DatabaseMetaData metaData = conn.getMetaData();
+		String product = metaData.getDatabaseProductName();
+		String version = metaData.getDatabaseProductVersion();
+		if (!"MySQL".equalsIgnoreCase(product) || StrUtil.containsIgnoreCase(version, "MariaDB")
+				|| !atLeast(version, 8, 0, 18)) {
+			throw new BusinessException(HttpStatus.BAD_REQUEST,
+					StrUtil.format("EXPLAIN ANALYZE 需要 MySQL 8.0.18 及以上，当前：{} {}", product, version));
+		}
+		String rejectReason = ReadOnlySelectChecker.rejectReason(sql);
+		if (rejectReason != null) {
+			throw new BusinessException(HttpStatus.BAD_REQUEST, "EXPLAIN ANALYZE " + rejectReason);
+		}
+		long rows = estimatedRows(estimated.getResultList());
+		if (rows > maxEstimatedRows) {
+			throw new BusinessException(HttpStatus.BAD_REQUEST,
+					StrUtil.format("预估执行 {} 行，超过 EXPLAIN ANALYZE 的上限 {} 行", rows, maxEstimatedRows));
+		}
+	}
+
+	/**
+	 * 预估执行的行数：同一个 id 内的表按嵌套循环关联，rows 相乘；不同 id 的查询块相加，溢出时取 Long.MAX_VALUE
+	 * @param results 普通 EXPLAIN 的执行计划
+	 * @return long
+	 */
+	static long estimatedRows(List<SqlAnalysisResult> results) {
+		Map<Long, Long> perSelect = new LinkedHashMap<>();
+		for (SqlAnalysisResult result : results) {
+			if (StrUtil.isNumeric(result.getRows())) {
+				long rows = Math.max(1L, Long.parseLong(result.getRows()));
+				perSelect.merge(result.getId() == null ? 0L : result.getId(), rows, ExplainAnalyzeService::multiply);
+			}
+		}
+		long total = 0;
+		for (long rows : perSelect.values()) {
+			total = total > Long.MAX_VALUE - rows ? Long.MAX_VALUE : total + rows;
+		}
+		return total;
+	}
+
+	private static long multiply(long left, long right) {
+		try {
+			return Math.multiplyExact(left, right);
+		}
+		catch (ArithmeticException e) {
+			return Long.MAX_VALUE;
+		}
+	}
+
+	private long querySessionTimeout(Statement stmt) throws SQLException {
+		try (ResultSet rs = stmt.executeQuery("SELECT @@SESSION.MAX_EXECUTION_TIME")) {
+			return rs.next() ? rs.getLong(1) : 0L;
+		}
+	}
+
+	private boolean atLeast(String version, int major, int minor, int patch) {
+		Matcher matcher = VERSION.matcher(StrUtil.nullToEmpty(version));
+		if (!matcher.find()) {
+			return false;
+		}
+		int[] actual = { Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)),
+				Integer.parseInt(matcher.group(3)) };
+		int[] expected = { major, minor, patch };
+		for (int i = 0; i < actual.length; i++) {
+			if (actual[i] != expected[i]) {
+				return actual[i] > expected[i];
+			}
+		}
+		return true;
+	}
+
+}
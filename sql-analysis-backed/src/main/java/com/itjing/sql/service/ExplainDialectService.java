@@ -0,0 +1,94 @@
+package com.itjing.sql.service;
+
+import cn.hutool.core.util.StrUtil;
+import com.itjing.sql.constant.HttpStatus;
+import com.itjing.sql.exception.BusinessException;
+import com.itjing.sql.explain.dialect.ExplainDialect;
+import com.itjing.sql.explain.dialect.H2ExplainDialect;
+import com.itjing.sql.explain.dialect.MariaDbExplainDialect;
+import com.itjing.sql.explain.dialect.MySqlExplainDialect;
+import com.itjing.sql.explain.dialect.PostgreSqlExplainDialect;
+import com.itjing.sql.service.DataSourceRegistryService.TargetDataSource;
+import com.itjing.sql.service.SqlAnalysisCacheService.ConnectionSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 执行计划方言服务
+ * <p>
+ * 按 {@link DatabaseMetaData#getDatabaseProductName()} 和版本号选择方言，结果保存在目标数据源上，
+ * 只在第一次分析时读取数据库元数据；MyBatis 拦截器的数据源按实例缓存。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class ExplainDialectService {
+
+	private final List<ExplainDialect> dialects = List.of(new MySqlExplainDialect(), new MariaDbExplainDialect(),
+			new PostgreSqlExplainDialect(), new H2ExplainDialect());
+
+	private final Map<DataSource, ExplainDialect> dataSourceDialects = Collections.synchronizedMap(new WeakHashMap<>());
+
+	/**
+	 * 目标数据源的方言
+	 * @param target 目标数据源
+	 * @param connection 连接，只在方言未确定时获取
+	 * @return {@link ExplainDialect }
+	 * @throws SQLException sql异常
+	 */
+	public ExplainDialect resolve(TargetDataSource target, ConnectionSupplier connection) throws SQLException {
+		ExplainDialect dialect = target.getDialect();
+		if (dialect == null) {
+			dialect = resolve(connection.get());
+			target.setDialect(dialect);
+			log.info("目标数据源：{}，执行计划方言：{}", target.getName(), dialect.getName());
+		}
+		return dialect;
+	}
+
+	/**
+	 * 数据源的方言
+	 * @param dataSource 数据源
+	 * @param conn 从该数据源获取的连接
+	 * @return {@link ExplainDialect }
+	 * @throws SQLException sql异常
+	 */
+	public ExplainDialect resolve(DataSource dataSource, Connection conn) throws SQLException {
+		ExplainDialect dialect = dataSourceDialects.get(dataSource);
+		if (dialect == null) {
+			dialect = resolve(conn);
+			dataSourceDialects.put(dataSource, dialect);
+		}
+		return dialect;
+	}
+
+	/**
+	 * 按连接的数据库产品选择方言
+	 * @param conn 连接
+	 * @return {@link ExplainDialect }
+	 * @throws SQLException sql异常
+	 */
+	public ExplainDialect resolve(Connection conn) throws SQLException {
+		DatabaseMetaData metaData = conn.getMetaData();
+		String product = metaData.getDatabaseProductName();
+		String version = metaData.getDatabaseProductVersion();
+		for (ExplainDialect dialect : dialects) {
+			if (dialect.supports(product, version)) {
+				return dialect;
+			}
+		}
+		throw new BusinessException(HttpStatus.BAD_REQUEST, StrUtil.format("不支持的数据库：{} {}", product, version));
+	}
+
+}
@@ -0,0 +1,116 @@
+package com.itjing.sql.service;
+
+import cn.hutool.core.util.StrUtil;
+import com.itjing.sql.advisor.IndexAdvisor;
+import com.itjing.sql.advisor.IndexRecommendation;
+import com.itjing.sql.catalog.TableMeta;
+import com.itjing.sql.catalog.TableName;
+import com.itjing.sql.constant.AnalysisPhase;
+import com.itjing.sql.service.DataSourceRegistryService.TargetDataSource;
+import com.jd.sql.analysis.analysis.SqlAnalysisResult;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.util.TablesNamesFinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 索引建议服务
+ * <p>
+ * 执行计划中没有需要建议的表时直接返回，不解析 SQL；需要时从 {@link SchemaCatalogService} 取表结构和索引统计，
+ * 目录中已有的表不再校验版本号（分析结果缓存和后台校验已经负责），目录预热后生成建议不访问目标库。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class IndexAdvisorService {
+
+	@Resource
+	private SchemaCatalogService schemaCatalogService;
+
+	@Resource
+	private SqlAnalysisMetrics sqlAnalysisMetrics;
+
+	/**
+	 * 是否生成索引建议
+	 */
+	@Value("${sql.analysis.advisor.enabled:true}")
+	private boolean enabled;
+
+	/**
+	 * 预估扫描行数不少于该值的表才建议
+	 */
+	@Value("${sql.analysis.advisor.min-rows:1000}")
+	private long minRows;
+
+	/**
+	 * 建议索引最多的列数
+	 */
+	@Value("${sql.analysis.advisor.max-columns:4}")
+	private int maxColumns;
+
+	/**
+	 * 每条 SQL 最多的建议数
+	 */
+	@Value("${sql.analysis.advisor.max-recommendations:3}")
+	private int maxRecommendations;
+
+	private IndexAdvisor advisor;
+
+	@PostConstruct
+	public void init() {
+		advisor = new IndexAdvisor(minRows, maxColumns, maxRecommendations);
+	}
+
+	/**
+	 * 生成索引建议，失败时只记录日志，不影响分析结果
+	 * @param target 目标数据源
+	 * @param conn 连接，表结构目录需要加载时使用
+	 * @param sql SQL
+	 * @param plan 执行计划
+	 * @return {@link List }<{@link IndexRecommendation }> 没有建议时返回 null
+	 */
+	public List<IndexRecommendation> advise(TargetDataSource target, Connection conn, String sql,
+			List<SqlAnalysisResult> plan) {
+		if (!enabled || plan == null || !advisor.needsAdvice(plan)) {
+			return null;
+		}
+		long start = System.nanoTime();
+		try {
+			Statement statement = CCJSqlParserUtil.parse(sql);
+			List<String> names = new ArrayList<>();
+			for (String table : new TablesNamesFinder().getTableList(statement)) {
+				names.add(StrUtil.removeAll(table, '`', '"'));
+			}
+			List<TableMeta> metas = schemaCatalogService.getTables(target, () -> conn, names, Long.MAX_VALUE);
+			Map<String, TableMeta> tables = new HashMap<>(metas.size() * 2);
+			metas.forEach(meta -> tables.put(new TableName(meta.getSchema(), meta.getName()).getKey(), meta));
+			List<IndexRecommendation> advice = advisor.advise(statement,
+					schemaCatalogService.getDefaultSchema(target), plan, tables);
+			sqlAnalysisMetrics.record(AnalysisPhase.ADVISE, target.getName(), start);
+			return advice.isEmpty() ? null : advice;
+		}
+		catch (JSQLParserException e) {
+			log.debug("解析sql失败，跳过索引建议，{}", e.getMessage());
+			return null;
+		}
+		catch (SQLException e) {
+			log.warn("加载表结构失败，跳过索引建议，{}", e.getMessage());
+			return null;
+		}
+	}
+
+}
@@ -1,17 +1,17 @@
 package com.itjing.sql.service;
 
-import cn.hutool.core.util.StrUtil;
 import com.jd.sql.analysis.score.SqlScoreResult;
 import com.jd.sql.analysis.score.SqlScoreResultDetail;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.Consumer;
 
 /**
  * SQL 分数结果输出服务默认服务
+ * <p>
+ * 把评分结果渲染为文本报告。接口默认只返回结构化的评分结果，请求指定 textReport 时才调用这里生成文本。
  *
  * @author lijing
  * @date 2025-04-16
@@ -20,38 +20,48 @@ import java.util.function.Consumer;
 @Service
 public class JdMySqlScoreResultOutService {
 
+	private static final String HEADER = "======================================自定义分析结果===================================\n\n";
+
+	private static final String FOOTER = "\n========================================结束=====================================\n";
+
 	public String outResult(SqlScoreResult sqlScoreResult) {
-		StringBuilder result = new StringBuilder();
-		result.append("======================================自定义分析结果===================================\n\n");
-		AtomicInteger atomicInteger = new AtomicInteger(1);
 		if (Objects.isNull(sqlScoreResult)) {
 			throw new RuntimeException("分析失败，sqlScoreResult is null");
 		}
-		Consumer<SqlScoreResultDetail> printConsumer = item -> {
-			result.append(
-					StrUtil.format("\n=============({})命中规则===================\n", atomicInteger.getAndIncrement()));
-			result.append(StrUtil.format("规则命中原因：{}\n", item.getReason()));
-			result.append(StrUtil.format("规则命中，修改建议：{}\n", item.getSuggestion()));
-			result.append(StrUtil.format("规则命中，{}{} 分\n", item.getScoreDeduction() < 0 ? "加上分数：+" : "减去分数 ",
-					-item.getScoreDeduction()));
-		};
+		StringBuilder result = new StringBuilder(512);
+		result.append(HEADER);
 		if (Objects.nonNull(sqlScoreResult.getNeedWarn())) {
-			result.append(StrUtil.format("分析中的 SQL 语句 ID：{}\n", sqlScoreResult.getSqlId()));
+			result.append("分析中的 SQL 语句 ID：").append(sqlScoreResult.getSqlId()).append('\n');
 			if (Boolean.TRUE.equals(sqlScoreResult.getNeedWarn())) {
-				result.append(StrUtil.format("SQL分析结果的分数为:{}，低于预期值请判断是否修改\n", sqlScoreResult.getScore()));
-				if (sqlScoreResult.getAnalysisResults() != null) {
-					sqlScoreResult.getAnalysisResults().forEach(printConsumer);
-				}
+				result.append("SQL分析结果的分数为:").append(sqlScoreResult.getScore()).append("，低于预期值请判断是否修改\n");
+				appendDetails(result, sqlScoreResult.getAnalysisResults());
 			}
 			else {
-				result.append(StrUtil.format("SQL分析结果的分数为:{}，分析正常\n", sqlScoreResult.getScore()));
-				result.append(StrUtil.format("=====给出的修改建议如下=====\n"));
-				sqlScoreResult.getAnalysisResults().forEach(printConsumer);
+				result.append("SQL分析结果的分数为:").append(sqlScoreResult.getScore()).append("，分析正常\n");
+				result.append("=====给出的修改建议如下=====\n");
+				appendDetails(result, sqlScoreResult.getAnalysisResults());
 				result.append("=========================\n");
 			}
 		}
-		result.append("\n========================================结束=====================================\n");
+		result.append(FOOTER);
 		return result.toString();
 	}
 
-}
\ No newline at end of file
+	/**
+	 * 依次输出命中的规则，直接追加到同一个 StringBuilder，不生成中间字符串
+	 */
+	private static void appendDetails(StringBuilder result, List<SqlScoreResultDetail> details) {
+		if (details == null) {
+			return;
+		}
+		int index = 1;
+		for (SqlScoreResultDetail item : details) {
+			int deduction = item.getScoreDeduction();
+			result.append("\n=============(").append(index++).append(")命中规则===================\n");
+			result.append("规则命中原因：").append(item.getReason()).append('\n');
+			result.append("规则命中，修改建议：").append(item.getSuggestion()).append('\n');
+			result.append("规则命中，").append(deduction < 0 ? "加上分数：+" : "减去分数 ").append(-deduction).append(" 分\n");
+		}
+	}
+
+}
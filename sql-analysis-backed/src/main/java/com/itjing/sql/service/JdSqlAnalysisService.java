@@ -0,0 +1,584 @@
+package com.itjing.sql.service;
+
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson2.JSONObject;
+import com.itjing.sql.advisor.IndexRecommendation;
+import com.itjing.sql.constant.AnalysisPhase;
+import com.itjing.sql.constant.ExplainMode;
+import com.itjing.sql.constant.HttpStatus;
+import com.itjing.sql.domain.jd.vo.SqlAnalysisResultVO;
+import com.itjing.sql.domain.jd.vo.SqlBatchAnalysisVO;
+import com.itjing.sql.domain.jd.vo.SqlFingerprintVO;
+import com.itjing.sql.domain.jd.vo.SqlScoreVO;
+import com.itjing.sql.domain.jd.vo.SqlStatementAnalysisVO;
+import com.itjing.sql.exception.AnalysisAbortedException;
+import com.itjing.sql.exception.BusinessException;
+import com.itjing.sql.explain.AnalyzePlan;
+import com.itjing.sql.explain.ExplainPlan;
+import com.itjing.sql.explain.JsonExplainParser;
+import com.itjing.sql.explain.dialect.ExplainDialect;
+import com.itjing.sql.explain.dialect.MySqlExplainDialect;
+import com.itjing.sql.service.AnalysisTaskRegistry.AnalysisTask;
+import com.itjing.sql.service.DataSourceRegistryService.TargetDataSource;
+import com.itjing.sql.service.SqlAnalysisCacheService.CacheEntry;
+import com.itjing.sql.service.SqlAnalysisCacheService.ScoreSnapshot;
+import com.itjing.sql.service.SqlScoreRuleService.RuleEngine;
+import com.itjing.sql.util.SqlFingerprintUtils;
+import com.jd.sql.analysis.analysis.SqlAnalysisResultList;
+import com.jd.sql.analysis.score.SqlScoreResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * 京东sql-analysis Sql分析服务
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class JdSqlAnalysisService {
+
+	/**
+	 * 连接网络超时比任务剩余时间多留的时间（毫秒），正常情况下由查询超时先生效
+	 */
+	private static final long NETWORK_TIMEOUT_MARGIN = 5000L;
+
+	private static final ExplainDialect MYSQL_DIALECT = new MySqlExplainDialect();
+
+	@Resource
+	private JdMySqlScoreResultOutService jdMySqlScoreResultOutService;
+
+	@Resource
+	private SqlAnalysisCacheService sqlAnalysisCacheService;
+
+	@Resource
+	private SqlScoreRuleService sqlScoreRuleService;
+
+	@Resource
+	private ExplainAnalyzeService explainAnalyzeService;
+
+	@Resource
+	private IndexAdvisorService indexAdvisorService;
+
+	@Resource
+	private ExplainDialectService explainDialectService;
+
+	@Resource
+	private AnalysisTaskRegistry analysisTaskRegistry;
+
+	@Resource
+	private SqlAnalysisMetrics sqlAnalysisMetrics;
+
+	@Resource
+	@Qualifier("sqlAnalysisExecutor")
+	private ThreadPoolTaskExecutor sqlAnalysisExecutor;
+
+	/**
+	 * 批量分析单次最多的 SQL 条数
+	 */
+	@Value("${sql.analysis.batch.max-statements:5000}")
+	private int maxStatements;
+
+	/**
+	 * 等待目标数据源并发许可的超时时间（毫秒）
+	 */
+	@Value("${sql.analysis.batch.acquire-timeout:30000}")
+	private long acquireTimeout;
+
+	/**
+	 * 分析单条SQL：执行 EXPLAIN、按规则评分并生成索引建议，结果按目标数据源、执行计划模式和 SQL 缓存
+	 * <p>
+	 * EXPLAIN 的语法和结果集按目标库的方言处理；不能加载表结构目录的数据库（PostgreSQL、H2）不缓存、不生成索引建议。
+	 * <p>
+	 * 等待并发许可、获取连接、执行语句和评分前都会检查任务的截止时间，任务被取消时执行中的语句随之取消。
+	 * @param target 目标数据源
+	 * @param sql SQL
+	 * @param explainMode 执行计划模式
+	 * @param textReport 是否生成评分结果的文本报告
+	 * @param task 分析任务
+	 * @return {@link SqlAnalysisResultVO }
+	 * @throws SQLException sql异常
+	 */
+	public SqlAnalysisResultVO analyze(TargetDataSource target, String sql, ExplainMode explainMode,
+			boolean textReport, AnalysisTask task) throws SQLException {
+		Throwable error = null;
+		try {
+			if (!tryAcquirePermit(target, task)) {
+				task.checkAlive();
+				throw new AnalysisAbortedException(true, "目标数据源繁忙，等待并发许可超时：" + target.getName());
+			}
+			try (LazyConnection conn = new LazyConnection(target, task, sqlAnalysisMetrics)) {
+				return analyze(target, conn, sql, explainMode, textReport, task);
+			}
+			finally {
+				target.getPermits().release();
+			}
+		}
+		catch (SQLException | RuntimeException e) {
+			error = e;
+			throw e;
+		}
+		finally {
+			analysisTaskRegistry.finish(task, error);
+		}
+	}
+
+	private SqlAnalysisResultVO analyze(TargetDataSource target, LazyConnection conn, String sql,
+			ExplainMode explainMode, boolean textReport, AnalysisTask task) throws SQLException {
+		String digest = SqlFingerprintUtils.digestHex(sql);
+		String targetName = target.getName();
+		RuleEngine ruleEngine = sqlScoreRuleService.current();
+		ExplainDialect dialect = explainDialectService.resolve(target, conn::get);
+		if (!dialect.supports(explainMode)) {
+			throw new BusinessException(HttpStatus.BAD_REQUEST,
+					StrUtil.format("{} 不支持执行计划模式：{}", dialect.getName(), explainMode));
+		}
+		if (explainMode == ExplainMode.ANALYZE) {
+			// 实际执行的耗时每次都不同，不走缓存
+			return analyzeExecution(conn.get(), target, dialect, sql, digest, ruleEngine, textReport, task);
+		}
+		// 缓存按表结构版本号失效，索引建议依赖表结构和索引统计
+		boolean catalog = dialect.supportsSchemaCatalog();
+		String cacheKey = sqlAnalysisCacheService.buildKey(target.getKey(), explainMode, sql, digest);
+		CacheEntry cached = catalog ? sqlAnalysisCacheService.get(cacheKey, target, conn::get) : null;
+		if (cached != null) {
+			// 只读取一次评分快照，并发的重新评分不会让评分和规则版本号来自不同的规则
+			ScoreSnapshot snapshot = cached.getScore();
+			if (!ruleEngine.getVersion().equals(snapshot.ruleVersion())) {
+				// 规则已更新，复用执行计划重新评分
+				snapshot = cached.rescore(score(ruleEngine, cached.getResultList(), targetName),
+						ruleEngine.getVersion());
+			}
+			return buildResult(task, targetName, digest, explainMode, cached.getResultList(), cached.getPlan(), null,
+					snapshot.scoreResult(), snapshot.score(), snapshot.ruleVersion(), cached.getIndexAdvice(),
+					textReport, true);
+		}
+		Connection connection = conn.get();
+		SqlAnalysisResultList resultList;
+		ExplainPlan plan = null;
+		if (explainMode == ExplainMode.JSON) {
+			plan = execute(connection, task, stmt -> explainJson(stmt, sql, targetName));
+			resultList = JsonExplainParser.toResultList(plan);
+		}
+		else {
+			resultList = execute(connection, task, stmt -> explainTraditional(stmt, dialect, sql, targetName));
+		}
+		if (log.isDebugEnabled()) {
+			log.debug(JSONObject.toJSONString(resultList.getResultList()));
+		}
+		task.checkAlive();
+		// 使用共享的规则引擎评分
+		SqlScoreResult score = score(ruleEngine, resultList, targetName);
+		SqlScoreVO scoreVO = SqlScoreVO.of(score);
+		List<IndexRecommendation> indexAdvice = catalog
+				? indexAdvisorService.advise(target, connection, sql, resultList.getResultList()) : null;
+		SqlAnalysisResultVO result = buildResult(task, targetName, digest, explainMode, resultList, plan, null, score,
+				scoreVO, ruleEngine.getVersion(), indexAdvice, textReport, false);
+		if (catalog) {
+			sqlAnalysisCacheService.put(cacheKey, target, sql, resultList, plan, score, scoreVO,
+					ruleEngine.getVersion(), indexAdvice, connection);
+		}
+		return result;
+	}
+
+	/**
+	 * 实际执行分析：先用普通 EXPLAIN 评分并检查预估执行行数，再在只读事务中执行 EXPLAIN ANALYZE
+	 */
+	private SqlAnalysisResultVO analyzeExecution(Connection connection, TargetDataSource target,
+			ExplainDialect dialect, String sql, String digest, RuleEngine ruleEngine, boolean textReport,
+			AnalysisTask task) throws SQLException {
+		String targetName = target.getName();
+		SqlAnalysisResultList resultList = execute(connection, task,
+				stmt -> explainTraditional(stmt, dialect, sql, targetName));
+		AnalyzePlan analyzePlan = explainAnalyzeService.analyze(connection, sql, resultList, task);
+		task.checkAlive();
+		SqlScoreResult score = score(ruleEngine, resultList, targetName);
+		return buildResult(task, targetName, digest, ExplainMode.ANALYZE, resultList, null, analyzePlan, score,
+				SqlScoreVO.of(score), ruleEngine.getVersion(),
+				indexAdvisorService.advise(target, connection, sql, resultList.getResultList()), textReport, false);
+	}
+
+	/**
+	 * 评分并记录耗时
+	 */
+	private SqlScoreResult score(RuleEngine ruleEngine, SqlAnalysisResultList resultList, String targetName) {
+		long start = System.nanoTime();
+		SqlScoreResult score = ruleEngine.score(resultList);
+		sqlAnalysisMetrics.record(AnalysisPhase.SCORE, targetName, start);
+		return score;
+	}
+
+	/**
+	 * 在任务中执行语句：按任务剩余时间设置查询超时，执行期间登记语句以便取消
+	 * @param connection 连接
+	 * @param task 分析任务
+	 * @param callback 使用语句的逻辑
+	 * @return 回调的返回值
+	 * @throws SQLException sql异常
+	 */
+	private <T> T execute(Connection connection, AnalysisTask task, StatementCallback<T> callback)
+			throws SQLException {
+		try (Statement stmt = connection.createStatement()) {
+			task.register(stmt);
+			try {
+				return callback.doInStatement(stmt);
+			}
+			catch (SQLException e) {
+				task.checkAborted(e);
+				throw e;
+			}
+			finally {
+				task.unregister(stmt);
+			}
+		}
+	}
+
+	/**
+	 * 在任务剩余时间内等待目标数据源的并发许可，最多等待 acquire-timeout
+	 * @param target 目标数据源
+	 * @param task 分析任务
+	 * @return boolean 是否获取到许可
+	 */
+	private boolean tryAcquirePermit(TargetDataSource target, AnalysisTask task) {
+		task.checkAlive();
+		long start = System.nanoTime();
+		try {
+			boolean acquired = target.getPermits()
+				.tryAcquire(Math.min(acquireTimeout, task.remainingMillis()), TimeUnit.MILLISECONDS);
+			sqlAnalysisMetrics.record(AnalysisPhase.PERMIT, target.getName(), start);
+			return acquired;
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new AnalysisAbortedException(false, "等待并发许可被中断：" + target.getName());
+		}
+	}
+
+	/**
+	 * 按方言执行普通 EXPLAIN
+	 * @param stmt statement
+	 * @param dialect 执行计划方言
+	 * @param sql SQL
+	 * @param targetName 目标数据源名称
+	 * @return {@link SqlAnalysisResultList }
+	 * @throws SQLException sql异常
+	 */
+	private SqlAnalysisResultList explainTraditional(Statement stmt, ExplainDialect dialect, String sql,
+			String targetName) throws SQLException {
+		long start = System.nanoTime();
+		try (ResultSet explainResult = stmt.executeQuery(dialect.explainSql(sql))) {
+			sqlAnalysisMetrics.record(AnalysisPhase.EXPLAIN, targetName, start);
+			// 解析为结构化数据
+			start = System.nanoTime();
+			SqlAnalysisResultList resultList = dialect.parse(explainResult);
+			sqlAnalysisMetrics.record(AnalysisPhase.PARSE, targetName, start);
+			return resultList;
+		}
+	}
+
+	/**
+	 * 执行 EXPLAIN FORMAT=JSON 并解析为执行计划树
+	 * @param stmt statement
+	 * @param sql SQL
+	 * @param targetName 目标数据源名称
+	 * @return {@link ExplainPlan }
+	 * @throws SQLException sql异常
+	 */
+	private ExplainPlan explainJson(Statement stmt, String sql, String targetName) throws SQLException {
+		long start = System.nanoTime();
+		try (ResultSet rs = stmt.executeQuery("EXPLAIN FORMAT=JSON " + sql)) {
+			sqlAnalysisMetrics.record(AnalysisPhase.EXPLAIN, targetName, start);
+			if (!rs.next()) {
+				throw new SQLException("EXPLAIN FORMAT=JSON 没有返回结果");
+			}
+			try {
+				start = System.nanoTime();
+				ExplainPlan plan = JsonExplainParser.parse(rs.getString(1));
+				sqlAnalysisMetrics.record(AnalysisPhase.PARSE, targetName, start);
+				return plan;
+			}
+			catch (RuntimeException e) {
+				throw new SQLException("解析 JSON 执行计划失败：" + e.getMessage(), e);
+			}
+		}
+	}
+
+	/**
+	 * 组装分析结果，只有请求指定 textReport 时才把评分结果渲染为文本
+	 */
+	private SqlAnalysisResultVO buildResult(AnalysisTask task, String targetName, String digest,
+			ExplainMode explainMode, SqlAnalysisResultList resultList, ExplainPlan plan, AnalyzePlan analyzePlan,
+			SqlScoreResult score, SqlScoreVO scoreVO, String ruleVersion, List<IndexRecommendation> indexAdvice,
+			boolean textReport, boolean cacheHit) {
+		String scoreResult = null;
+		if (textReport) {
+			long start = System.nanoTime();
+			scoreResult = jdMySqlScoreResultOutService.outResult(score);
+			sqlAnalysisMetrics.record(AnalysisPhase.FORMAT, targetName, start);
+		}
+		return new SqlAnalysisResultVO(task.getId(), digest, explainMode, resultList.getResultList(),
+				plan == null ? null : plan.getQueryCost(), plan == null ? null : plan.getRoot(), analyzePlan, scoreVO,
+				scoreResult, ruleVersion, indexAdvice, cacheHit);
+	}
+
+	/**
+	 * 计算 SQL 指纹
+	 * @param sqlList SQL 列表
+	 * @return {@link List }<{@link SqlFingerprintVO }>
+	 */
+	public List<SqlFingerprintVO> fingerprint(List<String> sqlList) {
+		if (sqlList.size() > maxStatements) {
+			throw new BusinessException(HttpStatus.BAD_REQUEST, StrUtil.format("单次最多计算{}条sql", maxStatements));
+		}
+		List<SqlFingerprintVO> result = new ArrayList<>(sqlList.size());
+		for (String sql : sqlList) {
+			String fingerprint = SqlFingerprintUtils.fingerprint(sql);
+			result.add(new SqlFingerprintVO(sql, fingerprint, SqlFingerprintUtils.digestHex(sql)));
+		}
+		return result;
+	}
+
+	/**
+	 * 批量分析SQL
+	 * <p>
+	 * 按目标数据源的并发上限启动若干个工作线程，每个工作线程持有一个连接，依次领取并分析剩余的 SQL，
+	 * 总耗时随目标库的并发能力缩短，而不是随 SQL 条数线性增长。整个批次是一个分析任务，超时或取消后
+	 * 剩余的 SQL 不再执行，直接记为失败。
+	 * @param target 目标数据源
+	 * @param sqlList SQL 列表
+	 * @param explainMode 执行计划模式
+	 * @param textReport 是否生成评分结果的文本报告
+	 * @param task 分析任务
+	 * @return {@link SqlBatchAnalysisVO }
+	 */
+	public SqlBatchAnalysisVO analyzeBatch(TargetDataSource target, List<String> sqlList, ExplainMode explainMode,
+			boolean textReport, AnalysisTask task) {
+		return analyzeBatch(target, sqlList, explainMode, textReport, task, null);
+	}
+
+	/**
+	 * 批量分析SQL，每条 SQL 分析完成后立即回调
+	 * @param target 目标数据源
+	 * @param sqlList SQL 列表
+	 * @param explainMode 执行计划模式
+	 * @param textReport 是否生成评分结果的文本报告
+	 * @param task 分析任务
+	 * @param listener 单条 SQL 的分析结果回调，在工作线程中调用，可以为 null
+	 * @return {@link SqlBatchAnalysisVO }
+	 */
+	public SqlBatchAnalysisVO analyzeBatch(TargetDataSource target, List<String> sqlList, ExplainMode explainMode,
+			boolean textReport, AnalysisTask task, Consumer<SqlStatementAnalysisVO> listener) {
+		Throwable error = null;
+		try {
+			checkBatch(sqlList, explainMode);
+			return doAnalyzeBatch(target, sqlList, explainMode, textReport, task, listener);
+		}
+		catch (RuntimeException e) {
+			error = e;
+			throw e;
+		}
+		finally {
+			analysisTaskRegistry.finish(task, error);
+		}
+	}
+
+	/**
+	 * 检查批量分析请求：SQL 条数不超过上限，不支持 ANALYZE 模式
+	 * @param sqlList SQL 列表
+	 * @param explainMode 执行计划模式
+	 */
+	public void checkBatch(List<String> sqlList, ExplainMode explainMode) {
+		if (sqlList.size() > maxStatements) {
+			throw new BusinessException(HttpStatus.BAD_REQUEST, StrUtil.format("单次最多分析{}条sql", maxStatements));
+		}
+		if (explainMode == ExplainMode.ANALYZE) {
+			throw new BusinessException(HttpStatus.BAD_REQUEST, "批量分析不支持 EXPLAIN ANALYZE，请逐条分析");
+		}
+	}
+
+	private SqlBatchAnalysisVO doAnalyzeBatch(TargetDataSource target, List<String> sqlList, ExplainMode explainMode,
+			boolean textReport, AnalysisTask task, Consumer<SqlStatementAnalysisVO> listener) {
+		long start = System.currentTimeMillis();
+		AtomicReferenceArray<SqlStatementAnalysisVO> results = new AtomicReferenceArray<>(sqlList.size());
+		AtomicInteger cursor = new AtomicInteger();
+
+		int workers = Math.min(target.getMaxConcurrency(), sqlList.size());
+		List<CompletableFuture<Void>> futures = new ArrayList<>(workers);
+		for (int i = 0; i < workers; i++) {
+			futures.add(CompletableFuture.runAsync(
+					() -> runWorker(target, sqlList, explainMode, textReport, task, cursor, results, listener),
+					sqlAnalysisExecutor));
+		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+		List<SqlStatementAnalysisVO> resultList = new ArrayList<>(sqlList.size());
+		int successCount = 0;
+		for (int i = 0; i < sqlList.size(); i++) {
+			SqlStatementAnalysisVO item = results.get(i);
+			if (item == null) {
+				// 所有工作线程都没拿到并发许可时，剩余的 SQL 记为失败
+				item = SqlStatementAnalysisVO.failure(i, sqlList.get(i), unfinishedReason(task));
+				complete(results, item, listener);
+			}
+			if (item.isSuccess()) {
+				successCount++;
+			}
+			resultList.add(item);
+		}
+		long cost = System.currentTimeMillis() - start;
+		log.info("批量分析完成，目标：{}，总数：{}，成功：{}，耗时：{}ms", target.getName(), sqlList.size(), successCount, cost);
+		return new SqlBatchAnalysisVO(task.getId(), sqlList.size(), successCount, sqlList.size() - successCount, cost,
+				resultList);
+	}
+
+	/**
+	 * 工作线程：获取并发许可和连接后，循环领取 SQL 进行分析
+	 */
+	private void runWorker(TargetDataSource target, List<String> sqlList, ExplainMode explainMode,
+			boolean textReport, AnalysisTask task, AtomicInteger cursor,
+			AtomicReferenceArray<SqlStatementAnalysisVO> results, Consumer<SqlStatementAnalysisVO> listener) {
+		try {
+			if (!tryAcquirePermit(target, task)) {
+				log.warn("等待目标数据源并发许可超时：{}", target.getName());
+				return;
+			}
+		}
+		catch (AnalysisAbortedException e) {
+			return;
+		}
+		try (LazyConnection conn = new LazyConnection(target, task, sqlAnalysisMetrics)) {
+			int index;
+			while ((index = cursor.getAndIncrement()) < sqlList.size()) {
+				String sql = sqlList.get(index);
+				if (StrUtil.isBlank(sql)) {
+					complete(results, SqlStatementAnalysisVO.failure(index, sql, "sql不能为空"), listener);
+					continue;
+				}
+				try {
+					task.checkAlive();
+					complete(results,
+							SqlStatementAnalysisVO.success(index, sql,
+									analyze(target, conn, sql, explainMode, textReport, task)),
+							listener);
+				}
+				catch (Exception e) {
+					log.warn("分析sql失败，下标：{}，{}", index, e.getMessage());
+					complete(results, SqlStatementAnalysisVO.failure(index, sql, e.getMessage()), listener);
+				}
+			}
+		}
+		finally {
+			target.getPermits().release();
+		}
+	}
+
+	private void complete(AtomicReferenceArray<SqlStatementAnalysisVO> results, SqlStatementAnalysisVO item,
+			Consumer<SqlStatementAnalysisVO> listener) {
+		results.set(item.getIndex(), item);
+		if (listener == null) {
+			return;
+		}
+		try {
+			listener.accept(item);
+		}
+		catch (RuntimeException e) {
+			log.warn("分析结果回调失败，下标：{}，{}", item.getIndex(), e.getMessage());
+		}
+	}
+
+	private String unfinishedReason(AnalysisTask task) {
+		if (task.isCancelled()) {
+			return "分析已取消：" + task.getId();
+		}
+		if (task.isTimedOut() || task.remainingMillis() == 0) {
+			return "分析超时：" + task.getId();
+		}
+		return "目标数据源繁忙，等待并发许可超时";
+	}
+
+	/**
+	 * 解析 MySQL 的 explain 结果，其他数据库按 {@link ExplainDialectService} 选择的方言解析
+	 * @param rs explain 结果
+	 * @return {@link SqlAnalysisResultList }
+	 * @throws SQLException sql异常
+	 */
+	public SqlAnalysisResultList parseExplainResult(ResultSet rs) throws SQLException {
+		return MYSQL_DIALECT.parse(rs);
+	}
+
+	/**
+	 * 语句回调
+	 */
+	@FunctionalInterface
+	private interface StatementCallback<T> {
+
+		T doInStatement(Statement stmt) throws SQLException;
+
+	}
+
+	/**
+	 * 延迟获取的连接：缓存命中时不占用连接，第一次使用时才从连接池获取
+	 */
+	static class LazyConnection implements AutoCloseable {
+
+		private final TargetDataSource target;
+
+		private final AnalysisTask task;
+
+		private final SqlAnalysisMetrics metrics;
+
+		private Connection connection;
+
+		LazyConnection(TargetDataSource target, AnalysisTask task, SqlAnalysisMetrics metrics) {
+			this.target = target;
+			this.task = task;
+			this.metrics = metrics;
+		}
+
+		Connection get() throws SQLException {
+			if (connection == null || connection.isClosed()) {
+				task.checkAlive();
+				long start = System.nanoTime();
+				connection = target.getDataSource().getConnection();
+				metrics.record(AnalysisPhase.POOL_ACQUIRE, target.getName(), start);
+				// 连接卡住（网络中断、目标库无响应）时查询超时不一定生效，用网络超时兜底，连接归还时连接池会恢复原值
+				connection.setNetworkTimeout(Runnable::run,
+						(int) Math.min(Integer.MAX_VALUE, task.remainingMillis() + NETWORK_TIMEOUT_MARGIN));
+			}
+			return connection;
+		}
+
+		@Override
+		public void close() {
+			if (connection == null) {
+				return;
+			}
+			try {
+				connection.close();
+			}
+			catch (SQLException e) {
+				log.warn("关闭连接失败，{}", e.getMessage());
+			}
+			connection = null;
+		}
+
+	}
+
+}
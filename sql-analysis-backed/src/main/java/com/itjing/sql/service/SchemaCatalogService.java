@@ -0,0 +1,530 @@
+package com.itjing.sql.service;
+
+import com.itjing.sql.catalog.SchemaCatalogLoader;
+import com.itjing.sql.catalog.TableMeta;
+import com.itjing.sql.catalog.TableName;
+import com.itjing.sql.constant.AnalysisPhase;
+import com.itjing.sql.constant.HttpStatus;
+import com.itjing.sql.domain.jd.vo.SchemaCatalogStatsVO;
+import com.itjing.sql.exception.BusinessException;
+import com.itjing.sql.service.DataSourceRegistryService.TargetDataSource;
+import com.itjing.sql.service.SqlAnalysisCacheService.ConnectionSupplier;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 目标数据源的表结构目录
+ * <p>
+ * 按目标数据源缓存表的列、索引和索引基数（information_schema.TABLES、COLUMNS、STATISTICS），第一次用到某张表时才加载，
+ * 同一批没有缓存的表一起加载，只查询一次。每张表记录结构版本号（CREATE_TIME、UPDATE_TIME）：
+ * <ul>
+ * <li>调用方指定的校验间隔内直接使用缓存，不访问目标库</li>
+ * <li>超过校验间隔时只查询一次版本号，版本号变化的表才重新加载</li>
+ * <li>后台定时校验所有缓存的表，间隔小于分析结果缓存的校验间隔时，分析同样的表不再需要查询元数据；
+ * 加载时间超过 stats-ttl 的表即使版本号未变化也重新加载，更新行数和索引基数</li>
+ * </ul>
+ * 访问目标库前先获取目标数据源的并发许可，和分析共用并发上限；后台校验不等待许可，只校验最近有分析的目标。
+ * 目标数据源的连接池关闭后，目录在下一次后台校验时删除。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class SchemaCatalogService {
+
+	@Resource
+	private SqlAnalysisMetrics sqlAnalysisMetrics;
+
+	@Resource
+	@Qualifier("sqlAnalysisBackgroundExecutor")
+	private ThreadPoolTaskExecutor sqlAnalysisBackgroundExecutor;
+
+	/**
+	 * 每个目标数据源最多缓存的表，超过后按 LRU 淘汰
+	 */
+	@Value("${sql.analysis.catalog.max-tables:2000}")
+	private int maxTables;
+
+	/**
+	 * 未指定校验间隔时使用的版本号校验间隔（毫秒）
+	 */
+	@Value("${sql.analysis.catalog.check-interval:10000}")
+	private long checkInterval;
+
+	/**
+	 * 加载时间超过该值（毫秒）的表在后台校验时重新加载，更新行数和索引基数
+	 */
+	@Value("${sql.analysis.catalog.stats-ttl:600000}")
+	private long statsTtl;
+
+	/**
+	 * 元数据查询超时时间（秒）
+	 */
+	@Value("${sql.analysis.catalog.query-timeout:10}")
+	private int queryTimeout;
+
+	/**
+	 * 超过该时间（毫秒）没有使用的目标数据源不做后台校验，连接池中的空闲连接可以按时回收
+	 */
+	@Value("${sql.analysis.catalog.idle-timeout:60000}")
+	private long idleTimeout;
+
+	/**
+	 * 通过接口查询或重新加载时等待目标数据源并发许可的超时时间（毫秒）
+	 */
+	@Value("${sql.analysis.batch.acquire-timeout:30000}")
+	private long acquireTimeout;
+
+	/**
+	 * 目标数据源的目录，键为 {@link TargetDataSource#getKey()}
+	 */
+	private final Map<String, TargetCatalog> catalogs = new ConcurrentHashMap<>();
+
+	/**
+	 * 查询表结构，需要访问目标库时获取目标数据源的并发许可，再从连接池获取一个连接
+	 * @param target 目标数据源
+	 * @param tables 表（库名.表名 或 表名，表名使用连接的默认库）
+	 * @param refresh 是否先校验版本号，否则在 check-interval 内直接使用缓存
+	 * @return {@link List }<{@link TableMeta }> 按请求顺序，包含不存在的表，去掉重复和无法确定库名的表
+	 * @throws SQLException sql异常
+	 */
+	public List<TableMeta> getTables(TargetDataSource target, Collection<String> tables, boolean refresh)
+			throws SQLException {
+		try (OnDemandConnection connection = new OnDemandConnection(target, acquireTimeout)) {
+			return getTables(target, connection, tables, refresh ? 0L : checkInterval);
+		}
+	}
+
+	/**
+	 * 查询表结构
+	 * @param target 目标数据源
+	 * @param connection 连接，只在需要加载或校验时获取
+	 * @param tables 表（库名.表名 或 表名，表名使用连接的默认库）
+	 * @param maxAge 校验间隔（毫秒），上次校验在间隔内的表直接使用缓存；0 表示每次都校验版本号
+	 * @return {@link List }<{@link TableMeta }> 按请求顺序，包含不存在的表，去掉重复和无法确定库名的表
+	 * @throws SQLException sql异常
+	 */
+	public List<TableMeta> getTables(TargetDataSource target, ConnectionSupplier connection, Collection<String> tables,
+			long maxAge) throws SQLException {
+		if (tables.isEmpty()) {
+			return List.of();
+		}
+		TargetCatalog catalog = catalogs.computeIfAbsent(target.getKey(), TargetCatalog::new);
+		catalog.target = target;
+		Connection conn = null;
+		if (catalog.defaultSchema == null && needsDefaultSchema(tables)) {
+			conn = connection.get();
+			catalog.defaultSchema = conn.getCatalog();
+		}
+
+		long now = System.currentTimeMillis();
+		Map<String, TableName> names = new LinkedHashMap<>();
+		Map<String, TableMeta> found = new LinkedHashMap<>();
+		List<TableName> stale = new ArrayList<>();
+		List<TableName> missing = new ArrayList<>();
+		for (String table : tables) {
+			TableName name = TableName.parse(table, catalog.defaultSchema);
+			if (name == null || names.putIfAbsent(name.getKey(), name) != null) {
+				continue;
+			}
+			TableMeta meta = catalog.get(name.getKey());
+			if (meta == null) {
+				missing.add(name);
+			}
+			else if (now - meta.getCheckedAt() >= maxAge) {
+				stale.add(name);
+				found.put(name.getKey(), meta);
+			}
+			else {
+				catalog.hitCount.increment();
+				found.put(name.getKey(), meta);
+			}
+		}
+		if (stale.isEmpty() && missing.isEmpty()) {
+			return new ArrayList<>(found.values());
+		}
+
+		long start = System.nanoTime();
+		if (conn == null) {
+			conn = connection.get();
+		}
+		if (!stale.isEmpty()) {
+			catalog.queryCount.increment();
+			Map<String, String> versions = SchemaCatalogLoader.queryVersions(conn, stale, queryTimeout);
+			for (TableName name : stale) {
+				TableMeta meta = found.get(name.getKey());
+				if (meta.getVersion().equals(versions.getOrDefault(name.getKey(), TableMeta.MISSING_VERSION))) {
+					meta.markChecked(now);
+					catalog.hitCount.increment();
+				}
+				else {
+					catalog.invalidatedCount.increment();
+					missing.add(name);
+				}
+			}
+		}
+		if (!missing.isEmpty()) {
+			found.putAll(load(catalog, conn, missing, now));
+		}
+		sqlAnalysisMetrics.record(AnalysisPhase.METADATA, target.getName(), start);
+		List<TableMeta> result = new ArrayList<>(names.size());
+		for (String key : names.keySet()) {
+			result.add(found.get(key));
+		}
+		return result;
+	}
+
+	/**
+	 * 表结构版本号：按表名排序后拼接每张表的版本号，任意一张表的结构变化（包括新建、删除）都会改变
+	 * @param target 目标数据源
+	 * @param connection 连接，只在需要加载或校验时获取
+	 * @param tables 表
+	 * @param maxAge 校验间隔（毫秒）
+	 * @return {@link String }
+	 * @throws SQLException sql异常
+	 */
+	public String versionToken(TargetDataSource target, ConnectionSupplier connection, Collection<String> tables,
+			long maxAge) throws SQLException {
+		List<TableMeta> metas = new ArrayList<>(getTables(target, connection, tables, maxAge));
+		metas.sort(Comparator.comparing(meta -> meta.getSchema() + '.' + meta.getName()));
+		StringBuilder token = new StringBuilder();
+		for (TableMeta meta : metas) {
+			token.append(meta.getSchema()).append('.').append(meta.getName()).append('=').append(meta.getVersion());
+			token.append(';');
+		}
+		return token.toString();
+	}
+
+	/**
+	 * 目标数据源连接的默认库，加载过没有库名的表之后才有
+	 * @param target 目标数据源
+	 * @return {@link String } 未知时返回 null
+	 */
+	public String getDefaultSchema(TargetDataSource target) {
+		TargetCatalog catalog = catalogs.get(target.getKey());
+		return catalog == null ? null : catalog.defaultSchema;
+	}
+
+	/**
+	 * 立即重新加载目标数据源已缓存的全部表
+	 * @param target 目标数据源
+	 * @return {@link SchemaCatalogStatsVO }
+	 * @throws SQLException sql异常
+	 */
+	public SchemaCatalogStatsVO refresh(TargetDataSource target) throws SQLException {
+		TargetCatalog catalog = catalogs.computeIfAbsent(target.getKey(), TargetCatalog::new);
+		catalog.target = target;
+		refresh(catalog, true);
+		return catalog.toVO();
+	}
+
+	/**
+	 * 删除目标数据源的目录
+	 * @param target 目标数据源
+	 * @return boolean 是否存在
+	 */
+	public boolean clear(TargetDataSource target) {
+		return catalogs.remove(target.getKey()) != null;
+	}
+
+	/**
+	 * 各目标数据源的目录统计
+	 * @return {@link List }<{@link SchemaCatalogStatsVO }>
+	 */
+	public List<SchemaCatalogStatsVO> stats() {
+		List<SchemaCatalogStatsVO> result = new ArrayList<>();
+		catalogs.values().forEach(catalog -> result.add(catalog.toVO()));
+		result.sort(Comparator.comparing(SchemaCatalogStatsVO::getTarget, Comparator.nullsLast(String::compareTo)));
+		return result;
+	}
+
+	/**
+	 * 定时校验全部目录，在后台采集线程池中执行，单个目标失败不影响其它目标；连接池已关闭的目标删除目录
+	 * <p>
+	 * 上一次校验还没有结束、超过 idle-timeout 没有使用的目标本轮跳过，慢目标不会堆积校验任务，空闲目标不再查询。
+	 */
+	@Scheduled(fixedDelayString = "${sql.analysis.catalog.refresh-interval:5000}")
+	public void refreshAll() {
+		for (TargetCatalog catalog : catalogs.values()) {
+			if (catalog.target == null) {
+				continue;
+			}
+			if (catalog.target.getDataSource().isClosed()) {
+				catalogs.remove(catalog.key, catalog);
+				continue;
+			}
+			if (System.currentTimeMillis() - catalog.target.getLastAccessTime() >= idleTimeout) {
+				continue;
+			}
+			if (!catalog.refreshing.compareAndSet(false, true)) {
+				continue;
+			}
+			try {
+				sqlAnalysisBackgroundExecutor.execute(() -> {
+					try {
+						refresh(catalog, false);
+					}
+					catch (SQLException | RuntimeException e) {
+						catalog.lastError = e.getMessage();
+						log.warn("校验表结构目录失败：{}，{}", catalog.target.getName(), e.getMessage());
+					}
+					finally {
+						catalog.refreshing.set(false);
+					}
+				});
+			}
+			catch (RuntimeException e) {
+				catalog.refreshing.set(false);
+				log.warn("提交表结构目录校验失败：{}，{}", catalog.target.getName(), e.getMessage());
+			}
+		}
+	}
+
+	/**
+	 * 校验目录中全部表的版本号，重新加载版本号变化、加载时间超过 stats-ttl 的表
+	 * <p>
+	 * 后台校验不等待并发许可，目标繁忙时本轮跳过；重新加载全部表时最多等待 acquire-timeout。
+	 * @param catalog 目录
+	 * @param force 是否重新加载全部表
+	 * @throws SQLException sql异常
+	 */
+	private void refresh(TargetCatalog catalog, boolean force) throws SQLException {
+		List<TableMeta> snapshot = catalog.snapshot();
+		if (snapshot.isEmpty()) {
+			return;
+		}
+		TargetDataSource target = catalog.target;
+		if (!tryAcquirePermit(target, force ? acquireTimeout : 0L)) {
+			if (force) {
+				throw new BusinessException(HttpStatus.CONFLICT, "目标数据源繁忙，等待并发许可超时：" + target.getName());
+			}
+			log.debug("目标数据源繁忙，跳过本轮表结构目录校验：{}", target.getName());
+			return;
+		}
+		long start = System.currentTimeMillis();
+		List<TableName> names = new ArrayList<>(snapshot.size());
+		snapshot.forEach(meta -> names.add(new TableName(meta.getSchema(), meta.getName())));
+		try (Connection conn = target.getDataSource().getConnection()) {
+			List<TableName> reload = new ArrayList<>();
+			if (force) {
+				reload.addAll(names);
+			}
+			else {
+				catalog.queryCount.increment();
+				Map<String, String> versions = SchemaCatalogLoader.queryVersions(conn, names, queryTimeout);
+				long now = System.currentTimeMillis();
+				for (int i = 0; i < snapshot.size(); i++) {
+					TableMeta meta = snapshot.get(i);
+					String version = versions.getOrDefault(names.get(i).getKey(), TableMeta.MISSING_VERSION);
+					if (!meta.getVersion().equals(version)) {
+						catalog.invalidatedCount.increment();
+						reload.add(names.get(i));
+					}
+					else if (meta.exists() && now - meta.getLoadedAt() >= statsTtl) {
+						reload.add(names.get(i));
+					}
+					else {
+						meta.markChecked(now);
+					}
+				}
+			}
+			if (!reload.isEmpty()) {
+				load(catalog, conn, reload, System.currentTimeMillis());
+			}
+		}
+		finally {
+			target.getPermits().release();
+		}
+		catalog.refreshCount.increment();
+		catalog.lastRefreshTime = start;
+		catalog.lastRefreshMillis = System.currentTimeMillis() - start;
+		catalog.lastError = null;
+	}
+
+	private Map<String, TableMeta> load(TargetCatalog catalog, Connection conn, List<TableName> tables, long now)
+			throws SQLException {
+		catalog.queryCount.increment();
+		Map<String, TableMeta> loaded = SchemaCatalogLoader.load(conn, tables, queryTimeout, now);
+		catalog.loadCount.add(loaded.size());
+		catalog.putAll(loaded, maxTables);
+		log.debug("加载表结构：{}，{}", catalog.target.getName(), loaded.keySet());
+		return loaded;
+	}
+
+	/**
+	 * 等待目标数据源的并发许可，和分析一样按公平顺序获取
+	 * @param target 目标数据源
+	 * @param timeout 最长等待时间（毫秒），0 表示不等待
+	 * @return boolean 是否获取到许可
+	 */
+	private static boolean tryAcquirePermit(TargetDataSource target, long timeout) {
+		try {
+			return target.getPermits().tryAcquire(timeout, TimeUnit.MILLISECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+
+	private boolean needsDefaultSchema(Collection<String> tables) {
+		for (String table : tables) {
+			if (table != null && table.indexOf('.') < 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 第一次使用时才获取并发许可和连接，关闭时归还
+	 */
+	private static class OnDemandConnection implements ConnectionSupplier, AutoCloseable {
+
+		private final TargetDataSource target;
+
+		private final long acquireTimeout;
+
+		private Connection connection;
+
+		private boolean permitted;
+
+		OnDemandConnection(TargetDataSource target, long acquireTimeout) {
+			this.target = target;
+			this.acquireTimeout = acquireTimeout;
+		}
+
+		@Override
+		public Connection get() throws SQLException {
+			if (connection != null) {
+				return connection;
+			}
+			if (!permitted) {
+				if (!tryAcquirePermit(target, acquireTimeout)) {
+					throw new BusinessException(HttpStatus.CONFLICT, "目标数据源繁忙，等待并发许可超时：" + target.getName());
+				}
+				permitted = true;
+			}
+			connection = target.getDataSource().getConnection();
+			return connection;
+		}
+
+		@Override
+		public void close() throws SQLException {
+			try {
+				if (connection != null) {
+					connection.close();
+				}
+			}
+			finally {
+				if (permitted) {
+					target.getPermits().release();
+				}
+			}
+		}
+
+	}
+
+	/**
+	 * 一个目标数据源的目录
+	 */
+	private static class TargetCatalog {
+
+		private final String key;
+
+		/**
+		 * 最近一次使用的目标数据源，连接池重建后指向新的连接池
+		 */
+		private volatile TargetDataSource target;
+
+		/**
+		 * 连接的默认库，用于解析不带库名的表
+		 */
+		private volatile String defaultSchema;
+
+		/**
+		 * 按访问顺序排列，用于 LRU 淘汰（访问需持有 tables 锁）
+		 */
+		private final LinkedHashMap<String, TableMeta> tables = new LinkedHashMap<>(16, 0.75f, true);
+
+		private final LongAdder hitCount = new LongAdder();
+
+		private final LongAdder loadCount = new LongAdder();
+
+		private final LongAdder invalidatedCount = new LongAdder();
+
+		private final LongAdder queryCount = new LongAdder();
+
+		private final LongAdder refreshCount = new LongAdder();
+
+		/**
+		 * 是否有定时校验已提交还没有结束
+		 */
+		private final AtomicBoolean refreshing = new AtomicBoolean();
+
+		private volatile Long lastRefreshTime;
+
+		private volatile long lastRefreshMillis;
+
+		private volatile String lastError;
+
+		TargetCatalog(String key) {
+			this.key = key;
+		}
+
+		TableMeta get(String tableKey) {
+			synchronized (tables) {
+				return tables.get(tableKey);
+			}
+		}
+
+		void putAll(Map<String, TableMeta> loaded, int maxTables) {
+			synchronized (tables) {
+				tables.putAll(loaded);
+				Iterator<TableMeta> iterator = tables.values().iterator();
+				while (tables.size() > maxTables && iterator.hasNext()) {
+					iterator.next();
+					iterator.remove();
+				}
+			}
+		}
+
+		List<TableMeta> snapshot() {
+			synchronized (tables) {
+				return new ArrayList<>(tables.values());
+			}
+		}
+
+		SchemaCatalogStatsVO toVO() {
+			int size;
+			synchronized (tables) {
+				size = tables.size();
+			}
+			return new SchemaCatalogStatsVO(target == null ? null : target.getName(), defaultSchema, size,
+					hitCount.sum(), loadCount.sum(), invalidatedCount.sum(), queryCount.sum(), refreshCount.sum(),
+					lastRefreshTime, lastRefreshMillis, lastError);
+		}
+
+	}
+
+}
@@ -0,0 +1,357 @@
+package com.itjing.sql.service;
+
+import cn.hutool.core.util.StrUtil;
+import com.itjing.sql.constant.ExplainMode;
+import com.itjing.sql.constant.HttpStatus;
+import com.itjing.sql.domain.jd.dto.SlowLogAnalysisDTO;
+import com.itjing.sql.domain.jd.vo.SlowLogAnalysisVO;
+import com.itjing.sql.domain.jd.vo.SlowLogFingerprintVO;
+import com.itjing.sql.domain.jd.vo.SqlBatchAnalysisVO;
+import com.itjing.sql.domain.jd.vo.SqlStatementAnalysisVO;
+import com.itjing.sql.exception.BusinessException;
+import com.itjing.sql.service.AnalysisTaskRegistry.AnalysisTask;
+import com.itjing.sql.service.DataSourceRegistryService.TargetDataSource;
+import com.itjing.sql.slowlog.SlowLogEntry;
+import com.itjing.sql.slowlog.SlowLogParser;
+import com.itjing.sql.util.SqlFingerprintUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 慢查询日志分析服务
+ * <p>
+ * 流式解析慢查询日志，按 SQL 指纹汇总执行次数、执行时间、扫描行数，只对总执行时间最长的前 top 类 SQL
+ * 各取一条样本（执行时间最长的一次）走批量分析执行 EXPLAIN 和评分。样本在目标数据源的默认库下执行，
+ * 样本所在的库和默认库不同时不分析。
+ * <p>
+ * 汇总的指纹个数和保存的指纹、样本 SQL 的总大小（max-retained-bytes）都有上限，超过后的新指纹只计数，
+ * 已有指纹的更慢样本放不下时保留原样本，整个过程的内存占用和日志文件大小无关。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class SlowLogAnalysisService {
+
+	private static final double BYTES_PER_MB = 1024D * 1024D;
+
+	@Resource
+	private JdSqlAnalysisService jdSqlAnalysisService;
+
+	@Resource
+	private AnalysisTaskRegistry analysisTaskRegistry;
+
+	/**
+	 * 慢查询日志所在目录，只能分析该目录下的文件
+	 */
+	@Value("${sql.analysis.slow-log.base-dir:${user.home}/.sql-analysis/slow-logs}")
+	private String baseDir;
+
+	/**
+	 * 每次内存映射的字节数
+	 */
+	@Value("${sql.analysis.slow-log.chunk-size:67108864}")
+	private int chunkSize;
+
+	/**
+	 * 单条语句的字节上限，超过的部分丢弃，截断的语句只汇总不分析
+	 */
+	@Value("${sql.analysis.slow-log.max-statement-bytes:65536}")
+	private int maxStatementBytes;
+
+	/**
+	 * 最多汇总的指纹个数
+	 */
+	@Value("${sql.analysis.slow-log.max-fingerprints:10000}")
+	private int maxFingerprints;
+
+	/**
+	 * 保存的指纹和样本 SQL 的总字节数上限（按每个字符 2 字节估算）
+	 */
+	@Value("${sql.analysis.slow-log.max-retained-bytes:67108864}")
+	private long maxRetainedBytes;
+
+	/**
+	 * 请求默认的 top
+	 */
+	@Value("${sql.analysis.slow-log.default-top:20}")
+	private int defaultTop;
+
+	/**
+	 * 请求可以指定的最大 top
+	 */
+	@Value("${sql.analysis.slow-log.max-top:200}")
+	private int maxTop;
+
+	/**
+	 * 分析慢查询日志
+	 * @param target 目标数据源
+	 * @param config 请求
+	 * @return {@link SlowLogAnalysisVO }
+	 */
+	public SlowLogAnalysisVO analyze(TargetDataSource target, SlowLogAnalysisDTO config) {
+		ExplainMode explainMode = config.getExplainMode() == null ? ExplainMode.TRADITIONAL : config.getExplainMode();
+		jdSqlAnalysisService.checkBatch(List.of(), explainMode);
+		Path path = resolve(config.getPath());
+		int top = Math.min(config.getTop() == null ? defaultTop : config.getTop(), maxTop);
+
+		Aggregator aggregator = new Aggregator(maxFingerprints, maxRetainedBytes,
+				StrUtil.trimToNull(config.getSchema()));
+		SlowLogParser parser = new SlowLogParser(chunkSize, maxStatementBytes);
+		long parseStart = System.nanoTime();
+		long fileBytes;
+		try {
+			fileBytes = parser.parse(path, aggregator::accept);
+		}
+		catch (IOException e) {
+			log.error("读取慢查询日志失败：{}，{}", path, e.getMessage());
+			throw new BusinessException(HttpStatus.ERROR, "读取慢查询日志失败：" + e.getMessage());
+		}
+		long parseNanos = Math.max(System.nanoTime() - parseStart, 1L);
+		double throughput = fileBytes / BYTES_PER_MB / (parseNanos / 1_000_000_000D);
+		log.info("解析慢查询日志：{}，{}字节，{}条记录，{}类SQL，耗时{}ms，{}MB/s", path, fileBytes,
+				parser.getEntryCount(), aggregator.stats.size(), parseNanos / 1_000_000L,
+				String.format("%.1f", throughput));
+
+		List<FingerprintStats> ranked = aggregator.top(top);
+		String catalog = ranked.isEmpty() ? null : defaultCatalog(target);
+		List<String> samples = new ArrayList<>();
+		List<Integer> sampleOwners = new ArrayList<>();
+		for (int i = 0; i < ranked.size(); i++) {
+			FingerprintStats stats = ranked.get(i);
+			if (stats.isExplainable(catalog)) {
+				samples.add(stats.sample);
+				sampleOwners.add(i);
+			}
+		}
+
+		SqlStatementAnalysisVO[] analyses = new SqlStatementAnalysisVO[ranked.size()];
+		String analysisId = null;
+		long analyzeMillis = 0L;
+		if (!samples.isEmpty()) {
+			AnalysisTask task = analysisTaskRegistry.start(config.getAnalysisId(), target.getName(),
+					config.getTimeoutMillis());
+			analysisId = task.getId();
+			SqlBatchAnalysisVO batch = jdSqlAnalysisService.analyzeBatch(target, samples, explainMode,
+					Boolean.TRUE.equals(config.getTextReport()), task);
+			analyzeMillis = batch.getCostMillis();
+			for (SqlStatementAnalysisVO result : batch.getResults()) {
+				analyses[sampleOwners.get(result.getIndex())] = result;
+			}
+		}
+
+		List<SlowLogFingerprintVO> fingerprints = new ArrayList<>(ranked.size());
+		for (int i = 0; i < ranked.size(); i++) {
+			fingerprints.add(ranked.get(i).toVO(analyses[i]));
+		}
+		return new SlowLogAnalysisVO(analysisId, path.toString(), fileBytes, parser.getEntryCount(),
+				aggregator.filteredCount, aggregator.stats.size(), aggregator.overflowCount, parseNanos / 1_000_000L,
+				Math.round(throughput * 10D) / 10D, analyzeMillis, fingerprints);
+	}
+
+	/**
+	 * 目标数据源的默认库，样本在该库下 EXPLAIN
+	 */
+	private String defaultCatalog(TargetDataSource target) {
+		try (Connection conn = target.getDataSource().getConnection()) {
+			return conn.getCatalog();
+		}
+		catch (SQLException e) {
+			log.error("获取目标数据源的默认库失败：{}，{}", target.getName(), e.getMessage());
+			throw new BusinessException(HttpStatus.ERROR, "获取目标数据源的默认库失败：" + e.getMessage());
+		}
+	}
+
+	/**
+	 * 解析文件路径，只允许慢日志目录下的文件（解析符号链接后判断）
+	 */
+	private Path resolve(String file) {
+		try {
+			Path base = Paths.get(baseDir).toRealPath();
+			Path path = base.resolve(file).normalize().toRealPath();
+			if (!path.startsWith(base)) {
+				throw new BusinessException(HttpStatus.BAD_REQUEST, "只能分析慢日志目录下的文件：" + base);
+			}
+			if (!Files.isRegularFile(path)) {
+				throw new BusinessException(HttpStatus.BAD_REQUEST, "不是文件：" + file);
+			}
+			return path;
+		}
+		catch (NoSuchFileException e) {
+			throw new BusinessException(HttpStatus.NOT_FOUND, "文件不存在：" + e.getFile());
+		}
+		catch (IOException e) {
+			throw new BusinessException(HttpStatus.ERROR, "读取慢查询日志失败：" + e.getMessage());
+		}
+	}
+
+	/**
+	 * 按指纹摘要汇总记录，记录对象是复用的，只在出现新指纹或更慢的样本时复制 SQL
+	 */
+	private static class Aggregator {
+
+		private final Map<Long, FingerprintStats> stats = new HashMap<>();
+
+		private final int maxFingerprints;
+
+		private final long maxRetainedBytes;
+
+		private final String schema;
+
+		private long filteredCount;
+
+		private long overflowCount;
+
+		/**
+		 * 保存的指纹和样本 SQL 的字节数
+		 */
+		private long retainedBytes;
+
+		Aggregator(int maxFingerprints, long maxRetainedBytes, String schema) {
+			this.maxFingerprints = maxFingerprints;
+			this.maxRetainedBytes = maxRetainedBytes;
+			this.schema = schema;
+		}
+
+		void accept(SlowLogEntry entry) {
+			if (schema != null && !schema.equalsIgnoreCase(entry.getDb())) {
+				filteredCount++;
+				return;
+			}
+			long digest = SqlFingerprintUtils.digest(entry.getSql());
+			FingerprintStats current = stats.get(digest);
+			if (current == null) {
+				if (stats.size() >= maxFingerprints) {
+					overflowCount++;
+					return;
+				}
+				String fingerprint = SqlFingerprintUtils.fingerprint(entry.getSql());
+				long bytes = sizeOf(fingerprint);
+				if (retainedBytes + bytes + sizeOf(entry.getSql()) > maxRetainedBytes) {
+					overflowCount++;
+					return;
+				}
+				current = new FingerprintStats(digest, fingerprint);
+				stats.put(digest, current);
+				retainedBytes += bytes;
+			}
+			retainedBytes += current.add(entry, maxRetainedBytes - retainedBytes);
+		}
+
+		List<FingerprintStats> top(int top) {
+			return stats.values()
+				.stream()
+				.sorted(Comparator.comparingDouble((FingerprintStats s) -> s.totalQueryTime).reversed())
+				.limit(top)
+				.toList();
+		}
+
+	}
+
+	private static long sizeOf(String text) {
+		return text == null ? 0L : 2L * text.length();
+	}
+
+	private static class FingerprintStats {
+
+		private final long digest;
+
+		private final String fingerprint;
+
+		private long count;
+
+		private double totalQueryTime;
+
+		private double maxQueryTime = -1D;
+
+		private double totalLockTime;
+
+		private long totalRowsExamined;
+
+		private long maxRowsExamined;
+
+		private long totalRowsSent;
+
+		private String sample;
+
+		private String sampleSchema;
+
+		private boolean sampleTruncated;
+
+		private long firstSeen;
+
+		private long lastSeen;
+
+		FingerprintStats(long digest, String fingerprint) {
+			this.digest = digest;
+			this.fingerprint = fingerprint;
+		}
+
+		/**
+		 * 累加一条记录
+		 * @param available 还可以保存的字节数，更慢的样本放不下时保留原样本
+		 * @return long 样本变化的字节数
+		 */
+		long add(SlowLogEntry entry, long available) {
+			long delta = 0L;
+			count++;
+			totalQueryTime += entry.getQueryTime();
+			totalLockTime += entry.getLockTime();
+			totalRowsExamined += entry.getRowsExamined();
+			totalRowsSent += entry.getRowsSent();
+			maxRowsExamined = Math.max(maxRowsExamined, entry.getRowsExamined());
+			if (entry.getQueryTime() > maxQueryTime) {
+				maxQueryTime = entry.getQueryTime();
+				long change = sizeOf(entry.getSql()) - sizeOf(sample);
+				if (change <= available) {
+					sample = entry.getSql();
+					sampleSchema = entry.getDb();
+					sampleTruncated = entry.isTruncated();
+					delta = change;
+				}
+			}
+			long timestamp = entry.getTimestamp() * 1000L;
+			if (timestamp > 0) {
+				firstSeen = firstSeen == 0 ? timestamp : Math.min(firstSeen, timestamp);
+				lastSeen = Math.max(lastSeen, timestamp);
+			}
+			return delta;
+		}
+
+		/**
+		 * 样本完整、在目标库的默认库下执行并且是 DML 时才能 EXPLAIN
+		 */
+		boolean isExplainable(String catalog) {
+			if (sampleTruncated || sampleSchema != null && !sampleSchema.equalsIgnoreCase(catalog)) {
+				return false;
+			}
+			return StrUtil.startWithAny(fingerprint, "select ", "insert ", "update ", "delete ", "replace ", "with ",
+					"(select ");
+		}
+
+		SlowLogFingerprintVO toVO(SqlStatementAnalysisVO analysis) {
+			return new SlowLogFingerprintVO(SqlFingerprintUtils.toHex(digest), fingerprint, count, totalQueryTime,
+					totalQueryTime / count, maxQueryTime, totalLockTime, totalRowsExamined / count, maxRowsExamined,
+					totalRowsSent / count, sample, sampleSchema, firstSeen == 0 ? null : firstSeen,
+					lastSeen == 0 ? null : lastSeen, analysis);
+		}
+
+	}
+
+}
@@ -0,0 +1,434 @@
+package com.itjing.sql.service;
+
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.fastjson2.JSONReader;
+import com.itjing.sql.constant.HttpStatus;
+import com.itjing.sql.domain.xm.vo.SoarCliBatchVO;
+import com.itjing.sql.domain.xm.vo.SoarCliResultVO;
+import com.itjing.sql.domain.xm.vo.SoarRuleVO;
+import com.itjing.sql.exception.BusinessException;
+import com.itjing.sql.util.SqlFingerprintUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 直接调用 soar 命令行进行批量启发式分析
+ * <p>
+ * 经 soar-web 分析时每条 SQL 启动一次 soar 进程；这里把多条 SQL 用分号连接写入一个文件，通过 soar 的多语句输入
+ * （-query 指定文件，-report-type=json）一次分析一批，再按 soar 输出的 Sample 把结果对应回各条 SQL。
+ * 每批最多 batch-size 条，各批在固定大小的线程池中并行执行，同时运行的 soar 进程数不超过 max-concurrency，
+ * 整个请求不超过 request-timeout。
+ * <p>
+ * soar 对指纹相同的语句只输出一次结果，所以未命中缓存的语句先按指纹去重，每个指纹只交给 soar 一条，
+ * 结果复制给指纹相同的其他语句并标记 duplicateOf；没有对应结果的语句标记为失败。
+ * 指纹已在 {@link SoarResultCacheService} 中的语句不再交给 soar 分析。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class SoarCliRunner {
+
+	private static final boolean WINDOWS = System.getProperty("os.name").toLowerCase().contains("windows");
+
+	private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+	@Resource
+	private XmSoarWebService xmSoarWebService;
+
+	@Resource
+	private SoarResultCacheService soarResultCacheService;
+
+	/**
+	 * soar 可执行文件，不指定时使用 soar-web 工作目录下 soar-bin 中对应平台的文件
+	 */
+	@Value("${soar.cli.path:}")
+	private String soarPath;
+
+	/**
+	 * 每次调用 soar 最多分析的 SQL 条数
+	 */
+	@Value("${soar.cli.batch-size:200}")
+	private int batchSize;
+
+	/**
+	 * 最多同时运行的 soar 进程数
+	 */
+	@Value("${soar.cli.max-concurrency:4}")
+	private int maxConcurrency;
+
+	/**
+	 * 单次 soar 调用的超时时间（毫秒）
+	 */
+	@Value("${soar.cli.timeout:60000}")
+	private long timeout;
+
+	/**
+	 * 整个请求的超时时间（毫秒），各批共用
+	 */
+	@Value("${soar.cli.request-timeout:120000}")
+	private long requestTimeout;
+
+	/**
+	 * 单次请求最多的 SQL 条数
+	 */
+	@Value("${soar.cli.max-statements:10000}")
+	private int maxStatements;
+
+	/**
+	 * soar-web 启动中时等待工作目录准备好的时间（毫秒）
+	 */
+	@Value("${soar.web.request-wait:10000}")
+	private long requestWait;
+
+	private ExecutorService executor;
+
+	@PostConstruct
+	public void initialize() {
+		AtomicInteger threadIndex = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(Math.max(1, maxConcurrency), r -> {
+			Thread thread = new Thread(r, "soar-cli-" + threadIndex.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	/**
+	 * 批量启发式分析
+	 * @param sqlList SQL 列表，每个元素一条语句
+	 * @return {@link SoarCliBatchVO }
+	 */
+	public SoarCliBatchVO analyze(List<String> sqlList) {
+		if (sqlList.size() > maxStatements) {
+			throw new BusinessException(HttpStatus.BAD_REQUEST,
+					StrUtil.format("单次最多分析{}条SQL，当前{}条", maxStatements, sqlList.size()));
+		}
+		long start = System.nanoTime();
+		long deadline = start + TimeUnit.MILLISECONDS.toNanos(requestTimeout);
+		SoarCliResultVO[] results = new SoarCliResultVO[sqlList.size()];
+		// 未命中缓存且指纹第一次出现的语句在请求中的序号和 SQL
+		List<Integer> missIndexes = new ArrayList<>();
+		List<String> missSqlList = new ArrayList<>();
+		// 指纹与前面未命中的语句相同的语句序号，对应第一条的序号
+		Map<Integer, Integer> duplicates = new LinkedHashMap<>();
+		Map<String, Integer> firstByFingerprint = new HashMap<>();
+		for (int i = 0; i < sqlList.size(); i++) {
+			String sql = sqlList.get(i);
+			SoarCliResultVO cached = soarResultCacheService.getCliResult(sql);
+			if (cached != null) {
+				results[i] = new SoarCliResultVO(i, sql, true, cached.getId(), cached.getFingerprint(),
+						cached.getScore(), cached.getHeuristicRules(), cached.getIndexRules(), cached.getTables(), null,
+						null);
+				continue;
+			}
+			Integer first = firstByFingerprint.putIfAbsent(SqlFingerprintUtils.fingerprint(sql), i);
+			if (first != null) {
+				duplicates.put(i, first);
+			}
+			else {
+				missIndexes.add(i);
+				missSqlList.add(sql);
+			}
+		}
+
+		List<Future<List<SoarCliResultVO>>> futures = new ArrayList<>();
+		if (!missSqlList.isEmpty()) {
+			Path soar = resolveSoar();
+			for (int from = 0; from < missSqlList.size(); from += batchSize) {
+				int offset = from;
+				List<String> batch = missSqlList.subList(from, Math.min(from + batchSize, missSqlList.size()));
+				futures.add(executor.submit(() -> runBatch(soar, batch, offset, deadline)));
+			}
+		}
+
+		try {
+			for (Future<List<SoarCliResultVO>> future : futures) {
+				for (SoarCliResultVO result : future.get(Math.max(0L, deadline - System.nanoTime()),
+						TimeUnit.NANOSECONDS)) {
+					// 批内序号是未命中列表中的序号，换回请求中的序号
+					result.setIndex(missIndexes.get(result.getIndex()));
+					if (result.getDuplicateOf() != null) {
+						result.setDuplicateOf(missIndexes.get(result.getDuplicateOf()));
+					}
+					soarResultCacheService.putCliResult(result.getSql(), result);
+					results[result.getIndex()] = result;
+				}
+			}
+		}
+		catch (ExecutionException e) {
+			throw new BusinessException(HttpStatus.ERROR, "soar分析失败：" + e.getCause().getMessage());
+		}
+		catch (TimeoutException e) {
+			throw new BusinessException(HttpStatus.ERROR, "soar分析超时");
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BusinessException(HttpStatus.ERROR, "soar分析被中断");
+		}
+		finally {
+			futures.forEach(future -> future.cancel(true));
+		}
+		duplicates.forEach((i, first) -> results[i] = copyOf(results[first], i, sqlList.get(i), first));
+		int successCount = 0;
+		for (SoarCliResultVO result : results) {
+			if (result.isSuccess()) {
+				successCount++;
+			}
+		}
+		return new SoarCliBatchVO(sqlList.size(), successCount, futures.size(),
+				TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), Arrays.asList(results));
+	}
+
+	/**
+	 * 调用一次 soar 分析一批 SQL
+	 * @param soar soar 可执行文件
+	 * @param batch 本批 SQL
+	 * @param offset 本批第一条在未命中列表中的序号
+	 * @param deadline 请求的截止时间（{@link System#nanoTime()}）
+	 * @return {@link List }<{@link SoarCliResultVO }>
+	 */
+	private List<SoarCliResultVO> runBatch(Path soar, List<String> batch, int offset, long deadline)
+			throws IOException, InterruptedException {
+		long wait = Math.min(timeout, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+		if (wait <= 0) {
+			throw new IllegalStateException("请求已超时，未执行soar");
+		}
+		Path dir = Files.createTempDirectory("soar-cli-");
+		try {
+			Path queryFile = dir.resolve("query.sql");
+			Path outputFile = dir.resolve("output.json");
+			Path logFile = dir.resolve("soar.log");
+			StringBuilder query = new StringBuilder();
+			for (String sql : batch) {
+				// 分号单独一行，SQL 末尾的单行注释（-- 或 #）不会把分号注释掉
+				query.append(stripDelimiter(sql)).append("\n;\n");
+			}
+			Files.writeString(queryFile, query, StandardCharsets.UTF_8);
+
+			ProcessBuilder processBuilder = new ProcessBuilder(soar.toString(), "-query=" + queryFile,
+					"-report-type=json", "-log-output=" + logFile);
+			// 和 soar-web 一样在其工作目录（soar-bin 的上级）中运行，读取其中的 etc 配置
+			Path soarDir = soar.getParent();
+			processBuilder.directory((soarDir.getParent() == null ? soarDir : soarDir.getParent()).toFile());
+			processBuilder.redirectErrorStream(true);
+			processBuilder.redirectOutput(outputFile.toFile());
+			Process process = processBuilder.start();
+			try {
+				if (!process.waitFor(wait, TimeUnit.MILLISECONDS)) {
+					throw new IllegalStateException(wait + "ms内soar未结束");
+				}
+			}
+			finally {
+				process.destroyForcibly();
+			}
+
+			String output = Files.readString(outputFile, StandardCharsets.UTF_8);
+			List<JSONObject> reports = parseReports(output);
+			if (reports.isEmpty()) {
+				String error = StrUtil.blankToDefault(StrUtil.trim(output), "退出码: " + process.exitValue());
+				List<SoarCliResultVO> failed = new ArrayList<>(batch.size());
+				for (int i = 0; i < batch.size(); i++) {
+					failed.add(failure(offset + i, batch.get(i), "soar未返回结果：" + StrUtil.maxLength(error, 500)));
+				}
+				return failed;
+			}
+			return match(batch, offset, reports);
+		}
+		finally {
+			deleteQuietly(dir);
+		}
+	}
+
+	/**
+	 * 按 Sample 把 soar 的结果对应回各条 SQL，soar 按输入顺序输出，所以只需要向前查找
+	 */
+	private static List<SoarCliResultVO> match(List<String> batch, int offset, List<JSONObject> reports) {
+		SoarCliResultVO[] results = new SoarCliResultVO[batch.size()];
+		String[] normalized = new String[batch.size()];
+		for (int i = 0; i < batch.size(); i++) {
+			normalized[i] = normalize(batch.get(i));
+		}
+		int next = 0;
+		for (JSONObject report : reports) {
+			String sample = normalize(report.getString("Sample"));
+			for (int i = next; i < batch.size(); i++) {
+				if (normalized[i].equals(sample)) {
+					results[i] = toResult(offset + i, batch.get(i), report);
+					next = i + 1;
+					break;
+				}
+			}
+		}
+		// Sample 都对不上（soar 改写了 Sample）但条数一致时按顺序对应
+		if (next == 0 && reports.size() == batch.size()) {
+			for (int i = 0; i < batch.size(); i++) {
+				results[i] = toResult(offset + i, batch.get(i), reports.get(i));
+			}
+		}
+
+		Map<String, Integer> firstByText = new HashMap<>();
+		List<SoarCliResultVO> list = new ArrayList<>(batch.size());
+		for (int i = 0; i < batch.size(); i++) {
+			SoarCliResultVO result = results[i];
+			Integer first = firstByText.putIfAbsent(normalized[i], i);
+			if (result == null && first != null && results[first] != null) {
+				result = copyOf(results[first], offset + i, batch.get(i), offset + first);
+			}
+			list.add(result != null ? result : failure(offset + i, batch.get(i), "soar未返回该语句的结果，可能无法解析"));
+		}
+		return list;
+	}
+
+	/**
+	 * 解析 soar 的 JSON 输出，兼容多个对象连续输出和整体为数组两种形式
+	 */
+	private static List<JSONObject> parseReports(String output) {
+		List<JSONObject> reports = new ArrayList<>();
+		// 跳过 JSON 之前可能混入的其他输出
+		int begin = 0;
+		while (begin < output.length() && output.charAt(begin) != '{' && output.charAt(begin) != '[') {
+			begin++;
+		}
+		if (begin == output.length()) {
+			return reports;
+		}
+		try (JSONReader reader = JSONReader.of(output.substring(begin))) {
+			while (!reader.isEnd()) {
+				Object value = reader.readAny();
+				if (value instanceof JSONObject object) {
+					reports.add(object);
+				}
+				else if (value instanceof JSONArray array) {
+					for (int i = 0; i < array.size(); i++) {
+						reports.add(array.getJSONObject(i));
+					}
+				}
+			}
+		}
+		catch (RuntimeException e) {
+			log.warn("解析soar输出失败，已解析{}条：{}", reports.size(), e.getMessage());
+		}
+		return reports;
+	}
+
+	private static SoarCliResultVO toResult(int index, String sql, JSONObject report) {
+		JSONArray tables = report.getJSONArray("Tables");
+		return new SoarCliResultVO(index, sql, true, report.getString("ID"), report.getString("Fingerprint"),
+				report.getInteger("Score"), toRules(report.getJSONArray("HeuristicRules")),
+				toRules(report.getJSONArray("IndexRules")), tables == null ? null : tables.toJavaList(String.class),
+				null, null);
+	}
+
+	private static List<SoarRuleVO> toRules(JSONArray array) {
+		List<SoarRuleVO> rules = new ArrayList<>();
+		if (array == null) {
+			return rules;
+		}
+		for (int i = 0; i < array.size(); i++) {
+			JSONObject rule = array.getJSONObject(i);
+			rules.add(new SoarRuleVO(rule.getString("Item"), rule.getString("Severity"), rule.getString("Summary"),
+					rule.getString("Content"), rule.getInteger("Position")));
+		}
+		return rules;
+	}
+
+	/**
+	 * 复用指纹相同的语句的结果
+	 */
+	private static SoarCliResultVO copyOf(SoarCliResultVO original, int index, String sql, int duplicateOf) {
+		return new SoarCliResultVO(index, sql, original.isSuccess(), original.getId(), original.getFingerprint(),
+				original.getScore(), original.getHeuristicRules(), original.getIndexRules(), original.getTables(),
+				duplicateOf, original.getErrorMsg());
+	}
+
+	private static SoarCliResultVO failure(int index, String sql, String errorMsg) {
+		return new SoarCliResultVO(index, sql, false, null, null, null, null, null, null, null, errorMsg);
+	}
+
+	private static String stripDelimiter(String sql) {
+		String trimmed = StrUtil.trim(sql);
+		while (trimmed.endsWith(";")) {
+			trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+		}
+		return trimmed;
+	}
+
+	private static String normalize(String sql) {
+		return sql == null ? "" : WHITESPACE.matcher(stripDelimiter(sql)).replaceAll(" ");
+	}
+
+	/**
+	 * soar 可执行文件：指定了 soar.cli.path 时使用指定的，否则按 soar-web 的规则在 soar-bin 中查找
+	 */
+	private Path resolveSoar() {
+		if (StrUtil.isNotBlank(soarPath)) {
+			Path path = Paths.get(soarPath);
+			if (!Files.isRegularFile(path)) {
+				throw new BusinessException(HttpStatus.ERROR, "找不到soar可执行文件：" + soarPath);
+			}
+			return path.toAbsolutePath();
+		}
+		Path workDir = xmSoarWebService.getWorkDir();
+		if (workDir == null) {
+			xmSoarWebService.awaitReady(requestWait);
+			workDir = xmSoarWebService.getWorkDir();
+		}
+		Path soarBin = workDir.resolve("soar-bin");
+		String os = System.getProperty("os.name").toLowerCase();
+		String platform = WINDOWS ? "soar.windows-amd64.exe"
+				: os.contains("mac") ? "soar.darwin-amd64" : "soar.linux-amd64";
+		for (String name : List.of(platform, WINDOWS ? "soar.exe" : "soar")) {
+			Path candidate = soarBin.resolve(name);
+			if (Files.isRegularFile(candidate)) {
+				return candidate;
+			}
+		}
+		throw new BusinessException(HttpStatus.ERROR, "soar-bin下找不到soar可执行文件：" + soarBin);
+	}
+
+	private static void deleteQuietly(Path dir) {
+		try (Stream<Path> paths = Files.list(dir)) {
+			for (Path path : paths.toList()) {
+				Files.deleteIfExists(path);
+			}
+			Files.deleteIfExists(dir);
+		}
+		catch (IOException e) {
+			log.warn("删除临时目录失败: {}", dir, e);
+		}
+	}
+
+}
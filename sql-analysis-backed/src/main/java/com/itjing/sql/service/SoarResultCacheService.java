@@ -0,0 +1,311 @@
+package com.itjing.sql.service;
+
+import cn.hutool.cache.CacheListener;
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.CacheObj;
+import cn.hutool.cache.impl.LRUCache;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.itjing.sql.domain.xm.vo.SoarApiResultVO;
+import com.itjing.sql.domain.xm.vo.SoarCacheStatsVO;
+import com.itjing.sql.domain.xm.vo.SoarCliResultVO;
+import com.itjing.sql.util.SqlFingerprintUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * soar 结果缓存
+ * <p>
+ * soar 的优化建议、改写和启发式分析结果只取决于 SQL 和参数，缓存后重复分析同一批 SQL 时不再启动 soar 进程。
+ * 按 LRU 淘汰，超过 ttl 过期，超过 max-entry-size 的结果不缓存。键的计算方式：
+ * <ul>
+ * <li>soar-web 调用（优化建议、改写）：排序后的参数，其中 query 去掉首尾空白和结尾分号，因为输出中包含 SQL 原文</li>
+ * <li>命令行启发式分析：SQL 指纹，soar 本身对指纹相同的语句也只分析一次</li>
+ * </ul>
+ * 指定 file 时启动时加载、定期和关闭时写入本地文件（每行一条 JSON），重启后缓存仍然有效。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class SoarResultCacheService {
+
+	private static final String API_PREFIX = "api:";
+
+	private static final String CLI_PREFIX = "cli:";
+
+	/**
+	 * 是否开启缓存
+	 */
+	@Value("${soar.cache.enabled:true}")
+	private boolean enabled;
+
+	/**
+	 * 最多缓存的条数
+	 */
+	@Value("${soar.cache.capacity:10000}")
+	private int capacity;
+
+	/**
+	 * 缓存过期时间（毫秒）
+	 */
+	@Value("${soar.cache.ttl:86400000}")
+	private long ttl;
+
+	/**
+	 * 单条结果超过该长度（字符）时不缓存
+	 */
+	@Value("${soar.cache.max-entry-size:65536}")
+	private int maxEntrySize;
+
+	/**
+	 * 持久化文件，为空时不持久化
+	 */
+	@Value("${soar.cache.file:}")
+	private String file;
+
+	private LRUCache<String, Object> cache;
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder evictedCount = new LongAdder();
+
+	private final LongAdder skippedCount = new LongAdder();
+
+	private volatile boolean dirty;
+
+	private volatile int loadedCount;
+
+	private volatile Long persistedAt;
+
+	@PostConstruct
+	public void init() {
+		cache = CacheUtil.newLRUCache(capacity, ttl);
+		cache.setListener(new CacheListener<>() {
+			@Override
+			public void onRemove(String key, Object value) {
+				evictedCount.increment();
+			}
+		});
+		if (enabled && StrUtil.isNotBlank(file)) {
+			load();
+		}
+	}
+
+	/**
+	 * 查询 soar-web 调用结果
+	 * @param params soar 参数
+	 * @return {@link SoarApiResultVO } 未命中返回 null
+	 */
+	public SoarApiResultVO getApiResult(Map<String, String> params) {
+		return (SoarApiResultVO) get(apiKey(params));
+	}
+
+	/**
+	 * 缓存 soar-web 调用结果，只缓存成功的结果
+	 * @param params soar 参数
+	 * @param result 结果
+	 */
+	public void putApiResult(Map<String, String> params, SoarApiResultVO result) {
+		if (result.isStatus()) {
+			put(apiKey(params), result, StrUtil.length(result.getResult()));
+		}
+	}
+
+	/**
+	 * 查询命令行启发式分析结果
+	 * @param sql SQL
+	 * @return {@link SoarCliResultVO } 未命中返回 null，index 和 sql 为缓存时的值，由调用方替换
+	 */
+	public SoarCliResultVO getCliResult(String sql) {
+		return (SoarCliResultVO) get(cliKey(sql));
+	}
+
+	/**
+	 * 缓存命令行启发式分析结果，只缓存成功的结果
+	 * @param sql SQL
+	 * @param result 结果
+	 */
+	public void putCliResult(String sql, SoarCliResultVO result) {
+		if (result.isSuccess()) {
+			put(cliKey(sql), result, JSON.toJSONString(result).length());
+		}
+	}
+
+	/**
+	 * 清空缓存
+	 */
+	public void clear() {
+		cache.clear();
+		dirty = true;
+	}
+
+	/**
+	 * 缓存统计
+	 * @return {@link SoarCacheStatsVO }
+	 */
+	public SoarCacheStatsVO stats() {
+		long hits = hitCount.sum();
+		long misses = missCount.sum();
+		long total = hits + misses;
+		return new SoarCacheStatsVO(enabled, cache.size(), capacity, hits, misses, evictedCount.sum(),
+				skippedCount.sum(), total == 0 ? 0D : (double) hits / total, StrUtil.emptyToNull(file), loadedCount,
+				persistedAt);
+	}
+
+	/**
+	 * 定期写入持久化文件，没有变化时跳过
+	 */
+	@Scheduled(fixedDelayString = "${soar.cache.persist-interval:60000}")
+	public void flush() {
+		if (enabled && dirty && StrUtil.isNotBlank(file)) {
+			persist();
+		}
+	}
+
+	@PreDestroy
+	public void destroy() {
+		flush();
+	}
+
+	private Object get(String key) {
+		if (!enabled) {
+			return null;
+		}
+		Object value = cache.get(key, false);
+		if (value == null) {
+			missCount.increment();
+		}
+		else {
+			hitCount.increment();
+		}
+		return value;
+	}
+
+	private void put(String key, Object value, int size) {
+		if (!enabled) {
+			return;
+		}
+		if (size > maxEntrySize) {
+			skippedCount.increment();
+			return;
+		}
+		cache.put(key, value);
+		dirty = true;
+	}
+
+	private static String apiKey(Map<String, String> params) {
+		Map<String, String> sorted = new TreeMap<>(params);
+		sorted.computeIfPresent("query", (name, query) -> normalize(query));
+		return API_PREFIX + DigestUtil.sha256Hex(JSON.toJSONString(sorted));
+	}
+
+	private static String cliKey(String sql) {
+		return CLI_PREFIX + DigestUtil.sha256Hex(SqlFingerprintUtils.fingerprint(sql));
+	}
+
+	/**
+	 * 去掉首尾空白和结尾分号，中间的空白可能在字符串字面量内，保持原样
+	 */
+	private static String normalize(String sql) {
+		String trimmed = StrUtil.trim(sql);
+		while (trimmed.endsWith(";")) {
+			trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+		}
+		return trimmed;
+	}
+
+	/**
+	 * 加载持久化文件，跳过已过期和无法解析的行
+	 */
+	private void load() {
+		Path path = Paths.get(file);
+		if (!Files.isRegularFile(path)) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		int count = 0;
+		try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+			String line;
+			while ((line = reader.readLine()) != null && count < capacity) {
+				try {
+					JSONObject json = JSON.parseObject(line);
+					String key = json.getString("key");
+					long remaining = json.getLongValue("expireAt") - now;
+					JSONObject value = json.getJSONObject("value");
+					if (key == null || value == null || remaining <= 0) {
+						continue;
+					}
+					Class<?> type = key.startsWith(API_PREFIX) ? SoarApiResultVO.class : SoarCliResultVO.class;
+					cache.put(key, value.to(type), remaining);
+					count++;
+				}
+				catch (RuntimeException e) {
+					log.debug("跳过无法解析的soar缓存：{}", e.getMessage());
+				}
+			}
+			loadedCount = count;
+			log.info("加载soar结果缓存{}条：{}", count, path);
+		}
+		catch (IOException e) {
+			log.warn("加载soar结果缓存失败：{}，{}", path, e.getMessage());
+		}
+	}
+
+	/**
+	 * 写入持久化文件：先写临时文件再替换，写入过程中异常退出不会破坏原文件
+	 */
+	private synchronized void persist() {
+		dirty = false;
+		Path path = Paths.get(file).toAbsolutePath();
+		Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+		int count = 0;
+		try {
+			Files.createDirectories(path.getParent());
+			try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+				Iterator<CacheObj<String, Object>> iterator = cache.cacheObjIterator();
+				while (iterator.hasNext()) {
+					CacheObj<String, Object> obj = iterator.next();
+					JSONObject json = new JSONObject();
+					json.put("key", obj.getKey());
+					json.put("expireAt",
+							obj.getExpiredTime() == null ? Long.MAX_VALUE : obj.getExpiredTime().getTime());
+					json.put("value", obj.getValue());
+					writer.write(json.toJSONString());
+					writer.newLine();
+					count++;
+				}
+			}
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			persistedAt = System.currentTimeMillis();
+			log.debug("写入soar结果缓存{}条：{}", count, path);
+		}
+		catch (IOException e) {
+			dirty = true;
+			log.warn("写入soar结果缓存失败：{}，{}", path, e.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,434 @@
+package com.itjing.sql.service;
+
+import cn.hutool.core.util.StrUtil;
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONObject;
+import com.itjing.sql.constant.CircuitState;
+import com.itjing.sql.constant.HttpStatus;
+import com.itjing.sql.domain.xm.vo.SoarApiResultVO;
+import com.itjing.sql.domain.xm.vo.SoarWebClientStatsVO;
+import com.itjing.sql.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.SecureRandom;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * soar-web 客户端，所有从 Java 侧发往本地 soar-web 的请求共用
+ * <p>
+ * 共用一个 {@link HttpClient}（HTTP/1.1 长连接，连接由 JDK 连接池复用），带连接和请求超时、并发上限和熔断器：
+ * 连续失败（连接失败、超时、5xx）达到阈值后熔断打开，打开期间请求直接失败，打开时间结束后放行一个试探请求。
+ * 每次请求选择正在处理请求最少的就绪实例，连接失败时换一个实例重试一次。
+ * <p>
+ * soar 接口的参数按 soar-web 页面的方式加密：随机 32 位 AES 密钥（CBC，前 16 位作为 IV，补零）加密参数 JSON，
+ * RSA 公钥（/data/public.rsa）加密 AES 密钥。调用前先查 {@link SoarResultCacheService}，成功的结果写入缓存，
+ * 参数相同的并发调用合并为一次请求。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class SoarWebClient {
+
+	private static final String API_SOAR = "/api/soar-api";
+
+	private static final String PUBLIC_KEY_PATH = "/data/public.rsa";
+
+	private static final char[] KEY_CHARS = ("0123456789abcdefghijklmnopqrstuvwxyz"
+			+ "ABCDEFGHIJKLMNOPQRSTUVWXYZ").toCharArray();
+
+	@Resource
+	private XmSoarWebService xmSoarWebService;
+
+	@Resource
+	private SoarResultCacheService soarResultCacheService;
+
+	/**
+	 * 连接超时时间（毫秒）
+	 */
+	@Value("${soar.web.client.connect-timeout:1000}")
+	private long connectTimeout;
+
+	/**
+	 * 请求超时时间（毫秒）
+	 */
+	@Value("${soar.web.client.timeout:30000}")
+	private long timeout;
+
+	/**
+	 * 最大并发数
+	 */
+	@Value("${soar.web.client.max-concurrency:16}")
+	private int maxConcurrency;
+
+	/**
+	 * 并发已满时的等待时间（毫秒）
+	 */
+	@Value("${soar.web.client.acquire-timeout:5000}")
+	private long acquireTimeout;
+
+	/**
+	 * 连续失败多少次后熔断
+	 */
+	@Value("${soar.web.client.breaker.failure-threshold:5}")
+	private int failureThreshold;
+
+	/**
+	 * 熔断打开时间（毫秒）
+	 */
+	@Value("${soar.web.client.breaker.open-millis:10000}")
+	private long openMillis;
+
+	/**
+	 * soar-web 启动中时请求的等待时间（毫秒）
+	 */
+	@Value("${soar.web.request-wait:10000}")
+	private long requestWait;
+
+	private HttpClient httpClient;
+
+	private Semaphore permits;
+
+	private final SecureRandom secureRandom = new SecureRandom();
+
+	/**
+	 * 执行中的 soar 调用，键为排序后的参数
+	 */
+	private final Map<String, CompletableFuture<SoarApiResultVO>> inFlightCalls = new ConcurrentHashMap<>();
+
+	private final LongAdder requestCount = new LongAdder();
+
+	private final LongAdder failureCount = new LongAdder();
+
+	private final LongAdder rejectedCount = new LongAdder();
+
+	private final LongAdder shortCircuitedCount = new LongAdder();
+
+	private final LongAdder collapsedCount = new LongAdder();
+
+	private CircuitState circuitState = CircuitState.CLOSED;
+
+	private int consecutiveFailures;
+
+	private long openedAt;
+
+	private boolean probing;
+
+	/**
+	 * soar-web 公钥，soar-web 重新生成密钥时清空重新获取
+	 */
+	private volatile PublicKey publicKey;
+
+	@PostConstruct
+	public void initialize() {
+		httpClient = HttpClient.newBuilder()
+			.version(HttpClient.Version.HTTP_1_1)
+			.connectTimeout(Duration.ofMillis(connectTimeout))
+			.build();
+		permits = new Semaphore(maxConcurrency);
+	}
+
+	/**
+	 * 调用 soar，先查缓存，参数相同的并发调用合并为一次请求
+	 * @param params soar 参数（不带 -），如 query、report-type
+	 * @return {@link SoarApiResultVO }
+	 */
+	public SoarApiResultVO soar(Map<String, String> params) {
+		SoarApiResultVO cached = soarResultCacheService.getApiResult(params);
+		if (cached != null) {
+			return cached;
+		}
+		String key = JSON.toJSONString(new TreeMap<>(params));
+		CompletableFuture<SoarApiResultVO> call = new CompletableFuture<>();
+		CompletableFuture<SoarApiResultVO> existing = inFlightCalls.putIfAbsent(key, call);
+		if (existing != null) {
+			collapsedCount.increment();
+			return join(existing);
+		}
+		try {
+			SoarApiResultVO result = doSoar(params);
+			soarResultCacheService.putApiResult(params, result);
+			call.complete(result);
+			return result;
+		}
+		catch (RuntimeException e) {
+			call.completeExceptionally(e);
+			throw e;
+		}
+		finally {
+			inFlightCalls.remove(key, call);
+		}
+	}
+
+	/**
+	 * 发送请求到一个就绪实例
+	 * @param method 请求方法
+	 * @param pathAndQuery 路径和查询字符串，以 / 开头
+	 * @param headers 请求头，可为空
+	 * @param body 请求体，可为空
+	 * @param timeoutMillis 请求超时时间（毫秒）
+	 * @return {@link HttpResponse }<{@link byte[] }>
+	 */
+	public HttpResponse<byte[]> send(String method, String pathAndQuery, Map<String, List<String>> headers,
+			byte[] body, long timeoutMillis) {
+		xmSoarWebService.awaitReady(requestWait);
+		try {
+			if (!permits.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS)) {
+				rejectedCount.increment();
+				throw new BusinessException(HttpStatus.WARN, "soar-web请求过多，请稍后再试");
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BusinessException(HttpStatus.ERROR, "soar-web请求被中断");
+		}
+		try {
+			if (!allowRequest()) {
+				shortCircuitedCount.increment();
+				throw new BusinessException(HttpStatus.WARN, "soar-web连续失败，已熔断，请稍后再试");
+			}
+			requestCount.increment();
+			HttpResponse<byte[]> response = null;
+			try {
+				response = execute(method, pathAndQuery, headers, body, timeoutMillis);
+				return response;
+			}
+			finally {
+				if (response != null && response.statusCode() < 500) {
+					onSuccess();
+				}
+				else {
+					failureCount.increment();
+					onFailure();
+				}
+			}
+		}
+		finally {
+			permits.release();
+		}
+	}
+
+	/**
+	 * 客户端统计
+	 * @return {@link SoarWebClientStatsVO }
+	 */
+	public synchronized SoarWebClientStatsVO stats() {
+		return new SoarWebClientStatsVO(circuitState, consecutiveFailures, maxConcurrency,
+				maxConcurrency - permits.availablePermits(), requestCount.sum(), failureCount.sum(),
+				rejectedCount.sum(), shortCircuitedCount.sum(), collapsedCount.sum());
+	}
+
+	private HttpResponse<byte[]> execute(String method, String pathAndQuery, Map<String, List<String>> headers,
+			byte[] body, long timeoutMillis) {
+		int attempts = Math.min(2, xmSoarWebService.getInstanceCount());
+		SoarWebInstance previous = null;
+		for (int attempt = 1;; attempt++) {
+			SoarWebInstance instance = xmSoarWebService.choose();
+			if (instance == null) {
+				throw new BusinessException(HttpStatus.WARN, "没有可用的soar-web实例，请稍后再试");
+			}
+			// 拼接而不是 resolve，避免以 // 开头的路径被当作主机名
+			HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(instance.getBaseUri() + pathAndQuery))
+				.timeout(Duration.ofMillis(timeoutMillis))
+				.method(method, body == null || body.length == 0 ? HttpRequest.BodyPublishers.noBody()
+						: HttpRequest.BodyPublishers.ofByteArray(body));
+			if (headers != null) {
+				headers.forEach((name, values) -> values.forEach(value -> builder.header(name, value)));
+			}
+
+			long start = System.nanoTime();
+			boolean error = true;
+			instance.beginRequest();
+			try {
+				HttpResponse<byte[]> response = httpClient.send(builder.build(),
+						HttpResponse.BodyHandlers.ofByteArray());
+				error = response.statusCode() >= 500;
+				return response;
+			}
+			catch (ConnectException | HttpConnectTimeoutException e) {
+				// 连接失败说明请求没有发出，可以安全地换一个实例重试
+				log.warn("连接soar-web[{}]失败：{}", instance.getIndex(), e.getMessage());
+				if (attempt >= attempts || instance == previous) {
+					throw new BusinessException(HttpStatus.ERROR, "连接soar-web失败：" + e.getMessage());
+				}
+				previous = instance;
+			}
+			catch (HttpTimeoutException e) {
+				throw new BusinessException(HttpStatus.ERROR, "soar-web请求超时：" + pathAndQuery);
+			}
+			catch (IOException e) {
+				throw new BusinessException(HttpStatus.ERROR, "soar-web请求失败：" + e.getMessage());
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new BusinessException(HttpStatus.ERROR, "soar-web请求被中断");
+			}
+			finally {
+				instance.endRequest(System.nanoTime() - start, error);
+			}
+		}
+	}
+
+	private SoarApiResultVO doSoar(Map<String, String> params) {
+		byte[] body = JSON.toJSONBytes(encrypt(params));
+		HttpResponse<byte[]> response = send("POST", API_SOAR, Map.of("Content-Type", List.of("application/json")),
+				body, timeout);
+		if (response.statusCode() == 429) {
+			throw new BusinessException(HttpStatus.WARN, "soar-web请求太过频繁，请稍后再试");
+		}
+		if (response.statusCode() != 200) {
+			throw new BusinessException(HttpStatus.ERROR, "soar-web返回异常状态码：" + response.statusCode());
+		}
+		JSONObject json = JSON.parseObject(response.body());
+		SoarApiResultVO result = new SoarApiResultVO(json.getBooleanValue("status"), json.getString("result"),
+				json.getString("log"));
+		if (!result.isStatus() && StrUtil.contains(result.getResult(), "crypto/rsa")) {
+			// 解密失败说明 soar-web 的密钥已变化，下次重新获取公钥
+			publicKey = null;
+		}
+		return result;
+	}
+
+	/**
+	 * 按 soar-web 页面的方式加密参数
+	 * @param params 参数
+	 * @return {@link Map } data 为 AES 加密的参数，key 为 RSA 加密的 AES 密钥
+	 */
+	private Map<String, String> encrypt(Map<String, String> params) {
+		char[] key = new char[32];
+		for (int i = 0; i < key.length; i++) {
+			key[i] = KEY_CHARS[secureRandom.nextInt(KEY_CHARS.length)];
+		}
+		byte[] keyBytes = new String(key).getBytes(StandardCharsets.US_ASCII);
+		byte[] plain = JSON.toJSONBytes(params);
+		// soar-web 解密后把补的 0 替换为空格再解析 JSON
+		byte[] padded = Arrays.copyOf(plain, (plain.length + 15) / 16 * 16);
+		try {
+			Cipher aes = Cipher.getInstance("AES/CBC/NoPadding");
+			aes.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(keyBytes, "AES"), new IvParameterSpec(keyBytes, 0, 16));
+			Cipher rsa = Cipher.getInstance("RSA/ECB/PKCS1Padding");
+			rsa.init(Cipher.ENCRYPT_MODE, getPublicKey());
+			Base64.Encoder encoder = Base64.getEncoder();
+			return Map.of("data", encoder.encodeToString(aes.doFinal(padded)), "key",
+					encoder.encodeToString(rsa.doFinal(keyBytes)));
+		}
+		catch (GeneralSecurityException e) {
+			throw new BusinessException(HttpStatus.ERROR, "加密soar参数失败：" + e.getMessage());
+		}
+	}
+
+	private PublicKey getPublicKey() throws GeneralSecurityException {
+		PublicKey key = publicKey;
+		if (key != null) {
+			return key;
+		}
+		HttpResponse<byte[]> response = send("GET", PUBLIC_KEY_PATH, null, null, timeout);
+		if (response.statusCode() != 200) {
+			throw new BusinessException(HttpStatus.ERROR, "获取soar-web公钥失败，状态码：" + response.statusCode());
+		}
+		String pem = new String(response.body(), StandardCharsets.US_ASCII)
+			.replaceAll("-----(BEGIN|END) PUBLIC KEY-----", "")
+			.replaceAll("\\s", "");
+		key = KeyFactory.getInstance("RSA").generatePublic(new X509EncodedKeySpec(Base64.getDecoder().decode(pem)));
+		publicKey = key;
+		return key;
+	}
+
+	private SoarApiResultVO join(CompletableFuture<SoarApiResultVO> call) {
+		try {
+			return call.get(timeout + requestWait + acquireTimeout, TimeUnit.MILLISECONDS);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof BusinessException businessException) {
+				throw businessException;
+			}
+			throw new BusinessException(HttpStatus.ERROR, "soar调用失败：" + e.getCause().getMessage());
+		}
+		catch (TimeoutException e) {
+			throw new BusinessException(HttpStatus.ERROR, "等待相同的soar调用超时");
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BusinessException(HttpStatus.ERROR, "等待相同的soar调用被中断");
+		}
+	}
+
+	/**
+	 * 熔断检查：关闭时放行；打开时间结束后转为半开，只放行一个试探请求
+	 * @return boolean 是否放行
+	 */
+	private synchronized boolean allowRequest() {
+		switch (circuitState) {
+			case CLOSED:
+				return true;
+			case OPEN:
+				if (System.currentTimeMillis() - openedAt < openMillis) {
+					return false;
+				}
+				circuitState = CircuitState.HALF_OPEN;
+				probing = true;
+				return true;
+			default:
+				if (probing) {
+					return false;
+				}
+				probing = true;
+				return true;
+		}
+	}
+
+	private synchronized void onSuccess() {
+		consecutiveFailures = 0;
+		probing = false;
+		if (circuitState != CircuitState.CLOSED) {
+			log.info("soar-web请求恢复，熔断关闭");
+			circuitState = CircuitState.CLOSED;
+		}
+	}
+
+	private synchronized void onFailure() {
+		consecutiveFailures++;
+		probing = false;
+		if (circuitState == CircuitState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+			if (circuitState != CircuitState.OPEN) {
+				log.warn("soar-web连续失败{}次，熔断{}ms", consecutiveFailures, openMillis);
+			}
+			circuitState = CircuitState.OPEN;
+			openedAt = System.currentTimeMillis();
+		}
+	}
+
+}
@@ -0,0 +1,272 @@
+package com.itjing.sql.service;
+
+import com.itjing.sql.constant.SoarWebState;
+import com.itjing.sql.domain.xm.vo.SoarWebInstanceVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * soar-web 实例：一个 soar-web 进程及其状态和请求统计，由 {@link XmSoarWebService} 管理
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public class SoarWebInstance {
+
+	private static final Logger logger = LoggerFactory.getLogger(SoarWebInstance.class);
+
+	/**
+	 * 就绪检查的最大轮询间隔（毫秒）
+	 */
+	private static final long MAX_POLL_INTERVAL = 1000L;
+
+	private final int index;
+
+	private final int port;
+
+	private final URI baseUri;
+
+	private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+	private final AtomicInteger healthFailures = new AtomicInteger();
+
+	private final AtomicInteger restartCount = new AtomicInteger();
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+
+	private final LongAdder requestCount = new LongAdder();
+
+	private final LongAdder errorCount = new LongAdder();
+
+	private final LongAdder totalLatencyNanos = new LongAdder();
+
+	private final LongAccumulator maxLatencyNanos = new LongAccumulator(Long::max, 0L);
+
+	private volatile long lastLatencyNanos;
+
+	private volatile SoarWebState state = SoarWebState.STOPPED;
+
+	private volatile Process process;
+
+	private volatile long startTime;
+
+	private volatile String lastError;
+
+	SoarWebInstance(int index, int port) {
+		this.index = index;
+		this.port = port;
+		this.baseUri = URI.create("http://127.0.0.1:" + port);
+	}
+
+	/**
+	 * 启动进程
+	 * @param executable 可执行文件
+	 * @param workDir 工作目录，soar-web 从工作目录读取 soar-bin 和 data 下的文件
+	 * @param onExit 进程退出回调
+	 * @throws IOException io异常
+	 */
+	void launch(Path executable, Path workDir, BiConsumer<SoarWebInstance, Process> onExit) throws IOException {
+		if (!Files.exists(executable)) {
+			throw new IllegalStateException("找不到可执行文件: " + executable);
+		}
+		ProcessBuilder processBuilder = new ProcessBuilder();
+		processBuilder.directory(workDir.toFile());
+		// soar-web需要带冒号的端口格式
+		processBuilder.command(executable.toString(), "--addr", ":" + port);
+		processBuilder.redirectErrorStream(true);
+		logger.info("启动soar-web[{}]，执行命令: {}", index, String.join(" ", processBuilder.command()));
+
+		Process started = processBuilder.start();
+		process = started;
+		startTime = System.currentTimeMillis();
+		started.onExit().thenAccept(p -> onExit.accept(this, p));
+
+		// 异步读取输出
+		Thread outputReader = new Thread(() -> {
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(started.getInputStream()))) {
+				String line;
+				while ((line = reader.readLine()) != null) {
+					logger.info("soar-web[{}]: {}", index, line);
+				}
+			}
+			catch (IOException e) {
+				logger.error("读取soar-web[{}]输出失败", index, e);
+			}
+		}, "soar-web-output-" + index);
+		outputReader.setDaemon(true);
+		outputReader.start();
+	}
+
+	/**
+	 * 等待就绪：轮询 /webui 直到返回非 5xx 响应，轮询间隔从 50ms 开始翻倍，最长 1s
+	 * @param httpClient http客户端
+	 * @param timeoutMillis 超时时间（毫秒）
+	 * @throws InterruptedException 中断异常
+	 */
+	void awaitHttpReady(HttpClient httpClient, long timeoutMillis) throws InterruptedException {
+		Process current = process;
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+		long interval = 50L;
+		String lastFailure = null;
+		while (System.nanoTime() < deadline) {
+			// 检查进程是否存活
+			if (current == null || !current.isAlive()) {
+				throw new IllegalStateException(
+						"soar-web进程已终止" + (current == null ? "" : "，退出码: " + current.exitValue()));
+			}
+			try {
+				int status = probe(httpClient);
+				if (status < 500) {
+					return;
+				}
+				lastFailure = "HTTP " + status;
+			}
+			catch (IOException e) {
+				lastFailure = e.getMessage();
+			}
+			Thread.sleep(interval);
+			interval = Math.min(interval * 2, MAX_POLL_INTERVAL);
+		}
+		throw new IllegalStateException(timeoutMillis + "ms内soar-web未就绪: " + lastFailure);
+	}
+
+	/**
+	 * 请求一次 /webui
+	 * @param httpClient http客户端
+	 * @return int 响应状态码
+	 * @throws IOException io异常
+	 * @throws InterruptedException 中断异常
+	 */
+	int probe(HttpClient httpClient) throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/webui"))
+			.timeout(Duration.ofSeconds(1))
+			.GET()
+			.build();
+		return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+	}
+
+	/**
+	 * 停止进程，停止后进程退出回调不再触发重启
+	 */
+	void stop() {
+		Process current = process;
+		if (current == null) {
+			return;
+		}
+		process = null;
+		try {
+			// 尝试正常终止进程
+			current.destroy();
+			if (!current.waitFor(5, TimeUnit.SECONDS)) {
+				// 如果正常终止失败，强制终止
+				current.destroyForcibly();
+				current.waitFor(5, TimeUnit.SECONDS);
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			logger.warn("等待soar-web[{}]进程终止被中断", index, e);
+		}
+	}
+
+	/**
+	 * 开始转发请求
+	 */
+	public void beginRequest() {
+		inFlight.incrementAndGet();
+	}
+
+	/**
+	 * 请求结束，记录耗时
+	 * @param latencyNanos 耗时（纳秒）
+	 * @param error 是否失败
+	 */
+	public void endRequest(long latencyNanos, boolean error) {
+		inFlight.decrementAndGet();
+		requestCount.increment();
+		if (error) {
+			errorCount.increment();
+		}
+		totalLatencyNanos.add(latencyNanos);
+		maxLatencyNanos.accumulate(latencyNanos);
+		lastLatencyNanos = latencyNanos;
+	}
+
+	/**
+	 * 转为统计信息
+	 * @return {@link SoarWebInstanceVO }
+	 */
+	public SoarWebInstanceVO toVO() {
+		long requests = requestCount.sum();
+		Process current = process;
+		return new SoarWebInstanceVO(index, port, state, current == null ? null : current.pid(), startTime,
+				restartCount.get(), inFlight.get(), requests, errorCount.sum(),
+				requests == 0 ? 0D : totalLatencyNanos.sum() / 1e6 / requests, maxLatencyNanos.get() / 1e6,
+				lastLatencyNanos / 1e6, lastError);
+	}
+
+	public int getIndex() {
+		return index;
+	}
+
+	public int getPort() {
+		return port;
+	}
+
+	public URI getBaseUri() {
+		return baseUri;
+	}
+
+	public SoarWebState getState() {
+		return state;
+	}
+
+	void setState(SoarWebState state) {
+		this.state = state;
+	}
+
+	public Process getProcess() {
+		return process;
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	public String getLastError() {
+		return lastError;
+	}
+
+	void setLastError(String lastError) {
+		this.lastError = lastError;
+	}
+
+	AtomicInteger getConsecutiveFailures() {
+		return consecutiveFailures;
+	}
+
+	AtomicInteger getHealthFailures() {
+		return healthFailures;
+	}
+
+	AtomicInteger getRestartCount() {
+		return restartCount;
+	}
+
+}
@@ -0,0 +1,77 @@
+package com.itjing.sql.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * soar-web 请求转发
+ * <p>
+ * 只转发白名单内的请求头和响应头，请求经 {@link SoarWebClient} 发出，共用其连接池、并发上限和熔断器。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Service
+public class SoarWebProxyService {
+
+	/**
+	 * 转发给 soar-web 的请求头
+	 */
+	private static final Set<String> REQUEST_HEADERS = Set.of("content-type", "accept", "accept-language");
+
+	/**
+	 * 返回给调用方的响应头
+	 */
+	private static final Set<String> RESPONSE_HEADERS = Set.of("content-type", "content-disposition", "cache-control");
+
+	@Resource
+	private SoarWebClient soarWebClient;
+
+	/**
+	 * 转发请求的超时时间（毫秒）
+	 */
+	@Value("${soar.web.proxy.timeout:60000}")
+	private long timeout;
+
+	/**
+	 * 转发请求
+	 * @param method 请求方法
+	 * @param path 路径，以 / 开头
+	 * @param query 查询字符串，可为空
+	 * @param headers 请求头
+	 * @param body 请求体，可为空
+	 * @return {@link ResponseEntity }<{@link byte[] }>
+	 */
+	public ResponseEntity<byte[]> forward(String method, String path, String query, HttpHeaders headers,
+			byte[] body) {
+		Map<String, List<String>> requestHeaders = new LinkedHashMap<>();
+		headers.forEach((name, values) -> {
+			if (REQUEST_HEADERS.contains(name.toLowerCase())) {
+				requestHeaders.put(name, values);
+			}
+		});
+		HttpResponse<byte[]> response = soarWebClient.send(method, query == null ? path : path + "?" + query,
+				requestHeaders, body, timeout);
+		return toResponseEntity(response);
+	}
+
+	private static ResponseEntity<byte[]> toResponseEntity(HttpResponse<byte[]> response) {
+		HttpHeaders responseHeaders = new HttpHeaders();
+		response.headers().map().forEach((name, values) -> {
+			if (RESPONSE_HEADERS.contains(name.toLowerCase())) {
+				responseHeaders.addAll(name, values);
+			}
+		});
+		return ResponseEntity.status(response.statusCode()).headers(responseHeaders).body(response.body());
+	}
+
+}
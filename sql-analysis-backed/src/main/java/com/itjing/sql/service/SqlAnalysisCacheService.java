@@ -0,0 +1,378 @@
+package com.itjing.sql.service;
+
+import cn.hutool.cache.CacheUtil;
+import cn.hutool.cache.impl.LRUCache;
+import cn.hutool.core.util.StrUtil;
+import com.itjing.sql.advisor.IndexRecommendation;
+import com.itjing.sql.constant.ExplainMode;
+import com.itjing.sql.domain.jd.vo.SqlAnalysisCacheStatsVO;
+import com.itjing.sql.domain.jd.vo.SqlScoreVO;
+import com.itjing.sql.explain.ExplainPlan;
+import com.itjing.sql.service.DataSourceRegistryService.TargetDataSource;
+import com.jd.sql.analysis.analysis.SqlAnalysisResultList;
+import com.jd.sql.analysis.score.SqlScoreResult;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.util.TablesNamesFinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SQL 分析结果缓存
+ * <p>
+ * 按（目标数据源、执行计划模式、规范化后的 SQL）缓存执行计划和评分结果，并记录所涉及表的结构版本号
+ * （information_schema.TABLES 中的 CREATE_TIME/UPDATE_TIME）。在校验间隔内命中缓存时不访问目标库，
+ * 超过校验间隔后从 {@link SchemaCatalogService} 取版本号，目录在校验间隔内确认过的表不再查询，版本号变化则重新分析。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class SqlAnalysisCacheService {
+
+	@Resource
+	private SchemaCatalogService schemaCatalogService;
+
+	/**
+	 * 是否开启缓存
+	 */
+	@Value("${sql.analysis.cache.enabled:true}")
+	private boolean enabled;
+
+	/**
+	 * 最多缓存的条数
+	 */
+	@Value("${sql.analysis.cache.capacity:10000}")
+	private int capacity;
+
+	/**
+	 * 缓存过期时间（毫秒）
+	 */
+	@Value("${sql.analysis.cache.ttl:3600000}")
+	private long ttl;
+
+	/**
+	 * 表结构版本号校验间隔（毫秒），间隔内命中缓存不访问目标库
+	 */
+	@Value("${sql.analysis.cache.schema-check-interval:10000}")
+	private long schemaCheckInterval;
+
+	/**
+	 * 缓存键模式：TEXT 按规范化后的 SQL 文本，FINGERPRINT 按 SQL 指纹（字面量不同的同一类 SQL 共用一份结果）
+	 */
+	@Value("${sql.analysis.cache.key-mode:TEXT}")
+	private KeyMode keyMode;
+
+	private LRUCache<String, CacheEntry> cache;
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder revalidatedCount = new LongAdder();
+
+	private final LongAdder invalidatedCount = new LongAdder();
+
+	@PostConstruct
+	public void init() {
+		cache = CacheUtil.newLRUCache(capacity, ttl);
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * 构建缓存键
+	 * @param targetKey 目标数据源
+	 * @param explainMode 执行计划模式
+	 * @param sql SQL
+	 * @param digest SQL 指纹摘要
+	 * @return {@link String }
+	 */
+	public String buildKey(String targetKey, ExplainMode explainMode, String sql, String digest) {
+		String prefix = targetKey + '\n' + explainMode + '\n';
+		if (keyMode == KeyMode.FINGERPRINT) {
+			return prefix + digest;
+		}
+		return prefix + normalize(sql);
+	}
+
+	/**
+	 * 查询缓存
+	 * <p>
+	 * 在校验间隔内直接返回；超过校验间隔时取表结构版本号，未变化则续期，变化则删除缓存并返回 null。
+	 * @param key 缓存键
+	 * @param target 目标数据源
+	 * @param connection 连接，只在目录需要校验版本号时获取
+	 * @return {@link CacheEntry } 未命中返回 null
+	 * @throws SQLException sql异常
+	 */
+	public CacheEntry get(String key, TargetDataSource target, ConnectionSupplier connection) throws SQLException {
+		if (!enabled) {
+			return null;
+		}
+		CacheEntry entry = cache.get(key, false);
+		if (entry == null) {
+			missCount.increment();
+			return null;
+		}
+		long now = System.currentTimeMillis();
+		if (now - entry.getValidatedAt() < schemaCheckInterval) {
+			hitCount.increment();
+			return entry;
+		}
+		String token = schemaCatalogService.versionToken(target, connection, entry.getTables(), schemaCheckInterval);
+		if (StrUtil.equals(token, entry.getSchemaToken())) {
+			entry.validatedAt = now;
+			revalidatedCount.increment();
+			hitCount.increment();
+			return entry;
+		}
+		log.info("表结构版本号变化，缓存失效，表：{}", entry.getTables());
+		cache.remove(key);
+		invalidatedCount.increment();
+		missCount.increment();
+		return null;
+	}
+
+	/**
+	 * 写入缓存
+	 * @param key 缓存键
+	 * @param target 目标数据源
+	 * @param sql SQL
+	 * @param resultList 执行计划
+	 * @param plan 执行计划树，JSON 模式才有
+	 * @param scoreResult 评分结果
+	 * @param score 结构化的评分结果
+	 * @param ruleVersion 评分规则版本号
+	 * @param indexAdvice 索引建议
+	 * @param conn 连接，目录需要加载或校验版本号时使用
+	 */
+	public void put(String key, TargetDataSource target, String sql, SqlAnalysisResultList resultList,
+			ExplainPlan plan, SqlScoreResult scoreResult, SqlScoreVO score, String ruleVersion,
+			List<IndexRecommendation> indexAdvice, Connection conn) {
+		if (!enabled) {
+			return;
+		}
+		try {
+			List<String> tables = extractTables(sql);
+			String token = schemaCatalogService.versionToken(target, () -> conn, tables, schemaCheckInterval);
+			cache.put(key, new CacheEntry(resultList, plan, scoreResult, score, ruleVersion, indexAdvice, tables,
+					token, System.currentTimeMillis()));
+		}
+		catch (SQLException e) {
+			// 查询版本号失败时不缓存，不影响本次分析结果
+			log.warn("查询表结构版本号失败，跳过缓存，{}", e.getMessage());
+		}
+	}
+
+	/**
+	 * 清空缓存
+	 */
+	public void clear() {
+		cache.clear();
+	}
+
+	/**
+	 * 缓存统计
+	 * @return {@link SqlAnalysisCacheStatsVO }
+	 */
+	public SqlAnalysisCacheStatsVO stats() {
+		long hits = hitCount.sum();
+		long misses = missCount.sum();
+		long total = hits + misses;
+		return new SqlAnalysisCacheStatsVO(enabled, cache.size(), capacity, hits, misses, revalidatedCount.sum(),
+				invalidatedCount.sum(), total == 0 ? 0D : (double) hits / total);
+	}
+
+	/**
+	 * 规范化 SQL：去掉首尾空白和结尾分号，连续空白合并为一个空格（不处理引号内的内容）
+	 * @param sql SQL
+	 * @return {@link String }
+	 */
+	String normalize(String sql) {
+		String trimmed = StrUtil.trim(sql);
+		while (trimmed.endsWith(";")) {
+			trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+		}
+		StringBuilder builder = new StringBuilder(trimmed.length());
+		char quote = 0;
+		boolean lastSpace = false;
+		for (int i = 0; i < trimmed.length(); i++) {
+			char c = trimmed.charAt(i);
+			if (quote != 0) {
+				builder.append(c);
+				if (c == '\\' && i + 1 < trimmed.length()) {
+					builder.append(trimmed.charAt(++i));
+				}
+				else if (c == quote) {
+					quote = 0;
+				}
+				continue;
+			}
+			if (c == '\'' || c == '"' || c == '`') {
+				quote = c;
+			}
+			if (Character.isWhitespace(c)) {
+				if (!lastSpace) {
+					builder.append(' ');
+				}
+				lastSpace = true;
+				continue;
+			}
+			lastSpace = false;
+			builder.append(c);
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * 解析 SQL 中引用的表（库名.表名 或 表名）
+	 * @param sql SQL
+	 * @return {@link List }<{@link String }>
+	 */
+	List<String> extractTables(String sql) {
+		try {
+			List<String> tables = new ArrayList<>();
+			for (String table : new TablesNamesFinder().getTableList(CCJSqlParserUtil.parse(sql))) {
+				tables.add(StrUtil.removeAll(table, '`', '"'));
+			}
+			Collections.sort(tables);
+			return tables;
+		}
+		catch (Exception e) {
+			// 解析失败时无法感知表结构变化，只依赖缓存过期时间
+			log.debug("解析sql中的表失败，{}", e.getMessage());
+			return Collections.emptyList();
+		}
+	}
+
+	/**
+	 * 缓存键模式
+	 */
+	public enum KeyMode {
+
+		/**
+		 * 规范化后的 SQL 文本
+		 */
+		TEXT,
+
+		/**
+		 * SQL 指纹
+		 */
+		FINGERPRINT
+
+	}
+
+	/**
+	 * 延迟获取连接，缓存命中时不需要连接
+	 */
+	@FunctionalInterface
+	public interface ConnectionSupplier {
+
+		Connection get() throws SQLException;
+
+	}
+
+	/**
+	 * 缓存条目
+	 */
+	public static class CacheEntry {
+
+		private final SqlAnalysisResultList resultList;
+
+		private final ExplainPlan plan;
+
+		private volatile ScoreSnapshot score;
+
+		private final List<IndexRecommendation> indexAdvice;
+
+		private final List<String> tables;
+
+		private final String schemaToken;
+
+		private volatile long validatedAt;
+
+		CacheEntry(SqlAnalysisResultList resultList, ExplainPlan plan, SqlScoreResult scoreResult, SqlScoreVO score,
+				String ruleVersion, List<IndexRecommendation> indexAdvice, List<String> tables, String schemaToken,
+				long validatedAt) {
+			this.resultList = resultList;
+			this.plan = plan;
+			this.score = new ScoreSnapshot(scoreResult, score, ruleVersion);
+			this.indexAdvice = indexAdvice;
+			this.tables = tables;
+			this.schemaToken = schemaToken;
+			this.validatedAt = validatedAt;
+		}
+
+		public SqlAnalysisResultList getResultList() {
+			return resultList;
+		}
+
+		public ExplainPlan getPlan() {
+			return plan;
+		}
+
+		/**
+		 * 评分结果、结构化评分结果和规则版本号的快照，三者来自同一次评分，读取一次后整体使用
+		 * @return {@link ScoreSnapshot }
+		 */
+		public ScoreSnapshot getScore() {
+			return score;
+		}
+
+		/**
+		 * 评分规则变化后用新规则重新评分，执行计划不变
+		 * @param scoreResult 评分结果
+		 * @param ruleVersion 评分规则版本号
+		 * @return {@link ScoreSnapshot } 本次评分的快照
+		 */
+		public ScoreSnapshot rescore(SqlScoreResult scoreResult, String ruleVersion) {
+			ScoreSnapshot snapshot = new ScoreSnapshot(scoreResult, SqlScoreVO.of(scoreResult), ruleVersion);
+			this.score = snapshot;
+			return snapshot;
+		}
+
+		/**
+		 * 索引建议，和执行计划一起缓存，表结构版本号变化时一起失效
+		 * @return {@link List }<{@link IndexRecommendation }>
+		 */
+		public List<IndexRecommendation> getIndexAdvice() {
+			return indexAdvice;
+		}
+
+		public List<String> getTables() {
+			return tables;
+		}
+
+		public String getSchemaToken() {
+			return schemaToken;
+		}
+
+		public long getValidatedAt() {
+			return validatedAt;
+		}
+
+	}
+
+	/**
+	 * 评分结果和对应的规则版本号，整体替换保证两者一致
+	 * @param scoreResult 评分结果
+	 * @param score 结构化的评分结果，和评分结果一起生成，命中缓存时直接复用
+	 * @param ruleVersion 评分规则版本号
+	 */
+	public record ScoreSnapshot(SqlScoreResult scoreResult, SqlScoreVO score, String ruleVersion) {
+	}
+
+}
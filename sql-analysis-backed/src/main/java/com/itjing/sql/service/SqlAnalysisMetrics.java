@@ -0,0 +1,89 @@
+package com.itjing.sql.service;
+
+import com.itjing.sql.constant.AnalysisPhase;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import javax.annotation.Resource;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL 分析耗时指标
+ * <p>
+ * 按阶段和目标数据源记录耗时，通过 /actuator/prometheus 输出。分位数（p50、p99）和直方图在
+ * management.metrics.distribution 中按指标名配置；目标个数由 {@link com.itjing.sql.config.MetricsConfig}
+ * 限制，超过后新目标的指标不再记录。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Component
+public class SqlAnalysisMetrics {
+
+	/**
+	 * 分析流程各阶段耗时，标签 phase、target
+	 */
+	public static final String PHASE_TIMER = "sql.analysis.phase";
+
+	/**
+	 * soar-web 启动各阶段耗时，标签 phase
+	 */
+	public static final String SOAR_STARTUP_TIMER = "soar.web.startup";
+
+	/**
+	 * 请求属性：本次请求的目标数据源名称，响应序列化时作为 target 标签
+	 */
+	private static final String TARGET_ATTRIBUTE = SqlAnalysisMetrics.class.getName() + ".target";
+
+	@Resource
+	private MeterRegistry meterRegistry;
+
+	/**
+	 * 记录从 startNanos 到现在的耗时
+	 * @param phase 阶段
+	 * @param target 目标数据源名称
+	 * @param startNanos 开始时间（System.nanoTime()）
+	 */
+	public void record(AnalysisPhase phase, String target, long startNanos) {
+		Timer.builder(PHASE_TIMER)
+			.tag("phase", phase.getTag())
+			.tag("target", target)
+			.register(meterRegistry)
+			.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * 记录 soar-web 启动阶段的耗时
+	 * @param phase 阶段
+	 * @param millis 耗时（毫秒）
+	 */
+	public void recordSoarStartup(String phase, long millis) {
+		Timer.builder(SOAR_STARTUP_TIMER).tag("phase", phase).register(meterRegistry).record(millis,
+				TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 把目标数据源名称绑定到当前请求，响应序列化的耗时记在该目标下
+	 * @param target 目标数据源名称
+	 */
+	public void bindTarget(String target) {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes != null) {
+			attributes.setAttribute(TARGET_ATTRIBUTE, target, RequestAttributes.SCOPE_REQUEST);
+		}
+	}
+
+	/**
+	 * 当前请求绑定的目标数据源名称
+	 * @return {@link String }，没有绑定时为 null
+	 */
+	public String boundTarget() {
+		RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		return attributes == null ? null
+				: (String) attributes.getAttribute(TARGET_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+	}
+
+}
@@ -0,0 +1,253 @@
+package com.itjing.sql.service;
+
+import cn.hutool.core.io.IoUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.itjing.sql.constant.HttpStatus;
+import com.itjing.sql.domain.jd.vo.SqlScoreRuleVO;
+import com.itjing.sql.exception.BusinessException;
+import com.itjing.sql.score.CompiledSqlScoreService;
+import com.itjing.sql.score.ScoreEngineVerifier;
+import com.jd.sql.analysis.analysis.SqlAnalysisResultList;
+import com.jd.sql.analysis.score.SqlScoreResult;
+import com.jd.sql.analysis.score.SqlScoreService;
+import com.jd.sql.analysis.score.SqlScoreServiceRulesEngine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 评分规则引擎
+ * <p>
+ * 启动时加载一次规则引擎供所有请求共享，评分时只执行规则匹配。定时检查规则文件
+ * （sql-analysis-rule-config.properties），内容变化后重新加载并整体替换，正在评分的请求仍使用旧引擎，
+ * 每个引擎带一个版本号，随分析结果返回。
+ * <p>
+ * 默认使用编译型规则引擎 {@link CompiledSqlScoreService}，加载时和京东 sql-analysis 的规则引擎对比一组执行计划的评分结果，
+ * 不一致或规则条件无法编译时退回京东 sql-analysis 的规则引擎。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@Slf4j
+@Service
+public class SqlScoreRuleService {
+
+	/**
+	 * 规则文件，京东 sql-analysis 从类路径加载
+	 */
+	public static final String RULE_FILE = "sql-analysis-rule-config.properties";
+
+	/**
+	 * 规则引擎类型
+	 */
+	@Value("${sql.analysis.rule.engine:COMPILED}")
+	private EngineType engineType;
+
+	private final AtomicReference<RuleEngine> current = new AtomicReference<>();
+
+	private final AtomicInteger sequence = new AtomicInteger();
+
+	/**
+	 * 规则文件最后修改时间，文件在 jar 包内时为 0，不检查变化
+	 */
+	private volatile long lastModified;
+
+	@PostConstruct
+	public void init() {
+		reload();
+	}
+
+	/**
+	 * 当前规则引擎
+	 * @return {@link RuleEngine }
+	 */
+	public RuleEngine current() {
+		return current.get();
+	}
+
+	/**
+	 * 使用当前规则引擎评分
+	 * @param resultList 执行计划
+	 * @return {@link SqlScoreResult }
+	 */
+	public SqlScoreResult score(SqlAnalysisResultList resultList) {
+		return current.get().score(resultList);
+	}
+
+	/**
+	 * 当前规则信息
+	 * @return {@link SqlScoreRuleVO }
+	 */
+	public SqlScoreRuleVO info() {
+		RuleEngine engine = current.get();
+		return new SqlScoreRuleVO(engine.getVersion(), engine.getEngine().getClass().getSimpleName(),
+				engine.getLoadedAt());
+	}
+
+	/**
+	 * 重新加载规则，内容未变化时保留当前引擎
+	 * @return {@link SqlScoreRuleVO }
+	 */
+	public synchronized SqlScoreRuleVO reload() {
+		URL url = Thread.currentThread().getContextClassLoader().getResource(RULE_FILE);
+		if (url == null) {
+			throw new BusinessException(HttpStatus.ERROR, "规则文件不存在：" + RULE_FILE);
+		}
+		// 先取修改时间再读取内容，读取后才发生的修改在下次检查时仍能发现
+		long modified = lastModified(url);
+		byte[] content;
+		try {
+			URLConnection connection = url.openConnection();
+			// 避免读到 jar 包缓存中的旧内容
+			connection.setUseCaches(false);
+			try (InputStream in = connection.getInputStream()) {
+				content = IoUtil.readBytes(in);
+			}
+		}
+		catch (IOException e) {
+			throw new BusinessException(HttpStatus.ERROR, "读取规则文件失败：" + e.getMessage());
+		}
+		lastModified = modified;
+		String hash = DigestUtil.sha256Hex(content).substring(0, 12);
+		RuleEngine old = current.get();
+		if (old != null && old.getHash().equals(hash)) {
+			return info();
+		}
+		RuleEngine engine = new RuleEngine(createEngine(new String(content, StandardCharsets.UTF_8)),
+				sequence.incrementAndGet() + "-" + hash, hash, System.currentTimeMillis());
+		current.set(engine);
+		log.info("评分规则已加载，版本：{}，文件：{}", engine.getVersion(), url);
+		return info();
+	}
+
+	/**
+	 * 定时检查规则文件，修改时间变化时重新加载
+	 */
+	@Scheduled(fixedDelayString = "${sql.analysis.rule.check-interval:5000}")
+	public void checkForChanges() {
+		long modified = lastModified(Thread.currentThread().getContextClassLoader().getResource(RULE_FILE));
+		if (modified == 0 || modified == lastModified) {
+			return;
+		}
+		try {
+			reload();
+		}
+		catch (Exception e) {
+			// 加载失败时继续使用当前规则
+			log.error("重新加载评分规则失败，继续使用版本：{}，{}", current.get().getVersion(), e.getMessage());
+		}
+	}
+
+	/**
+	 * 创建规则引擎，京东 sql-analysis 在构造时自行读取规则文件
+	 * @param content 规则文件内容
+	 * @return {@link SqlScoreService }
+	 */
+	private SqlScoreService createEngine(String content) {
+		SqlScoreService reference = new SqlScoreServiceRulesEngine();
+		if (engineType != EngineType.COMPILED) {
+			return reference;
+		}
+		try {
+			CompiledSqlScoreService compiled = CompiledSqlScoreService.load(content);
+			String mismatch = ScoreEngineVerifier.firstMismatch(reference, compiled);
+			if (mismatch == null) {
+				log.info("编译型规则引擎校验通过，规则数：{}", compiled.size());
+				return compiled;
+			}
+			log.warn("编译型规则引擎评分结果不一致，使用京东 sql-analysis 规则引擎，{}", mismatch);
+		}
+		catch (IllegalArgumentException e) {
+			log.warn("规则无法编译，使用京东 sql-analysis 规则引擎，{}", e.getMessage());
+		}
+		return reference;
+	}
+
+	private long lastModified(URL url) {
+		if (url == null || !"file".equals(url.getProtocol())) {
+			return 0;
+		}
+		try {
+			return new File(url.toURI()).lastModified();
+		}
+		catch (URISyntaxException e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * 规则引擎类型
+	 */
+	public enum EngineType {
+
+		/**
+		 * 编译型规则引擎，校验不通过时退回 JD
+		 */
+		COMPILED,
+
+		/**
+		 * 京东 sql-analysis 规则引擎
+		 */
+		JD
+
+	}
+
+	/**
+	 * 已加载的规则引擎，加载后不再修改，可以被多个线程同时使用
+	 */
+	public static class RuleEngine {
+
+		private final SqlScoreService engine;
+
+		private final String version;
+
+		private final String hash;
+
+		private final long loadedAt;
+
+		RuleEngine(SqlScoreService engine, String version, String hash, long loadedAt) {
+			this.engine = engine;
+			this.version = version;
+			this.hash = hash;
+			this.loadedAt = loadedAt;
+		}
+
+		public SqlScoreResult score(SqlAnalysisResultList resultList) {
+			return engine.score(resultList);
+		}
+
+		public SqlScoreService getEngine() {
+			return engine;
+		}
+
+		/**
+		 * 版本号：加载序号-规则文件内容摘要
+		 * @return {@link String }
+		 */
+		public String getVersion() {
+			return version;
+		}
+
+		public String getHash() {
+			return hash;
+		}
+
+		public long getLoadedAt() {
+			return loadedAt;
+		}
+
+	}
+
+}
@@ -1,23 +1,52 @@
 package com.itjing.sql.service;
 
+import com.itjing.sql.constant.HttpStatus;
+import com.itjing.sql.constant.SoarWebState;
+import com.itjing.sql.domain.xm.vo.SoarWebInstanceVO;
+import com.itjing.sql.domain.xm.vo.SoarWebStartupVO;
+import com.itjing.sql.domain.xm.vo.SoarWebStatusVO;
+import com.itjing.sql.exception.BusinessException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternUtils;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
-import java.util.concurrent.TimeUnit;
+import java.net.http.HttpClient;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 
 /**
  * 小米 soar web
+ * <p>
+ * 启动时对 Go 源码、go.mod/go.sum、vendor/modules.txt、内嵌的 webui、soar-bin 和平台计算哈希，作为构建缓存键。
+ * 缓存目录中已有该键对应的可执行文件时，直接在缓存目录中启动，不再复制和构建；否则复制到缓存目录下的临时目录，
+ * 使用随项目提供的 vendor 目录离线构建（-mod=vendor），构建完成后只保留运行需要的文件，再整体改名为缓存键目录，
+ * 多个进程同时构建时以先完成的为准。使用中的缓存目录持有同名 .lock 文件的共享锁，清理缓存时只删除能拿到排他锁的目录，
+ * 不会删除其他进程正在使用的工作目录。
+ * <p>
+ * 启动在后台线程中进行，不阻塞 Spring 容器。在 port 开始的连续端口上运行 instances 个实例，第一个实例就绪（生成 data 下的密钥）
+ * 后再启动其余实例。就绪由轮询 /webui 判断（退避间隔），就绪后定期健康检查；进程意外退出或健康检查连续失败时按退避间隔重启，
+ * 连续重启失败超过上限后该实例进入 FAILED 状态。任一实例就绪即整体就绪，调用方通过 {@link #awaitReady(long)} 等待就绪或快速失败，
+ * 通过 {@link #choose()} 选择正在处理请求最少的就绪实例。
  *
  * @author lijing
  * @date 2025-04-17
@@ -28,60 +57,769 @@ public class XmSoarWebService {
 	private static final Logger logger = LoggerFactory.getLogger(XmSoarWebService.class);
 
 	/**
-	 * SOAR Web 端口
+	 * SOAR Web 端口，多个实例时为第一个实例的端口，其余实例依次加一
 	 */
 	@Value("${soar.web.port:3000}")
 	private int soarWebPort;
 
+	/**
+	 * 实例个数
+	 */
+	@Value("${soar.web.instances:1}")
+	private int instanceCount;
+
+	/**
+	 * 健康检查间隔（毫秒）
+	 */
+	@Value("${soar.web.health-interval:5000}")
+	private long healthInterval;
+
+	/**
+	 * 健康检查连续失败多少次后重启实例
+	 */
+	@Value("${soar.web.health-failure-threshold:3}")
+	private int healthFailureThreshold;
+
 	/**
 	 * 构建超时时间（秒）
 	 */
 	@Value("${soar.web.build.timeout:300}")
 	private int buildTimeout;
 
+	/**
+	 * 是否离线构建（使用 vendor 目录，不访问网络）
+	 */
+	@Value("${soar.web.build.offline:true}")
+	private boolean offlineBuild;
+
+	/**
+	 * 是否开启构建缓存
+	 */
+	@Value("${soar.web.cache.enabled:true}")
+	private boolean cacheEnabled;
+
+	/**
+	 * 构建缓存目录
+	 */
+	@Value("${soar.web.cache.dir:${user.home}/.sql-analysis/soar-web-cache}")
+	private String cacheDir;
+
+	/**
+	 * 最多保留的构建缓存个数，超过时删除最久未使用的
+	 */
+	@Value("${soar.web.cache.max-entries:3}")
+	private int cacheMaxEntries;
+
+	/**
+	 * 是否延迟启动（第一次调用时才启动）
+	 */
+	@Value("${soar.web.lazy:false}")
+	private boolean lazy;
+
+	/**
+	 * 等待 HTTP 就绪的超时时间（毫秒）
+	 */
+	@Value("${soar.web.ready-timeout:30000}")
+	private long readyTimeout;
+
+	/**
+	 * 连续重启失败的上限，超过后进入 FAILED 状态
+	 */
+	@Value("${soar.web.max-restarts:5}")
+	private int maxRestarts;
+
+	/**
+	 * 重启的初始退避时间（毫秒），每次失败翻倍
+	 */
+	@Value("${soar.web.restart-backoff:1000}")
+	private long restartBackoff;
+
 	private final ResourceLoader resourceLoader;
 
-	private Process soarWebProcess;
+	private final SqlAnalysisMetrics sqlAnalysisMetrics;
+
+	private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
 
+	/**
+	 * 启动和重启线程池，启动实例时会阻塞等待 HTTP 就绪，按实例个数加一个构建线程创建
+	 */
+	private ScheduledExecutorService lifecycleExecutor;
+
+	/**
+	 * 健康检查线程，和启动线程分开，实例等待就绪时不会推迟其它实例的健康检查
+	 */
+	private final ScheduledExecutorService healthExecutor = Executors
+		.newSingleThreadScheduledExecutor(daemonThreads("soar-web-health"));
+
+	private final AtomicBoolean started = new AtomicBoolean();
+
+	private final AtomicInteger roundRobin = new AtomicInteger();
+
+	private final List<SoarWebInstance> instances = new ArrayList<>();
+
+	/**
+	 * 就绪信号，没有就绪实例时替换为新的
+	 */
+	private volatile CompletableFuture<Void> ready = new CompletableFuture<>();
+
+	/**
+	 * 构建失败原因，构建失败时整体为 FAILED
+	 */
+	private volatile String bootError;
+
+	private volatile boolean shuttingDown;
+
+	private volatile Path executable;
+
+	/**
+	 * 不使用缓存时的临时目录，停止时删除
+	 */
 	private Path tempDir;
 
+	/**
+	 * soar-web 的工作目录
+	 */
+	private volatile Path workDir;
+
+	/**
+	 * 当前使用的缓存目录的共享锁，停止时释放
+	 */
+	private FileChannel cacheLock;
+
+	private volatile SoarWebStartupVO startupInfo;
+
+	private static final String SOURCE_ROOT = "soar-web";
+
 	private static final String TEMP_DIR_PREFIX = "soar-web-";
 
-	private static final String EXECUTABLE_NAME = System.getProperty("os.name").toLowerCase().contains("windows")
-			? "soar-web.exe" : "soar-web";
+	/**
+	 * 构建中的缓存目录后缀
+	 */
+	private static final String STAGING_SUFFIX = ".staging-";
+
+	/**
+	 * 缓存目录使用锁文件的后缀
+	 */
+	private static final String LOCK_SUFFIX = ".lock";
+
+	/**
+	 * 缓存格式版本，缓存目录结构或构建方式变化时修改，使旧缓存失效
+	 */
+	private static final String CACHE_FORMAT = "1";
+
+	/**
+	 * 构建后保留的运行时目录和文件，其余源码删除
+	 */
+	private static final Set<String> RUNTIME_ENTRIES = Set.of("bin", "soar-bin", "data", "etc", "soar-web.yaml");
+
+	private static final boolean WINDOWS = System.getProperty("os.name").toLowerCase().contains("windows");
 
-	public XmSoarWebService(ResourceLoader resourceLoader) {
+	private static final String EXECUTABLE_NAME = WINDOWS ? "soar-web.exe" : "soar-web";
+
+	/**
+	 * 重启的最大退避时间（毫秒）
+	 */
+	private static final long MAX_RESTART_BACKOFF = 60000L;
+
+	public XmSoarWebService(ResourceLoader resourceLoader, SqlAnalysisMetrics sqlAnalysisMetrics) {
 		this.resourceLoader = resourceLoader;
+		this.sqlAnalysisMetrics = sqlAnalysisMetrics;
 	}
 
 	@PostConstruct
 	public void initialize() {
+		for (int i = 0; i < Math.max(1, instanceCount); i++) {
+			instances.add(new SoarWebInstance(i, soarWebPort + i));
+		}
+		lifecycleExecutor = Executors.newScheduledThreadPool(instances.size() + 1,
+				daemonThreads("soar-web-lifecycle"));
+		healthExecutor.scheduleWithFixedDelay(this::checkInstances, healthInterval, healthInterval,
+				TimeUnit.MILLISECONDS);
+		if (lazy) {
+			logger.info("soar-web延迟启动，第一次调用时启动");
+			return;
+		}
+		start();
+	}
+
+	/**
+	 * 在后台启动，已启动时忽略
+	 */
+	public void start() {
+		if (!started.compareAndSet(false, true)) {
+			return;
+		}
+		instances.forEach(instance -> instance.setState(SoarWebState.STARTING));
+		lifecycleExecutor.execute(this::boot);
+	}
+
+	/**
+	 * 手动重启：重启所有实例，未构建成功过时重新构建
+	 */
+	public void restart() {
+		if (getState() == SoarWebState.STARTING) {
+			throw new BusinessException(HttpStatus.CONFLICT, "soar-web正在启动");
+		}
+		started.set(true);
+		bootError = null;
+		if (executable == null) {
+			instances.forEach(instance -> instance.setState(SoarWebState.STARTING));
+			updateReady();
+			lifecycleExecutor.execute(this::boot);
+			return;
+		}
+		for (SoarWebInstance instance : instances) {
+			instance.getConsecutiveFailures().set(0);
+			instance.setState(SoarWebState.RESTARTING);
+			lifecycleExecutor.execute(() -> bootInstance(instance, true));
+		}
+		updateReady();
+	}
+
+	/**
+	 * 等待就绪：已就绪直接返回，启动失败时立即失败，启动中或重启中最多等待指定时间
+	 * @param waitMillis 最长等待时间（毫秒），0 表示不等待
+	 */
+	public void awaitReady(long waitMillis) {
+		SoarWebState state = getState();
+		if (state == SoarWebState.READY) {
+			return;
+		}
+		if (state == SoarWebState.STOPPED) {
+			start();
+		}
+		if (state == SoarWebState.FAILED) {
+			throw new BusinessException(HttpStatus.ERROR, "soar-web启动失败：" + getLastError());
+		}
 		try {
+			ready.get(waitMillis, TimeUnit.MILLISECONDS);
+		}
+		catch (TimeoutException e) {
+			throw new BusinessException(HttpStatus.WARN, "soar-web尚未就绪（" + getState() + "），请稍后再试");
+		}
+		catch (ExecutionException e) {
+			throw new BusinessException(HttpStatus.ERROR, "soar-web启动失败：" + getLastError());
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new BusinessException(HttpStatus.ERROR, "等待soar-web就绪被中断");
+		}
+	}
 
-			// 清理可能存在的旧临时目录
-			cleanupOldTempDirs();
+	/**
+	 * 选择一个就绪实例：正在处理的请求最少的，相同时轮流选择
+	 * @return {@link SoarWebInstance } 没有就绪实例时返回 null
+	 */
+	public SoarWebInstance choose() {
+		int size = instances.size();
+		int offset = Math.floorMod(roundRobin.getAndIncrement(), size);
+		SoarWebInstance best = null;
+		for (int i = 0; i < size; i++) {
+			SoarWebInstance candidate = instances.get((offset + i) % size);
+			if (candidate.getState() == SoarWebState.READY
+					&& (best == null || candidate.getInFlight() < best.getInFlight())) {
+				best = candidate;
+			}
+		}
+		return best;
+	}
 
-			// 创建临时目录
-			createTempDirectory();
+	/**
+	 * 实例个数
+	 * @return int
+	 */
+	public int getInstanceCount() {
+		return instances.size();
+	}
 
-			// 添加关闭钩子
-			// addShutdownHook();
+	/**
+	 * 整体状态：构建失败为 FAILED，任一实例就绪为 READY，否则按启动中、重启中、失败的顺序取
+	 * @return {@link SoarWebState }
+	 */
+	public SoarWebState getState() {
+		if (bootError != null) {
+			return SoarWebState.FAILED;
+		}
+		if (!started.get()) {
+			return SoarWebState.STOPPED;
+		}
+		boolean starting = executable == null;
+		boolean restarting = false;
+		for (SoarWebInstance instance : instances) {
+			switch (instance.getState()) {
+				case READY -> {
+					return SoarWebState.READY;
+				}
+				case STARTING -> starting = true;
+				case RESTARTING -> restarting = true;
+				default -> {
+				}
+			}
+		}
+		if (starting) {
+			return SoarWebState.STARTING;
+		}
+		return restarting ? SoarWebState.RESTARTING : SoarWebState.FAILED;
+	}
 
-			// 复制Go项目文件
-			copyGoProject();
+	/**
+	 * 运行状态
+	 * @return {@link SoarWebStatusVO }
+	 */
+	public SoarWebStatusVO status() {
+		List<SoarWebInstanceVO> instanceList = new ArrayList<>(instances.size());
+		int restartCount = 0;
+		for (SoarWebInstance instance : instances) {
+			SoarWebInstanceVO vo = instance.toVO();
+			restartCount += vo.getRestartCount();
+			instanceList.add(vo);
+		}
+		return new SoarWebStatusVO(getState(), soarWebPort, getLastError(), restartCount, startupInfo, instanceList);
+	}
 
-			// 构建Go项目
-			buildGoProject();
+	private String getLastError() {
+		if (bootError != null) {
+			return bootError;
+		}
+		for (SoarWebInstance instance : instances) {
+			if (instance.getLastError() != null) {
+				return instance.getLastError();
+			}
+		}
+		return null;
+	}
 
-			// 运行Go项目
-			runGoProject();
+	/**
+	 * 准备可执行文件（命中缓存或构建），启动第一个实例，就绪后再启动其余实例
+	 */
+	private void boot() {
+		try {
+			long start = System.nanoTime();
+			Map<String, Long> phases = new LinkedHashMap<>();
 
-			// 检查服务是否成功启动
-			checkServiceHealth();
+			// 列出并哈希源码
+			long phaseStart = System.nanoTime();
+			Map<String, Resource> sources = listSources();
+			String cacheKey = computeCacheKey(sources);
+			phases.put("hash", elapsedMillis(phaseStart));
+
+			boolean cacheHit;
+			Path binary;
+			if (cacheEnabled) {
+				Path entry = Paths.get(cacheDir).resolve(cacheKey);
+				// 先拿到共享锁再检查缓存，避免检查后被其他进程清理
+				lockCacheEntry(entry);
+				binary = entry.resolve("bin").resolve(EXECUTABLE_NAME);
+				cacheHit = Files.isRegularFile(binary);
+				if (cacheHit) {
+					logger.info("命中soar-web构建缓存: {}", entry);
+					Files.setLastModifiedTime(entry, FileTime.fromMillis(System.currentTimeMillis()));
+				}
+				else {
+					buildIntoCache(sources, entry, phases);
+				}
+				workDir = entry;
+				pruneCache(cacheKey);
+			}
+			else {
+				cacheHit = false;
+				// 清理可能存在的旧临时目录
+				cleanupOldTempDirs();
+				// 创建临时目录
+				createTempDirectory();
+				buildInto(sources, tempDir, phases);
+				workDir = tempDir;
+				binary = tempDir.resolve("bin").resolve(EXECUTABLE_NAME);
+			}
+			executable = binary;
+
+			// 第一个实例会生成 data 下的密钥，就绪后再启动其余实例，避免多个进程同时生成
+			phaseStart = System.nanoTime();
+			bootInstance(instances.get(0), false);
+			phases.put("start", elapsedMillis(phaseStart));
+
+			startupInfo = new SoarWebStartupVO(cacheKey, cacheHit, binary.toString(), phases, elapsedMillis(start));
+			logger.info("soar-web启动完成，缓存命中: {}，各阶段耗时(ms): {}，总耗时: {}ms", cacheHit, phases,
+					startupInfo.getTotalMillis());
+			phases.forEach(sqlAnalysisMetrics::recordSoarStartup);
+			sqlAnalysisMetrics.recordSoarStartup("total", startupInfo.getTotalMillis());
+			for (SoarWebInstance instance : instances.subList(1, instances.size())) {
+				lifecycleExecutor.execute(() -> bootInstance(instance, false));
+			}
 		}
 		catch (Exception e) {
 			logger.error("初始化Go项目失败", e);
-			throw new RuntimeException("初始化Go项目失败", e);
+			bootError = "初始化Go项目失败: " + e.getMessage();
+			instances.forEach(instance -> instance.setState(SoarWebState.FAILED));
+			updateReady();
+		}
+	}
+
+	/**
+	 * 启动一个实例并等待就绪，失败时按退避间隔重试
+	 * @param instance 实例
+	 * @param restart 是否为重启
+	 */
+	private void bootInstance(SoarWebInstance instance, boolean restart) {
+		if (shuttingDown) {
+			return;
+		}
+		try {
+			instance.stop();
+			long phaseStart = System.nanoTime();
+			instance.launch(executable, workDir, this::onProcessExit);
+			sqlAnalysisMetrics.recordSoarStartup("launch", elapsedMillis(phaseStart));
+			phaseStart = System.nanoTime();
+			instance.awaitHttpReady(httpClient, readyTimeout);
+			sqlAnalysisMetrics.recordSoarStartup("ready", elapsedMillis(phaseStart));
+			if (restart) {
+				instance.getRestartCount().incrementAndGet();
+			}
+			logger.info("soar-web[{}]已就绪，端口: {}", instance.getIndex(), instance.getPort());
+			markReady(instance);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			instance.stop();
+		}
+		catch (Exception e) {
+			logger.warn("soar-web[{}]启动失败: {}", instance.getIndex(), e.getMessage());
+			instance.stop();
+			instance.setLastError(e.getMessage());
+			scheduleRestart(instance, "启动失败: " + e.getMessage());
+		}
+	}
+
+	private void markReady(SoarWebInstance instance) {
+		instance.getConsecutiveFailures().set(0);
+		instance.getHealthFailures().set(0);
+		instance.setLastError(null);
+		instance.setState(SoarWebState.READY);
+		ready.complete(null);
+		// 就绪前后进程退出时，退出回调可能因为状态还不是 READY 而被忽略
+		Process process = instance.getProcess();
+		if (process != null && !process.isAlive()) {
+			onProcessExit(instance, process);
+		}
+	}
+
+	/**
+	 * 进程退出回调：就绪后意外退出时自动重启
+	 */
+	private void onProcessExit(SoarWebInstance instance, Process process) {
+		if (shuttingDown || process != instance.getProcess() || instance.getState() != SoarWebState.READY) {
+			return;
+		}
+		scheduleRestart(instance, "进程意外退出，退出码: " + process.exitValue());
+	}
+
+	private void scheduleRestart(SoarWebInstance instance, String reason) {
+		if (shuttingDown) {
+			return;
+		}
+		int attempt = instance.getConsecutiveFailures().incrementAndGet();
+		if (attempt > maxRestarts) {
+			logger.error("soar-web[{}]连续重启失败{}次，不再重启: {}", instance.getIndex(), maxRestarts, reason);
+			instance.setLastError("连续重启失败" + maxRestarts + "次: " + reason);
+			instance.setState(SoarWebState.FAILED);
+			updateReady();
+			return;
+		}
+		instance.setState(SoarWebState.RESTARTING);
+		updateReady();
+		long delay = Math.min(restartBackoff << Math.min(attempt - 1, 16), MAX_RESTART_BACKOFF);
+		logger.warn("soar-web[{}]{}，{}ms后第{}次重启", instance.getIndex(), reason, delay, attempt);
+		lifecycleExecutor.schedule(() -> bootInstance(instance, true), delay, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 健康检查：就绪实例的 /webui 连续失败达到阈值时重启
+	 */
+	private void checkInstances() {
+		for (SoarWebInstance instance : instances) {
+			if (instance.getState() != SoarWebState.READY) {
+				continue;
+			}
+			try {
+				if (instance.probe(httpClient) < 500) {
+					instance.getHealthFailures().set(0);
+					continue;
+				}
+			}
+			catch (IOException e) {
+				logger.debug("soar-web[{}]健康检查失败: {}", instance.getIndex(), e.getMessage());
+			}
+			catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+			int failures = instance.getHealthFailures().incrementAndGet();
+			if (failures >= healthFailureThreshold) {
+				instance.setState(SoarWebState.RESTARTING);
+				instance.stop();
+				scheduleRestart(instance, "健康检查连续失败" + failures + "次");
+			}
+		}
+	}
+
+	/**
+	 * 没有就绪实例时替换就绪信号，整体失败时让等待的调用方立即失败
+	 */
+	private void updateReady() {
+		SoarWebState state = getState();
+		if (state == SoarWebState.READY) {
+			ready.complete(null);
+			return;
+		}
+		if (ready.isDone()) {
+			ready = new CompletableFuture<>();
+		}
+		if (state == SoarWebState.FAILED) {
+			ready.completeExceptionally(new IllegalStateException(getLastError()));
+		}
+	}
+
+	/**
+	 * 启动信息
+	 * @return {@link SoarWebStartupVO }
+	 */
+	public SoarWebStartupVO getStartupInfo() {
+		return startupInfo;
+	}
+
+	/**
+	 * soar-web 的工作目录，其中 soar-bin 下为 soar 可执行文件
+	 * @return {@link Path } 尚未准备好时返回 null
+	 */
+	public Path getWorkDir() {
+		return workDir;
+	}
+
+	/**
+	 * 列出 classpath 中 soar-web 目录下的所有文件，支持目录和 jar 包两种形式
+	 * @return {@link Map }<{@link String }, {@link Resource }> 相对路径到文件，按路径排序
+	 * @throws IOException io异常
+	 */
+	private Map<String, Resource> listSources() throws IOException {
+		ResourcePatternResolver resolver = ResourcePatternUtils.getResourcePatternResolver(resourceLoader);
+		String rootUrl = resolver.getResource("classpath:" + SOURCE_ROOT + "/").getURL().toString();
+		Map<String, Resource> sources = new TreeMap<>();
+		for (Resource resource : resolver.getResources("classpath:" + SOURCE_ROOT + "/**")) {
+			String url = resource.getURL().toString();
+			if (url.endsWith("/") || !resource.isReadable()) {
+				continue;
+			}
+			if (!url.startsWith(rootUrl)) {
+				logger.warn("忽略不在soar-web目录下的文件: {}", url);
+				continue;
+			}
+			sources.put(url.substring(rootUrl.length()), resource);
+		}
+		if (!sources.containsKey("main.go")) {
+			throw new FileNotFoundException("classpath中找不到soar-web/main.go");
+		}
+		return sources;
+	}
+
+	/**
+	 * 计算构建缓存键
+	 * @param sources 源码
+	 * @return {@link String }
+	 * @throws IOException io异常
+	 */
+	private String computeCacheKey(Map<String, Resource> sources) throws IOException {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+		String header = String.join("\n", CACHE_FORMAT, System.getProperty("os.name"), System.getProperty("os.arch"),
+				offlineBuild ? "vendor" : "mod", "");
+		digest.update(header.getBytes(StandardCharsets.UTF_8));
+		byte[] buffer = new byte[64 * 1024];
+		for (Map.Entry<String, Resource> source : sources.entrySet()) {
+			if (!isCacheKeyInput(source.getKey())) {
+				continue;
+			}
+			digest.update(source.getKey().getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+			try (InputStream in = source.getValue().getInputStream()) {
+				int n;
+				while ((n = in.read(buffer)) > 0) {
+					digest.update(buffer, 0, n);
+				}
+			}
+			digest.update((byte) 0);
+		}
+		return HexFormat.of().formatHex(digest.digest(), 0, 16);
+	}
+
+	/**
+	 * 影响构建结果或运行结果的文件：Go 源码（vendor 由 modules.txt 代表）、模块文件、内嵌的 webui、soar 可执行文件，
+	 * 以及复制到缓存目录、运行时从工作目录读取的配置（etc、soar-web.yaml）
+	 */
+	private static boolean isCacheKeyInput(String path) {
+		return "go.mod".equals(path) || "go.sum".equals(path) || "vendor/modules.txt".equals(path)
+				|| (path.endsWith(".go") && !path.startsWith("vendor/")) || path.startsWith("web/webui/")
+				|| path.startsWith("soar-bin/") || path.startsWith("etc/") || "soar-web.yaml".equals(path);
+	}
+
+	/**
+	 * 在缓存目录下的临时目录中构建，完成后改名为缓存键目录
+	 */
+	private void buildIntoCache(Map<String, Resource> sources, Path entry, Map<String, Long> phases)
+			throws IOException, InterruptedException {
+		Files.createDirectories(entry.getParent());
+		Path staging = Files.createTempDirectory(entry.getParent(), entry.getFileName() + STAGING_SUFFIX);
+		try {
+			buildInto(sources, staging, phases);
+			long phaseStart = System.nanoTime();
+			pruneToRuntime(staging);
+			try {
+				Files.move(staging, entry, StandardCopyOption.ATOMIC_MOVE);
+				logger.info("soar-web构建结果已缓存: {}", entry);
+			}
+			catch (FileSystemException e) {
+				// 其他进程已经构建完成，使用已有的缓存
+				if (!Files.isRegularFile(entry.resolve("bin").resolve(EXECUTABLE_NAME))) {
+					throw e;
+				}
+				logger.info("soar-web构建缓存已被其他进程创建: {}", entry);
+			}
+			phases.put("cache", elapsedMillis(phaseStart));
+		}
+		finally {
+			deleteDirectory(staging);
+		}
+	}
+
+	/**
+	 * 复制并构建
+	 */
+	private void buildInto(Map<String, Resource> sources, Path dir, Map<String, Long> phases)
+			throws IOException, InterruptedException {
+		long phaseStart = System.nanoTime();
+		copyGoProject(sources, dir);
+		phases.put("copy", elapsedMillis(phaseStart));
+
+		phaseStart = System.nanoTime();
+		buildGoProject(dir);
+		phases.put("build", elapsedMillis(phaseStart));
+	}
+
+	/**
+	 * 删除构建用的源码，只保留运行需要的文件
+	 */
+	private void pruneToRuntime(Path dir) throws IOException {
+		try (Stream<Path> children = Files.list(dir)) {
+			for (Path child : children.toList()) {
+				if (!RUNTIME_ENTRIES.contains(child.getFileName().toString())) {
+					deleteDirectory(child);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 删除最久未使用的缓存和遗留的构建临时目录
+	 * @param currentKey 当前使用的缓存键
+	 */
+	private void pruneCache(String currentKey) {
+		Path root = Paths.get(cacheDir);
+		List<Path> entries = new ArrayList<>();
+		try (Stream<Path> children = Files.list(root)) {
+			long staleBefore = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(buildTimeout) * 2;
+			for (Path child : children.toList()) {
+				String name = child.getFileName().toString();
+				if (name.contains(STAGING_SUFFIX)) {
+					if (Files.getLastModifiedTime(child).toMillis() < staleBefore) {
+						deleteDirectory(child);
+					}
+				}
+				else if (!name.equals(currentKey) && Files.isDirectory(child)) {
+					entries.add(child);
+				}
+			}
+			entries.sort(Comparator.comparingLong(this::lastModified).reversed());
+			for (int i = Math.max(0, cacheMaxEntries - 1); i < entries.size(); i++) {
+				if (deleteUnusedEntry(entries.get(i))) {
+					logger.info("删除soar-web构建缓存: {}", entries.get(i));
+				}
+				else {
+					logger.info("soar-web构建缓存正在被其他进程使用，暂不删除: {}", entries.get(i));
+				}
+			}
+		}
+		catch (IOException e) {
+			logger.warn("清理soar-web构建缓存失败", e);
+		}
+	}
+
+	/**
+	 * 对缓存目录的锁文件加共享锁，持有到停止或切换缓存目录
+	 * @param entry 缓存目录
+	 * @throws IOException io异常
+	 */
+	private void lockCacheEntry(Path entry) throws IOException {
+		releaseCacheLock();
+		Files.createDirectories(entry.getParent());
+		FileChannel channel = FileChannel.open(lockFile(entry), StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			// 其他进程正在删除该目录时等待删除完成，之后按未命中重新构建
+			channel.lock(0L, Long.MAX_VALUE, true);
+		}
+		catch (IOException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+		cacheLock = channel;
+	}
+
+	private void releaseCacheLock() {
+		if (cacheLock == null) {
+			return;
+		}
+		try {
+			cacheLock.close();
+		}
+		catch (IOException e) {
+			logger.warn("释放soar-web构建缓存锁失败", e);
+		}
+		cacheLock = null;
+	}
+
+	/**
+	 * 拿到排他锁时删除缓存目录，锁文件保留
+	 * @return boolean 是否已删除，其他进程正在使用时返回 false
+	 */
+	private boolean deleteUnusedEntry(Path entry) throws IOException {
+		try (FileChannel channel = FileChannel.open(lockFile(entry), StandardOpenOption.CREATE,
+				StandardOpenOption.READ, StandardOpenOption.WRITE);
+				FileLock lock = channel.tryLock(0L, Long.MAX_VALUE, false)) {
+			if (lock == null) {
+				return false;
+			}
+			deleteDirectory(entry);
+			return true;
+		}
+		catch (OverlappingFileLockException e) {
+			return false;
+		}
+	}
+
+	private static Path lockFile(Path entry) {
+		return entry.resolveSibling(entry.getFileName() + LOCK_SUFFIX);
+	}
+
+	private long lastModified(Path path) {
+		try {
+			return Files.getLastModifiedTime(path).toMillis();
+		}
+		catch (IOException e) {
+			return 0L;
 		}
 	}
 
@@ -89,10 +827,10 @@ public class XmSoarWebService {
 	 * 清理旧临时目录
 	 */
 	private void cleanupOldTempDirs() {
-		try {
-			Path systemTempDir = Paths.get(System.getProperty("java.io.tmpdir"));
-			Files.list(systemTempDir)
-				.filter(path -> path.getFileName().toString().startsWith(TEMP_DIR_PREFIX))
+		Path systemTempDir = Paths.get(System.getProperty("java.io.tmpdir"));
+		try (Stream<Path> children = Files.list(systemTempDir)) {
+			children.filter(path -> path.getFileName().toString().startsWith(TEMP_DIR_PREFIX))
+				.filter(Files::isDirectory)
 				.forEach(path -> {
 					try {
 						deleteDirectory(path);
@@ -115,16 +853,17 @@ public class XmSoarWebService {
 	 */
 	private void deleteDirectory(Path directory) throws IOException {
 		if (Files.exists(directory)) {
-			Files.walk(directory)
-				.sorted((a, b) -> -a.compareTo(b)) // 反向排序，确保先删除文件再删除目录
-				.forEach(path -> {
-					try {
-						Files.deleteIfExists(path);
-					}
-					catch (IOException e) {
-						logger.warn("删除文件失败: {}", path, e);
-					}
-				});
+			try (Stream<Path> paths = Files.walk(directory)) {
+				paths.sorted((a, b) -> -a.compareTo(b)) // 反向排序，确保先删除文件再删除目录
+					.forEach(path -> {
+						try {
+							Files.deleteIfExists(path);
+						}
+						catch (IOException e) {
+							logger.warn("删除文件失败: {}", path, e);
+						}
+					});
+			}
 		}
 	}
 
@@ -143,98 +882,64 @@ public class XmSoarWebService {
 	}
 
 	/**
-	 * 添加 Shutdown 钩子
+	 * 复制Go项目文件
+	 * @param sources 源码
+	 * @param dir 目标目录
+	 * @throws IOException io异常
 	 */
-	private void addShutdownHook() {
-		// 添加JVM关闭钩子
-		Runtime.getRuntime().addShutdownHook(new Thread(() -> {
-			logger.info("执行关闭钩子，清理资源...");
-			cleanup();
-		}));
-	}
-
-	private void copyGoProject() throws IOException {
+	private void copyGoProject(Map<String, Resource> sources, Path dir) throws IOException {
 		logger.info("开始复制Go项目文件...");
-		Resource resource = resourceLoader.getResource("classpath:soar-web");
-		File sourceDir = resource.getFile();
-
-		// 复制项目文件到临时目录
-		Files.walk(sourceDir.toPath()).forEach(source -> {
-			Path destination = tempDir.resolve(sourceDir.toPath().relativize(source));
-			try {
-				Files.copy(source, destination, StandardCopyOption.REPLACE_EXISTING);
+		for (Map.Entry<String, Resource> source : sources.entrySet()) {
+			Path destination = dir.resolve(source.getKey());
+			Files.createDirectories(destination.getParent());
+			try (InputStream in = source.getValue().getInputStream()) {
+				Files.copy(in, destination, StandardCopyOption.REPLACE_EXISTING);
 			}
-			catch (IOException e) {
-				logger.error("复制文件失败: {}", source, e);
+			if (source.getKey().startsWith("soar-bin/") && !WINDOWS) {
+				destination.toFile().setExecutable(true);
 			}
-		});
-
-		logger.info("Go项目文件复制完成，目标目录: {}", tempDir);
+		}
+		logger.info("Go项目文件复制完成，共{}个文件，目标目录: {}", sources.size(), dir);
 	}
 
 	/**
 	 * 构建 Go 项目
+	 * @param dir 项目目录
 	 * @throws IOException io异常
 	 * @throws InterruptedException 中断异常
 	 */
-	private void buildGoProject() throws IOException, InterruptedException {
-		logger.info("开始构建Go项目...");
+	private void buildGoProject(Path dir) throws IOException, InterruptedException {
+		logger.info("开始构建Go项目，离线构建: {}", offlineBuild);
 
 		ProcessBuilder processBuilder = new ProcessBuilder();
-		processBuilder.directory(tempDir.toFile());
-
-		// 设置GOPROXY环境变量（国内加速）
-		processBuilder.environment().put("GOPROXY", "https://goproxy.cn,direct");
+		processBuilder.directory(dir.toFile());
+		processBuilder.redirectErrorStream(true);
 
-		// 执行go mod tidy
-		Process tidyProcess = processBuilder.command("go", "mod", "tidy").start();
-		if (!tidyProcess.waitFor(300, TimeUnit.SECONDS)) {
-			throw new RuntimeException("go mod tidy 执行超时");
+		if (offlineBuild) {
+			// 使用随项目提供的 vendor 目录，禁止访问模块代理
+			processBuilder.environment().put("GOFLAGS", "-mod=vendor");
+			processBuilder.environment().put("GOPROXY", "off");
+		}
+		else {
+			// 设置GOPROXY环境变量（国内加速）
+			processBuilder.environment().put("GOPROXY", "https://goproxy.cn,direct");
+			runCommand(processBuilder, "go mod tidy", "go", "mod", "tidy");
 		}
 
 		// 构建输出路径
-		Path outputPath = tempDir.resolve("bin").resolve(EXECUTABLE_NAME);
+		Path outputPath = dir.resolve("bin").resolve(EXECUTABLE_NAME);
 		// 确保输出目录存在
 		Files.createDirectories(outputPath.getParent());
 
 		logger.info("开始构建可执行文件，输出路径: {}", outputPath);
 
 		// 执行go build，指定输出路径
-		Process buildProcess = processBuilder.command("go", "build", "-o", outputPath.toString(), "main.go").start();
-
-		// 读取构建过程的输出
-		new Thread(() -> {
-			try (BufferedReader reader = new BufferedReader(new InputStreamReader(buildProcess.getInputStream()))) {
-				String line;
-				while ((line = reader.readLine()) != null) {
-					logger.info("build output: {}", line);
-				}
-			}
-			catch (IOException e) {
-				logger.error("读取构建输出失败", e);
-			}
-		}).start();
-
-		// 读取构建过程的错误输出
-		new Thread(() -> {
-			try (BufferedReader reader = new BufferedReader(new InputStreamReader(buildProcess.getErrorStream()))) {
-				String line;
-				while ((line = reader.readLine()) != null) {
-					logger.error("build error: {}", line);
-				}
-			}
-			catch (IOException e) {
-				logger.error("读取构建错误输出失败", e);
-			}
-		}).start();
-
-		if (!buildProcess.waitFor(300, TimeUnit.SECONDS)) {
-			throw new RuntimeException("go build 执行超时");
+		if (offlineBuild) {
+			runCommand(processBuilder, "go build", "go", "build", "-mod=vendor", "-trimpath", "-o",
+					outputPath.toString(), "main.go");
 		}
-
-		// 检查构建结果
-		if (buildProcess.exitValue() != 0) {
-			throw new RuntimeException("Go项目构建失败");
+		else {
+			runCommand(processBuilder, "go build", "go", "build", "-o", outputPath.toString(), "main.go");
 		}
 
 		// 检查可执行文件是否存在
@@ -243,7 +948,7 @@ public class XmSoarWebService {
 		}
 
 		// 设置执行权限（非Windows系统）
-		if (!System.getProperty("os.name").toLowerCase().contains("windows")) {
+		if (!WINDOWS) {
 			outputPath.toFile().setExecutable(true);
 		}
 
@@ -251,101 +956,61 @@ public class XmSoarWebService {
 	}
 
 	/**
-	 * 运行 Go Project
-	 * @throws IOException io异常
+	 * 执行构建命令，输出写入日志，超时或失败时抛出异常
 	 */
+	private void runCommand(ProcessBuilder processBuilder, String name, String... command)
+			throws IOException, InterruptedException {
+		Process process = processBuilder.command(command).start();
 
-	private void runGoProject() throws IOException {
-		logger.info("启动Go项目...");
-
-		Path executablePath = tempDir.resolve("bin").resolve(EXECUTABLE_NAME);
-		if (!Files.exists(executablePath)) {
-			throw new RuntimeException("找不到可执行文件: " + executablePath);
-		}
-
-		ProcessBuilder processBuilder = new ProcessBuilder();
-		processBuilder.directory(tempDir.toFile());
-
-		// 修改启动命令，使用正确的参数格式
-		processBuilder.command(executablePath.toString(), "--addr", ":" + soarWebPort // soar-web需要带冒号的端口格式
-		);
-
-		processBuilder.redirectErrorStream(true);
-
-		logger.info("执行命令: {}", String.join(" ", processBuilder.command()));
-
-		// 启动进程
-		soarWebProcess = processBuilder.start();
-
-		// 异步读取输出
-		new Thread(() -> {
-			try (BufferedReader reader = new BufferedReader(new InputStreamReader(soarWebProcess.getInputStream()))) {
+		// 读取构建过程的输出
+		Thread outputReader = new Thread(() -> {
+			try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
 				String line;
 				while ((line = reader.readLine()) != null) {
-					logger.info("soar-web: {}", line);
+					logger.info("{} output: {}", name, line);
 				}
 			}
 			catch (IOException e) {
-				logger.error("读取soar-web输出失败", e);
+				logger.error("读取{}输出失败", name, e);
 			}
-		}).start();
+		}, "soar-web-build-output");
+		outputReader.setDaemon(true);
+		outputReader.start();
 
-		// 等待确认进程启动
-		try {
-			Thread.sleep(2000);
-			if (!soarWebProcess.isAlive()) {
-				throw new RuntimeException("soar-web进程启动失败");
-			}
-			logger.info("soar-web服务已启动，端口: {}", soarWebPort);
+		if (!process.waitFor(buildTimeout, TimeUnit.SECONDS)) {
+			process.destroyForcibly();
+			throw new RuntimeException(name + " 执行超时");
 		}
-		catch (InterruptedException e) {
-			Thread.currentThread().interrupt();
-			throw new RuntimeException("等待服务启动被中断", e);
+		if (process.exitValue() != 0) {
+			throw new RuntimeException(name + " 执行失败，退出码: " + process.exitValue());
 		}
 	}
 
-	/**
-	 * 检查服务运行状况
-	 * @throws InterruptedException 中断异常
-	 */
-	private void checkServiceHealth() throws InterruptedException {
-		logger.info("检查服务健康状态...");
-
-		// 等待服务启动
-		Thread.sleep(5000);
-
-		// 检查进程是否存活
-		if (!soarWebProcess.isAlive()) {
-			throw new RuntimeException("soar-web进程已终止");
-		}
+	private static ThreadFactory daemonThreads(String name) {
+		return r -> {
+			Thread thread = new Thread(r, name);
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
 
-		// TODO: 可以添加HTTP健康检查
-		logger.info("服务健康检查通过");
+	private static long elapsedMillis(long startNanos) {
+		return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
 	}
 
 	@PreDestroy
 	public void cleanup() {
 		logger.info("开始清理资源...");
+		shuttingDown = true;
+		healthExecutor.shutdownNow();
+		lifecycleExecutor.shutdownNow();
 
 		// 1. 停止Go进程
-		if (soarWebProcess != null) {
-			try {
-				// 尝试正常终止进程
-				soarWebProcess.destroy();
-				if (!soarWebProcess.waitFor(5, TimeUnit.SECONDS)) {
-					// 如果正常终止失败，强制终止
-					soarWebProcess.destroyForcibly();
-					soarWebProcess.waitFor(5, TimeUnit.SECONDS);
-				}
-			}
-			catch (InterruptedException e) {
-				Thread.currentThread().interrupt();
-				logger.warn("等待进程终止被中断", e);
-			}
-			soarWebProcess = null;
-		}
+		instances.forEach(SoarWebInstance::stop);
+		started.set(false);
 
-		// 2. 清理临时目录
+		// 2. 清理临时目录（缓存目录保留，下次启动直接使用），释放缓存目录的锁
+		releaseCacheLock();
 		if (tempDir != null) {
 			try {
 				deleteDirectory(tempDir);
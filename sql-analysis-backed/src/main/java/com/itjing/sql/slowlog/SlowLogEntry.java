@@ -0,0 +1,117 @@
+package com.itjing.sql.slowlog;
+
+/**
+ * 慢查询日志中的一条记录
+ * <p>
+ * 解析过程中只有一个实例，每条记录回调后重置复用，回调方需要保留的值要自行复制。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public class SlowLogEntry {
+
+	/**
+	 * 记录时间（# Time 行的原文），MySQL 5.6 只在时间变化时输出，未输出时沿用上一条
+	 */
+	String time;
+
+	/**
+	 * 用户和主机（# User@Host 行的原文）
+	 */
+	String userHost;
+
+	/**
+	 * 执行时的默认库（use 语句或 # Schema），可能为空
+	 */
+	String db;
+
+	/**
+	 * 执行时间（秒）
+	 */
+	double queryTime;
+
+	/**
+	 * 锁等待时间（秒）
+	 */
+	double lockTime;
+
+	/**
+	 * 返回行数
+	 */
+	long rowsSent;
+
+	/**
+	 * 扫描行数
+	 */
+	long rowsExamined;
+
+	/**
+	 * 执行时间戳（秒，SET timestamp），没有时为 0
+	 */
+	long timestamp;
+
+	/**
+	 * 语句，去掉了结尾分号
+	 */
+	String sql;
+
+	/**
+	 * 语句超过长度上限被截断
+	 */
+	boolean truncated;
+
+	public String getTime() {
+		return time;
+	}
+
+	public String getUserHost() {
+		return userHost;
+	}
+
+	public String getDb() {
+		return db;
+	}
+
+	public double getQueryTime() {
+		return queryTime;
+	}
+
+	public double getLockTime() {
+		return lockTime;
+	}
+
+	public long getRowsSent() {
+		return rowsSent;
+	}
+
+	public long getRowsExamined() {
+		return rowsExamined;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public String getSql() {
+		return sql;
+	}
+
+	public boolean isTruncated() {
+		return truncated;
+	}
+
+	/**
+	 * 重置，保留记录时间和默认库：两者在日志中只在变化时输出
+	 */
+	void reset() {
+		userHost = null;
+		queryTime = 0D;
+		lockTime = 0D;
+		rowsSent = 0L;
+		rowsExamined = 0L;
+		timestamp = 0L;
+		sql = null;
+		truncated = false;
+	}
+
+}
@@ -0,0 +1,346 @@
+package com.itjing.sql.slowlog;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+
+/**
+ * MySQL 慢查询日志解析器
+ * <p>
+ * 按固定大小分段内存映射文件，逐行扫描字节，每段只处理完整的行，最后不完整的行从下一段开始重新映射。
+ * 头部行（# Time、# User@Host、# Query_time 等）很短，直接解码；语句的字节累积到复用的缓冲区，
+ * 每条记录只解码一次，超过长度上限的部分丢弃。解析过程占用的内存只和分段大小、语句长度上限有关，和文件大小无关。
+ * <p>
+ * 支持 MySQL 5.6 及以上、MariaDB、Percona 的格式，文件中间的服务启动信息（mysqld, Version ... started with）会跳过，
+ * 管理命令（# administrator command）不作为记录输出。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public class SlowLogParser {
+
+	private static final byte[] TIME = bytes("# Time:");
+
+	private static final byte[] USER_HOST = bytes("# User@Host:");
+
+	private static final byte[] QUERY_TIME = bytes("# Query_time:");
+
+	private static final byte[] SCHEMA = bytes("# Schema:");
+
+	private static final byte[] ADMIN_COMMAND = bytes("# administrator command:");
+
+	private static final byte[] USE = bytes("use ");
+
+	private static final byte[] SET_TIMESTAMP = bytes("SET timestamp=");
+
+	private static final byte[] STARTED_WITH = bytes("started with:");
+
+	/**
+	 * 服务启动信息中 started with 之后的行数（Tcp port 行和表头行）
+	 */
+	private static final int SERVER_HEADER_LINES = 2;
+
+	private final int chunkSize;
+
+	private final int maxStatementBytes;
+
+	private final SlowLogEntry entry = new SlowLogEntry();
+
+	private byte[] statement = new byte[1024];
+
+	private int statementLength;
+
+	private boolean admin;
+
+	private int skipLines;
+
+	private long entryCount;
+
+	/**
+	 * @param chunkSize 每次映射的字节数
+	 * @param maxStatementBytes 单条语句的字节上限，超过的部分丢弃
+	 */
+	public SlowLogParser(int chunkSize, int maxStatementBytes) {
+		this.chunkSize = chunkSize;
+		this.maxStatementBytes = maxStatementBytes;
+	}
+
+	/**
+	 * 解析慢查询日志，同一个解析器不能并发使用
+	 * @param path 文件
+	 * @param consumer 记录回调，回调的记录对象是复用的
+	 * @return long 读取的字节数
+	 * @throws IOException IO异常
+	 */
+	public long parse(Path path, Consumer<SlowLogEntry> consumer) throws IOException {
+		entry.time = null;
+		entry.db = null;
+		entry.reset();
+		resetStatement();
+		skipLines = 0;
+		entryCount = 0L;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			long position = 0L;
+			while (position < size) {
+				int length = (int) Math.min(chunkSize, size - position);
+				boolean last = position + length >= size;
+				MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+				int consumed = scan(buffer, length, last, consumer);
+				position += consumed;
+			}
+			emit(consumer);
+			return size;
+		}
+	}
+
+	/**
+	 * @return long 上一次解析输出的记录数
+	 */
+	public long getEntryCount() {
+		return entryCount;
+	}
+
+	/**
+	 * 扫描一段，返回处理完的字节数。不是最后一段时结尾不完整的行留给下一段，整段都没有换行时按一行处理
+	 */
+	private int scan(MappedByteBuffer buffer, int length, boolean last, Consumer<SlowLogEntry> consumer) {
+		int lineStart = 0;
+		for (int i = 0; i < length; i++) {
+			if (buffer.get(i) == '\n') {
+				line(buffer, lineStart, i, consumer);
+				lineStart = i + 1;
+			}
+		}
+		if (lineStart < length && (last || lineStart == 0)) {
+			line(buffer, lineStart, length, consumer);
+			lineStart = length;
+		}
+		return lineStart;
+	}
+
+	private void line(MappedByteBuffer buffer, int start, int end, Consumer<SlowLogEntry> consumer) {
+		if (end > start && buffer.get(end - 1) == '\r') {
+			end--;
+		}
+		if (skipLines > 0) {
+			skipLines--;
+			return;
+		}
+		if (end > start && buffer.get(start) == '#') {
+			if (header(buffer, start, end, consumer)) {
+				return;
+			}
+		}
+		else if (endsWith(buffer, start, end, STARTED_WITH)) {
+			emit(consumer);
+			skipLines = SERVER_HEADER_LINES;
+			return;
+		}
+		else if (statementLength == 0) {
+			if (startsWith(buffer, start, end, USE)) {
+				entry.db = trimStatement(decode(buffer, start + USE.length, end));
+				return;
+			}
+			if (startsWith(buffer, start, end, SET_TIMESTAMP)) {
+				entry.timestamp = parseLong(trimStatement(decode(buffer, start + SET_TIMESTAMP.length, end)));
+				return;
+			}
+			if (end == start) {
+				return;
+			}
+		}
+		appendStatement(buffer, start, end);
+	}
+
+	/**
+	 * 处理 # 开头的行，返回 false 表示是语句中的注释，由调用方追加到语句
+	 */
+	private boolean header(MappedByteBuffer buffer, int start, int end, Consumer<SlowLogEntry> consumer) {
+		if (startsWith(buffer, start, end, TIME)) {
+			emit(consumer);
+			entry.time = decode(buffer, start + TIME.length, end).trim();
+			return true;
+		}
+		if (startsWith(buffer, start, end, USER_HOST)) {
+			emit(consumer);
+			entry.userHost = decode(buffer, start + USER_HOST.length, end).trim();
+			return true;
+		}
+		if (startsWith(buffer, start, end, QUERY_TIME)) {
+			if (statementLength > 0) {
+				emit(consumer);
+			}
+			metrics(decode(buffer, start + 1, end));
+			return true;
+		}
+		if (startsWith(buffer, start, end, ADMIN_COMMAND)) {
+			admin = true;
+			return true;
+		}
+		if (statementLength > 0) {
+			return false;
+		}
+		if (startsWith(buffer, start, end, SCHEMA)) {
+			String schema = decode(buffer, start + SCHEMA.length, end).trim();
+			int blank = schema.indexOf(' ');
+			entry.db = blank < 0 ? schema : schema.substring(0, blank);
+		}
+		// 其他头部行（Thread_id、Bytes_sent 等）忽略
+		return true;
+	}
+
+	/**
+	 * 解析 Query_time: 1.5  Lock_time: 0.0 Rows_sent: 1  Rows_examined: 100 这样的键值对
+	 */
+	private void metrics(String line) {
+		String name = null;
+		int i = 0;
+		int length = line.length();
+		while (i < length) {
+			while (i < length && line.charAt(i) == ' ') {
+				i++;
+			}
+			int tokenStart = i;
+			while (i < length && line.charAt(i) != ' ') {
+				i++;
+			}
+			if (tokenStart == i) {
+				break;
+			}
+			String token = line.substring(tokenStart, i);
+			if (token.endsWith(":")) {
+				name = token;
+				continue;
+			}
+			if (name != null) {
+				switch (name) {
+					case "Query_time:" -> entry.queryTime = parseDouble(token);
+					case "Lock_time:" -> entry.lockTime = parseDouble(token);
+					case "Rows_sent:" -> entry.rowsSent = parseLong(token);
+					case "Rows_examined:" -> entry.rowsExamined = parseLong(token);
+					default -> {
+					}
+				}
+				name = null;
+			}
+		}
+	}
+
+	private void appendStatement(MappedByteBuffer buffer, int start, int end) {
+		int separator = statementLength > 0 ? 1 : 0;
+		int length = end - start;
+		int room = maxStatementBytes - statementLength - separator;
+		if (length > room) {
+			entry.truncated = true;
+			length = Math.max(room, 0);
+		}
+		if (length == 0) {
+			return;
+		}
+		ensureCapacity(statementLength + separator + length);
+		if (separator > 0) {
+			statement[statementLength++] = '\n';
+		}
+		buffer.get(start, statement, statementLength, length);
+		statementLength += length;
+	}
+
+	private void ensureCapacity(int capacity) {
+		if (capacity > statement.length) {
+			byte[] grown = new byte[Math.min(Math.max(capacity, statement.length * 2), maxStatementBytes)];
+			System.arraycopy(statement, 0, grown, 0, statementLength);
+			statement = grown;
+		}
+	}
+
+	/**
+	 * 输出当前记录：没有语句或者是管理命令时不输出
+	 */
+	private void emit(Consumer<SlowLogEntry> consumer) {
+		if (statementLength > 0 && !admin) {
+			entry.sql = trimStatement(new String(statement, 0, statementLength, StandardCharsets.UTF_8));
+			if (!entry.sql.isEmpty()) {
+				entryCount++;
+				consumer.accept(entry);
+			}
+		}
+		entry.reset();
+		resetStatement();
+	}
+
+	private void resetStatement() {
+		statementLength = 0;
+		admin = false;
+		// 个别超长语句撑大的缓冲区不长期保留
+		if (statement.length > 64 * 1024) {
+			statement = new byte[1024];
+		}
+	}
+
+	private static String trimStatement(String sql) {
+		String trimmed = sql.trim();
+		while (trimmed.endsWith(";")) {
+			trimmed = trimmed.substring(0, trimmed.length() - 1).trim();
+		}
+		return trimmed;
+	}
+
+	private static boolean startsWith(MappedByteBuffer buffer, int start, int end, byte[] prefix) {
+		if (end - start < prefix.length) {
+			return false;
+		}
+		for (int i = 0; i < prefix.length; i++) {
+			if (buffer.get(start + i) != prefix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean endsWith(MappedByteBuffer buffer, int start, int end, byte[] suffix) {
+		if (end - start < suffix.length) {
+			return false;
+		}
+		int offset = end - suffix.length;
+		for (int i = 0; i < suffix.length; i++) {
+			if (buffer.get(offset + i) != suffix[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static String decode(MappedByteBuffer buffer, int start, int end) {
+		byte[] bytes = new byte[Math.max(end - start, 0)];
+		buffer.get(start, bytes, 0, bytes.length);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static double parseDouble(String value) {
+		try {
+			return Double.parseDouble(value);
+		}
+		catch (NumberFormatException e) {
+			return 0D;
+		}
+	}
+
+	private static long parseLong(String value) {
+		try {
+			return Long.parseLong(value);
+		}
+		catch (NumberFormatException e) {
+			return 0L;
+		}
+	}
+
+	private static byte[] bytes(String value) {
+		return value.getBytes(StandardCharsets.US_ASCII);
+	}
+
+}
@@ -0,0 +1,560 @@
+package com.itjing.sql.util;
+
+/**
+ * SQL 指纹工具类
+ * <p>
+ * 基于词法扫描规范化 SQL：去掉注释，字面量（连同负号）替换为 ?，IN 列表和 VALUES 多行折叠为 (?+)，关键字和标识符转小写，
+ * 空白统一，再计算 64 位摘要。例如 {@code select * from t where id=1} 和 {@code SELECT * FROM t WHERE id = 42}
+ * 的指纹都是 {@code select * from t where id = ?}。
+ * <p>
+ * 扫描过程只使用线程内复用的缓冲区，只计算摘要时不产生额外对象。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public class SqlFingerprintUtils {
+
+	private SqlFingerprintUtils() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	/**
+	 * 线程内复用的缓冲区超过该长度时不再保留，避免个别超长 SQL 长期占用内存
+	 */
+	private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private static final char[] COLLAPSED_LIST = { '(', '?', '+', ')' };
+
+	private static final ThreadLocal<Scanner> SCANNER = ThreadLocal.withInitial(Scanner::new);
+
+	/**
+	 * 计算 SQL 指纹（规范化后的 SQL）
+	 * @param sql SQL
+	 * @return {@link String }
+	 */
+	public static String fingerprint(String sql) {
+		Scanner scanner = SCANNER.get();
+		try {
+			scanner.scan(sql);
+			return new String(scanner.out, 0, scanner.len);
+		}
+		finally {
+			scanner.release();
+		}
+	}
+
+	/**
+	 * 计算 SQL 指纹的 64 位摘要
+	 * @param sql SQL
+	 * @return long
+	 */
+	public static long digest(String sql) {
+		Scanner scanner = SCANNER.get();
+		try {
+			scanner.scan(sql);
+			return hash(scanner.out, scanner.len);
+		}
+		finally {
+			scanner.release();
+		}
+	}
+
+	/**
+	 * 计算 SQL 指纹的 64 位摘要（16 位十六进制）
+	 * @param sql SQL
+	 * @return {@link String }
+	 */
+	public static String digestHex(String sql) {
+		return toHex(digest(sql));
+	}
+
+	/**
+	 * 摘要转十六进制
+	 * @param digest 摘要
+	 * @return {@link String }
+	 */
+	public static String toHex(long digest) {
+		char[] chars = new char[16];
+		for (int i = 15; i >= 0; i--) {
+			chars[i] = Character.forDigit((int) (digest & 0xF), 16);
+			digest >>>= 4;
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * FNV-1a 累加后再做一次 murmur3 fmix64 混淆，保证短文本的摘要分布均匀
+	 */
+	private static long hash(char[] chars, int len) {
+		long h = FNV_OFFSET;
+		for (int i = 0; i < len; i++) {
+			h ^= chars[i];
+			h *= FNV_PRIME;
+		}
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+
+	private static boolean isIdentifierStart(char c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == '$' || c > 0x7F;
+	}
+
+	private static boolean isIdentifierPart(char c) {
+		return isIdentifierStart(c) || (c >= '0' && c <= '9');
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	private static boolean isHexLetter(char c) {
+		return (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+	}
+
+	private static char lower(char c) {
+		if (c >= 'A' && c <= 'Z') {
+			return (char) (c + 32);
+		}
+		return c < 0x80 ? c : Character.toLowerCase(c);
+	}
+
+	/**
+	 * 词法扫描器，每个线程一个实例
+	 */
+	private static final class Scanner {
+
+		private char[] out = new char[256];
+
+		private int len;
+
+		private int[] parens = new int[16];
+
+		private int depth;
+
+		/**
+		 * 上一个输出的记号是否是单词（标识符、关键字、字面量），决定是否需要补空格
+		 */
+		private boolean lastWord;
+
+		/**
+		 * 上一个输出的记号是否不需要在其后补空格，如 ( 和 .
+		 */
+		private boolean noSpaceAfter;
+
+		private void release() {
+			if (out.length > MAX_RETAINED_BUFFER) {
+				out = new char[256];
+			}
+		}
+
+		private void scan(String sql) {
+			len = 0;
+			depth = 0;
+			lastWord = false;
+			noSpaceAfter = true;
+			int n = sql.length();
+			int i = 0;
+			while (i < n) {
+				char c = sql.charAt(i);
+				if (c <= ' ') {
+					i++;
+				}
+				else if (c == '\'' || c == '"') {
+					i = skipQuoted(sql, i, c);
+					literal();
+				}
+				else if (c == '`') {
+					i = identifierQuoted(sql, i);
+				}
+				else if (c == '#') {
+					i = skipLine(sql, i);
+				}
+				else if (c == '-' && i + 1 < n && sql.charAt(i + 1) == '-'
+						&& (i + 2 == n || sql.charAt(i + 2) <= ' ')) {
+					i = skipLine(sql, i);
+				}
+				else if (c == '/' && i + 1 < n && sql.charAt(i + 1) == '*') {
+					i = skipBlockComment(sql, i);
+				}
+				else if (isDigit(c) || (c == '.' && i + 1 < n && isDigit(sql.charAt(i + 1)) && !lastWord)) {
+					i = number(sql, i);
+				}
+				else if (isIdentifierStart(c) || c == '@') {
+					i = word(sql, i);
+				}
+				else {
+					i = punctuation(sql, i, c);
+				}
+			}
+			// 去掉结尾的分号
+			while (len > 0 && out[len - 1] == ';') {
+				len--;
+			}
+			while (len > 0 && out[len - 1] == ' ') {
+				len--;
+			}
+		}
+
+		private int skipQuoted(String sql, int start, char quote) {
+			int n = sql.length();
+			int i = start + 1;
+			while (i < n) {
+				char c = sql.charAt(i);
+				if (c == '\\') {
+					i += 2;
+				}
+				else if (c == quote) {
+					// 两个连续的引号表示转义
+					if (i + 1 < n && sql.charAt(i + 1) == quote) {
+						i += 2;
+					}
+					else {
+						return i + 1;
+					}
+				}
+				else {
+					i++;
+				}
+			}
+			return n;
+		}
+
+		private int identifierQuoted(String sql, int start) {
+			int n = sql.length();
+			int i = start + 1;
+			beforeToken(false);
+			while (i < n) {
+				char c = sql.charAt(i);
+				if (c == '`') {
+					if (i + 1 < n && sql.charAt(i + 1) == '`') {
+						append('`');
+						i += 2;
+						continue;
+					}
+					i++;
+					break;
+				}
+				append(lower(c));
+				i++;
+			}
+			afterToken(true, false);
+			return i;
+		}
+
+		private int skipLine(String sql, int start) {
+			int end = sql.indexOf('\n', start);
+			return end < 0 ? sql.length() : end + 1;
+		}
+
+		private int skipBlockComment(String sql, int start) {
+			int n = sql.length();
+			// MySQL 可执行注释 /*!50000 ... */ 中的内容会被执行，只去掉注释标记和版本号
+			if (start + 2 < n && sql.charAt(start + 2) == '!') {
+				int i = start + 3;
+				while (i < n && isDigit(sql.charAt(i))) {
+					i++;
+				}
+				int end = sql.indexOf("*/", i);
+				String body = end < 0 ? sql.substring(i) : sql.substring(i, end);
+				boolean savedLastWord = lastWord;
+				boolean savedNoSpace = noSpaceAfter;
+				int savedLen = len;
+				scanFragment(body);
+				if (len == savedLen) {
+					lastWord = savedLastWord;
+					noSpaceAfter = savedNoSpace;
+				}
+				return end < 0 ? n : end + 2;
+			}
+			int end = sql.indexOf("*/", start + 2);
+			return end < 0 ? n : end + 2;
+		}
+
+		/**
+		 * 扫描可执行注释中的片段，复用当前输出状态
+		 */
+		private void scanFragment(String fragment) {
+			int n = fragment.length();
+			int i = 0;
+			while (i < n) {
+				char c = fragment.charAt(i);
+				if (c <= ' ') {
+					i++;
+				}
+				else if (c == '\'' || c == '"') {
+					i = skipQuoted(fragment, i, c);
+					literal();
+				}
+				else if (c == '`') {
+					i = identifierQuoted(fragment, i);
+				}
+				else if (isDigit(c)) {
+					i = number(fragment, i);
+				}
+				else if (isIdentifierStart(c) || c == '@') {
+					i = word(fragment, i);
+				}
+				else {
+					i = punctuation(fragment, i, c);
+				}
+			}
+		}
+
+		private int number(String sql, int start) {
+			int n = sql.length();
+			int i = start;
+			char prefix = i + 1 < n && sql.charAt(i) == '0' ? lower(sql.charAt(i + 1)) : 0;
+			if (prefix == 'x' || prefix == 'b') {
+				// 0x1F、0b101
+				i += 2;
+				while (i < n && (isDigit(sql.charAt(i)) || (prefix == 'x' && isHexLetter(sql.charAt(i))))) {
+					i++;
+				}
+			}
+			else {
+				// 整数、小数和科学计数法 1.5e-3
+				while (i < n && (isDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+					i++;
+				}
+				if (i + 1 < n && (sql.charAt(i) == 'e' || sql.charAt(i) == 'E')) {
+					int exponent = i + 1;
+					if (exponent + 1 < n && (sql.charAt(exponent) == '+' || sql.charAt(exponent) == '-')) {
+						exponent++;
+					}
+					if (isDigit(sql.charAt(exponent))) {
+						i = exponent;
+						while (i < n && isDigit(sql.charAt(i))) {
+							i++;
+						}
+					}
+				}
+			}
+			// 以数字开头的标识符，如 1abc
+			if (i < n && isIdentifierPart(sql.charAt(i))) {
+				return word(sql, start);
+			}
+			literal();
+			return i;
+		}
+
+		private int word(String sql, int start) {
+			int n = sql.length();
+			int i = start;
+			// N'..'、X'..'、B'..' 字面量
+			if (i + 1 < n && sql.charAt(i + 1) == '\'') {
+				char c = sql.charAt(i);
+				if (c == 'n' || c == 'N' || c == 'x' || c == 'X' || c == 'b' || c == 'B') {
+					i = skipQuoted(sql, i + 1, '\'');
+					literal();
+					return i;
+				}
+			}
+			beforeToken(false);
+			while (i < n && sql.charAt(i) == '@') {
+				append('@');
+				i++;
+			}
+			while (i < n && isIdentifierPart(sql.charAt(i))) {
+				append(lower(sql.charAt(i)));
+				i++;
+			}
+			afterToken(true, false);
+			return i;
+		}
+
+		private int punctuation(String sql, int start, char c) {
+			int n = sql.length();
+			switch (c) {
+				case '(':
+					beforeToken(true);
+					pushParen(len);
+					append('(');
+					afterToken(false, true);
+					return start + 1;
+				case ')':
+					beforeToken(true);
+					append(')');
+					afterToken(false, false);
+					closeParen();
+					return start + 1;
+				case ',':
+				case '.':
+				case ';':
+					beforeToken(true);
+					append(c);
+					afterToken(false, c == '.');
+					return start + 1;
+				default:
+					break;
+			}
+			// 运算符、左括号和逗号之后的正负号属于数字字面量，id = -1 和 id = 1 的指纹相同
+			if ((c == '-' || c == '+') && !lastWord && (len == 0 || out[len - 1] != ')')
+					&& startsNumber(sql, start + 1)) {
+				return start + 1;
+			}
+			// 多字符运算符：<=> >= <= <> != || && := -> ->> <<  >>
+			int end = start + 1;
+			if (end < n) {
+				char next = sql.charAt(end);
+				if ((c == '<' && (next == '=' || next == '>' || next == '<'))
+						|| (c == '>' && (next == '=' || next == '>')) || (c == '!' && next == '=')
+						|| (c == '|' && next == '|') || (c == '&' && next == '&') || (c == ':' && next == '=')
+						|| (c == '-' && next == '>')) {
+					end++;
+					if (end < n && ((c == '<' && next == '=' && sql.charAt(end) == '>')
+							|| (c == '-' && sql.charAt(end) == '>'))) {
+						end++;
+					}
+				}
+			}
+			beforeToken(false);
+			for (int i = start; i < end; i++) {
+				append(sql.charAt(i));
+			}
+			afterToken(false, false);
+			return end;
+		}
+
+		private boolean startsNumber(String sql, int start) {
+			int n = sql.length();
+			int i = start;
+			while (i < n && sql.charAt(i) <= ' ') {
+				i++;
+			}
+			return i < n && (isDigit(sql.charAt(i))
+					|| (sql.charAt(i) == '.' && i + 1 < n && isDigit(sql.charAt(i + 1))));
+		}
+
+		private void literal() {
+			beforeToken(false);
+			append('?');
+			afterToken(true, false);
+		}
+
+		/**
+		 * 输出记号前按需补空格
+		 * @param attach 是否紧贴前一个记号，如 ( ) , .
+		 */
+		private void beforeToken(boolean attach) {
+			if (len > 0 && !attach && !noSpaceAfter) {
+				append(' ');
+			}
+		}
+
+		/**
+		 * 记录输出记号后的状态
+		 * @param word 是否单词
+		 * @param noSpace 其后是否不需要补空格
+		 */
+		private void afterToken(boolean word, boolean noSpace) {
+			lastWord = word;
+			noSpaceAfter = noSpace;
+		}
+
+		private void pushParen(int position) {
+			if (depth == parens.length) {
+				int[] grown = new int[depth * 2];
+				System.arraycopy(parens, 0, grown, 0, depth);
+				parens = grown;
+			}
+			parens[depth++] = position;
+		}
+
+		/**
+		 * 右括号：括号内只有字面量时，IN 列表和 VALUES 多行折叠为 (?+)
+		 */
+		private void closeParen() {
+			if (depth == 0) {
+				return;
+			}
+			int open = parens[--depth];
+			boolean hasLiteral = false;
+			for (int i = open + 1; i < len - 1; i++) {
+				char c = out[i];
+				if (c == '?') {
+					hasLiteral = true;
+				}
+				else if (c != ',' && c != ' ' && c != '-' && c != '+') {
+					return;
+				}
+			}
+			if (!hasLiteral) {
+				return;
+			}
+			if (endsWithWord(open, "in") || endsWithWord(open, "values") || endsWithWord(open, "value")) {
+				len = open;
+				appendCollapsed();
+				return;
+			}
+			int p = open;
+			while (p > 0 && out[p - 1] == ' ') {
+				p--;
+			}
+			// 行构造器 IN ((?, ?), (?, ?)) 的第一个元组
+			if (depth > 0 && p - 1 == parens[depth - 1] && endsWithWord(p - 1, "in")) {
+				len = open;
+				appendCollapsed();
+				return;
+			}
+			// VALUES (?+), (?+) 和 IN ((?+), (?+)) 继续折叠
+			if (p > 0 && out[p - 1] == ',' && endsWith(p - 1, COLLAPSED_LIST)) {
+				len = p - 1;
+			}
+		}
+
+		private void appendCollapsed() {
+			for (char c : COLLAPSED_LIST) {
+				append(c);
+			}
+		}
+
+		private boolean endsWith(int end, char[] suffix) {
+			int start = end - suffix.length;
+			if (start < 0) {
+				return false;
+			}
+			for (int i = 0; i < suffix.length; i++) {
+				if (out[start + i] != suffix[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private boolean endsWithWord(int end, String word) {
+			int p = end;
+			while (p > 0 && out[p - 1] == ' ') {
+				p--;
+			}
+			int start = p - word.length();
+			if (start < 0 || (start > 0 && isIdentifierPart(out[start - 1]))) {
+				return false;
+			}
+			for (int i = 0; i < word.length(); i++) {
+				if (out[start + i] != word.charAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+
+		private void append(char c) {
+			if (len == out.length) {
+				char[] grown = new char[out.length * 2];
+				System.arraycopy(out, 0, grown, 0, len);
+				out = grown;
+			}
+			out[len++] = c;
+		}
+
+	}
+
+}
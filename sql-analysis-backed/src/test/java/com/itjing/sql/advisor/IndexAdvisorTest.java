@@ -0,0 +1,155 @@
+package com.itjing.sql.advisor;
+
+import com.itjing.sql.catalog.ColumnMeta;
+import com.itjing.sql.catalog.IndexMeta;
+import com.itjing.sql.catalog.TableMeta;
+import com.jd.sql.analysis.analysis.SqlAnalysisResult;
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 索引建议测试：固定的表结构、索引统计和执行计划下的排序和选择性估算
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+class IndexAdvisorTest {
+
+	private static final Map<String, TableMeta> TABLES = Map.of("shop.orders",
+			table("orders", 1_000_000L,
+					List.of(column("id", "bigint"), column("user_id", "bigint"), column("status", "varchar"),
+							column("created_at", "datetime"), column("note", "text"), column("attrs", "json")),
+					index("PRIMARY", true, List.of("id"), 1_000_000L),
+					index("idx_status", false, List.of("status"), 5L)),
+			"shop.users",
+			table("users", 50_000L,
+					List.of(column("id", "bigint"), column("city", "varchar"), column("age", "int"),
+							column("name", "varchar")),
+					index("PRIMARY", true, List.of("id"), 50_000L),
+					index("idx_city_age", false, List.of("city", "age"), 100L, 5000L)));
+
+	private final IndexAdvisor advisor = new IndexAdvisor(1000L, 4, 3);
+
+	static Stream<Arguments> estimates() {
+		return Stream.of(
+				// 没有统计的等值列按 DEFAULT_EQUALITY_SELECTIVITY 估算
+				Arguments.of("select * from users where name = 'a'", "`name`", 5000L),
+				// 范围列按 DEFAULT_RANGE_SELECTIVITY 估算
+				Arguments.of("select * from users where age > 30", "`age`", 15000L),
+				// 已有索引的前缀基数覆盖前两列，第三列按默认选择性相乘：50000 / 5000 * 0.1
+				Arguments.of("select * from users where age = 30 and name = 'a' and city = 'bj'",
+						"`city`, `age`, `name`", 1L),
+				// 选择性高的等值列在前：user_id 没有统计（0.1），status 基数 5（0.2），再乘范围列 0.3
+				Arguments.of("select * from orders where status = 'PAID' and user_id = 5 and created_at > '2024-01-01'",
+						"`user_id`, `status`, `created_at`", 6000L));
+	}
+
+	@ParameterizedTest
+	@MethodSource("estimates")
+	void estimatesRowsFromSelectivity(String sql, String columns, long estimatedRows) throws JSQLParserException {
+		String table = sql.contains("orders") ? "orders" : "users";
+		long rows = TABLES.get("shop." + table).getTableRows();
+		List<IndexRecommendation> advice = advise(sql, row(table, "ALL", null, rows, "Using where"));
+
+		IndexRecommendation first = advice.get(0);
+		assertTrue(first.getDdl().endsWith("ON `shop`.`" + table + "` (" + columns + ")"), first.getDdl());
+		assertEquals(estimatedRows, first.getEstimatedRows());
+	}
+
+	@Test
+	void ranksByReducedRowsAndPrefersAvoidedSort() throws JSQLParserException {
+		List<IndexRecommendation> advice = advise(
+				"select * from orders where user_id = 5 and status = 'PAID' and created_at > '2024-01-01' "
+						+ "order by created_at desc",
+				row("orders", "ALL", null, 1_000_000L, "Using where; Using filesort"));
+
+		assertEquals(2, advice.size());
+		assertEquals(List.of("user_id", "status", "created_at"), advice.get(0).getColumns());
+		assertEquals(6000L, advice.get(0).getEstimatedRows());
+		assertEquals(0.994D, advice.get(0).getReduction());
+		assertTrue(advice.get(0).getReason().endsWith("可以避免文件排序"), advice.get(0).getReason());
+		assertEquals(List.of("user_id", "status"), advice.get(1).getColumns());
+		assertEquals(20000L, advice.get(1).getEstimatedRows());
+	}
+
+	@Test
+	void limitsRecommendations() throws JSQLParserException {
+		List<IndexRecommendation> advice = new IndexAdvisor(1000L, 4, 1).advise(
+				CCJSqlParserUtil.parse("select * from orders where user_id = 5 and created_at > '2024-01-01'"),
+				"shop", List.of(row("orders", "ALL", null, 1_000_000L, "Using where")), TABLES);
+
+		assertEquals(1, advice.size());
+		assertEquals(List.of("user_id", "created_at"), advice.get(0).getColumns());
+	}
+
+	@Test
+	void skipsUniqueLookupCoveredIndexAndSmallScans() throws JSQLParserException {
+		assertTrue(advise("select * from orders where id = 1", row("orders", "ALL", null, 1_000_000L, null)).isEmpty());
+		assertTrue(advise("select * from orders where status = 'PAID'", row("orders", "ALL", null, 1_000_000L, null))
+			.isEmpty());
+		assertTrue(advise("select * from users where name = 'a'", row("users", "ALL", null, 500L, null)).isEmpty());
+		assertFalse(advisor.needsAdvice(List.of(row("users", "ref", "idx_city_age", 20L, null))));
+	}
+
+	@Test
+	void usesPrefixForTextAndSkipsJsonColumns() throws JSQLParserException {
+		List<IndexRecommendation> advice = advise("select * from orders where note = 'a' and attrs = '{}'",
+				row("orders", "ALL", null, 1_000_000L, "Using where"));
+
+		assertEquals(1, advice.size());
+		assertEquals("CREATE INDEX `idx_note` ON `shop`.`orders` (`note`(" + IndexAdvisor.PREFIX_LENGTH + "))",
+				advice.get(0).getDdl());
+	}
+
+	@Test
+	void prefixColumnDoesNotAvoidSort() throws JSQLParserException {
+		List<IndexRecommendation> advice = advise("select * from orders where user_id = 5 order by note",
+				row("orders", "ALL", null, 1_000_000L, "Using where; Using filesort"));
+
+		assertEquals(1, advice.size());
+		assertEquals(List.of("user_id"), advice.get(0).getColumns());
+		assertFalse(advice.get(0).getReason().contains("可以避免"), advice.get(0).getReason());
+	}
+
+	private List<IndexRecommendation> advise(String sql, SqlAnalysisResult... plan) throws JSQLParserException {
+		return advisor.advise(CCJSqlParserUtil.parse(sql), "shop", List.of(plan), TABLES);
+	}
+
+	private static TableMeta table(String name, long rows, List<ColumnMeta> columns, IndexMeta... indexes) {
+		return new TableMeta("shop", name, "InnoDB", rows, "v1", columns, List.of(indexes), 0L);
+	}
+
+	private static ColumnMeta column(String name, String dataType) {
+		return new ColumnMeta(name, 0, dataType, dataType, true, "");
+	}
+
+	private static IndexMeta index(String name, boolean unique, List<String> columns, Long... cardinalities) {
+		return new IndexMeta(name, unique, "BTREE", columns, new ArrayList<>(Arrays.asList(cardinalities)));
+	}
+
+	private static SqlAnalysisResult row(String table, String type, String key, long rows, String extra) {
+		SqlAnalysisResult result = new SqlAnalysisResult();
+		result.setId(1L);
+		result.setTable(table);
+		result.setType(type);
+		result.setKey(key);
+		result.setRows(String.valueOf(rows));
+		result.setExtra(extra);
+		return result;
+	}
+
+}
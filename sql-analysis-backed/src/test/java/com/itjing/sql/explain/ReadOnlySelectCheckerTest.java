@@ -0,0 +1,44 @@
+package com.itjing.sql.explain;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 只读查询检查测试
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+class ReadOnlySelectCheckerTest {
+
+	@ParameterizedTest
+	@ValueSource(strings = { "select * from t where id = 1",
+			"select * from t where name = 'select into for update lock in share mode'",
+			"select * from t /* for update */ where id = 1", "select /*+ NO_INDEX(t) */ * from t",
+			"select a.id from a join b on a.id = b.a_id where a.id in (select id from c)",
+			"with x as (select id from t) select * from x union all select id from u" })
+	void allowsReadOnlySelect(String sql) {
+		assertNull(ReadOnlySelectChecker.rejectReason(sql));
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "select * from t for update", "select * from t lock in share mode",
+			"select * from t for share", "select * from a union select * from b for update",
+			"select * from a union select id into t2 from b", "select id into t2 from t",
+			"select * from (select * from t for update) x",
+			"select * from t where id in (select id from u for update)",
+			"select * from t where id in (select id into t3 from u)",
+			"select * from t where exists (select 1 from u for update)",
+			"select (select max(id) from u for update) from t",
+			"with c as (select * from t for update) select * from c",
+			"select * from a join (select * from b for update) x on 1 = 1",
+			"select * from a join b on a.id in (select id from c for update)", "select /*!50000 sleep(1) */ 1",
+			"update t set a = 1", "select 1; select 2", "select * from" })
+	void rejectsLockingIntoAndOtherStatements(String sql) {
+		assertNotNull(ReadOnlySelectChecker.rejectReason(sql));
+	}
+
+}
@@ -0,0 +1,106 @@
+package com.itjing.sql.explain.dialect;
+
+import com.jd.sql.analysis.analysis.SqlAnalysisResult;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * H2 执行计划文本解析测试，每行期望结果为 id|select_type|table|type|key|rows|Extra
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+class H2ExplainDialectTest {
+
+	private final H2ExplainDialect dialect = new H2ExplainDialect();
+
+	static Stream<Arguments> plans() {
+		return Stream.of(Arguments.of("单表索引等值", """
+				SELECT
+				    "ID",
+				    "NAME"
+				FROM "PUBLIC"."T_USER"
+				    /* PUBLIC.IDX_STATUS: STATUS = 1 */
+				WHERE "STATUS" = 1""", List.of("1|SIMPLE|T_USER|ref|IDX_STATUS|null|null")),
+				Arguments.of("关联查询使用别名，跳过非访问方式的注释", """
+						SELECT
+						    "U"."NAME",
+						    "O"."AMOUNT"
+						FROM "PUBLIC"."T_USER" "U"
+						    /* PUBLIC.IDX_STATUS: STATUS = 1 */
+						    /* WHERE U.STATUS = 1
+						    */
+						INNER JOIN "PUBLIC"."T_ORDER" "O"
+						    /* PUBLIC.IDX_USER_ID: USER_ID = U.ID */
+						    ON 1=1
+						WHERE ("U"."STATUS" = 1)
+						    AND ("O"."USER_ID" = "U"."ID")""",
+						List.of("1|SIMPLE|U|ref|IDX_STATUS|null|null", "1|SIMPLE|O|ref|IDX_USER_ID|null|null")),
+				Arguments.of("IN 子查询，字符串中的注释和括号不影响层级", """
+						SELECT
+						    "PUBLIC"."T_ORDER"."ID"
+						FROM "PUBLIC"."T_ORDER"
+						    /* PUBLIC.T_ORDER.tableScan */
+						WHERE ("AMOUNT" > 10)
+						    AND ("USER_ID" IN(
+						    SELECT
+						        "ID"
+						    FROM "PUBLIC"."T_USER"
+						        /* PUBLIC.T_USER.tableScan */
+						    WHERE "NAME" = 'a /* x */ ('))""",
+						List.of("1|PRIMARY|T_ORDER|ALL|null|null|null", "2|SUBQUERY|T_USER|ALL|null|null|null")),
+				Arguments.of("派生表，嵌套注释整体跳过", """
+						SELECT
+						    "X"."ID"
+						FROM (
+						    SELECT
+						        "ID"
+						    FROM "PUBLIC"."T"
+						        /* PUBLIC.T.tableScan */
+						) "X"
+						    /* SELECT
+						        ID
+						    FROM PUBLIC.T
+						        /* ++ PUBLIC.T.tableScan ++ */
+						     */
+						WHERE "X"."ID" > 1""", List.of("2|DERIVED|T|ALL|null|null|null")),
+				Arguments.of("范围条件、只有索引名、逗号关联",
+						"SELECT * FROM \"PUBLIC\".\"A\" /* PUBLIC.PRIMARY_KEY_2: ID > 1 AND ID < 9 */, "
+								+ "PUBLIC.B /* PUBLIC.IDX_B */ ORDER BY 1 /* index sorted */",
+						List.of("1|SIMPLE|A|range|PRIMARY_KEY_2|null|null", "1|SIMPLE|B|index|IDX_B|null|null")),
+				Arguments.of("IN 列表是范围", "SELECT * FROM PUBLIC.A /* PUBLIC.IDX_A: ID IN(1, 2) */",
+						List.of("1|SIMPLE|A|range|IDX_A|null|null")),
+				Arguments.of("没有表", "SELECT\n    1", List.of("1|SIMPLE|null|null|null|null|No tables used")));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("plans")
+	void parse(String name, String plan, List<String> expected) throws SQLException {
+		List<SqlAnalysisResult> rows = dialect.parse(planResult(plan)).getResultList();
+
+		assertEquals(expected, rows.stream().map(H2ExplainDialectTest::describe).toList());
+	}
+
+	static ResultSet planResult(String plan) throws SQLException {
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.next()).thenReturn(true, false);
+		when(rs.getString(1)).thenReturn(plan);
+		return rs;
+	}
+
+	static String describe(SqlAnalysisResult row) {
+		return String.join("|", String.valueOf(row.getId()), row.getSelectType(), row.getTable(), row.getType(),
+				row.getKey(), row.getRows(), row.getExtra());
+	}
+
+}
@@ -0,0 +1,79 @@
+package com.itjing.sql.explain.dialect;
+
+import com.jd.sql.analysis.analysis.SqlAnalysisResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * PostgreSQL JSON 执行计划解析测试，每行期望结果为 id|select_type|table|type|key|rows|Extra
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+class PostgreSqlExplainDialectTest {
+
+	private final PostgreSqlExplainDialect dialect = new PostgreSqlExplainDialect();
+
+	static Stream<Arguments> plans() {
+		return Stream.of(Arguments.of("排序落到子树中的全表扫描", """
+				[{"Plan": {"Node Type": "Sort", "Plan Rows": 10, "Sort Key": ["name"], "Plans": [
+				  {"Node Type": "Seq Scan", "Parent Relationship": "Outer", "Relation Name": "t_user",
+				   "Alias": "u", "Plan Rows": 10, "Filter": "(status = 1)"}]}}]""",
+				List.of("1|SIMPLE|u|ALL|null|10|Using where; Using filesort")),
+				Arguments.of("嵌套循环：位图等值扫描和只读索引扫描", """
+						[{"Plan": {"Node Type": "Nested Loop", "Plan Rows": 50, "Plans": [
+						  {"Node Type": "Bitmap Heap Scan", "Parent Relationship": "Outer",
+						   "Relation Name": "t_user", "Alias": "u", "Plan Rows": 20, "Recheck Cond": "(status = 1)",
+						   "Plans": [{"Node Type": "Bitmap Index Scan", "Parent Relationship": "Outer",
+						     "Index Name": "idx_status", "Index Cond": "(status = 1)"}]},
+						  {"Node Type": "Index Only Scan", "Parent Relationship": "Inner", "Relation Name": "t_order",
+						   "Alias": "o", "Index Name": "idx_user_id", "Plan Rows": 3,
+						   "Index Cond": "(user_id = u.id)"}]}}]""",
+						List.of("1|SIMPLE|u|ref|idx_status|20|null", "1|SIMPLE|o|ref|idx_user_id|3|Using index")),
+				Arguments.of("Hash 聚合、SubPlan、InitPlan 和 BitmapOr", """
+						[{"Plan": {"Node Type": "Aggregate", "Strategy": "Hashed", "Plan Rows": 5, "Plans": [
+						  {"Node Type": "Index Scan", "Parent Relationship": "Outer", "Relation Name": "t_order",
+						   "Alias": "t_order", "Index Name": "t_order_pkey", "Plan Rows": 100,
+						   "Index Cond": "(id > 10)", "Filter": "(SubPlan 1)"},
+						  {"Node Type": "Seq Scan", "Parent Relationship": "SubPlan", "Subplan Name": "SubPlan 1",
+						   "Relation Name": "t_user", "Alias": "t_user", "Plan Rows": 1000},
+						  {"Node Type": "Limit", "Parent Relationship": "InitPlan", "Plans": [
+						    {"Node Type": "Bitmap Heap Scan", "Parent Relationship": "Outer", "Relation Name": "t_x",
+						     "Alias": "x", "Plan Rows": 7, "Recheck Cond": "((a = 1) OR (b < 2))", "Plans": [
+						      {"Node Type": "BitmapOr", "Plans": [
+						        {"Node Type": "Bitmap Index Scan", "Index Name": "idx_a"},
+						        {"Node Type": "Bitmap Index Scan", "Index Name": "idx_b"}]}]}]}]}}]""",
+						List.of("1|PRIMARY|t_order|range|t_order_pkey|100|Using where; Using temporary",
+								"2|DEPENDENT SUBQUERY|t_user|ALL|null|1000|null",
+								"3|SUBQUERY|x|index_merge|idx_a,idx_b|7|null")),
+				Arguments.of("没有表", """
+						[{"Plan": {"Node Type": "Result", "Plan Rows": 1}}]""",
+						List.of("1|SIMPLE|null|null|null|null|No tables used")));
+	}
+
+	@ParameterizedTest(name = "{0}")
+	@MethodSource("plans")
+	void parse(String name, String plan, List<String> expected) throws SQLException {
+		List<SqlAnalysisResult> rows = dialect.parse(H2ExplainDialectTest.planResult(plan)).getResultList();
+
+		assertEquals(expected, rows.stream().map(H2ExplainDialectTest::describe).toList());
+	}
+
+	@Test
+	void rejectsInvalidJson() throws SQLException {
+		ResultSet rs = H2ExplainDialectTest.planResult("{oops");
+
+		assertThrows(SQLException.class, () -> dialect.parse(rs));
+	}
+
+}
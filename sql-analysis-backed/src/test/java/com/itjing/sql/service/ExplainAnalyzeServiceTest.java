@@ -0,0 +1,160 @@
+package com.itjing.sql.service;
+
+import com.itjing.sql.exception.BusinessException;
+import com.itjing.sql.explain.AnalyzePlan;
+import com.itjing.sql.service.AnalysisTaskRegistry.AnalysisTask;
+import com.jd.sql.analysis.analysis.SqlAnalysisResult;
+import com.jd.sql.analysis.analysis.SqlAnalysisResultList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * EXPLAIN ANALYZE 服务测试：执行前的拒绝规则和执行后的连接恢复
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+class ExplainAnalyzeServiceTest {
+
+	private static final String SQL = "select * from t where id = 1";
+
+	private static final String PLAN = "-> Table scan on t  (cost=0.35 rows=1) "
+			+ "(actual time=0.010..0.020 rows=1 loops=1)";
+
+	private final ExplainAnalyzeService service = new ExplainAnalyzeService();
+
+	private Connection conn;
+
+	private Statement stmt;
+
+	private ResultSet explainResult;
+
+	@BeforeEach
+	void setUp() throws SQLException {
+		ReflectionTestUtils.setField(service, "enabled", true);
+		ReflectionTestUtils.setField(service, "timeout", 5000L);
+		ReflectionTestUtils.setField(service, "maxEstimatedRows", 1000000L);
+		ReflectionTestUtils.setField(service, "rowsGapThreshold", 10D);
+		conn = mock(Connection.class);
+		stmt = mock(Statement.class);
+		DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+		when(metaData.getDatabaseProductName()).thenReturn("MySQL");
+		when(metaData.getDatabaseProductVersion()).thenReturn("8.0.32");
+		when(conn.getMetaData()).thenReturn(metaData);
+		when(conn.createStatement()).thenReturn(stmt);
+		ResultSet sessionTimeout = mock(ResultSet.class);
+		when(sessionTimeout.next()).thenReturn(true);
+		when(sessionTimeout.getLong(1)).thenReturn(0L);
+		when(stmt.executeQuery("SELECT @@SESSION.MAX_EXECUTION_TIME")).thenReturn(sessionTimeout);
+		explainResult = mock(ResultSet.class);
+		when(explainResult.next()).thenReturn(true);
+		when(explainResult.getString(1)).thenReturn(PLAN);
+		when(stmt.executeQuery("EXPLAIN ANALYZE " + SQL)).thenReturn(explainResult);
+	}
+
+	@Test
+	void rejectsLockingReadInSubquery() throws SQLException {
+		assertThrows(BusinessException.class, () -> service.analyze(conn, "select * from t where id in "
+				+ "(select id from u for update)", estimated(), task()));
+		verify(stmt, never()).executeQuery(anyString());
+	}
+
+	@Test
+	void rejectsNestedLoopOverRowLimit() throws SQLException {
+		// 三张表各 900 行，rows 之和只有 2700，嵌套循环实际约 7.29 亿行
+		SqlAnalysisResultList estimated = estimated(row(1L, "900"), row(1L, "900"), row(1L, "900"));
+
+		assertThrows(BusinessException.class, () -> service.analyze(conn, SQL, estimated, task()));
+		verify(stmt, never()).executeQuery(anyString());
+	}
+
+	@Test
+	void estimatedRowsMultipliesWithinSelectAndAddsAcrossSelects() {
+		assertEquals(729000000L, ExplainAnalyzeService
+			.estimatedRows(List.of(row(1L, "900"), row(1L, "900"), row(1L, "900"))));
+		assertEquals(2000L + 300L, ExplainAnalyzeService
+			.estimatedRows(List.of(row(1L, "100"), row(1L, "20"), row(2L, "300"), row(null, null))));
+		assertEquals(100L, ExplainAnalyzeService.estimatedRows(List.of(row(1L, "100"), row(1L, "0"))));
+		assertEquals(Long.MAX_VALUE, ExplainAnalyzeService
+			.estimatedRows(List.of(row(1L, "9000000000"), row(1L, "9000000000"), row(2L, "1"))));
+	}
+
+	@Test
+	void rollsBackAndRestoresAfterSuccess() throws SQLException {
+		AnalyzePlan plan = service.analyze(conn, SQL, estimated(), task());
+
+		assertNotNull(plan);
+		verify(stmt).execute("ROLLBACK");
+		verify(stmt).execute("SET SESSION MAX_EXECUTION_TIME = 0");
+		verify(conn, never()).abort(any(Executor.class));
+	}
+
+	@Test
+	void rollbackFailureDoesNotHideAnalyzeFailure() throws SQLException {
+		SQLException analyzeFailure = new SQLException("analyze failed");
+		SQLException rollbackFailure = new SQLException("rollback failed");
+		when(stmt.executeQuery("EXPLAIN ANALYZE " + SQL)).thenThrow(analyzeFailure);
+		when(stmt.execute("ROLLBACK")).thenThrow(rollbackFailure);
+
+		SQLException thrown = assertThrows(SQLException.class, () -> service.analyze(conn, SQL, estimated(), task()));
+
+		assertSame(analyzeFailure, thrown);
+		assertEquals(1, thrown.getSuppressed().length);
+		assertSame(rollbackFailure, thrown.getSuppressed()[0]);
+		// 回滚失败后仍然恢复会话超时，并中止连接
+		verify(stmt).execute("SET SESSION MAX_EXECUTION_TIME = 0");
+		verify(conn).abort(any(Executor.class));
+	}
+
+	@Test
+	void restoreFailureAfterSuccessAbortsConnection() throws SQLException {
+		SQLException restoreFailure = new SQLException("restore failed");
+		doThrow(restoreFailure).when(stmt).execute("SET SESSION MAX_EXECUTION_TIME = 0");
+
+		SQLException thrown = assertThrows(SQLException.class, () -> service.analyze(conn, SQL, estimated(), task()));
+
+		assertSame(restoreFailure, thrown);
+		verify(stmt).execute("ROLLBACK");
+		verify(conn).abort(any(Executor.class));
+	}
+
+	private SqlAnalysisResultList estimated(SqlAnalysisResult... rows) {
+		SqlAnalysisResultList estimated = new SqlAnalysisResultList();
+		estimated.setResultList(new ArrayList<>(List.of(rows)));
+		return estimated;
+	}
+
+	private SqlAnalysisResult row(Long id, String rows) {
+		SqlAnalysisResult result = new SqlAnalysisResult();
+		result.setId(id);
+		result.setRows(rows);
+		return result;
+	}
+
+	private AnalysisTask task() {
+		return new AnalysisTask("test", "target", 60000L);
+	}
+
+}
@@ -0,0 +1,89 @@
+package com.itjing.sql.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * SQL 指纹测试，计划缓存、soar 去重和缓存、慢日志聚合以及只读检查都依赖这里的输出
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+class SqlFingerprintUtilsTest {
+
+	static Stream<Arguments> fingerprints() {
+		return Stream.of(
+				// 大小写、空白和结尾分号
+				Arguments.of("SELECT  *\n\tFROM T WHERE ID=42 ;", "select * from t where id = ?"),
+				// 引号：字符串字面量（含转义）替换为 ?，反引号标识符去掉引号
+				Arguments.of("select * from `T_User` where `Name` = 'a''b' and x = \"q\\\"z\"",
+						"select * from t_user where name = ? and x = ?"),
+				Arguments.of("select `a``b` from t", "select a`b from t"),
+				Arguments.of("select x from t where n = '-- not /* a */ comment'", "select x from t where n = ?"),
+				// 注释
+				Arguments.of("select /* c */ a -- x\n from t # y\n where b = 1", "select a from t where b = ?"),
+				Arguments.of("select a--1\nfrom t", "select a - ? from t"),
+				// 可执行注释保留内容，去掉版本号
+				Arguments.of("select /*!40001 SQL_NO_CACHE */ * from t", "select sql_no_cache * from t"),
+				Arguments.of("select /*!50000 1 */ a from t", "select ? a from t"),
+				Arguments.of("select /*!*/ a from t", "select a from t"),
+				// IN 列表和 VALUES 折叠
+				Arguments.of("select * from t where id in (1, 2, 3)", "select * from t where id in(?+)"),
+				Arguments.of("select * from t where id IN ( ? )", "select * from t where id in(?+)"),
+				Arguments.of("select * from t where id in (-1, +2)", "select * from t where id in(?+)"),
+				Arguments.of("select * from t where id in (select id from u)",
+						"select * from t where id in(select id from u)"),
+				Arguments.of("select * from t where (a, b) in ((1, 2), (3, 4), (5, 6))",
+						"select * from t where(a, b) in((?+))"),
+				Arguments.of("select * from t where (a, b) in ((7, 8))", "select * from t where(a, b) in((?+))"),
+				Arguments.of("insert into t (a, b) values (1, 'x'), (2, 'y'), (3, 'z')",
+						"insert into t(a, b) values(?+)"),
+				Arguments.of("insert into t value (1)", "insert into t value(?+)"),
+				Arguments.of("select f(1, 2) from t", "select f(?, ?) from t"),
+				// 十六进制、二进制、N 前缀和科学计数法
+				Arguments.of("select 0x1F, X'1f', 0b101, b'101', N'abc', 1.5e-3, .5, 2E10",
+						"select ?, ?, ?, ?, ?, ?, ?, ?"),
+				Arguments.of("select 1abc, 0xzz from t", "select 1abc, 0xzz from t"),
+				// 负数：运算符之后的符号属于字面量，减法保留
+				Arguments.of("select * from t where id = -1 and x > - 2.5 and y = +3",
+						"select * from t where id = ? and x > ? and y = ?"),
+				Arguments.of("select a-1, (b) - 2, c - -3 from t", "select a - ?,(b) - ?, c - ? from t"),
+				// 运算符和变量
+				Arguments.of("select a->>'$.x' from t where a <=> 1 and b != 2 or c <> 3",
+						"select a ->> ? from t where a <=> ? and b != ? or c <> ?"),
+				Arguments.of("select @@version, @v := 1", "select @@version, @v := ?"),
+				Arguments.of("select a.b, c from d.e", "select a.b, c from d.e"));
+	}
+
+	@ParameterizedTest
+	@MethodSource("fingerprints")
+	void fingerprint(String sql, String expected) {
+		assertEquals(expected, SqlFingerprintUtils.fingerprint(sql));
+	}
+
+	@Test
+	void sameShapeHasSameDigest() {
+		String first = "select * from t where id in (1, 2) and name = 'a'";
+		String second = "SELECT * FROM t WHERE id IN (3,4,5,6) AND name = \"b\" -- tail";
+
+		assertEquals(SqlFingerprintUtils.digest(first), SqlFingerprintUtils.digest(second));
+		assertEquals(SqlFingerprintUtils.digestHex(first), SqlFingerprintUtils.digestHex(second));
+		assertEquals(16, SqlFingerprintUtils.digestHex(first).length());
+		assertNotEquals(SqlFingerprintUtils.digest(first),
+				SqlFingerprintUtils.digest("select * from t where id in (1, 2) and code = 'a'"));
+	}
+
+	@Test
+	void toHexKeepsLeadingZeros() {
+		assertEquals("000000000000000f", SqlFingerprintUtils.toHex(15L));
+		assertEquals("ffffffffffffffff", SqlFingerprintUtils.toHex(-1L));
+	}
+
+}
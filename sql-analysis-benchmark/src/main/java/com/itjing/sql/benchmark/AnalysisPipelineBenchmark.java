@@ -0,0 +1,106 @@
+package com.itjing.sql.benchmark;
+
+import cn.hutool.core.io.resource.ResourceUtil;
+import com.alibaba.fastjson2.JSON;
+import com.itjing.sql.constant.ExplainMode;
+import com.itjing.sql.domain.jd.vo.SqlAnalysisResultVO;
+import com.itjing.sql.domain.jd.vo.SqlScoreVO;
+import com.itjing.sql.response.AjaxResult;
+import com.itjing.sql.score.CompiledSqlScoreService;
+import com.itjing.sql.service.JdMySqlScoreResultOutService;
+import com.itjing.sql.service.JdSqlAnalysisService;
+import com.jd.sql.analysis.analysis.SqlAnalysisResultList;
+import com.jd.sql.analysis.score.SqlScoreResult;
+import com.jd.sql.analysis.score.SqlScoreService;
+import com.jd.sql.analysis.score.SqlScoreServiceRulesEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单条 SQL 分析各环节基准测试
+ * <p>
+ * 按执行计划行数（1、10、50）分别测出 EXPLAIN 返回后每个环节的吞吐量，配合 GC 分析（BenchmarkRunner 默认开启）
+ * 得到每次操作分配的字节数，作为优化这些环节前的基线：
+ * <ul>
+ * <li>parseExplainResult：按 MySQL 方言解析 EXPLAIN 结果集（每个结果集只按列名查找一次下标），
+ * 结果集是内存中的替身，不包含驱动的解码开销</li>
+ * <li>jdEngineScore / compiledEngineScore：京东规则引擎和编译型规则引擎评分</li>
+ * <li>outResult：评分结果格式化为文本</li>
+ * <li>serializeResponse：fastjson2 序列化接口默认返回的 AjaxResult（结构化评分结果，不含文本报告）</li>
+ * </ul>
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class AnalysisPipelineBenchmark {
+
+	@Param({ "1", "10", "50" })
+	private int planSize;
+
+	private ExplainResultSet explainResultSet;
+
+	private JdSqlAnalysisService jdSqlAnalysisService;
+
+	private SqlAnalysisResultList plan;
+
+	private SqlScoreService jdEngine;
+
+	private SqlScoreService compiledEngine;
+
+	private SqlScoreResult score;
+
+	private JdMySqlScoreResultOutService outService;
+
+	private AjaxResult<?> response;
+
+	@Setup
+	public void setup() {
+		plan = ExplainPlans.plan(planSize);
+		explainResultSet = new ExplainResultSet(plan);
+		// 解析方法不依赖注入的字段
+		jdSqlAnalysisService = new JdSqlAnalysisService();
+		jdEngine = new SqlScoreServiceRulesEngine();
+		compiledEngine = CompiledSqlScoreService
+			.load(ResourceUtil.readStr("sql-analysis-rule-config.properties", StandardCharsets.UTF_8));
+		score = jdEngine.score(plan);
+		score.setSqlId("1");
+		outService = new JdMySqlScoreResultOutService();
+		response = AjaxResult.success(new SqlAnalysisResultVO("a1b2c3d4", "9f86d081884c7d65", ExplainMode.TRADITIONAL,
+				plan.getResultList(), null, null, null, SqlScoreVO.of(score), null, "v1", null, false));
+	}
+
+	@Benchmark
+	public SqlAnalysisResultList parseExplainResult() throws SQLException {
+		return jdSqlAnalysisService.parseExplainResult(explainResultSet.rewind());
+	}
+
+	@Benchmark
+	public SqlScoreResult jdEngineScore() {
+		return jdEngine.score(plan);
+	}
+
+	@Benchmark
+	public SqlScoreResult compiledEngineScore() {
+		return compiledEngine.score(plan);
+	}
+
+	@Benchmark
+	public String outResult() {
+		return outService.outResult(score);
+	}
+
+	@Benchmark
+	public byte[] serializeResponse() {
+		return JSON.toJSONBytes(response);
+	}
+
+}
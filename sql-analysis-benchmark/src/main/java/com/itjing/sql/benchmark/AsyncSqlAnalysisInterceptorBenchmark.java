@@ -0,0 +1,130 @@
+package com.itjing.sql.benchmark;
+
+import com.itjing.sql.interceptor.AsyncSqlAnalysisInterceptor;
+import com.itjing.sql.interceptor.SqlCaptureQueue;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 异步 SQL 分析拦截器基准测试
+ * <p>
+ * 4 个线程并发执行同一条带两个参数的查询，被拦截的 Executor 直接返回空列表，测出的是拦截器本身给业务 SQL 增加的耗时：
+ * <ul>
+ * <li>DIRECT：不经过拦截器，作为基准</li>
+ * <li>SAMPLED：默认配置，采样比例 10%，同一个 sqlId 60 秒采集一次，绝大多数执行在采样判断后直接放行</li>
+ * <li>CAPTURE_ALL：采样比例 100%、不限制 sqlId，每次都解析参数并入队，后台线程持续取出丢弃</li>
+ * <li>QUEUE_FULL：同 CAPTURE_ALL，但没有后台线程，队列一直是满的，每次在解析参数前就丢弃</li>
+ * </ul>
+ * 同步模式的 SqlAnalysisAspect 每次执行都要在业务线程中 EXPLAIN 一次，需要真实数据库，不在这里对比。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class AsyncSqlAnalysisInterceptorBenchmark {
+
+	private static final Method QUERY = queryMethod();
+
+	@Param({ "DIRECT", "SAMPLED", "CAPTURE_ALL", "QUEUE_FULL" })
+	private String mode;
+
+	private AsyncSqlAnalysisInterceptor interceptor;
+
+	private Executor executor;
+
+	private Object[] args;
+
+	private volatile boolean draining;
+
+	private Thread drainer;
+
+	@Setup
+	public void setup() {
+		Configuration configuration = new Configuration();
+		List<ParameterMapping> mappings = List.of(
+				new ParameterMapping.Builder(configuration, "id", Long.class).build(),
+				new ParameterMapping.Builder(configuration, "status", String.class).build());
+		MappedStatement ms = new MappedStatement.Builder(configuration, "com.itjing.mapper.OrderMapper.selectByStatus",
+				new StaticSqlSource(configuration, "select * from t_order where id = ? and status = ?", mappings),
+				SqlCommandType.SELECT)
+			.build();
+		Map<String, Object> parameter = new HashMap<>();
+		parameter.put("id", 42L);
+		parameter.put("status", "PAID");
+		args = new Object[] { ms, parameter, RowBounds.DEFAULT, null };
+		executor = (Executor) Proxy.newProxyInstance(Executor.class.getClassLoader(), new Class[] { Executor.class },
+				(proxy, method, methodArgs) -> Collections.emptyList());
+
+		Set<SqlCommandType> types = EnumSet.of(SqlCommandType.SELECT, SqlCommandType.UPDATE, SqlCommandType.DELETE);
+		SqlCaptureQueue queue = new SqlCaptureQueue(1024);
+		interceptor = switch (mode) {
+			case "DIRECT" -> null;
+			case "SAMPLED" -> new AsyncSqlAnalysisInterceptor(queue, true, 0.1D, 60000L, types, Set.of());
+			case "CAPTURE_ALL", "QUEUE_FULL" -> new AsyncSqlAnalysisInterceptor(queue, true, 1D, 0L, types, Set.of());
+			default -> throw new IllegalArgumentException(mode);
+		};
+		if ("CAPTURE_ALL".equals(mode)) {
+			draining = true;
+			drainer = new Thread(() -> {
+				while (draining) {
+					if (queue.poll() == null) {
+						LockSupport.parkNanos(1000L);
+					}
+				}
+			});
+			drainer.setDaemon(true);
+			drainer.start();
+		}
+	}
+
+	@TearDown
+	public void tearDown() throws InterruptedException {
+		draining = false;
+		if (drainer != null) {
+			drainer.join();
+		}
+	}
+
+	@Benchmark
+	public void query(Blackhole blackhole) throws Throwable {
+		Invocation invocation = new Invocation(executor, QUERY, args);
+		blackhole.consume(interceptor == null ? invocation.proceed() : interceptor.intercept(invocation));
+	}
+
+	private static Method queryMethod() {
+		try {
+			return Executor.class.getMethod("query", MappedStatement.class, Object.class, RowBounds.class,
+					ResultHandler.class);
+		}
+		catch (NoSuchMethodException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+}
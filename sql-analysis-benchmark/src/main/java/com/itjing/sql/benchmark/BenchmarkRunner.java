@@ -0,0 +1,26 @@
+package com.itjing.sql.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试入口
+ * <p>
+ * 默认运行全部基准测试并开启 GC 分析（输出每次操作分配的字节数），可以传入正则只运行部分基准测试，例如：
+ * {@code java -jar target/benchmarks.jar SqlFingerprint}
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException {
+		String include = args.length > 0 ? args[0] : ".*Benchmark.*";
+		Options options = new OptionsBuilder().include(include).addProfiler(GCProfiler.class).build();
+		new Runner(options).run();
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.itjing.sql.benchmark;
+
+import cn.hutool.core.io.resource.ResourceUtil;
+import com.itjing.sql.score.CompiledSqlScoreService;
+import com.jd.sql.analysis.analysis.SqlAnalysisResultList;
+import com.jd.sql.analysis.score.SqlScoreResult;
+import com.jd.sql.analysis.score.SqlScoreService;
+import com.jd.sql.analysis.score.SqlScoreServiceRulesEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 编译型规则引擎基准测试
+ * <p>
+ * 同一份规则文件，对比京东 sql-analysis 规则引擎（解释执行条件表达式）和编译型规则引擎在多表关联执行计划上的评分耗时，
+ * 两个引擎都预先加载。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompiledSqlScoreBenchmark {
+
+	@Param({ "3", "8", "20" })
+	private int planSize;
+
+	private SqlAnalysisResultList plan;
+
+	private SqlScoreService jdEngine;
+
+	private SqlScoreService compiledEngine;
+
+	@Setup
+	public void setup() {
+		plan = ExplainPlans.plan(planSize);
+		jdEngine = new SqlScoreServiceRulesEngine();
+		compiledEngine = CompiledSqlScoreService
+			.load(ResourceUtil.readStr("sql-analysis-rule-config.properties", StandardCharsets.UTF_8));
+	}
+
+	@Benchmark
+	public SqlScoreResult jdEngine() {
+		return jdEngine.score(plan);
+	}
+
+	@Benchmark
+	public SqlScoreResult compiledEngine() {
+		return compiledEngine.score(plan);
+	}
+
+}
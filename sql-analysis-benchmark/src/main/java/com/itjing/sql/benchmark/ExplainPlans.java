@@ -0,0 +1,60 @@
+package com.itjing.sql.benchmark;
+
+import com.jd.sql.analysis.analysis.SqlAnalysisResult;
+import com.jd.sql.analysis.analysis.SqlAnalysisResultList;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试用的执行计划
+ * <p>
+ * 按多表关联的常见形态生成执行计划：驱动表全表扫描或范围扫描，被驱动表走主键或普通索引，
+ * 夹杂 filesort、临时表、低过滤率等需要扣分的情况。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public final class ExplainPlans {
+
+	private static final String[] TYPES = { "ALL", "ref", "eq_ref", "range", "index", "const", "ref", "eq_ref" };
+
+	private static final String[] EXTRAS = { "Using where; Using temporary; Using filesort", "Using index",
+			"Using where", null, "Using index condition", "Using where; Using join buffer (hash join)", null,
+			"Using filesort" };
+
+	private static final long[] ROWS = { 120000, 1, 35, 8200, 640, 1, 52000, 12 };
+
+	private static final double[] FILTERED = { 10.0, 100.0, 33.33, 100.0, 50.0, 100.0, 11.11, 100.0 };
+
+	private ExplainPlans() {
+		throw new IllegalStateException("Utility class");
+	}
+
+	/**
+	 * 生成指定行数的执行计划
+	 * @param size 行数（关联表个数）
+	 * @return {@link SqlAnalysisResultList }
+	 */
+	public static SqlAnalysisResultList plan(int size) {
+		List<SqlAnalysisResult> rows = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			int k = i % TYPES.length;
+			SqlAnalysisResult row = new SqlAnalysisResult();
+			row.setId(i < 2 ? 1L : i / 2);
+			row.setSelectType(i == 0 ? "PRIMARY" : (i % 5 == 0 ? "SUBQUERY" : "SIMPLE"));
+			row.setTable("t" + i);
+			row.setType(TYPES[k]);
+			row.setPossibleKeys("ALL".equals(TYPES[k]) ? null : "PRIMARY,idx_t" + i + "_a");
+			row.setKey("ALL".equals(TYPES[k]) ? null : (k % 2 == 0 ? "PRIMARY" : "idx_t" + i + "_a"));
+			row.setRows(String.valueOf(ROWS[k]));
+			row.setFiltered(FILTERED[k]);
+			row.setExtra(EXTRAS[k]);
+			rows.add(row);
+		}
+		SqlAnalysisResultList resultList = new SqlAnalysisResultList();
+		resultList.setResultList(rows);
+		return resultList;
+	}
+
+}
@@ -0,0 +1,116 @@
+package com.itjing.sql.benchmark;
+
+import com.jd.sql.analysis.analysis.SqlAnalysisResult;
+import com.jd.sql.analysis.analysis.SqlAnalysisResultList;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 内存中的 EXPLAIN 结果集替身
+ * <p>
+ * 用动态代理实现 {@link ResultSet}，只支持 next、列名元数据和按列名或下标取值。按列名取值时和驱动一样先查列名再按下标读取，
+ * 值预先按取值方法需要的类型装箱，替身本身不分配对象（动态代理的参数数组除外）；每次解析前调用 {@link #rewind()}。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+public final class ExplainResultSet implements InvocationHandler {
+
+	private static final String[] COLUMNS = { "id", "select_type", "table", "partitions", "type", "possible_keys",
+			"key", "key_len", "ref", "rows", "filtered", "Extra" };
+
+	private final Map<String, Integer> columnIndex = new HashMap<>();
+
+	private final Object[][] rows;
+
+	private final ResultSet resultSet;
+
+	private final ResultSetMetaData metaData;
+
+	private int cursor = -1;
+
+	private boolean wasNull;
+
+	/**
+	 * @param plan 执行计划，每一行对应结果集的一行
+	 */
+	public ExplainResultSet(SqlAnalysisResultList plan) {
+		for (int i = 0; i < COLUMNS.length; i++) {
+			columnIndex.put(COLUMNS[i], i);
+		}
+		List<SqlAnalysisResult> results = plan.getResultList();
+		rows = new Object[results.size()][];
+		for (int i = 0; i < rows.length; i++) {
+			SqlAnalysisResult row = results.get(i);
+			rows[i] = new Object[] { row.getId(), row.getSelectType(), row.getTable(), null, row.getType(),
+					row.getPossibleKeys(), row.getKey(), row.getKey() == null ? null : "8", null, row.getRows(),
+					row.getFiltered(), row.getExtra() };
+		}
+		resultSet = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+				new Class<?>[] { ResultSet.class }, this);
+		metaData = (ResultSetMetaData) Proxy.newProxyInstance(ResultSetMetaData.class.getClassLoader(),
+				new Class<?>[] { ResultSetMetaData.class }, (proxy, method, args) -> switch (method.getName()) {
+					case "getColumnCount" -> COLUMNS.length;
+					case "getColumnLabel", "getColumnName" -> COLUMNS[(Integer) args[0] - 1];
+					default -> throw new SQLException("不支持的方法：" + method.getName());
+				});
+	}
+
+	/**
+	 * 回到第一行之前
+	 * @return {@link ResultSet }
+	 */
+	public ResultSet rewind() {
+		cursor = -1;
+		return resultSet;
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+		switch (method.getName()) {
+			case "next":
+				return ++cursor < rows.length;
+			case "wasNull":
+				return wasNull;
+			case "close":
+				return null;
+			case "getMetaData":
+				return metaData;
+			case "getString":
+			case "getObject":
+				return value(args[0]);
+			case "getLong":
+				return defaultIfNull(value(args[0]), 0L);
+			case "getDouble":
+				return defaultIfNull(value(args[0]), 0D);
+			default:
+				throw new SQLException("不支持的方法：" + method.getName());
+		}
+	}
+
+	private Object value(Object column) throws SQLException {
+		if (cursor < 0 || cursor >= rows.length) {
+			throw new SQLException("没有当前行");
+		}
+		Integer index = column instanceof Integer i ? Integer.valueOf(i - 1) : columnIndex.get(column);
+		if (index == null) {
+			throw new SQLException("列不存在：" + column);
+		}
+		Object value = rows[cursor][index];
+		wasNull = value == null;
+		return value;
+	}
+
+	private static Object defaultIfNull(Object value, Object defaultValue) {
+		return value == null ? defaultValue : value;
+	}
+
+}
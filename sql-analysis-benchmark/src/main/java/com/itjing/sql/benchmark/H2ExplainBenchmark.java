@@ -0,0 +1,77 @@
+package com.itjing.sql.benchmark;
+
+import com.itjing.sql.explain.dialect.ExplainDialect;
+import com.itjing.sql.explain.dialect.H2ExplainDialect;
+import com.jd.sql.analysis.analysis.SqlAnalysisResultList;
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 嵌入式 H2 上的 EXPLAIN 基准测试
+ * <p>
+ * 在内存库中建两张带索引的表，经过真实的驱动执行 EXPLAIN 并按 H2 方言解析，包含驱动的执行和解码开销，
+ * 不需要外部数据库。覆盖单表索引查询、关联查询和带子查询的查询。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class H2ExplainBenchmark {
+
+	@Param({ "SINGLE", "JOIN", "SUBQUERY" })
+	private String shape;
+
+	private final ExplainDialect dialect = new H2ExplainDialect();
+
+	private Connection connection;
+
+	private Statement statement;
+
+	private String explainSql;
+
+	@Setup
+	public void setup() throws SQLException {
+		connection = DriverManager.getConnection("jdbc:h2:mem:explain_benchmark", "sa", "");
+		try (Statement ddl = connection.createStatement()) {
+			ddl.execute("CREATE TABLE IF NOT EXISTS t_user (id BIGINT PRIMARY KEY, name VARCHAR(64), status INT)");
+			ddl.execute(
+					"CREATE TABLE IF NOT EXISTS t_order (id BIGINT PRIMARY KEY, user_id BIGINT, amount DECIMAL(10, 2))");
+			ddl.execute("CREATE INDEX IF NOT EXISTS idx_status ON t_user (status)");
+			ddl.execute("CREATE INDEX IF NOT EXISTS idx_user_id ON t_order (user_id)");
+		}
+		String sql = switch (shape) {
+			case "SINGLE" -> "SELECT id, name FROM t_user WHERE status = 1";
+			case "JOIN" -> "SELECT u.name, o.amount FROM t_user u JOIN t_order o ON o.user_id = u.id WHERE u.status = 1";
+			case "SUBQUERY" ->
+				"SELECT * FROM t_order WHERE amount > 10 AND user_id IN (SELECT id FROM t_user WHERE name = 'a')";
+			default -> throw new IllegalArgumentException(shape);
+		};
+		explainSql = dialect.explainSql(sql);
+		statement = connection.createStatement();
+	}
+
+	@TearDown
+	public void tearDown() throws SQLException {
+		statement.close();
+		connection.close();
+	}
+
+	@Benchmark
+	public SqlAnalysisResultList explain() throws SQLException {
+		try (ResultSet rs = statement.executeQuery(explainSql)) {
+			return dialect.parse(rs);
+		}
+	}
+
+}
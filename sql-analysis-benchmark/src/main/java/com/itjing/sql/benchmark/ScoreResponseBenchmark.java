@@ -0,0 +1,71 @@
+package com.itjing.sql.benchmark;
+
+import com.alibaba.fastjson2.JSON;
+import com.itjing.sql.constant.ExplainMode;
+import com.itjing.sql.domain.jd.vo.SqlAnalysisResultVO;
+import com.itjing.sql.domain.jd.vo.SqlScoreVO;
+import com.itjing.sql.response.AjaxResult;
+import com.itjing.sql.service.JdMySqlScoreResultOutService;
+import com.jd.sql.analysis.analysis.SqlAnalysisResultList;
+import com.jd.sql.analysis.score.SqlScoreResult;
+import com.jd.sql.analysis.score.SqlScoreServiceRulesEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 评分结果响应基准测试
+ * <p>
+ * 从评分结果到序列化后的响应字节，对比两种返回方式每次请求的耗时和分配的字节数（GC 分析）：
+ * <ul>
+ * <li>textReport：改造前，评分结果渲染为文本报告放在响应中</li>
+ * <li>typedScore：改造后的默认方式，评分结果转换为结构化的 SqlScoreVO 直接序列化</li>
+ * </ul>
+ * 两种方式的响应大小在初始化时输出。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ScoreResponseBenchmark {
+
+	@Param({ "1", "10", "50" })
+	private int planSize;
+
+	private SqlAnalysisResultList plan;
+
+	private SqlScoreResult score;
+
+	private JdMySqlScoreResultOutService outService;
+
+	@Setup
+	public void setup() {
+		plan = ExplainPlans.plan(planSize);
+		score = new SqlScoreServiceRulesEngine().score(plan);
+		score.setSqlId("1");
+		outService = new JdMySqlScoreResultOutService();
+		System.out.printf("%n响应大小（planSize=%d）：textReport %d 字节，typedScore %d 字节%n", planSize,
+				textReport().length, typedScore().length);
+	}
+
+	@Benchmark
+	public byte[] textReport() {
+		return JSON.toJSONBytes(AjaxResult.success(response(null, outService.outResult(score))));
+	}
+
+	@Benchmark
+	public byte[] typedScore() {
+		return JSON.toJSONBytes(AjaxResult.success(response(SqlScoreVO.of(score), null)));
+	}
+
+	private SqlAnalysisResultVO response(SqlScoreVO scoreVO, String scoreResult) {
+		return new SqlAnalysisResultVO("a1b2c3d4", "9f86d081884c7d65", ExplainMode.TRADITIONAL, plan.getResultList(),
+				null, null, null, scoreVO, scoreResult, "v1", null, false);
+	}
+
+}
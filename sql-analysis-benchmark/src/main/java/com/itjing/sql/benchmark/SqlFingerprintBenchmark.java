@@ -0,0 +1,51 @@
+package com.itjing.sql.benchmark;
+
+import com.itjing.sql.util.SqlFingerprintUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL 指纹基准测试
+ * <p>
+ * 覆盖短查询、带 IN 列表和注释的查询、多行 VALUES 插入，分别测试只计算摘要和生成指纹文本。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SqlFingerprintBenchmark {
+
+	@Param({ "SHORT", "IN_LIST", "INSERT" })
+	private String shape;
+
+	private String sql;
+
+	@Setup
+	public void setup() {
+		sql = switch (shape) {
+			case "SHORT" -> "SELECT * FROM t_user WHERE id = 42";
+			case "IN_LIST" -> "/* list */ select a.id, a.name, b.amount from `t_user` a join t_order b on a.id = b.user_id "
+					+ "where a.status in (1, 2, 3, 4, 5) and b.remark = 'it''s' -- tail\n and b.created_at >= '2026-01-01'";
+			case "INSERT" -> "insert into t_order(user_id, amount, remark) values (1, 9.5, 'a'), (2, 10.25, 'b'), "
+					+ "(3, 0x1F, \"c\"), (4, -1e3, null)";
+			default -> throw new IllegalArgumentException(shape);
+		};
+	}
+
+	@Benchmark
+	public long digest() {
+		return SqlFingerprintUtils.digest(sql);
+	}
+
+	@Benchmark
+	public String fingerprint() {
+		return SqlFingerprintUtils.fingerprint(sql);
+	}
+
+}
@@ -0,0 +1,58 @@
+package com.itjing.sql.benchmark;
+
+import com.jd.sql.analysis.analysis.SqlAnalysisResultList;
+import com.jd.sql.analysis.score.SqlScoreResult;
+import com.jd.sql.analysis.score.SqlScoreService;
+import com.jd.sql.analysis.score.SqlScoreServiceRulesEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 评分规则引擎基准测试
+ * <p>
+ * 对比每次请求新建规则引擎（重新读取并编译规则文件）和共享预先加载的规则引擎时，单次评分的耗时，
+ * 4 个线程同时评分模拟并发请求。
+ *
+ * @author lijing
+ * @date 2026-10-18
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class SqlScoreEngineBenchmark {
+
+	@Param({ "1", "3", "10" })
+	private int planSize;
+
+	private SqlAnalysisResultList plan;
+
+	private SqlScoreService sharedEngine;
+
+	@Setup
+	public void setup() {
+		plan = ExplainPlans.plan(planSize);
+		sharedEngine = new SqlScoreServiceRulesEngine();
+	}
+
+	/**
+	 * 改造前：每次请求新建规则引擎
+	 */
+	@Benchmark
+	public SqlScoreResult perRequestEngine() {
+		return new SqlScoreServiceRulesEngine().score(plan);
+	}
+
+	/**
+	 * 改造后：共享规则引擎，只执行规则匹配
+	 */
+	@Benchmark
+	public SqlScoreResult sharedEngine() {
+		return sharedEngine.score(plan);
+	}
+
+}
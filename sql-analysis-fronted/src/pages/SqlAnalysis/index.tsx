@@ -132,7 +132,8 @@ const SqlAnalysis: React.FC = () => {
     setAnalyzeLoading(true);
     try {
       saveSqlValue(values.sql);
-      const res = await analyzeSqlUsingPost(values);
+      // 页面展示文本报告，需要后端额外生成
+      const res = await analyzeSqlUsingPost({ ...values, textReport: true });
       if (res.code === 200) {
         message.success('分析成功');
         setAnalysisResult(res.data.scoreResult);
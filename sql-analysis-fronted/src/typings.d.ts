@@ -74,6 +74,20 @@ declare namespace API {
     username: string;
     password: string;
     sql: string;
+    /** 是否同时返回评分结果的文本报告，默认只返回结构化的 score */
+    textReport?: boolean;
+  };
+
+  type SqlScoreRuleHit = {
+    reason: string;
+    suggestion: string;
+    scoreDeduction: number;
+  };
+
+  type SqlScore = {
+    score: number;
+    needWarn: boolean;
+    hitRules: SqlScoreRuleHit[];
   };
 
   type SqlAnalysisResult = {
@@ -81,6 +95,8 @@ declare namespace API {
     suggestions: string[];
     estimatedCost: number;
     indexRecommendations: string[];
+    score?: SqlScore;
+    scoreResult?: string;
   };
 
   type BaseResponseSqlAnalysisResult_ = {